@@ -24,14 +24,21 @@ import com.hazelcast.core.*;
 import com.hazelcast.impl.CMap.CMapEntry;
 import com.hazelcast.impl.ClusterOperation;
 import com.hazelcast.impl.Keys;
+import com.hazelcast.impl.QueryResultIterator;
 import com.hazelcast.impl.base.KeyValue;
 import com.hazelcast.impl.base.Pairs;
+import com.hazelcast.impl.concurrentmap.AggregationCallable;
+import com.hazelcast.impl.concurrentmap.EntryProcessorCallable;
 import com.hazelcast.monitor.LocalMapStats;
+import com.hazelcast.nio.Data;
+import com.hazelcast.query.Aggregator;
 import com.hazelcast.query.Expression;
+import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.util.DistributedTimeoutException;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -82,7 +89,16 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
     }
 
     public void addEntryListener(EntryListener<K, V> listener, boolean includeValue) {
-        addEntryListener(listener, null, includeValue);
+        addEntryListener(listener, (K) null, includeValue);
+    }
+
+    public void addEntryListener(EntryListener<K, V> listener, Predicate<K, V> predicate, boolean includeValue) {
+        check(listener);
+        if (predicate == null) {
+            addEntryListener(listener, includeValue);
+        } else {
+            addEntryListener(new PredicateEntryListener<K, V>(listener, predicate, includeValue), true);
+        }
     }
 
     public void addEntryListener(EntryListener<K, V> listener, K key, boolean includeValue) {
@@ -117,7 +133,10 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
     }
 
     public Set<java.util.Map.Entry<K, V>> entrySet(Predicate predicate) {
-        final Collection collection = proxyHelper.entries(predicate);
+        Collection collection = proxyHelper.entries(predicate);
+        if (predicate instanceof PagingPredicate) {
+            collection = ((PagingPredicate) predicate).sortPage(collection);
+        }
         return new LightEntrySetSet<K, V>(collection, this, getInstanceType());
     }
 
@@ -140,6 +159,13 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
     }
 
     public Set<K> keySet(Predicate predicate) {
+        if (predicate instanceof PagingPredicate) {
+            final Set<K> keys = new LinkedHashSet<K>();
+            for (Entry<K, V> entry : entrySet(predicate)) {
+                keys.add(entry.getKey());
+            }
+            return new LightKeySet<K>(this, keys);
+        }
         final Collection<K> collection = proxyHelper.keys(predicate);
         return new LightKeySet<K>(this, new HashSet<K>(collection));
     }
@@ -203,6 +229,24 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
         return new ValueCollection<K, V>(this, set);
     }
 
+    public CloseableIterator<K> keyIterator(Predicate predicate, int fetchSize) {
+        return iterate(ClusterOperation.CONCURRENT_MAP_ITERATE_KEYS, predicate, fetchSize);
+    }
+
+    public CloseableIterator<Entry<K, V>> entryIterator(Predicate predicate, int fetchSize) {
+        return iterate(ClusterOperation.CONCURRENT_MAP_ITERATE_ENTRIES, predicate, fetchSize);
+    }
+
+    public CloseableIterator<V> valueIterator(Predicate predicate, int fetchSize) {
+        return iterate(ClusterOperation.CONCURRENT_MAP_ITERATE_VALUES, predicate, fetchSize);
+    }
+
+    private <E> CloseableIterator<E> iterate(ClusterOperation operation, Predicate predicate, int fetchSize) {
+        final HazelcastClient client = proxyHelper.getHazelcastClient();
+        return new QueryResultIterator<E>(client.getExecutorService(), client.getCluster().getMembers(), null,
+                name, operation, predicate, fetchSize);
+    }
+
     public V putIfAbsent(K key, V value, long ttl, TimeUnit timeunit) {
         check(key);
         check(value);
@@ -295,6 +339,60 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
         throw new UnsupportedOperationException();
     }
 
+    public Object executeOnKey(K key, EntryProcessor<K, V> entryProcessor) {
+        check(key);
+        check(entryProcessor);
+        List<Data> keys = new ArrayList<Data>(1);
+        keys.add(toData(key));
+        Pairs pairs = executeOnMember(new DistributedTask<Pairs>(
+                new EntryProcessorCallable(name, toData(entryProcessor), keys), key));
+        List<KeyValue> lsKeyValues = pairs.getKeyValues();
+        return (lsKeyValues == null || lsKeyValues.isEmpty()) ? null : toObject(lsKeyValues.get(0).getValueData());
+    }
+
+    public Map<K, Object> executeOnEntries(EntryProcessor<K, V> entryProcessor) {
+        return executeOnEntries(entryProcessor, null);
+    }
+
+    public Map<K, Object> executeOnEntries(EntryProcessor<K, V> entryProcessor, Predicate predicate) {
+        check(entryProcessor);
+        Pairs pairs = executeOnMember(new DistributedTask<Pairs>(
+                new EntryProcessorCallable(name, toData(entryProcessor), toData(predicate))));
+        List<KeyValue> lsKeyValues = pairs.getKeyValues();
+        Map map = new HashMap();
+        if (lsKeyValues != null) {
+            for (KeyValue keyValue : lsKeyValues) {
+                map.put(toObject(keyValue.getKeyData()), toObject(keyValue.getValueData()));
+            }
+        }
+        return map;
+    }
+
+    public <R> R aggregate(Aggregator<K, V, R> aggregator) {
+        return aggregate(aggregator, null);
+    }
+
+    public <R> R aggregate(Aggregator<K, V, R> aggregator, Predicate predicate) {
+        check(aggregator);
+        return (R) executeOnMember(new DistributedTask<Object>(
+                new AggregationCallable(name, toData(aggregator), toData(predicate))));
+    }
+
+    private <T> T executeOnMember(DistributedTask<T> task) {
+        proxyHelper.getHazelcastClient().getExecutorService().execute(task);
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            throw new RuntimeInterruptedException(e.getMessage());
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
     public LocalMapStats getLocalMapStats() {
         throw new UnsupportedOperationException();
     }
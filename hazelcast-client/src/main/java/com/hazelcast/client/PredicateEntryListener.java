@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.EntryListener;
+import com.hazelcast.core.MapEntry;
+import com.hazelcast.query.Predicate;
+
+/**
+ * Passes the events of the entries matching the predicate to the listener.
+ * Members send all the events to the client, so the predicate is evaluated here.
+ * Equal to the listener it wraps, so it is removed together with the listener.
+ */
+class PredicateEntryListener<K, V> implements EntryListener<K, V> {
+    private final EntryListener<K, V> listener;
+    private final Predicate<K, V> predicate;
+    private final boolean includeValue;
+
+    PredicateEntryListener(EntryListener<K, V> listener, Predicate<K, V> predicate, boolean includeValue) {
+        this.listener = listener;
+        this.predicate = predicate;
+        this.includeValue = includeValue;
+    }
+
+    public void entryAdded(EntryEvent<K, V> event) {
+        if (matches(event)) {
+            listener.entryAdded(filterValue(event));
+        }
+    }
+
+    public void entryRemoved(EntryEvent<K, V> event) {
+        if (matches(event)) {
+            listener.entryRemoved(filterValue(event));
+        }
+    }
+
+    public void entryUpdated(EntryEvent<K, V> event) {
+        if (matches(event)) {
+            listener.entryUpdated(filterValue(event));
+        }
+    }
+
+    public void entryEvicted(EntryEvent<K, V> event) {
+        if (matches(event)) {
+            listener.entryEvicted(filterValue(event));
+        }
+    }
+
+    private boolean matches(EntryEvent<K, V> event) {
+        return matches(event.getKey(), event.getValue()) || matches(event.getKey(), event.getOldValue());
+    }
+
+    private boolean matches(K key, V value) {
+        return value != null && predicate.apply(new EventEntry<K, V>(key, value));
+    }
+
+    private EntryEvent<K, V> filterValue(EntryEvent<K, V> event) {
+        if (includeValue) {
+            return event;
+        }
+        return new EntryEvent<K, V>(event.getSource(), event.getMember(), event.getEventType().getType(),
+                event.getKey(), null);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof PredicateEntryListener) {
+            return listener.equals(((PredicateEntryListener) o).listener);
+        }
+        return listener.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return listener.hashCode();
+    }
+
+    private static class EventEntry<K, V> implements MapEntry<K, V> {
+        private final K key;
+        private final V value;
+
+        EventEntry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        public long getCost() {
+            return 0;
+        }
+
+        public long getCreationTime() {
+            return 0;
+        }
+
+        public long getExpirationTime() {
+            return Long.MAX_VALUE;
+        }
+
+        public int getHits() {
+            return 0;
+        }
+
+        public long getLastAccessTime() {
+            return 0;
+        }
+
+        public long getLastStoredTime() {
+            return 0;
+        }
+
+        public long getLastUpdateTime() {
+            return 0;
+        }
+
+        public long getVersion() {
+            return 0;
+        }
+
+        public boolean isValid() {
+            return true;
+        }
+    }
+}
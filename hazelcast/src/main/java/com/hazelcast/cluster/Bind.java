@@ -26,6 +26,7 @@ public class Bind extends Master {
 
     private Address targetAddress;
     private boolean replyBack = false;
+    private int lane = 0;
 
     public Bind() {
     }
@@ -41,8 +42,13 @@ public class Bind extends Master {
         this.replyBack = replyBack;
     }
 
+    public Bind(Address localAddress, final Address targetAddress, final boolean replyBack, final int lane) {
+        this(localAddress, targetAddress, replyBack);
+        this.lane = lane;
+    }
+
     public void process() {
-        getNode().connectionManager.bind(getConnection(), address, targetAddress, replyBack);
+        getNode().connectionManager.bind(getConnection(), address, targetAddress, replyBack, lane);
     }
 
     @Override
@@ -54,6 +60,7 @@ public class Bind extends Master {
             targetAddress.readData(in);
         }
         replyBack = in.readBoolean();
+        lane = in.readInt();
     }
 
     @Override
@@ -65,10 +72,11 @@ public class Bind extends Master {
             targetAddress.writeData(out);
         }
         out.writeBoolean(replyBack);
+        out.writeInt(lane);
     }
 
     @Override
     public String toString() {
-        return "Bind " + address;
+        return "Bind " + address + ((lane == 0) ? "" : ", lane " + lane);
     }
 }
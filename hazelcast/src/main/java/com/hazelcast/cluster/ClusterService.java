@@ -18,9 +18,11 @@ package com.hazelcast.cluster;
 
 import com.hazelcast.impl.*;
 import com.hazelcast.impl.base.PacketProcessor;
+import com.hazelcast.impl.base.PartitionAwarePacketProcessor;
 import com.hazelcast.impl.base.SystemLogService;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Address;
+import com.hazelcast.nio.DataHolder;
 import com.hazelcast.nio.Packet;
 import com.hazelcast.util.Clock;
 import com.hazelcast.util.ThreadWatcher;
@@ -29,7 +31,10 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 
 import static com.hazelcast.impl.base.SystemLogService.Level.INFO;
@@ -64,12 +69,54 @@ public final class ClusterService implements Runnable, Constants {
 
     private final Thread serviceThread;
 
+    private final int partitionCount;
+
+    private final PartitionThreadPool partitionThreadPool;
+
+    /**
+     * number of keyed packets waiting in packetQueue per partition.
+     * a packet is served by a partition thread only if there is no
+     * pending ServiceThread packet for the same partition, so that
+     * operations of a partition are never reordered.
+     */
+    private final AtomicIntegerArray pendingPackets;
+
+    /**
+     * number of keyed packets queued to the partition threads per partition.
+     * while there is any, the following packets of the partition are queued
+     * behind them, the ones the partition thread cannot serve are handed over
+     * to the ServiceThread in order.
+     */
+    private final AtomicIntegerArray partitionTasks;
+
+    /**
+     * held for write by the ServiceThread while it processes, and for read by the
+     * partition threads, so the state owned by the ServiceThread is only mutated
+     * by the partition threads in between, each one for the partitions it owns.
+     */
+    private final ReentrantReadWriteLock serviceLock;
+
+    private final AtomicLong handedOverPackets = new AtomicLong();
+
     public ClusterService(Node node) {
         this.node = node;
         this.logger = node.getLogger(ClusterService.class.getName());
         MAX_IDLE_MILLIS = node.groupProperties.MAX_NO_HEARTBEAT_SECONDS.getInteger() * 1000L;
         RESTART_ON_MAX_IDLE = node.groupProperties.RESTART_ON_MAX_IDLE.getBoolean();
         serviceThread = new Thread(node.threadGroup, this, node.getThreadNamePrefix("ServiceThread"));
+        partitionCount = node.groupProperties.CONCURRENT_MAP_PARTITION_COUNT.getInteger();
+        final int partitionThreadCount = node.groupProperties.PARTITION_THREAD_COUNT.getInteger();
+        if (partitionThreadCount > 0) {
+            partitionThreadPool = new PartitionThreadPool(node, partitionThreadCount);
+            pendingPackets = new AtomicIntegerArray(partitionCount);
+            partitionTasks = new AtomicIntegerArray(partitionCount);
+            serviceLock = new ReentrantReadWriteLock();
+        } else {
+            partitionThreadPool = null;
+            pendingPackets = null;
+            partitionTasks = null;
+            serviceLock = null;
+        }
     }
 
     public Thread getServiceThread() {
@@ -84,6 +131,17 @@ public final class ClusterService implements Runnable, Constants {
         packetProcessors[operation.getValue()] = packetProcessor;
     }
 
+    public PartitionThreadPool getPartitionThreadPool() {
+        return partitionThreadPool;
+    }
+
+    /**
+     * @return number of packets the partition threads handed over to the ServiceThread
+     */
+    public long getHandedOverPacketCount() {
+        return handedOverPackets.get();
+    }
+
     public PacketProcessor getPacketProcessor(ClusterOperation operation) {
         PacketProcessor packetProcessor = packetProcessors[operation.getValue()];
         if (packetProcessor == null) {
@@ -100,10 +158,78 @@ public final class ClusterService implements Runnable, Constants {
                 css.info(packet, "Enqueue Packet ", packet.operation);
             }
         }
+        if (partitionThreadPool != null) {
+            final int partitionId = getPartitionId(packet);
+            if (partitionId != -1) {
+                final PacketProcessor packetProcessor = packetProcessors[packet.operation.getValue()];
+                if (partitionTasks.get(partitionId) != 0
+                        || (packetProcessor instanceof PartitionAwarePacketProcessor
+                            && pendingPackets.get(partitionId) == 0)) {
+                    partitionTasks.incrementAndGet(partitionId);
+                    partitionThreadPool.execute(partitionId, new PartitionPacketTask(packetProcessor, packet, partitionId));
+                    return;
+                }
+                pendingPackets.incrementAndGet(partitionId);
+            }
+        }
         packetQueue.offer(packet);
         unpark();
     }
 
+    private int getPartitionId(Packet packet) {
+        if (packet.operation == ClusterOperation.RESPONSE) {
+            return -1;
+        }
+        final DataHolder key = packet.getKey();
+        if (key == null) {
+            return -1;
+        }
+        final int hash = key.getPartitionHash();
+        return (hash == Integer.MIN_VALUE) ? 0 : Math.abs(hash) % partitionCount;
+    }
+
+    private class PartitionPacketTask implements Runnable {
+        final PacketProcessor packetProcessor;
+        final Packet packet;
+        final int partitionId;
+
+        PartitionPacketTask(PacketProcessor packetProcessor, Packet packet, int partitionId) {
+            this.packetProcessor = packetProcessor;
+            this.packet = packet;
+            this.partitionId = partitionId;
+        }
+
+        public void run() {
+            if (!running) return;
+            final MemberImpl memberFrom = node.clusterManager.getMember(packet.conn.getEndPoint());
+            if (memberFrom != null) {
+                memberFrom.didRead();
+            }
+            try {
+                // served here unless a packet handed over before is not processed yet
+                if (packetProcessor instanceof PartitionAwarePacketProcessor
+                        && pendingPackets.get(partitionId) == 0) {
+                    serviceLock.readLock().lock();
+                    try {
+                        if (((PartitionAwarePacketProcessor) packetProcessor).processOnPartitionThread(packet)) {
+                            return;
+                        }
+                    } finally {
+                        serviceLock.readLock().unlock();
+                    }
+                }
+                // pending like any packet enqueued to the ServiceThread, so the
+                // following packets of the partition are not served before it
+                pendingPackets.incrementAndGet(partitionId);
+                handedOverPackets.incrementAndGet();
+                packetQueue.offer(packet);
+                unpark();
+            } finally {
+                partitionTasks.decrementAndGet(partitionId);
+            }
+        }
+    }
+
     public boolean enqueueAndWait(final Processable processable, final int seconds) {
         try {
             final CountDownLatch l = new CountDownLatch(1);
@@ -187,8 +313,17 @@ public final class ClusterService implements Runnable, Constants {
         while (running) {
             try {
                 threadWatcher.incrementRunCount();
-                readPackets = (dequeuePackets() != 0);
-                readProcessables = (dequeueProcessables() != 0);
+                if (serviceLock != null) {
+                    serviceLock.writeLock().lock();
+                }
+                try {
+                    readPackets = (dequeuePackets() != 0);
+                    readProcessables = (dequeueProcessables() != 0);
+                } finally {
+                    if (serviceLock != null) {
+                        serviceLock.writeLock().unlock();
+                    }
+                }
                 if (!readPackets && !readProcessables) {
                     try {
                         long startWait = System.nanoTime();
@@ -222,7 +357,14 @@ public final class ClusterService implements Runnable, Constants {
                 if (packet == null) {
                     return i;
                 }
-                processPacket(packet);
+                final int partitionId = (partitionThreadPool != null) ? getPartitionId(packet) : -1;
+                try {
+                    processPacket(packet);
+                } finally {
+                    if (partitionId != -1) {
+                        pendingPackets.decrementAndGet(partitionId);
+                    }
+                }
             }
         } catch (OutOfMemoryError e) {
             throw e;
@@ -274,6 +416,12 @@ public final class ClusterService implements Runnable, Constants {
         running = true;
     }
 
+    public void startPartitionThreads() {
+        if (partitionThreadPool != null) {
+            partitionThreadPool.start();
+        }
+    }
+
     final CountDownLatch stopLatch = new CountDownLatch(1);
     final Processable stopProcessable = new Processable() {
         public void process() {
@@ -284,6 +432,9 @@ public final class ClusterService implements Runnable, Constants {
     };
 
     public void stop() {
+        if (partitionThreadPool != null) {
+            partitionThreadPool.stop();
+        }
         packetQueue.clear();
         processableQueue.clear();
         try {
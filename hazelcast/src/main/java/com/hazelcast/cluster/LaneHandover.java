@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cluster;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Sent over the primary connection when the sender starts using a lane connection.
+ * All the packets sent before it over the primary connection are read before it,
+ * so the receiver holds the packets of the lane until this marker is processed.
+ */
+public class LaneHandover extends AbstractRemotelyProcessable {
+
+    private int lane;
+
+    public LaneHandover() {
+    }
+
+    public LaneHandover(int lane) {
+        this.lane = lane;
+    }
+
+    public void process() {
+        getNode().connectionManager.handover(getConnection(), lane);
+    }
+
+    @Override
+    public void readData(final DataInput in) throws IOException {
+        lane = in.readInt();
+    }
+
+    @Override
+    public void writeData(final DataOutput out) throws IOException {
+        out.writeInt(lane);
+    }
+
+    @Override
+    public String toString() {
+        return "LaneHandover " + lane;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cluster;
+
+import com.hazelcast.impl.Node;
+import com.hazelcast.impl.OutOfMemoryErrorDispatcher;
+import com.hazelcast.impl.ThreadContext;
+import com.hazelcast.logging.ILogger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * Fixed set of operation threads, each owning a disjoint set of partitions.
+ * Partition <tt>p</tt> is always served by thread <tt>p % threadCount</tt>,
+ * so tasks of the same partition are executed in submission order.
+ * <p/>
+ * Keyed map gets, puts, removes and their backups are served here; cluster-wide work
+ * (membership, migration, locks, map stores, events) stays on the ServiceThread,
+ * which does not run while any partition thread does.
+ */
+public final class PartitionThreadPool {
+
+    private final ILogger logger;
+
+    private final PartitionThread[] threads;
+
+    private volatile boolean running = true;
+
+    public PartitionThreadPool(Node node, int threadCount) {
+        this.logger = node.getLogger(PartitionThreadPool.class.getName());
+        this.threads = new PartitionThread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new PartitionThread(node, i);
+        }
+    }
+
+    public int getThreadCount() {
+        return threads.length;
+    }
+
+    public void execute(int partitionId, Runnable task) {
+        final PartitionThread thread = threads[partitionId % threads.length];
+        thread.queue.offer(task);
+        LockSupport.unpark(thread.thread);
+    }
+
+    /**
+     * @return number of tasks executed by the partition threads
+     */
+    public long getExecutedTaskCount() {
+        long count = 0;
+        for (PartitionThread thread : threads) {
+            count += thread.executedTaskCount;
+        }
+        return count;
+    }
+
+    public boolean isPartitionThread() {
+        return Thread.currentThread() instanceof PartitionThreadMarker;
+    }
+
+    public void start() {
+        for (PartitionThread thread : threads) {
+            thread.thread.start();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        for (PartitionThread thread : threads) {
+            thread.queue.clear();
+            LockSupport.unpark(thread.thread);
+        }
+    }
+
+    private static class PartitionThreadMarker extends Thread {
+        PartitionThreadMarker(ThreadGroup group, Runnable target, String name) {
+            super(group, target, name);
+        }
+    }
+
+    private class PartitionThread implements Runnable {
+        final Queue<Runnable> queue = new ConcurrentLinkedQueue<Runnable>();
+        final Thread thread;
+        final Node node;
+        volatile long executedTaskCount = 0;
+
+        PartitionThread(Node node, int index) {
+            this.node = node;
+            this.thread = new PartitionThreadMarker(node.threadGroup, this,
+                    node.getThreadNamePrefix("PartitionThread-" + index));
+        }
+
+        public void run() {
+            ThreadContext.get().setCurrentFactory(node.factory);
+            while (running) {
+                final Runnable task = queue.poll();
+                if (task == null) {
+                    // execute() unparks after offering, a task offered
+                    // since the poll above leaves the permit set
+                    LockSupport.park();
+                    continue;
+                }
+                try {
+                    executedTaskCount++;
+                    task.run();
+                } catch (OutOfMemoryError e) {
+                    OutOfMemoryErrorDispatcher.onOutOfMemory(e);
+                } catch (Throwable e) {
+                    logger.log(Level.SEVERE, e.getMessage(), e);
+                }
+            }
+            queue.clear();
+        }
+    }
+}
@@ -216,6 +216,10 @@ public class ConfigXmlGenerator {
             xml.append("<merge-policy>").append(m.getMergePolicy()).append("</merge-policy>");
             xml.append("<cache-value>").append(m.isCacheValue()).append("</cache-value>");
             xml.append("<read-backup-data>").append(m.isReadBackupData()).append("</read-backup-data>");
+            if (m.getCompressionCodec() != null) {
+                xml.append("<compression codec=\"").append(m.getCompressionCodec()).append("\" threshold=\"")
+                        .append(m.getCompressionThreshold()).append("\"/>");
+            }
             if (m.getMapStoreConfig() != null) {
                 final MapStoreConfig s = m.getMapStoreConfig();
                 xml.append("<map-store enabled=\"").append(s.isEnabled()).append("\">");
@@ -47,6 +47,7 @@ public class MapConfig implements DataSerializable {
     public final static String DEFAULT_EVICTION_POLICY = "NONE";
     public final static String DEFAULT_MERGE_POLICY = AddNewEntryMergePolicy.NAME;
     public final static boolean DEFAULT_CACHE_VALUE = true;
+    public final static int DEFAULT_COMPRESSION_THRESHOLD = 1024;
 
     private String name = null;
 
@@ -88,6 +89,10 @@ public class MapConfig implements DataSerializable {
 
     private boolean clearQuick = false;
 
+    private String compressionCodec = null;
+
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
     public enum StorageType {
         HEAP, OFFHEAP
     }
@@ -115,6 +120,8 @@ public class MapConfig implements DataSerializable {
         this.cacheValue = config.cacheValue;
         this.mergePolicy = config.mergePolicy;
         this.clearQuick = config.clearQuick;
+        this.compressionCodec = config.compressionCodec;
+        this.compressionThreshold = config.compressionThreshold;
     }
 
     /**
@@ -197,6 +204,52 @@ public class MapConfig implements DataSerializable {
         return this;
     }
 
+    /**
+     * Returns the name of the codec compressing the entry values
+     *
+     * @return codec name, or null if values are not compressed
+     */
+    public String getCompressionCodec() {
+        return compressionCodec;
+    }
+
+    /**
+     * Sets the codec compressing the entry values stored in the map and returned
+     * to the callers: "deflate", "lz4" or the name of a codec registered with
+     * {@link com.hazelcast.nio.CompressionCodecs}. Values of multimaps are not compressed.
+     *
+     * @param compressionCodec codec name, or null not to compress values
+     * @return this MapConfig
+     */
+    public MapConfig setCompressionCodec(String compressionCodec) {
+        this.compressionCodec = compressionCodec;
+        return this;
+    }
+
+    /**
+     * Returns the minimum size in bytes of the serialized values to compress
+     *
+     * @return compression threshold
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Sets the minimum size in bytes of the serialized values to compress,
+     * smaller values are stored as they are
+     *
+     * @param compressionThreshold
+     * @return this MapConfig
+     */
+    public MapConfig setCompressionThreshold(int compressionThreshold) {
+        if (compressionThreshold < 0) {
+            throw new IllegalArgumentException("compression threshold cannot be negative");
+        }
+        this.compressionThreshold = compressionThreshold;
+        return this;
+    }
+
     /**
      * @return the backupCount
      * @see #getAsyncBackupCount()
@@ -524,7 +577,10 @@ public class MapConfig implements DataSerializable {
                 this.timeToLiveSeconds == other.timeToLiveSeconds &&
                 this.readBackupData == other.readBackupData &&
                 this.clearQuick == other.clearQuick &&
-                this.valueIndexed == other.valueIndexed;
+                this.valueIndexed == other.valueIndexed &&
+                (this.compressionCodec != null ? this.compressionCodec.equals(other.compressionCodec)
+                        : other.compressionCodec == null) &&
+                this.compressionThreshold == other.compressionThreshold;
     }
 
     @Override
@@ -558,6 +614,9 @@ public class MapConfig implements DataSerializable {
         result = prime * result + (this.readBackupData ? 1231 : 1237);
         result = prime * result + (this.clearQuick ? 1231 : 1237);
         result = prime * result + (this.valueIndexed ? 1231 : 1237);
+        result = prime * result
+                + ((this.compressionCodec == null) ? 0 : this.compressionCodec.hashCode());
+        result = prime * result + this.compressionThreshold;
         return result;
     }
 
@@ -581,6 +640,9 @@ public class MapConfig implements DataSerializable {
                         this.timeToLiveSeconds == other.timeToLiveSeconds &&
                         this.readBackupData == other.readBackupData &&
                         this.valueIndexed == other.valueIndexed &&
+                        (this.compressionCodec != null ? this.compressionCodec.equals(other.compressionCodec)
+                                : other.compressionCodec == null) &&
+                        this.compressionThreshold == other.compressionThreshold &&
 //                        this.clearQuick == other.clearQuick &&
                         (this.mergePolicy != null ? this.mergePolicy.equals(other.mergePolicy) : other.mergePolicy == null) &&
                         (this.evictionPolicy != null ? this.evictionPolicy.equals(other.evictionPolicy)
@@ -612,6 +674,8 @@ public class MapConfig implements DataSerializable {
             nearCacheConfig = new NearCacheConfig();
             nearCacheConfig.readData(in);
         }
+        compressionCodec = in.readBoolean() ? in.readUTF() : null;
+        compressionThreshold = in.readInt();
 //        TODO: MapStoreConfig mapStoreConfig
     }
 
@@ -634,6 +698,11 @@ public class MapConfig implements DataSerializable {
             out.writeBoolean(true);
             nearCacheConfig.writeData(out);
         }
+        out.writeBoolean(compressionCodec != null);
+        if (compressionCodec != null) {
+            out.writeUTF(compressionCodec);
+        }
+        out.writeInt(compressionThreshold);
 //        TODO: MapStoreConfig mapStoreConfig
     }
 
@@ -658,6 +727,8 @@ public class MapConfig implements DataSerializable {
         sb.append(", wanReplicationRef=").append(wanReplicationRef);
         sb.append(", listenerConfigs=").append(listenerConfigs);
         sb.append(", valueIndexed=").append(valueIndexed);
+        sb.append(", compressionCodec=").append(compressionCodec);
+        sb.append(", compressionThreshold=").append(compressionThreshold);
         sb.append(", mapIndexConfigs=").append(mapIndexConfigs);
         sb.append(", storageType=").append(storageType);
         sb.append(", clearQuick=").append(clearQuick);
@@ -712,6 +712,16 @@ public class XmlConfigBuilder extends AbstractXmlConfigHelper implements ConfigB
                 mapConfig.setReadBackupData(checkTrue(value));
             }  else if ("clear-quick".equals(nodeName)) {
                 mapConfig.setClearQuick(checkTrue(value));
+            } else if ("compression".equals(nodeName)) {
+                final Node codec = n.getAttributes().getNamedItem("codec");
+                final Node threshold = n.getAttributes().getNamedItem("threshold");
+                if (codec != null) {
+                    mapConfig.setCompressionCodec(getTextContent(codec).trim());
+                }
+                if (threshold != null) {
+                    mapConfig.setCompressionThreshold(getIntegerValue("threshold", getTextContent(threshold).trim(),
+                            MapConfig.DEFAULT_COMPRESSION_THRESHOLD));
+                }
             } else if ("wan-replication-ref".equals(nodeName)) {
                 WanReplicationRef wanReplicationRef = new WanReplicationRef();
                 final String wanName = getAttribute(n, "name");
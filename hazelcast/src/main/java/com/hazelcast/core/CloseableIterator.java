@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.core;
+
+import java.util.Iterator;
+
+/**
+ * Iterator holding resources on the members until the iteration ends.
+ */
+public interface CloseableIterator<E> extends Iterator<E> {
+
+    /**
+     * Releases the resources held by the iterator. Needed only if the
+     * iteration is abandoned before its end.
+     */
+    void close();
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.core;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Processes a map entry on the member owning its key, so a read-modify-write
+ * is done with a single call instead of a lock, get, put and unlock.
+ * <p/>
+ * <pre>
+ *   public class IncrementProcessor implements EntryProcessor&lt;String, Integer&gt; {
+ *       public Object process(Map.Entry&lt;String, Integer&gt; entry) {
+ *           Integer value = entry.getValue();
+ *           entry.setValue(value == null ? 1 : value + 1);
+ *           return null;
+ *       }
+ *   }
+ *
+ *   map.executeOnKey("counter", new IncrementProcessor());
+ * </pre>
+ * <p/>
+ * The entry holds a copy of the stored value, changes to it are applied only
+ * when {@link Map.Entry#setValue(Object)} is called. Setting the value to
+ * <tt>null</tt> removes the entry. The new value is backed up like a put.
+ * <p/>
+ * Processors run on the ServiceThread of the owner while the key is not locked
+ * by another thread, so they should be short and must not access other
+ * distributed objects. Processors are not transactional.
+ *
+ * @see IMap#executeOnKey(Object, EntryProcessor)
+ * @see IMap#executeOnEntries(EntryProcessor)
+ */
+public interface EntryProcessor<K, V> extends Serializable {
+
+    /**
+     * Processes the entry. Value of the entry is <tt>null</tt> if the map
+     * doesn't contain the key.
+     *
+     * @param entry entry to process
+     * @return result to return to the caller, <tt>null</tt> for no result
+     */
+    Object process(Map.Entry<K, V> entry);
+}
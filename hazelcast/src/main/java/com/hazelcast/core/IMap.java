@@ -17,6 +17,7 @@
 package com.hazelcast.core;
 
 import com.hazelcast.monitor.LocalMapStats;
+import com.hazelcast.query.Aggregator;
 import com.hazelcast.query.Expression;
 import com.hazelcast.query.Predicate;
 
@@ -653,6 +654,24 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, Instance {
      */
     void addEntryListener(EntryListener<K, V> listener, boolean includeValue);
 
+    /**
+     * Adds an entry listener which is notified only of the events of the entries
+     * matching the predicate. The predicate is evaluated by the member owning the
+     * entry, events of the other entries are not sent to the listening member at all.
+     * Update events are delivered if either the new or the old value matches, so the
+     * listener also learns about entries that no longer match.
+     * <p/>
+     * With <tt>includeValue</tt> set to <tt>false</tt> the events carry only the key
+     * of the changed entry.
+     * The listener is removed by {@link #removeEntryListener(EntryListener)}.
+     *
+     * @param listener     entry listener
+     * @param predicate    predicate the entries have to match, <tt>null</tt> to listen to all entries
+     * @param includeValue <tt>true</tt> if <tt>EntryEvent</tt> should
+     *                     contain the value.
+     */
+    void addEntryListener(EntryListener<K, V> listener, Predicate<K, V> predicate, boolean includeValue);
+
     /**
      * Removes the specified entry listener
      * Returns silently if there is no such listener added before.
@@ -803,6 +822,63 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, Instance {
 
     Collection<V> values(Predicate predicate);
 
+    /**
+     * Queries the map based on the specified predicate and
+     * returns an iterator over the keys of matching entries.
+     * <p/>
+     * The keys are fetched from one member at a time, <tt>fetchSize</tt> keys
+     * at a time, when the previously fetched keys are iterated. Unlike
+     * {@link #keySet(Predicate)}, the result does not have to fit in memory.
+     * <p/>
+     * <p><b>Warning:</b></p>
+     * The iteration is weakly consistent. Keys updated or migrated during the
+     * iteration may be missed or returned twice. An iteration abandoned before
+     * its end should be closed.
+     *
+     * @param predicate query criteria, <tt>null</tt> to iterate all keys
+     * @param fetchSize number of keys fetched at a time
+     * @return iterator over the keys of the matching entries
+     */
+    CloseableIterator<K> keyIterator(Predicate predicate, int fetchSize);
+
+    /**
+     * Queries the map based on the specified predicate and
+     * returns an iterator over the matching entries.
+     * <p/>
+     * The entries are fetched from one member at a time, <tt>fetchSize</tt> entries
+     * at a time, when the previously fetched entries are iterated. Unlike
+     * {@link #entrySet(Predicate)}, the result does not have to fit in memory.
+     * <p/>
+     * <p><b>Warning:</b></p>
+     * The iteration is weakly consistent. Entries updated or migrated during the
+     * iteration may be missed or returned twice. An iteration abandoned before
+     * its end should be closed.
+     *
+     * @param predicate query criteria, <tt>null</tt> to iterate all entries
+     * @param fetchSize number of entries fetched at a time
+     * @return iterator over the matching entries
+     */
+    CloseableIterator<Map.Entry<K, V>> entryIterator(Predicate predicate, int fetchSize);
+
+    /**
+     * Queries the map based on the specified predicate and
+     * returns an iterator over the values of matching entries.
+     * <p/>
+     * The values are fetched from one member at a time, <tt>fetchSize</tt> values
+     * at a time, when the previously fetched values are iterated. Unlike
+     * {@link #values(Predicate)}, the result does not have to fit in memory.
+     * <p/>
+     * <p><b>Warning:</b></p>
+     * The iteration is weakly consistent. Entries updated or migrated during the
+     * iteration may be missed or returned twice. An iteration abandoned before
+     * its end should be closed.
+     *
+     * @param predicate query criteria, <tt>null</tt> to iterate all values
+     * @param fetchSize number of values fetched at a time
+     * @return iterator over the values of the matching entries
+     */
+    CloseableIterator<V> valueIterator(Predicate predicate, int fetchSize);
+
     /**
      * Returns the locally owned set of keys.
      * <p/>
@@ -840,6 +916,72 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, Instance {
      */
     Set<K> localKeySet(Predicate predicate);
 
+    /**
+     * Applies the processor to the entry of the specified key on the member owning
+     * the key and returns the result of the processor.
+     * <p/>
+     * Waits if the key is locked by another thread. Changes made by the processor are
+     * backed up, stored into the <tt>MapStore</tt> and fire entry events like a put
+     * or remove.
+     * <p/>
+     * <p><b>Warning:</b></p>
+     * This method uses <tt>hashCode</tt> and <tt>equals</tt> of binary form of
+     * the <tt>key</tt>, not the actual implementations of <tt>hashCode</tt> and <tt>equals</tt>
+     * defined in <tt>key</tt>'s class.
+     *
+     * @param key            key of the entry
+     * @param entryProcessor processor to apply
+     * @return result of the processor
+     * @see EntryProcessor
+     */
+    Object executeOnKey(K key, EntryProcessor<K, V> entryProcessor);
+
+    /**
+     * Applies the processor to all entries of this map on the members owning them.
+     *
+     * @param entryProcessor processor to apply
+     * @return non-null results of the processor by key
+     * @see #executeOnEntries(EntryProcessor, Predicate)
+     */
+    Map<K, Object> executeOnEntries(EntryProcessor<K, V> entryProcessor);
+
+    /**
+     * Applies the processor to the entries matching the predicate on the members
+     * owning them.
+     * <p/>
+     * Entries are processed in batches, entries of locked keys are processed once
+     * they are unlocked. Entries of a member leaving the cluster during the execution
+     * are processed again by their new owners.
+     *
+     * @param entryProcessor processor to apply
+     * @param predicate      query criteria
+     * @return non-null results of the processor by key
+     */
+    Map<K, Object> executeOnEntries(EntryProcessor<K, V> entryProcessor, Predicate predicate);
+
+    /**
+     * Aggregates all entries of this map.
+     *
+     * @param aggregator aggregator to apply
+     * @return result of the aggregator
+     * @see #aggregate(Aggregator, Predicate)
+     */
+    <R> R aggregate(Aggregator<K, V, R> aggregator);
+
+    /**
+     * Aggregates the entries matching the predicate. Each member accumulates the
+     * matching entries it owns, using the indexes of the map, and returns only its
+     * partial result. Partial results are combined on the caller.
+     * <p/>
+     * The aggregation is repeated if the partitions change during the execution.
+     *
+     * @param aggregator aggregator to apply
+     * @param predicate  query criteria
+     * @return result of the aggregator
+     * @see com.hazelcast.query.Aggregators
+     */
+    <R> R aggregate(Aggregator<K, V, R> aggregator, Predicate predicate);
+
     /**
      * Adds an index to this map for the specified entries so
      * that queries can run faster.
@@ -868,8 +1010,17 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, Instance {
      * Index attribute should either have a getter method or be public.
      * You should also make sure to add the indexes before adding
      * entries to this map.
+     * <p/>
+     * Comma separated attributes create a composite index. Queries with conditions
+     * on several of the attributes are then answered with a single index lookup:
+     * <pre>
+     *   imap.addIndex("customerId, status", false); // customerId = 5 AND status = 'OPEN'
+     *   imap.addIndex("region, createdAt", true);   // region = 'EU' AND createdAt > '...'
+     * </pre>
+     * Ordered composite indexes also match equality on the leading attributes
+     * with a range on the following one.
      *
-     * @param attribute attribute of value
+     * @param attribute attribute of value, or comma separated attributes
      * @param ordered   <tt>true</tt> if index should be ordered,
      *                  <tt>false</tt> otherwise.
      */
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.examples;
+
+import com.hazelcast.query.Expression;
+import com.hazelcast.query.Predicates;
+
+import java.util.logging.Logger;
+
+/**
+ * Measures the throughput of query attribute extraction. Every round uses a new
+ * expression for the attribute, like a predicate deserialized for a query.
+ */
+public class SimpleExtractionTest {
+
+    public static int ROUND_COUNT = 20;
+    public static int ENTRY_COUNT = 100 * 1000;
+    public static String ATTRIBUTE = "address.city";
+
+    static Logger logger = Logger.getLogger(SimpleExtractionTest.class.getName());
+
+    public static void main(String[] args) {
+        for (String arg : args) {
+            arg = arg.trim();
+            if (arg.startsWith("r")) {
+                ROUND_COUNT = Integer.parseInt(arg.substring(1));
+            } else if (arg.startsWith("c")) {
+                ENTRY_COUNT = Integer.parseInt(arg.substring(1));
+            } else if (arg.startsWith("a")) {
+                ATTRIBUTE = arg.substring(1);
+            }
+        }
+        logger.info("Rounds: " + ROUND_COUNT + ", entries: " + ENTRY_COUNT + ", attribute: " + ATTRIBUTE);
+        final Person[] values = new Person[ENTRY_COUNT];
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            values[i] = new Person("name" + i, i % 100, new Address("city" + (i % 10)));
+        }
+        for (int round = 0; round < ROUND_COUNT; round++) {
+            final long start = System.nanoTime();
+            final Expression expression = Predicates.get(ATTRIBUTE);
+            int found = 0;
+            for (Person value : values) {
+                if (expression.getValue(value) != null) {
+                    found++;
+                }
+            }
+            final long took = Math.max(1, (System.nanoTime() - start) / 1000000);
+            logger.info("Round " + round + ": " + (found * 1000L / took) + " extractions/s");
+        }
+    }
+
+    public static class Person {
+        private final String name;
+        private final int age;
+        private final Address address;
+
+        public Person(String name, int age, Address address) {
+            this.name = name;
+            this.age = age;
+            this.address = address;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+    }
+
+    public static class Address {
+        private final String city;
+
+        public Address(String city) {
+            this.city = city;
+        }
+
+        public String getCity() {
+            return city;
+        }
+    }
+}
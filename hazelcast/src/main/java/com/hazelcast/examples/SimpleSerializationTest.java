@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.examples;
+
+import com.hazelcast.nio.Data;
+import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.nio.DataSerializableFactories;
+import com.hazelcast.nio.DataSerializableFactory;
+import com.hazelcast.nio.IdentifiedDataSerializable;
+import com.hazelcast.nio.Serializer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.logging.Logger;
+
+/**
+ * Compares the serialized size and the deserialization throughput of a
+ * DataSerializable written with its class name and an IdentifiedDataSerializable
+ * written with its factory and class ids.
+ */
+public class SimpleSerializationTest {
+
+    public static int ROUND_COUNT = 20;
+    public static int ENTRY_COUNT = 100 * 1000;
+
+    static final int FACTORY_ID = 1;
+
+    static Logger logger = Logger.getLogger(SimpleSerializationTest.class.getName());
+
+    public static void main(String[] args) {
+        for (String arg : args) {
+            arg = arg.trim();
+            if (arg.startsWith("r")) {
+                ROUND_COUNT = Integer.parseInt(arg.substring(1));
+            } else if (arg.startsWith("c")) {
+                ENTRY_COUNT = Integer.parseInt(arg.substring(1));
+            }
+        }
+        logger.info("Rounds: " + ROUND_COUNT + ", entries: " + ENTRY_COUNT);
+        DataSerializableFactories.register(FACTORY_ID, new DataSerializableFactory() {
+            public IdentifiedDataSerializable create(int id) {
+                return (id == IdentifiedTrade.ID) ? new IdentifiedTrade() : null;
+            }
+        });
+        final Serializer serializer = new Serializer();
+        final Data[] trades = new Data[ENTRY_COUNT];
+        final Data[] identifiedTrades = new Data[ENTRY_COUNT];
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            trades[i] = serializer.writeObject(new Trade(i, "HZ", i % 1000, i * 0.01));
+            identifiedTrades[i] = serializer.writeObject(new IdentifiedTrade(i, "HZ", i % 1000, i * 0.01));
+        }
+        logger.info("Trade: " + trades[0].size() + " bytes, identified trade: "
+                + identifiedTrades[0].size() + " bytes");
+        for (int round = 0; round < ROUND_COUNT; round++) {
+            logger.info("Round " + round + ": " + read(serializer, trades) + " trades/s, "
+                    + read(serializer, identifiedTrades) + " identified trades/s");
+        }
+    }
+
+    static long read(Serializer serializer, Data[] values) {
+        final long start = System.nanoTime();
+        long quantity = 0;
+        for (Data value : values) {
+            quantity += ((Trade) serializer.readObject(value)).quantity;
+        }
+        final long took = Math.max(1, (System.nanoTime() - start) / 1000000);
+        return (quantity < 0) ? 0 : values.length * 1000L / took;
+    }
+
+    public static class Trade implements DataSerializable {
+        long id;
+        String symbol;
+        int quantity;
+        double price;
+
+        public Trade() {
+        }
+
+        public Trade(long id, String symbol, int quantity, double price) {
+            this.id = id;
+            this.symbol = symbol;
+            this.quantity = quantity;
+            this.price = price;
+        }
+
+        public void writeData(DataOutput out) throws IOException {
+            out.writeLong(id);
+            out.writeUTF(symbol);
+            out.writeInt(quantity);
+            out.writeDouble(price);
+        }
+
+        public void readData(DataInput in) throws IOException {
+            id = in.readLong();
+            symbol = in.readUTF();
+            quantity = in.readInt();
+            price = in.readDouble();
+        }
+    }
+
+    public static class IdentifiedTrade extends Trade implements IdentifiedDataSerializable {
+        static final int ID = 1;
+
+        public IdentifiedTrade() {
+        }
+
+        public IdentifiedTrade(long id, String symbol, int quantity, double price) {
+            super(id, symbol, quantity, price);
+        }
+
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        public int getId() {
+            return ID;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.examples;
+
+import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.nio.Serializer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.logging.Logger;
+
+/**
+ * Measures the write throughput of the common value types, dominated by
+ * finding the serializer of small values.
+ */
+public class SimpleSerializerDispatchTest {
+
+    public static int ROUND_COUNT = 20;
+    public static int ENTRY_COUNT = 1000 * 1000;
+
+    static Logger logger = Logger.getLogger(SimpleSerializerDispatchTest.class.getName());
+
+    public static void main(String[] args) {
+        for (String arg : args) {
+            arg = arg.trim();
+            if (arg.startsWith("r")) {
+                ROUND_COUNT = Integer.parseInt(arg.substring(1));
+            } else if (arg.startsWith("c")) {
+                ENTRY_COUNT = Integer.parseInt(arg.substring(1));
+            }
+        }
+        logger.info("Rounds: " + ROUND_COUNT + ", entries: " + ENTRY_COUNT);
+        final Object[] values = new Object[]{"value", 1L, new byte[8], new Value(), new SerializableValue()};
+        final Serializer serializer = new Serializer();
+        for (int round = 0; round < ROUND_COUNT; round++) {
+            final StringBuilder sb = new StringBuilder("Round ").append(round).append(':');
+            for (Object value : values) {
+                sb.append(' ').append(value.getClass().getSimpleName()).append('=')
+                        .append(write(serializer, value)).append("/s");
+            }
+            logger.info(sb.toString());
+        }
+    }
+
+    static long write(Serializer serializer, Object value) {
+        final int count = (value instanceof SerializableValue) ? ENTRY_COUNT / 10 : ENTRY_COUNT;
+        final long start = System.nanoTime();
+        long size = 0;
+        for (int i = 0; i < count; i++) {
+            size += serializer.toByteArray(value).length;
+        }
+        final long took = Math.max(1, (System.nanoTime() - start) / 1000000);
+        return (size < 0) ? 0 : count * 1000L / took;
+    }
+
+    public static class Value implements DataSerializable {
+        int v = 1;
+
+        public void writeData(DataOutput out) throws IOException {
+            out.writeInt(v);
+        }
+
+        public void readData(DataInput in) throws IOException {
+            v = in.readInt();
+        }
+    }
+
+    public static class SerializableValue implements Serializable {
+        int v = 1;
+    }
+}
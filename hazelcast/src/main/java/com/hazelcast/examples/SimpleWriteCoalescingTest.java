@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.examples;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.impl.GroupProperties;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Measures the put throughput between two members of this JVM talking over the loopback
+ * interface, dominated by writing many small packets to the sockets. Run it with
+ * <tt>m0</tt> and with a coalescing window, e.g. <tt>m50</tt>, to compare them.
+ */
+public class SimpleWriteCoalescingTest {
+
+    public static int ROUND_COUNT = 10;
+    public static int ROUND_SECONDS = 5;
+    public static int THREAD_COUNT = 40;
+    public static int ENTRY_COUNT = 10 * 1000;
+    public static int VALUE_SIZE = 100;
+    public static int COALESCE_MICROS = 0;
+
+    static Logger logger = Logger.getLogger(SimpleWriteCoalescingTest.class.getName());
+
+    public static void main(String[] args) throws InterruptedException {
+        for (String arg : args) {
+            arg = arg.trim();
+            if (arg.startsWith("r")) {
+                ROUND_COUNT = Integer.parseInt(arg.substring(1));
+            } else if (arg.startsWith("s")) {
+                ROUND_SECONDS = Integer.parseInt(arg.substring(1));
+            } else if (arg.startsWith("t")) {
+                THREAD_COUNT = Integer.parseInt(arg.substring(1));
+            } else if (arg.startsWith("c")) {
+                ENTRY_COUNT = Integer.parseInt(arg.substring(1));
+            } else if (arg.startsWith("v")) {
+                VALUE_SIZE = Integer.parseInt(arg.substring(1));
+            } else if (arg.startsWith("m")) {
+                COALESCE_MICROS = Integer.parseInt(arg.substring(1));
+            }
+        }
+        logger.info("Rounds: " + ROUND_COUNT + ", seconds: " + ROUND_SECONDS + ", threads: " + THREAD_COUNT
+                + ", entries: " + ENTRY_COUNT + ", value size: " + VALUE_SIZE
+                + ", coalescing window: " + COALESCE_MICROS + "us");
+        final Config config = new Config();
+        config.setProperty(GroupProperties.PROP_SOCKET_WRITE_COALESCE_MICROS, String.valueOf(COALESCE_MICROS));
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        config.getNetworkConfig().getInterfaces().setEnabled(true).addInterface("127.0.0.1");
+        final HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        final HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config);
+        try {
+            final IMap<Integer, byte[]> map = h1.getMap("default");
+            for (int round = 0; round < ROUND_COUNT; round++) {
+                logger.info("Round " + round + ": put=" + put(map) + "/s");
+            }
+        } finally {
+            h2.getLifecycleService().shutdown();
+            h1.getLifecycleService().shutdown();
+        }
+    }
+
+    static long put(final IMap<Integer, byte[]> map) throws InterruptedException {
+        final AtomicLong count = new AtomicLong();
+        final long end = System.currentTimeMillis() + ROUND_SECONDS * 1000L;
+        final Thread[] threads = new Thread[THREAD_COUNT];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    final Random random = new Random();
+                    final byte[] value = new byte[VALUE_SIZE];
+                    long puts = 0;
+                    while (System.currentTimeMillis() < end) {
+                        map.put(random.nextInt(ENTRY_COUNT), value);
+                        puts++;
+                    }
+                    count.addAndGet(puts);
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return count.get() / ROUND_SECONDS;
+    }
+}
@@ -20,6 +20,8 @@ import com.hazelcast.impl.base.DistributedLock;
 import com.hazelcast.impl.base.ScheduledAction;
 import com.hazelcast.impl.concurrentmap.ValueHolder;
 import com.hazelcast.nio.Address;
+import com.hazelcast.nio.CompressionCodec;
+import com.hazelcast.nio.CompressionCodecs;
 import com.hazelcast.nio.Data;
 import com.hazelcast.util.Clock;
 
@@ -33,28 +35,76 @@ public abstract class AbstractRecord extends AbstractSimpleRecord implements Rec
 
     protected volatile int hits = 0;
     protected volatile long version = 0;
-    protected volatile long maxIdleMillis = Long.MAX_VALUE;
-    protected volatile long writeTime = -1;
-    protected volatile long removeTime = 0;
-    protected volatile long lastAccessTime = 0;
-    protected volatile long lastStoredTime = 0;
-    protected volatile long creationTime = 0;
-    protected volatile long expirationTime = Long.MAX_VALUE;
-    protected volatile long lastUpdateTime = 0;
     protected volatile boolean dirty = false;
 
     protected volatile DistributedLock lock = null;
 
     protected volatile OptionalInfo optionalInfo = null;
 
-    public AbstractRecord(CMap cmap, int blockId, Data key, long ttl, long maxIdleMillis, long id) {
+    public AbstractRecord(CMap cmap, int blockId, Data key, long id) {
         super(blockId, cmap, id, key);
+    }
+
+    /**
+     * @return the value compressed with the codec of the map, or the value itself
+     *         if the map does not compress its values
+     */
+    protected final Data compressValue(Data value) {
+        final CompressionCodec codec = (cmap == null) ? null : cmap.getCompressionCodec();
+        return (codec == null) ? value : CompressionCodecs.compress(value, codec, cmap.getCompressionThreshold());
+    }
+
+    /**
+     * Sets the initial timestamps. Called by subclasses once their
+     * timestamp fields are initialized.
+     */
+    protected final void initTimes(long ttl, long maxIdleMillis) {
         this.setCreationTime(Clock.currentTimeMillis());
         this.setTTL(ttl);
-        this.maxIdleMillis = (maxIdleMillis == 0) ? Long.MAX_VALUE : maxIdleMillis;
+        this.setMaxIdleMillis((maxIdleMillis == 0) ? Long.MAX_VALUE : maxIdleMillis);
         this.setVersion(0);
     }
 
+    /**
+     * @return max idle in millis, Long.MAX_VALUE if there is no max idle
+     */
+    protected abstract long getMaxIdleMillis();
+
+    protected abstract void setMaxIdleMillis(long maxIdleMillis);
+
+    /**
+     * Stores the already normalized expiration time.
+     */
+    protected abstract void storeExpirationTime(long expirationTime);
+
+    // timestamps are kept by subclasses, each with its own layout.
+
+    public abstract long getExpirationTime();
+
+    public abstract long getCreationTime();
+
+    public abstract void setCreationTime(long newValue);
+
+    public abstract long getLastAccessTime();
+
+    public abstract void setLastAccessTime(long lastAccessTime);
+
+    public abstract long getLastUpdateTime();
+
+    public abstract void setLastUpdateTime(long lastUpdateTime);
+
+    public abstract long getWriteTime();
+
+    public abstract void setWriteTime(long writeTime);
+
+    public abstract long getRemoveTime();
+
+    public abstract void setRemoveTime(long removeTime);
+
+    public abstract long getLastStoredTime();
+
+    public abstract void setLastStoredTime(long lastStoredTime);
+
     public void runBackupOps() {
         final Set<VersionedBackupOp> backupOps = getBackupOps();
         if (backupOps != null && !backupOps.isEmpty()) {
@@ -109,10 +159,16 @@ public abstract class AbstractRecord extends AbstractSimpleRecord implements Rec
         return getOptionalInfo().indexTypes;
     }
 
-    public void setIndexes(Long[] indexes, byte[] indexTypes) {
+    public Data getIndexData() {
+        if (optionalInfo == null) return null;
+        return getOptionalInfo().indexData;
+    }
+
+    public void setIndexes(Long[] indexes, byte[] indexTypes, Data indexData) {
         if (indexes != null) {
             this.getOptionalInfo().indexes = indexes;
             this.getOptionalInfo().indexTypes = indexTypes;
+            this.getOptionalInfo().indexData = indexData;
         }
     }
 
@@ -214,8 +270,10 @@ public abstract class AbstractRecord extends AbstractSimpleRecord implements Rec
     }
 
     public void setLastUpdated() {
+        final long expirationTime = getExpirationTime();
         if (expirationTime != Long.MAX_VALUE && expirationTime > 0) {
-            long ttl = expirationTime - (lastUpdateTime > 0L ? lastUpdateTime : creationTime);
+            final long lastUpdateTime = getLastUpdateTime();
+            long ttl = expirationTime - (lastUpdateTime > 0L ? lastUpdateTime : getCreationTime());
             setTTL(ttl);
         }
         setLastUpdateTime(Clock.currentTimeMillis());
@@ -226,11 +284,8 @@ public abstract class AbstractRecord extends AbstractSimpleRecord implements Rec
         incrementHits();
     }
 
-    public long getExpirationTime() {
-        return expirationTime;
-    }
-
     public long getRemainingTTL() {
+        final long expirationTime = getExpirationTime();
         if (expirationTime == Long.MAX_VALUE) {
             return Long.MAX_VALUE;
         } else {
@@ -240,28 +295,29 @@ public abstract class AbstractRecord extends AbstractSimpleRecord implements Rec
     }
 
     public long getRemainingIdle() {
+        final long maxIdleMillis = getMaxIdleMillis();
         if (maxIdleMillis == Long.MAX_VALUE) {
             return Long.MAX_VALUE;
         } else {
-            long lastTouch = Math.max(lastAccessTime, creationTime);
-            long idle = Clock.currentTimeMillis() - lastTouch;
+            long lastTouch = Math.max(getLastAccessTime(), getCreationTime());
+            long idle = Clock.currentTimeMillis() - lastTouch - getTimestampTolerance();
             return maxIdleMillis - idle;
         }
     }
 
     public void setMaxIdle(long idle) {
         if (idle <= 0 || idle == Long.MAX_VALUE) {
-            maxIdleMillis = Long.MAX_VALUE;
+            setMaxIdleMillis(Long.MAX_VALUE);
         } else {
-            maxIdleMillis = idle;
+            setMaxIdleMillis(idle);
         }
     }
 
     public void setExpirationTime(final long expTime) {
         if (expTime <= 0) {
-            this.expirationTime = Long.MAX_VALUE;
+            storeExpirationTime(Long.MAX_VALUE);
         } else {
-            this.expirationTime = expTime;
+            storeExpirationTime(expTime);
         }
     }
 
@@ -274,15 +330,17 @@ public abstract class AbstractRecord extends AbstractSimpleRecord implements Rec
     }
 
     public void setInvalid() {
-        expirationTime = (Clock.currentTimeMillis() - 10);
+        storeExpirationTime(Clock.currentTimeMillis() - 10);
     }
 
     public boolean isValid(long now) {
+        final long expirationTime = getExpirationTime();
+        final long maxIdleMillis = getMaxIdleMillis();
         if (expirationTime == Long.MAX_VALUE && maxIdleMillis == Long.MAX_VALUE) {
             return true;
         }
-        long lastTouch = Math.max(lastUpdateTime, Math.max(lastAccessTime, creationTime));
-        long idle = now - lastTouch;
+        long lastTouch = Math.max(getLastUpdateTime(), Math.max(getLastAccessTime(), getCreationTime()));
+        long idle = now - lastTouch - getTimestampTolerance();
         return expirationTime > now && (maxIdleMillis > idle);
     }
 
@@ -290,6 +348,13 @@ public abstract class AbstractRecord extends AbstractSimpleRecord implements Rec
         return active && isValid(Clock.currentTimeMillis());
     }
 
+    /**
+     * @return millis the stored creation, access and update times may be behind the actual ones
+     */
+    protected long getTimestampTolerance() {
+        return 0;
+    }
+
     public void markRemoved() {
         setActive(false);
         setRemoveTime(Clock.currentTimeMillis());
@@ -312,30 +377,6 @@ public abstract class AbstractRecord extends AbstractSimpleRecord implements Rec
         this.version++;
     }
 
-    public long getCreationTime() {
-        return creationTime;
-    }
-
-    public void setCreationTime(long newValue) {
-        creationTime = newValue;
-    }
-
-    public long getLastAccessTime() {
-        return lastAccessTime;
-    }
-
-    public void setLastAccessTime(long lastAccessTime) {
-        this.lastAccessTime = lastAccessTime;
-    }
-
-    public long getLastUpdateTime() {
-        return lastUpdateTime;
-    }
-
-    public void setLastUpdateTime(long lastUpdateTime) {
-        this.lastUpdateTime = lastUpdateTime;
-    }
-
     public int getHits() {
         return hits;
     }
@@ -383,22 +424,6 @@ public abstract class AbstractRecord extends AbstractSimpleRecord implements Rec
         this.dirty = dirty;
     }
 
-    public long getWriteTime() {
-        return writeTime;
-    }
-
-    public void setWriteTime(long writeTime) {
-        this.writeTime = writeTime;
-    }
-
-    public long getRemoveTime() {
-        return removeTime;
-    }
-
-    public void setRemoveTime(long removeTime) {
-        this.removeTime = removeTime;
-    }
-
     public boolean hasScheduledAction() {
         return optionalInfo != null && optionalInfo.lsScheduledActions != null &&
                optionalInfo.lsScheduledActions.size() > 0;
@@ -438,16 +463,8 @@ public abstract class AbstractRecord extends AbstractSimpleRecord implements Rec
         return optionalInfo;
     }
 
-    public void setLastStoredTime(long lastStoredTime) {
-        this.lastStoredTime = lastStoredTime;
-    }
-
-    public long getLastStoredTime() {
-        return lastStoredTime;
-    }
-
     public boolean isRemoved() {
-        return !active && removeTime > 0;
+        return !active && getRemoveTime() > 0;
     }
 
     /**
@@ -478,11 +495,12 @@ public abstract class AbstractRecord extends AbstractSimpleRecord implements Rec
 
     }
 
-    class OptionalInfo {
+    static class OptionalInfo {
 
         volatile Collection<ValueHolder> lsMultiValues = null; // multimap values
         Long[] indexes; // indexes of the current value;
         byte[] indexTypes; // index types of the current value;
+        Data indexData; // index values of the current value which are not longs
         List<ScheduledAction> lsScheduledActions = null;
         SortedSet<VersionedBackupOp> backupOps = null;
         Map<Address, Boolean> mapListeners = null;
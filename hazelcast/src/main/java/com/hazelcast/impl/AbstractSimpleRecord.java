@@ -66,7 +66,11 @@ public abstract class AbstractSimpleRecord implements Record {
         return null;
     }
 
-    public void setIndexes(Long[] indexes, byte[] indexTypes) {
+    public Data getIndexData() {
+        return null;
+    }
+
+    public void setIndexes(Long[] indexes, byte[] indexTypes, Data indexData) {
     }
 
     public boolean unlock(int threadId, Address address) {
@@ -74,7 +74,15 @@ public abstract class AsyncCall implements Future, Runnable {
         } else if (result instanceof Throwable) {
             throw new ExecutionException((Throwable) result);
         } else {
-            return result;
+            return convertResult(result);
         }
     }
+
+    /**
+     * Converts the result on the thread calling <tt>get</tt>,
+     * e.g. to deserialize a value completed by the response handler.
+     */
+    protected Object convertResult(Object result) {
+        return result;
+    }
 }
\ No newline at end of file
@@ -35,6 +35,7 @@ import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
@@ -1032,17 +1033,28 @@ public abstract class BaseManager {
                 final boolean runOnOtherMembers = excludeThisMember || onResponse(result);
                 if (runOnOtherMembers) {
                     Set<Member> members = node.getClusterImpl().getMembers();
-                    List<SubCall> lsCalls = new ArrayList<SubCall>();
+                    List<SubCall> lsCalls = new LinkedList<SubCall>();
+                    final BlockingQueue<SubCall> answeredCalls = new LinkedBlockingQueue<SubCall>();
                     for (Member member : members) {
                         MemberImpl cMember = (MemberImpl) member;
                         final boolean excludeMember = excludeLiteMember() && cMember.isLiteMember();
                         if (!excludeMember && !cMember.getAddress().equals(getFirstAddressToMakeCall())) {
                             SubCall subCall = createNewTargetAwareOp(cMember.getAddress());
+                            subCall.answeredCalls = answeredCalls;
                             subCall.doOp();
                             lsCalls.add(subCall);
                         }
                     }
-                    for (SubCall call : lsCalls) {
+                    // responses are consumed in the order they arrive, a slow member does not
+                    // hold back the others; without any answer wait for the first call as before
+                    while (!lsCalls.isEmpty()) {
+                        SubCall call = answeredCalls.poll(responsePollTimeout, TimeUnit.MILLISECONDS);
+                        if (call == null) {
+                            call = lsCalls.get(0);
+                        }
+                        if (!lsCalls.remove(call)) {
+                            continue;
+                        }
                         result = call.getResultAsObject();
                         if (result == OBJECT_REDO) {
                             logRedo(call);
@@ -1068,6 +1080,8 @@ public abstract class BaseManager {
     }
 
     abstract class SubCall extends TargetAwareOp {
+        // set by MultiCall, gets the call once it has a result
+        BlockingQueue<SubCall> answeredCalls = null;
 
         public SubCall(final Address target) {
             this.target = target;
@@ -1090,6 +1104,15 @@ public abstract class BaseManager {
             setRedoResult(REDO_MEMBER_UNKNOWN);
         }
 
+        @Override
+        protected void setResult(Object obj) {
+            super.setResult(obj);
+            final BlockingQueue<SubCall> answered = answeredCalls;
+            if (answered != null) {
+                answered.offer(this);
+            }
+        }
+
         @Override
         public Object getResult() {
             // we don't want to REDO automatically
@@ -1184,6 +1207,15 @@ public abstract class BaseManager {
 
     public void sendEvents(int eventType, String name, Data key, Data value, Map<Address, Boolean> mapListeners,
                            Address callerAddress, boolean fireAndForget) {
+        sendEvents(eventType, name, key, value, mapListeners, callerAddress, fireAndForget, ListenerManager.NO_FILTER);
+    }
+
+    /**
+     * @param filterId id of the predicate the listeners are registered with, the listeners of the
+     *                 other predicates on the target members are not notified
+     */
+    public void sendEvents(int eventType, String name, Data key, Data value, Map<Address, Boolean> mapListeners,
+                           Address callerAddress, boolean fireAndForget, long filterId) {
         if (mapListeners != null) {
             checkServiceThread();
             final Set<Map.Entry<Address, Boolean>> listeners = mapListeners.entrySet();
@@ -1196,7 +1228,7 @@ public abstract class BaseManager {
                     // By this way we can handle scenario of successively registered 
                     // a LocalEntryListener (which sets implicitly include-value to true) 
                     // and an EntryListener whose include-value is false. 
-                    enqueueEvent(eventType, name, key, /*(includeValue) ? value : null*/ value, callerAddress, true);
+                    enqueueEvent(eventType, name, key, /*(includeValue) ? value : null*/ value, callerAddress, true, filterId);
                 } else {
                     final Connection conn = node.connectionManager.getConnection(toAddress);
                     if (conn != null && conn.getWriteHandler().size() > 10000) {
@@ -1221,6 +1253,7 @@ public abstract class BaseManager {
                     packet.set(name, ClusterOperation.EVENT, key, (includeValue) ? value : null);
                     packet.lockAddress = callerAddress;
                     packet.longValue = eventType;
+                    packet.version = filterId;
                     sendOrReleasePacket(packet, toAddress);
                 }
             }
@@ -1358,6 +1391,11 @@ public abstract class BaseManager {
     }
 
     void enqueueEvent(int eventType, String name, Data key, Data value, Address from, boolean localEvent) {
+        enqueueEvent(eventType, name, key, value, from, localEvent, ListenerManager.NO_FILTER);
+    }
+
+    void enqueueEvent(int eventType, String name, Data key, Data value, Address from, boolean localEvent,
+                      long filterId) {
         try {
             Member member = getMember(from);
             if (member == null) {
@@ -1378,7 +1416,8 @@ public abstract class BaseManager {
                     }
                 }
             }
-            final DataAwareEntryEvent dataAwareEntryEvent = new DataAwareEntryEvent(member, eventType, name, key, newValue, oldValue, localEvent);
+            final DataAwareEntryEvent dataAwareEntryEvent = new DataAwareEntryEvent(member, eventType, name, key,
+                    newValue, oldValue, localEvent, filterId);
             int hash;
             if (key != null) {
                 hash = key.hashCode();
@@ -1427,9 +1466,27 @@ public abstract class BaseManager {
         fireMapEvent(mapListeners, name, eventType, key, oldValue, value, keyListeners, callerAddress, true);
     }
 
+    /**
+     * Fires the event to the listeners the member registered with the predicate of the filter id.
+     */
+    void fireFilteredMapEvent(final Address address, final boolean includeValue, final String name,
+                              final int eventType, final Data key, final Data oldValue, final Data value,
+                              Address callerAddress, long filterId) {
+        fireMapEvent(Collections.singletonMap(address, includeValue), name, eventType, key, oldValue, value, null,
+                callerAddress, true, filterId);
+    }
+
     private void fireMapEvent(final Map<Address, Boolean> mapListeners, final String name,
                       final int eventType, final Data key, final Data oldValue, final Data value,
                       Map<Address, Boolean> keyListeners, Address callerAddress, boolean fireAndForget) {
+        fireMapEvent(mapListeners, name, eventType, key, oldValue, value, keyListeners, callerAddress, fireAndForget,
+                ListenerManager.NO_FILTER);
+    }
+
+    private void fireMapEvent(final Map<Address, Boolean> mapListeners, final String name,
+                      final int eventType, final Data key, final Data oldValue, final Data value,
+                      Map<Address, Boolean> keyListeners, Address callerAddress, boolean fireAndForget,
+                      long filterId) {
         if (keyListeners == null && (mapListeners == null || mapListeners.size() == 0)) {
             return;
         }
@@ -1466,7 +1523,7 @@ public abstract class BaseManager {
                 }
                 packetValue = toData(keys);
             }
-            sendEvents(eventType, name, key, packetValue, mapTargetListeners, callerAddress, fireAndForget);
+            sendEvents(eventType, name, key, packetValue, mapTargetListeners, callerAddress, fireAndForget, filterId);
         } catch (final Exception e) {
             logger.log(Level.WARNING, e.getMessage(), e);
         }
@@ -1477,12 +1534,17 @@ public abstract class BaseManager {
     }
 
     void registerListener(boolean add, String name, Data key, Address address, boolean includeValue) {
+        registerListener(add, name, key, address, includeValue, null, ListenerManager.NO_FILTER);
+    }
+
+    void registerListener(boolean add, String name, Data key, Address address, boolean includeValue,
+                          Data predicateData, long filterId) {
         if (name.startsWith(Prefix.QUEUE)) {
             node.blockingQueueManager.registerListener(add, name, key, address, includeValue);
         } else if (name.startsWith(Prefix.TOPIC)) {
             node.topicManager.registerListener(add, name, key, address, includeValue);
         } else {
-            node.concurrentMapManager.registerListener(add, name, key, address, includeValue);
+            node.concurrentMapManager.registerListener(add, name, key, address, includeValue, predicateData, filterId);
         }
     }
 
@@ -1540,7 +1602,7 @@ public abstract class BaseManager {
                 packet.lockAddress = null;
             }
         }
-        conn.getWriteHandler().enqueueSocketWritable(packet);
+        node.connectionManager.write(conn, packet);
         return true;
     }
 
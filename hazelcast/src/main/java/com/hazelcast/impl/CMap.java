@@ -24,13 +24,16 @@ import com.hazelcast.impl.base.DistributedLock;
 import com.hazelcast.impl.base.ScheduledAction;
 import com.hazelcast.impl.base.Values;
 import com.hazelcast.impl.concurrentmap.*;
+import com.hazelcast.impl.monitor.LocalIndexStatsImpl;
 import com.hazelcast.impl.monitor.LocalMapStatsImpl;
 import com.hazelcast.impl.partition.PartitionInfo;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.merge.MergePolicy;
 import com.hazelcast.nio.*;
 import com.hazelcast.query.Expression;
+import com.hazelcast.query.Index;
 import com.hazelcast.query.MapIndexService;
+import com.hazelcast.query.Predicate;
 import com.hazelcast.query.Predicates;
 import com.hazelcast.util.Clock;
 import com.hazelcast.util.ConcurrentHashSet;
@@ -50,6 +53,7 @@ import java.util.logging.Level;
 import static com.hazelcast.core.Prefix.*;
 import static com.hazelcast.impl.ClusterOperation.*;
 import static com.hazelcast.nio.IOUtil.toData;
+import static com.hazelcast.nio.IOUtil.toObject;
 
 public class CMap {
 
@@ -84,6 +88,8 @@ public class CMap {
 
     private final Map<Address, Boolean> mapListeners = new HashMap<Address, Boolean>(1);
 
+    private final Map<Data, FilteredListeners> filteredListeners = new HashMap<Data, FilteredListeners>(1);
+
     private int backupCount;
 
     private int asyncBackupCount;
@@ -106,8 +112,14 @@ public class CMap {
 
     private boolean cacheValue;
 
+    private boolean offHeap;
+
     private boolean clearQuick = false;
 
+    private final CompressionCodec compressionCodec;
+
+    private final int compressionThreshold;
+
     private volatile boolean ttlPerRecord = false;
 
     private volatile boolean dirty = false;
@@ -185,9 +197,18 @@ public class CMap {
         }
         this.mapIndexService = new MapIndexService(mapConfig.isValueIndexed());
         setRuntimeConfig(mapConfig);
-        if (mapForQueue || node.groupProperties.ELASTIC_MEMORY_ENABLED.getBoolean()) {
+        offHeap = node.groupProperties.ELASTIC_MEMORY_ENABLED.getBoolean() && !isMultiMap()
+                && mapConfig.getStorageType() != MapConfig.StorageType.HEAP;
+        if (mapForQueue || offHeap) {
             cacheValue = false;
         }
+        final String codecName = mapConfig.getCompressionCodec();
+        compressionCodec = (codecName == null || isMultiMap()) ? null : CompressionCodecs.getCodec(codecName);
+        if (codecName != null && compressionCodec == null && !isMultiMap()) {
+            logger.log(Level.WARNING, "Unknown compression codec " + codecName + " of map " + name
+                    + ", values will not be compressed!");
+        }
+        compressionThreshold = mapConfig.getCompressionThreshold();
         MapStoreConfig mapStoreConfig = mapConfig.getMapStoreConfig();
         int writeDelaySeconds = -1;
         if (!node.isLiteMember() && mapStoreConfig != null) {
@@ -281,7 +302,7 @@ public class CMap {
     private void initializeIndexes() {
         for (MapIndexConfig index : mapConfig.getMapIndexConfigs()) {
             if (index.getAttribute() != null) {
-                addIndex(Predicates.get(index.getAttribute()), index.isOrdered(), -1);
+                addIndex(Predicates.indexExpression(index.getAttribute()), index.isOrdered(), -1);
             } else if (index.getExpression() != null) {
                 addIndex(index.getExpression(), index.isOrdered(), -1);
             }
@@ -403,14 +424,35 @@ public class CMap {
                 || lockEntireMap.isLockedBy(request.lockAddress, request.lockThreadId));
     }
 
+    /**
+     * Whether the keyed puts and removes of this map may run on the partition threads.
+     * Such a mutation only touches its record, the record map and the owned record index;
+     * store, loader, near cache, listeners, off-heap storage and the attribute indexes
+     * are shared by all partitions of the map and stay on the ServiceThread.
+     */
+    final boolean isPartitionThreadSafe() {
+        return isMap() && isUserMap() && !mapForQueue
+                && loader == null && store == null && nearCache == null && localUpdateListener == null
+                && !offHeap
+                && mapListeners.isEmpty() && filteredListeners.isEmpty()
+                && !mapIndexService.hasIndexedAttributes() && mapIndexService.getValueIndex() == null;
+    }
+
     final boolean overCapacity() {
-        if (maxSizePolicy != null && maxSizePolicy.overCapacity()) {
+        if (isMaxSizeReached()) {
             concurrentMapManager.executeCleanup(this, true);
             return true;
         }
         return false;
     }
 
+    /**
+     * Same as {@link #overCapacity()} without starting the eviction.
+     */
+    final boolean isMaxSizeReached() {
+        return maxSizePolicy != null && maxSizePolicy.overCapacity();
+    }
+
     public void lockMap(Request request) {
         if (request.operation == CONCURRENT_MAP_LOCK_MAP) {
             if (lockEntireMap == null) {
@@ -454,6 +496,30 @@ public class CMap {
         return cacheValue;
     }
 
+    /**
+     * Values of this map are kept in off-heap storage when elastic memory is enabled,
+     * unless the map is configured with the HEAP storage type.
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * Compresses the value with the codec of the map if it is large enough,
+     * see {@link MapConfig#setCompressionCodec(String)}.
+     */
+    public Data compressValue(Data value) {
+        return (compressionCodec == null) ? value : CompressionCodecs.compress(value, compressionCodec, compressionThreshold);
+    }
+
+    public CompressionCodec getCompressionCodec() {
+        return compressionCodec;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
     public boolean isClearQuick() {
         return clearQuick;
     }
@@ -499,7 +565,8 @@ public class CMap {
             record.setCreationTime(dataRecordEntry.getCreationTime());
             record.setExpirationTime(dataRecordEntry.getExpirationTime());
             record.setMaxIdle(dataRecordEntry.getRemainingIdle());
-            record.setIndexes(dataRecordEntry.getIndexes(), dataRecordEntry.getIndexTypes());
+            record.setIndexes(dataRecordEntry.getIndexes(), dataRecordEntry.getIndexTypes(),
+                    dataRecordEntry.getIndexData());
             if (dataRecordEntry.getLockAddress() != null && dataRecordEntry.getLockThreadId() != -1) {
                 record.lock(dataRecordEntry.getLockThreadId(), dataRecordEntry.getLockAddress());
             }
@@ -601,7 +668,7 @@ public class CMap {
                 if (req.indexes.length != req.indexTypes.length) {
                     throw new HazelcastException("index and type lengths do not match");
                 }
-                record.setIndexes(req.indexes, req.indexTypes);
+                record.setIndexes(req.indexes, req.indexTypes, req.indexData);
             }
             if (req.ttl > 0 && req.ttl < Long.MAX_VALUE) {
                 record.setTTL(req.ttl);
@@ -718,7 +785,7 @@ public class CMap {
         record.incrementVersion();
         if (!backup) {
             updateIndexes(record);
-            concurrentMapManager.fireMapEvent(mapListeners, EntryEvent.TYPE_ADDED, null, record, req.caller);
+            fireMapEvent(EntryEvent.TYPE_ADDED, null, record, req.caller);
         }
         return true;
     }
@@ -931,18 +998,18 @@ public class CMap {
             ttlPerRecord = true;
         }
         if (sendEvictEvent) {
-            concurrentMapManager.fireMapEvent(mapListeners, EntryEvent.TYPE_EVICTED, null, evictedRecord, req.caller);
+            fireMapEvent(EntryEvent.TYPE_EVICTED, null, evictedRecord, req.caller);
         }
         if (oldValue == null) {
-            concurrentMapManager.fireMapEvent(mapListeners, EntryEvent.TYPE_ADDED, null, record, req.caller);
+            fireMapEvent(EntryEvent.TYPE_ADDED, null, record, req.caller);
         } else {
             fireInvalidation(record);
-            concurrentMapManager.fireMapEvent(mapListeners, EntryEvent.TYPE_UPDATED, oldValue, record, req.caller);
+            fireMapEvent(EntryEvent.TYPE_UPDATED, oldValue, record, req.caller);
         }
         if (req.txnId != -1 || req.operation == ClusterOperation.CONCURRENT_MAP_PUT_AND_UNLOCK) {
             unlock(record, req);
         }
-        record.setIndexes(req.indexes, req.indexTypes);
+        record.setIndexes(req.indexes, req.indexTypes, req.indexData);
         updateIndexes(record);
         markAsDirty(record, false);
         req.clearForResponse();
@@ -1029,6 +1096,7 @@ public class CMap {
             if (partitionManager.shouldPurge(record.getBlockId(), getTotalBackupCount())) {
                 mapIndexService.remove(record);
                 mapRecords.remove(record.getKeyData());
+                releaseOffHeap(record);
             }
         }
     }
@@ -1191,6 +1259,17 @@ public class CMap {
         localMapStats.setBackupEntryMemoryCost(zeroOrPositive(backupEntryMemoryCost));
         localMapStats.setLastEvictionTime(zeroOrPositive(clusterImpl.getClusterTimeFor(lastEvictionTime)));
         localMapStats.setCreationTime(zeroOrPositive(clusterImpl.getClusterTimeFor(creationTime)));
+        localMapStats.setIndexedQueryCount(mapIndexService.getIndexedQueries());
+        localMapStats.setFullScanQueryCount(mapIndexService.getFullScanQueries());
+        for (Index index : mapIndexService.getIndexes().values()) {
+            LocalIndexStatsImpl indexStats = new LocalIndexStatsImpl(String.valueOf(index.getExpression()), index.isOrdered());
+            indexStats.setIndexedEntryCount(index.getIndexedEntries());
+            indexStats.setHits(index.getHits());
+            indexStats.setRangeScanCount(index.getRangeScans());
+            indexStats.setReturnedEntryCount(index.getReturnedEntries());
+            indexStats.setTotalLatencyNanos(index.getTotalLatencyNanos());
+            localMapStats.putIndexStats(indexStats);
+        }
         return localMapStats;
     }
 
@@ -1541,7 +1620,7 @@ public class CMap {
                 }
             }
         }
-        record.setIndexes(req.indexes, req.indexTypes);
+        record.setIndexes(req.indexes, req.indexTypes, req.indexData);
         if (req.lockCount > 0) {
             DistributedLock lock = new DistributedLock(req.lockAddress, req.lockThreadId, req.lockCount);
             record.setLock(lock);
@@ -1564,7 +1643,7 @@ public class CMap {
             removed = true;
         }
         if (removed) {
-            concurrentMapManager.fireMapEvent(mapListeners, EntryEvent.TYPE_REMOVED, null, record, req.caller);
+            fireMapEvent(EntryEvent.TYPE_REMOVED, null, record, req.caller);
             record.incrementVersion();
         }
         req.version = record.getVersion();
@@ -1578,7 +1657,7 @@ public class CMap {
         if (record != null && record.isActive() && record.valueCount() > 0) {
             concurrentMapManager.checkServiceThread();
             fireInvalidation(record);
-            concurrentMapManager.fireMapEvent(mapListeners, EntryEvent.TYPE_EVICTED, null, record, req.caller);
+            fireMapEvent(EntryEvent.TYPE_EVICTED, null, record, req.caller);
             record.incrementVersion();
             markAsEvicted(record);
             req.clearForResponse();
@@ -1606,7 +1685,7 @@ public class CMap {
             }
             if (req.value != null) {
                 if (record.hasValueData()) {
-                    if (!record.getValueData().equals(req.value)) {
+                    if (!record.getValueData().equals(compressValue(req.value))) {
                         return;
                     }
                 }
@@ -1619,6 +1698,7 @@ public class CMap {
             if (oldValue != null) {
                 fireInvalidation(record);
                 concurrentMapManager.fireMapEvent(mapListeners, getName(), EntryEvent.TYPE_REMOVED, record.getKeyData(), null, oldValue, record.getListeners(), req.caller);
+                fireFilteredMapEvent(EntryEvent.TYPE_REMOVED, record, oldValue, null, req.caller);
                 record.incrementVersion();
             }
             markAsRemoved(record);
@@ -1646,9 +1726,12 @@ public class CMap {
                 }
             }
             // on destroy; invalidate all records
-            // on restart; invalidation occurs after merge
+            // on restart; invalidation of owned user records occurs after merge,
+            // off-heap values of the others are dropped here
             if (invalidate) {
                 record.invalidate();
+            } else if (offHeap && (!isUserMap() || !mapIndexService.isOwned(record))) {
+                record.invalidate();
             }
         }
         if (nearCache != null) {
@@ -1662,6 +1745,11 @@ public class CMap {
         if (nearCache != null) {
             nearCache.reset();
         }
+        if (offHeap) {
+            for (Record record : mapRecords.values()) {
+                record.invalidate();
+            }
+        }
         mapRecords.clear();
         mapIndexService.clear();
     }
@@ -1727,6 +1815,17 @@ public class CMap {
     void removeAndPurgeRecord(Record record) {
         if (mapRecords.remove(record.getKeyData(), record)) {
             mapIndexService.remove(record);
+            releaseOffHeap(record);
+        }
+    }
+
+    /**
+     * Off-heap values are not garbage collected,
+     * release them once the record is dropped from this map.
+     */
+    private void releaseOffHeap(Record record) {
+        if (offHeap) {
+            record.invalidate();
         }
     }
 
@@ -1744,6 +1843,9 @@ public class CMap {
                 ttl, maxIdle, concurrentMapManager.newRecordId());
 
         final Record oldRecord = mapRecords.put(key, record);
+        if (oldRecord != null) {
+            releaseOffHeap(oldRecord);
+        }
 
         // for bug tracing!
         if (oldRecord != null && oldRecord.getLock() != null) {
@@ -1769,8 +1871,49 @@ public class CMap {
                 ttl, maxIdle, concurrentMapManager.newRecordId());
     }
 
+    private void fireMapEvent(int eventType, Data oldValue, Record record, Address callerAddress) {
+        concurrentMapManager.fireMapEvent(mapListeners, eventType, oldValue, record, callerAddress);
+        fireFilteredMapEvent(eventType, record, record.getValueData(), oldValue, callerAddress);
+    }
+
+    /**
+     * Fires the event to the listeners whose predicate matches the new or the old value,
+     * so the listeners are notified of the entries leaving the predicate as well.
+     */
+    private void fireFilteredMapEvent(int eventType, Record record, Data value, Data oldValue, Address callerAddress) {
+        if (filteredListeners.isEmpty()) {
+            return;
+        }
+        final MapEntry entry = (value == null) ? null : new DataRecordEntry(record, value, false);
+        final MapEntry oldEntry = (oldValue == null) ? null : new DataRecordEntry(record, oldValue, false);
+        for (FilteredListeners listeners : filteredListeners.values()) {
+            if (listeners.matches(entry) || listeners.matches(oldEntry)) {
+                for (Map.Entry<Address, Boolean> listener : listeners.listeners.entrySet()) {
+                    final Address address = listener.getKey();
+                    concurrentMapManager.fireFilteredMapEvent(address, listener.getValue(), getName(), eventType,
+                            record.getKeyData(), oldValue, value, callerAddress, listeners.filterIds.get(address));
+                }
+            }
+        }
+    }
+
     public void addListener(Data key, Address address, boolean includeValue) {
-        if (key == null || key.size() == 0) {
+        addListener(key, address, includeValue, null, ListenerManager.NO_FILTER);
+    }
+
+    /**
+     * @param filterId id the listening member assigned to the predicate, sent with the events matching it
+     */
+    public void addListener(Data key, Address address, boolean includeValue, Data predicateData, long filterId) {
+        if (predicateData != null) {
+            FilteredListeners listeners = filteredListeners.get(predicateData);
+            if (listeners == null) {
+                listeners = new FilteredListeners(predicateData);
+                filteredListeners.put(predicateData, listeners);
+            }
+            listeners.listeners.put(address, includeValue);
+            listeners.filterIds.put(address, filterId);
+        } else if (key == null || key.size() == 0) {
             mapListeners.put(address, includeValue);
         } else {
             Record rec = getRecord(key);
@@ -1782,7 +1925,20 @@ public class CMap {
     }
 
     public void removeListener(Data key, Address address) {
-        if (key == null || key.size() == 0) {
+        removeListener(key, address, null);
+    }
+
+    public void removeListener(Data key, Address address, Data predicateData) {
+        if (predicateData != null) {
+            final FilteredListeners listeners = filteredListeners.get(predicateData);
+            if (listeners != null) {
+                listeners.listeners.remove(address);
+                listeners.filterIds.remove(address);
+                if (listeners.listeners.isEmpty()) {
+                    filteredListeners.remove(predicateData);
+                }
+            }
+        } else if (key == null || key.size() == 0) {
             mapListeners.remove(address);
         } else {
             Record rec = getRecord(key);
@@ -1792,6 +1948,35 @@ public class CMap {
         }
     }
 
+    /**
+     * Members listening to the entries matching the same predicate.
+     */
+    class FilteredListeners {
+        final Data predicateData;
+        final Map<Address, Boolean> listeners = new HashMap<Address, Boolean>(1);
+        final Map<Address, Long> filterIds = new HashMap<Address, Long>(1);
+        Predicate predicate = null;
+
+        FilteredListeners(Data predicateData) {
+            this.predicateData = predicateData;
+        }
+
+        boolean matches(MapEntry entry) {
+            if (entry == null) {
+                return false;
+            }
+            try {
+                if (predicate == null) {
+                    predicate = (Predicate) toObject(predicateData);
+                }
+                return predicate.apply(entry);
+            } catch (Throwable e) {
+                logger.log(Level.WARNING, "Could not evaluate listener predicate of " + name + ": " + e.getMessage(), e);
+                return false;
+            }
+        }
+    }
+
     public void appendState(StringBuffer sbState) {
         sbState.append("\nCMap [");
         sbState.append(name);
@@ -111,6 +111,8 @@ public enum ClusterOperation {
     CONCURRENT_MAP_FLUSH(100),
     CONCURRENT_MAP_BACKUP_PUT_AND_UNLOCK(101),
     CONCURRENT_MAP_CLEAR_QUICK(102),
+    CONCURRENT_MAP_BACKUP_PUT_ALL(103),
+    CONCURRENT_MAP_EXECUTE_ON_KEY(104),
     //TOPIC
     TOPIC_PUBLISH(111),
     //ATOMIC NUMBER
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.impl.base.DistributedLock;
+import com.hazelcast.impl.concurrentmap.ValueHolder;
+import com.hazelcast.nio.Data;
+import com.hazelcast.util.Clock;
+
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Same semantics as {@link DefaultRecord} with a smaller heap footprint.
+ * <p/>
+ * Timestamps are kept as int seconds relative to the creation time of the map
+ * instead of long millis, so time based operations (ttl, max-idle, eviction)
+ * have a resolution of one second. Expiration is rounded up and the idle time
+ * allows for the rounded down access times, so an entry never expires earlier
+ * than requested.
+ * Lock, backup-ops, indexes, listeners and scheduled actions are only allocated when used.
+ */
+@SuppressWarnings("SynchronizeOnThis")
+public final class CompactRecord extends AbstractRecord {
+
+    private static final int NONE = Integer.MIN_VALUE;
+
+    private static final int NOT_SET = Integer.MIN_VALUE + 1;
+
+    private static final int NEVER = Integer.MAX_VALUE;
+
+    private volatile Object valueObject;
+    private volatile Data value;
+
+    private volatile int maxIdleSeconds = NEVER;
+    private volatile int writeTime = NOT_SET;
+    private volatile int removeTime = NONE;
+    private volatile int lastAccessTime = NONE;
+    private volatile int lastStoredTime = NONE;
+    private volatile int creationTime = NONE;
+    private volatile int expirationTime = NEVER;
+    private volatile int lastUpdateTime = NONE;
+
+    public CompactRecord(CMap cmap, int blockId, Data key, Data value, long ttl, long maxIdleMillis, long id) {
+        super(cmap, blockId, key, id);
+        this.value = compressValue(value);
+        initTimes(ttl, maxIdleMillis);
+    }
+
+    private long epoch() {
+        return cmap.creationTime;
+    }
+
+    private int pack(long millis, boolean roundUp) {
+        if (millis == 0) {
+            return NONE;
+        } else if (millis == -1) {
+            return NOT_SET;
+        } else if (millis == Long.MAX_VALUE) {
+            return NEVER;
+        }
+        long delta = millis - epoch();
+        long seconds = delta / 1000;
+        if (roundUp && delta % 1000 > 0) {
+            seconds++;
+        } else if (!roundUp && delta % 1000 < 0) {
+            seconds--;
+        }
+        if (seconds <= NOT_SET) {
+            return NOT_SET + 1;
+        } else if (seconds >= NEVER) {
+            return NEVER - 1;
+        }
+        return (int) seconds;
+    }
+
+    private long unpack(int seconds) {
+        if (seconds == NONE) {
+            return 0;
+        } else if (seconds == NOT_SET) {
+            return -1;
+        } else if (seconds == NEVER) {
+            return Long.MAX_VALUE;
+        }
+        return epoch() + seconds * 1000L;
+    }
+
+    public Record copy() {
+        Record recordCopy = new CompactRecord(cmap, blockId, key, value, getRemainingTTL(), getRemainingIdle(), id);
+        if (optionalInfo != null) {
+            recordCopy.setIndexes(getOptionalInfo().indexes, getOptionalInfo().indexTypes,
+                    getOptionalInfo().indexData);
+            recordCopy.setMultiValues(getOptionalInfo().lsMultiValues);
+        }
+        final DistributedLock dl = lock;
+        if (dl != null) {
+            recordCopy.setLock(new DistributedLock(dl));
+        }
+        recordCopy.setVersion(getVersion());
+        return recordCopy;
+    }
+
+    protected long getMaxIdleMillis() {
+        final int idle = maxIdleSeconds;
+        return (idle == NEVER) ? Long.MAX_VALUE : idle * 1000L;
+    }
+
+    protected void setMaxIdleMillis(long maxIdleMillis) {
+        if (maxIdleMillis == Long.MAX_VALUE || maxIdleMillis / 1000 >= NEVER) {
+            maxIdleSeconds = NEVER;
+        } else {
+            maxIdleSeconds = (int) ((maxIdleMillis + 999) / 1000);
+        }
+    }
+
+    protected void storeExpirationTime(long expirationTime) {
+        this.expirationTime = pack(expirationTime, true);
+    }
+
+    @Override
+    public void setInvalid() {
+        // expiration is rounded up, go back one full second to be invalid right away
+        expirationTime = pack(Clock.currentTimeMillis() - 1000, false);
+    }
+
+    @Override
+    protected long getTimestampTolerance() {
+        return 999;
+    }
+
+    public long getExpirationTime() {
+        return unpack(expirationTime);
+    }
+
+    public long getCreationTime() {
+        return unpack(creationTime);
+    }
+
+    public void setCreationTime(long newValue) {
+        creationTime = pack(newValue, false);
+    }
+
+    public long getLastAccessTime() {
+        return unpack(lastAccessTime);
+    }
+
+    public void setLastAccessTime(long lastAccessTime) {
+        this.lastAccessTime = pack(lastAccessTime, false);
+    }
+
+    public long getLastUpdateTime() {
+        return unpack(lastUpdateTime);
+    }
+
+    public void setLastUpdateTime(long lastUpdateTime) {
+        this.lastUpdateTime = pack(lastUpdateTime, false);
+    }
+
+    public long getWriteTime() {
+        return unpack(writeTime);
+    }
+
+    public void setWriteTime(long writeTime) {
+        this.writeTime = pack(writeTime, true);
+    }
+
+    public long getRemoveTime() {
+        return unpack(removeTime);
+    }
+
+    public void setRemoveTime(long removeTime) {
+        this.removeTime = pack(removeTime, false);
+    }
+
+    public long getLastStoredTime() {
+        return unpack(lastStoredTime);
+    }
+
+    public void setLastStoredTime(long lastStoredTime) {
+        this.lastStoredTime = pack(lastStoredTime, false);
+    }
+
+    public Data getValueData() {
+        return value;
+    }
+
+    public Object getValue() {
+        if (cmap.isCacheValue()) {
+            final Object currentValue = valueObject;
+            if (currentValue != null) {
+                return currentValue;
+            }
+            synchronized (this) {
+                if (valueObject != null) {
+                    return valueObject;
+                }
+                final Object v = toObject(value);
+                valueObject = v;
+                return v;
+            }
+        } else {
+            return toObject(value);
+        }
+    }
+
+    public Object setValue(Object value) {
+        Object oldValue = getValue();
+        valueObject = value;
+        return oldValue;
+    }
+
+    protected void invalidateValueCache() {
+        if (cmap.isCacheValue()) {
+            valueObject = null;
+        }
+    }
+
+    public void setValueData(Data value) {
+        this.value = compressValue(value);
+        invalidateValueCache();
+    }
+
+    public int valueCount() {
+        int count = 0;
+        if (hasValueData()) {
+            count = 1;
+        } else if (getMultiValues() != null) {
+            count = getMultiValues().size();
+        }
+        return count;
+    }
+
+    public long getCost() {
+        long cost = 0;
+        final Data dataValue = getValueData();
+        final Data dataKey = getKeyData();
+        if (dataValue != null) {
+            cost = dataValue.size();
+            if (valueObject != null) {
+                cost += dataValue.size();
+            }
+        } else if (getMultiValues() != null && getMultiValues().size() > 0) {
+            for (ValueHolder valueHolder : getMultiValues()) {
+                if (valueHolder != null) {
+                    cost += valueHolder.getData().size();
+                }
+            }
+        }
+        return cost + dataKey.size() + 280;
+    }
+
+    public boolean hasValueData() {
+        return value != null;
+    }
+
+    public void invalidate() {
+        value = null;
+        invalidateValueCache();
+    }
+}
@@ -34,20 +34,33 @@ import com.hazelcast.nio.Data;
 import com.hazelcast.nio.Packet;
 import com.hazelcast.nio.Serializer;
 import com.hazelcast.partition.Partition;
+import com.hazelcast.query.Aggregator;
+import com.hazelcast.query.ExplainPredicate;
 import com.hazelcast.query.Index;
 import com.hazelcast.query.MapIndexService;
+import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
 import com.hazelcast.query.QueryContext;
+import com.hazelcast.query.QueryPlan;
 import com.hazelcast.util.Clock;
+import com.hazelcast.util.ConcurrentHashSet;
 import com.hazelcast.util.DistributedTimeoutException;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 
 import static com.hazelcast.core.Instance.InstanceType;
 import static com.hazelcast.impl.ClusterOperation.*;
+import static com.hazelcast.impl.Constants.Objects.OBJECT_NULL;
+import static com.hazelcast.impl.Constants.Objects.OBJECT_REDO;
 import static com.hazelcast.impl.Constants.RedoType.*;
+import static com.hazelcast.impl.Constants.ResponseTypes.RESPONSE_SUCCESS;
 import static com.hazelcast.impl.TransactionImpl.DEFAULT_TXN_TIMEOUT;
 import static com.hazelcast.impl.base.SystemLogService.Level.INFO;
 import static com.hazelcast.impl.base.SystemLogService.Level.TRACE;
@@ -57,6 +70,9 @@ import static com.hazelcast.util.Clock.currentTimeMillis;
 
 public class ConcurrentMapManager extends BaseManager {
     private static final String BATCH_OPS_EXECUTOR_NAME = "hz.batch";
+    private static final int MIN_PARALLEL_QUERY_SIZE = 10000;
+    private static final int MIN_PARALLEL_QUERY_SLICE_SIZE = 1000;
+    private static final long ENTRY_PROCESSOR_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
 
     final int partitionCount;
     final int maxBackupCount;
@@ -68,11 +84,16 @@ public class ConcurrentMapManager extends BaseManager {
     final ConcurrentMap<String, NearCache> mapCaches;
     final PartitionServiceImpl partitionServiceImpl;
     final PartitionManager partitionManager;
-    long newRecordId = 0;
+    final AtomicLong newRecordId = new AtomicLong();
     final ParallelExecutor storeExecutor;
     final ParallelExecutor evictionExecutor;
     final RecordFactory recordFactory;
+    final int batchSize;
     final Collection<WanMergeListener> colWanMergeListeners = new CopyOnWriteArrayList<WanMergeListener>();
+    final ConcurrentMap<Long, QueryCursor> queryCursors = new ConcurrentHashMap<Long, QueryCursor>();
+    final AtomicLong queryCursorIds = new AtomicLong();
+    final long queryCursorTimeoutMillis;
+    final Set<AsyncCompletion> pendingAsyncCalls = new ConcurrentHashSet<AsyncCompletion>();
 
     ConcurrentMapManager(final Node node) {
         super(node);
@@ -83,6 +104,7 @@ public class ConcurrentMapManager extends BaseManager {
         partitionCount = node.groupProperties.CONCURRENT_MAP_PARTITION_COUNT.getInteger();
         maxBackupCount = MapConfig.MAX_BACKUP_COUNT;
         backupRedoEnabled = node.groupProperties.BACKUP_REDO_ENABLED.getBoolean();
+        batchSize = Math.max(1, node.groupProperties.CONCURRENT_MAP_BATCH_SIZE.getInteger());
         int removeDelaySeconds = node.groupProperties.REMOVE_DELAY_SECONDS.getInteger();
         if (removeDelaySeconds <= 0) {
             logger.log(Level.WARNING, GroupProperties.PROP_REMOVE_DELAY_SECONDS
@@ -90,6 +112,7 @@ public class ConcurrentMapManager extends BaseManager {
             removeDelaySeconds = 1;
         }
         globalRemoveDelayMillis = removeDelaySeconds * 1000L;
+        queryCursorTimeoutMillis = node.groupProperties.QUERY_CURSOR_TIMEOUT_SECONDS.getLong() * 1000L;
         logState = node.groupProperties.LOG_STATE.getBoolean();
         maps = new ConcurrentHashMap<String, CMap>(10, 0.75f, 1);
         mapCaches = new ConcurrentHashMap<String, NearCache>(10, 0.75f, 1);
@@ -97,7 +120,9 @@ public class ConcurrentMapManager extends BaseManager {
         partitionServiceImpl = new PartitionServiceImpl(this);
         node.executorManager.getScheduledExecutorService().scheduleAtFixedRate(new Runnable() {
             public void run() {
+                checkAsyncCallTimeouts();
                 startCleanup(true, false);
+                removeIdleQueryCursors();
             }
         }, 1, 1, TimeUnit.SECONDS);
         registerPacketProcessor(CONCURRENT_MAP_GET_MAP_ENTRY, new GetMapEntryOperationHandler());
@@ -120,6 +145,10 @@ public class ConcurrentMapManager extends BaseManager {
         registerPacketProcessor(CONCURRENT_MAP_EVICT, new EvictOperationHandler());
         registerPacketProcessor(CONCURRENT_MAP_REMOVE_IF_SAME, new RemoveIfSameOperationHandler());
         registerPacketProcessor(CONCURRENT_MAP_REMOVE_ITEM, new RemoveItemOperationHandler());
+        registerPacketProcessor(CONCURRENT_MAP_EXECUTE_ON_KEY, new EntryProcessOperationHandler());
+        registerPacketProcessor(CONCURRENT_MAP_GET_ALL, new GetAllOperationHandler());
+        registerPacketProcessor(CONCURRENT_MAP_PUT_ALL, new PutAllOperationHandler());
+        registerPacketProcessor(CONCURRENT_MAP_BACKUP_PUT_ALL, new BackupPutAllOperationHandler());
         registerPacketProcessor(CONCURRENT_MAP_BACKUP_PUT, new BackupOperationHandler());
         registerPacketProcessor(CONCURRENT_MAP_BACKUP_PUT_AND_UNLOCK, new BackupOperationHandler());
         registerPacketProcessor(CONCURRENT_MAP_BACKUP_ADD, new BackupOperationHandler());
@@ -191,10 +220,15 @@ public class ConcurrentMapManager extends BaseManager {
     public void reset() {
         maps.clear();
         mapCaches.clear();
+        queryCursors.clear();
         partitionManager.reset();
     }
 
     public void shutdown() {
+        final IllegalStateException notActive = new IllegalStateException("Hazelcast Instance is not active!");
+        for (AsyncCompletion completion : pendingAsyncCalls) {
+            completion.fail(notActive);
+        }
         for (CMap cmap : maps.values()) {
             try {
                 logger.log(Level.FINEST, "Destroying CMap[" + cmap.name + "]");
@@ -210,6 +244,20 @@ public class ConcurrentMapManager extends BaseManager {
         partitionManager.shutdown();
     }
 
+    /**
+     * Fails the async calls without a response for <tt>maxOperationTimeout</tt>,
+     * the no-response timeout of a waiting thread.
+     */
+    void checkAsyncCallTimeouts() {
+        if (pendingAsyncCalls.isEmpty()) {
+            return;
+        }
+        final long now = Clock.currentTimeMillis();
+        for (AsyncCompletion completion : pendingAsyncCalls) {
+            completion.checkTimeout(now);
+        }
+    }
+
     public void flush(String name) {
         CMap cmap = getMap(name);
         if (cmap != null && cmap.store != null && cmap.writeDelayMillis > 0) {
@@ -844,6 +892,10 @@ public class ConcurrentMapManager extends BaseManager {
     }
 
     Pairs doGetAll(String name, Set keys) throws ExecutionException, InterruptedException {
+        final CMap cmap = getOrCreateMapAndWait(name);
+        if (cmap != null && cmap.loader == null) {
+            return getAllBatched(name, keys);
+        }
         Pairs results = new Pairs(keys.size());
         final Map<Member, Keys> targetMembers = new HashMap<Member, Keys>(10);
         for (Object key : keys) {
@@ -935,6 +987,9 @@ public class ConcurrentMapManager extends BaseManager {
             try {
                 Entries entries = new Entries(this, name, operation, predicate);
                 tryQuery(entries, name, operation, predicateData);
+                if (predicate instanceof PagingPredicate) {
+                    entries.selectPage((PagingPredicate) predicate);
+                }
                 return entries;
             } catch (Throwable e) {
                 if (e instanceof MemberLeftException || e instanceof IllegalPartitionState) {
@@ -960,6 +1015,14 @@ public class ConcurrentMapManager extends BaseManager {
         }
     }
 
+    /**
+     * Returns an iterator fetching the query results from the members in chunks.
+     */
+    CloseableIterator iterate(String name, ClusterOperation operation, Predicate predicate, int fetchSize) {
+        return new QueryResultIterator(node.factory.getExecutorService(BATCH_OPS_EXECUTOR_NAME),
+                node.getClusterImpl().getMembers(), node.factory, name, operation, predicate, fetchSize);
+    }
+
     void tryQuery(Entries entries, String name, ClusterOperation operation, Data predicateData) throws ExecutionException, InterruptedException {
         Set<Member> members = node.getClusterImpl().getMembers();
         List<Future<Pairs>> lsFutures = new ArrayList<Future<Pairs>>();
@@ -992,12 +1055,69 @@ public class ConcurrentMapManager extends BaseManager {
             Pairs pairs = queryMap(cmap, operation, predicate);
             if (partitionManager.getVersion() == partitionVersion) {
                 entries.addEntries(pairs);
+                if (predicate instanceof PagingPredicate) {
+                    entries.selectPage((PagingPredicate) predicate);
+                }
                 return entries;
             }
             entries.clearEntries();
         }
     }
 
+    public Object aggregate(String name, Aggregator aggregator, Predicate predicate) {
+        Data aggregatorData = toData(aggregator);
+        Data predicateData = toData(predicate);
+        while (true) {
+            try {
+                Aggregator result = (Aggregator) toObject(aggregatorData);
+                tryAggregate(result, name, aggregatorData, predicateData);
+                return result.getResult();
+            } catch (Throwable e) {
+                if (e instanceof MemberLeftException || e instanceof IllegalPartitionState) {
+                    try {
+                        Thread.sleep(redoWaitMillis);
+                    } catch (InterruptedException e1) {
+                        handleInterruptedException(true, CONCURRENT_MAP_ITERATE_VALUES);
+                    }
+                } else if (e instanceof InterruptedException) {
+                    handleInterruptedException(true, CONCURRENT_MAP_ITERATE_VALUES);
+                } else if (e instanceof ExecutionException) {
+                    Throwable cause = e.getCause();
+                    if (cause != null && cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else {
+                        throw new RuntimeException(e);
+                    }
+                } else {
+                    Util.throwUncheckedException(e);
+                    return null; // not reachable
+                }
+            }
+        }
+    }
+
+    void tryAggregate(Aggregator result, String name, Data aggregatorData, Data predicateData) throws ExecutionException, InterruptedException {
+        Set<Member> members = node.getClusterImpl().getMembers();
+        List<Future<Object>> lsFutures = new ArrayList<Future<Object>>();
+        int expectedPartitionVersion = partitionManager.getVersion();
+        for (Member member : members) {
+            if (!member.isLiteMember()) {
+                Callable callable = new AggregationCallable(name, aggregatorData, predicateData, expectedPartitionVersion);
+                DistributedTask<Object> dt = new DistributedTask<Object>(callable, member);
+                lsFutures.add(dt);
+                node.factory.getExecutorService(BATCH_OPS_EXECUTOR_NAME).execute(dt);
+            }
+        }
+        for (Future<Object> future : lsFutures) {
+            Aggregator partial = (Aggregator) future.get();
+            if (partial == null) {
+                throw new IllegalPartitionState("Unexpected partition version!");
+            } else {
+                result.combine(partial);
+            }
+        }
+    }
+
     void doPutAll(String name, Map entries) {
         Pairs pairs = new Pairs(entries.size());
         for (Object key : entries.keySet()) {
@@ -1027,6 +1147,11 @@ public class ConcurrentMapManager extends BaseManager {
     }
 
     void doPutAll(String name, Pairs pairs) throws ExecutionException, InterruptedException {
+        final CMap cmap = getOrCreateMapAndWait(name);
+        if (cmap != null && (cmap.store == null || cmap.writeDelayMillis != 0)) {
+            putAllBatched(cmap, pairs.getKeyValues());
+            return;
+        }
         final Map<Member, Pairs> targetMembers = new HashMap<Member, Pairs>(10);
         for (KeyValue keyValue : pairs.getKeyValues()) {
             Member owner = partitionServiceImpl.getPartition(keyValue.getKeyData()).getOwner();
@@ -1055,6 +1180,557 @@ public class ConcurrentMapManager extends BaseManager {
         }
     }
 
+    private CMap getOrCreateMapAndWait(final String name) {
+        CMap cmap = getMap(name);
+        if (cmap == null) {
+            enqueueAndWait(new Processable() {
+                public void process() {
+                    getOrCreateMap(name);
+                }
+            }, 100);
+            cmap = getMap(name);
+        }
+        return cmap;
+    }
+
+    /**
+     * getAll of a map without a MapLoader. Keys are sent to their owners in batches,
+     * keys of migrating partitions are regrouped and sent again.
+     */
+    private Pairs getAllBatched(String name, Set keys) {
+        final Pairs results = new Pairs(keys.size());
+        List<KeyValue> pending = new ArrayList<KeyValue>(keys.size());
+        for (Object key : keys) {
+            pending.add(new KeyValue(toData(key), null));
+        }
+        while (true) {
+            final List<KeyValue> redo = new ArrayList<KeyValue>();
+            final List<MBatch> calls = sendBatches(CONCURRENT_MAP_GET_ALL, name, pending, null, redo);
+            for (MBatch call : calls) {
+                final MapEntryBatch response = call.getResponse();
+                if (response == null) {
+                    redo.addAll(call.entries);
+                    continue;
+                }
+                for (int i = 0; i < response.size(); i++) {
+                    final KeyValue entry = call.entries.get(i);
+                    if (response.isRedo(i)) {
+                        redo.add(entry);
+                    } else if (response.getValue(i) != null) {
+                        results.addKeyValue(new KeyValue(entry.getKeyData(), response.getValue(i)));
+                    }
+                }
+            }
+            if (redo.isEmpty()) {
+                return results;
+            }
+            waitBeforeBatchRedo(CONCURRENT_MAP_GET_ALL);
+            pending = redo;
+        }
+    }
+
+    /**
+     * putAll of a map without a write-through MapStore. Owners apply each batch in
+     * a single pass and the caller backs the applied entries up in batches.
+     * Entries an owner can't apply right away, e.g. locked keys, are put one by one.
+     */
+    private void putAllBatched(CMap cmap, List<KeyValue> entries) {
+        final String name = cmap.getName();
+        final MapIndexService indexService = cmap.getMapIndexService();
+        List<KeyValue> pending = entries;
+        while (true) {
+            final List<KeyValue> redo = new ArrayList<KeyValue>();
+            final List<KeyValue> rejected = new ArrayList<KeyValue>();
+            final List<MBatch> calls = sendBatches(CONCURRENT_MAP_PUT_ALL, name, pending,
+                    indexService.hasIndexedAttributes() ? indexService : null, redo);
+            final BatchBackups backups = new BatchBackups(cmap);
+            for (MBatch call : calls) {
+                final MapEntryBatch response = call.getResponse();
+                if (response == null) {
+                    redo.addAll(call.entries);
+                    continue;
+                }
+                for (int i = 0; i < response.size(); i++) {
+                    if (response.isRedo(i)) {
+                        redo.add(call.entries.get(i));
+                    } else if (response.isRejected(i)) {
+                        rejected.add(call.entries.get(i));
+                    } else {
+                        backups.add(call.batch, i, response.getVersion(i));
+                    }
+                }
+            }
+            backups.send();
+            for (KeyValue entry : rejected) {
+                new MPut().set(name, entry.getKeyData(), entry.getValueData(), -1);
+            }
+            if (redo.isEmpty()) {
+                return;
+            }
+            waitBeforeBatchRedo(CONCURRENT_MAP_PUT_ALL);
+            pending = redo;
+        }
+    }
+
+    /**
+     * Applies the processor to the entries matching the predicate. The processor and the
+     * predicate are sent to each member once, which evaluates the predicate over the entries
+     * it owns and processes the matches, see {@link #executeOnOwnedEntries}. If a member
+     * leaves or the partitions change before a member started, the matching keys not
+     * processed yet are queried and sent to their owners.
+     *
+     * @return non-null results of the processor
+     */
+    public Pairs executeOnEntries(String name, EntryProcessor processor, Predicate predicate) {
+        final Data processorData = toData(processor);
+        final Data predicateData = toData(predicate);
+        final int expectedPartitionVersion = partitionManager.getVersion();
+        final List<DistributedTask<Pairs>> tasks = new ArrayList<DistributedTask<Pairs>>();
+        for (Member member : node.getClusterImpl().getMembers()) {
+            if (!member.isLiteMember()) {
+                final EntryProcessorCallable callable = new EntryProcessorCallable(name, processorData,
+                        predicateData, expectedPartitionVersion);
+                final DistributedTask<Pairs> task = new DistributedTask<Pairs>(callable, member);
+                tasks.add(task);
+                node.factory.getExecutorService(BATCH_OPS_EXECUTOR_NAME).execute(task);
+            }
+        }
+        final Pairs results = new Pairs();
+        final Set<Data> processedKeys = new HashSet<Data>();
+        boolean complete = true;
+        for (DistributedTask<Pairs> task : tasks) {
+            try {
+                final Pairs pairs = task.get();
+                if (pairs == null) {
+                    complete = false;
+                } else if (pairs.getKeyValues() != null) {
+                    for (KeyValue keyValue : pairs.getKeyValues()) {
+                        processedKeys.add(keyValue.getKeyData());
+                        if (keyValue.getValueData() != null) {
+                            results.addKeyValue(keyValue);
+                        }
+                    }
+                }
+            } catch (MemberLeftException e) {
+                complete = false;
+            } catch (ExecutionException e) {
+                Util.throwUncheckedException(e.getCause());
+            } catch (InterruptedException e) {
+                handleInterruptedException(true, CONCURRENT_MAP_EXECUTE_ON_KEY);
+            }
+        }
+        if (!complete) {
+            final Entries entries = query(name, CONCURRENT_MAP_ITERATE_KEYS, predicate);
+            final List<Data> keys = new ArrayList<Data>();
+            for (Map.Entry entry : entries.getKeyValues()) {
+                final Data key = (entry instanceof KeyValue) ? ((KeyValue) entry).getKeyData() : toData(entry.getKey());
+                if (!processedKeys.contains(key)) {
+                    keys.add(key);
+                }
+            }
+            executeOnKeys(name, processorData, keys, results);
+        }
+        return results;
+    }
+
+    /**
+     * Sends the keys to their owners which process them in batches and back them up.
+     * Keys of an owner leaving the cluster are processed one by one.
+     */
+    private void executeOnKeys(String name, Data processorData, List<Data> keys, Pairs results) {
+        final Map<Member, List<Data>> ownerKeys = new HashMap<Member, List<Data>>();
+        for (Data key : keys) {
+            Member owner = partitionServiceImpl.getPartition(key).getOwner();
+            if (owner == null) {
+                owner = thisMember;
+            }
+            List<Data> list = ownerKeys.get(owner);
+            if (list == null) {
+                list = new ArrayList<Data>();
+                ownerKeys.put(owner, list);
+            }
+            list.add(key);
+        }
+        final Map<DistributedTask<Pairs>, List<Data>> tasks = new HashMap<DistributedTask<Pairs>, List<Data>>();
+        for (Map.Entry<Member, List<Data>> owner : ownerKeys.entrySet()) {
+            final EntryProcessorCallable callable = new EntryProcessorCallable(name, processorData, owner.getValue());
+            final DistributedTask<Pairs> task = new DistributedTask<Pairs>(callable, owner.getKey());
+            tasks.put(task, owner.getValue());
+            node.factory.getExecutorService(BATCH_OPS_EXECUTOR_NAME).execute(task);
+        }
+        for (DistributedTask<Pairs> task : tasks.keySet()) {
+            try {
+                final Pairs pairs = task.get();
+                if (pairs.getKeyValues() != null) {
+                    for (KeyValue keyValue : pairs.getKeyValues()) {
+                        results.addKeyValue(keyValue);
+                    }
+                }
+            } catch (MemberLeftException e) {
+                for (Data key : tasks.get(task)) {
+                    addProcessorResult(results, key, new MEntryProcess().execute(name, key, processorData), false);
+                }
+            } catch (ExecutionException e) {
+                Util.throwUncheckedException(e.getCause());
+            } catch (InterruptedException e) {
+                handleInterruptedException(true, CONCURRENT_MAP_EXECUTE_ON_KEY);
+            }
+        }
+    }
+
+    /**
+     * Applies the processor to the entries owned by this member which match the predicate,
+     * called by {@link EntryProcessorCallable}. The predicate is evaluated like
+     * {@link #aggregateMap} does and the matching keys are processed by
+     * {@link #executeOnOwnedKeys}, so keys which moved meanwhile are processed one by one.
+     *
+     * @return the processed keys with the results of the processor, <tt>null</tt> results
+     *         included, or <tt>null</tt> if the partitions changed before anything was processed
+     */
+    public Pairs executeOnOwnedEntries(String name, Data processorData, Predicate predicate, int partitionVersion) {
+        if (partitionManager.getVersion() != partitionVersion) {
+            return null;
+        }
+        final CMap cmap = getMap(name);
+        if (cmap == null) {
+            return new Pairs();
+        }
+        final MapIndexService mapIndexService = cmap.getMapIndexService();
+        final QueryContext queryContext = new QueryContext(name, predicate, mapIndexService);
+        final Collection<MapEntry> records = mapIndexService.doQuery(queryContext);
+        final List<Data> keys = new ArrayList<Data>();
+        if (records != null) {
+            final boolean evaluateValues = (predicate != null && !queryContext.isStrong());
+            final long now = currentTimeMillis();
+            for (MapEntry mapEntry : records) {
+                final Record record = (Record) mapEntry;
+                if (record.isActive() && record.isValid(now) && record.hasValueData()
+                        && (!evaluateValues || predicate.apply(record))) {
+                    keys.add(record.getKeyData());
+                }
+            }
+        }
+        if (partitionManager.getVersion() != partitionVersion) {
+            return null;
+        }
+        return executeOnOwnedKeys(name, processorData, keys, true);
+    }
+
+    /**
+     * Applies the processor to the given keys on their owner, called by
+     * {@link EntryProcessorCallable}. Entries are processed on the ServiceThread in slices
+     * of at most <tt>hazelcast.map.batch.size</tt> entries and about a millisecond, so other
+     * operations are not held up by a large batch, and backed up in batches. Keys which are
+     * locked, have moved to another member or belong to a map with a write-through MapStore
+     * are processed one by one.
+     *
+     * @return non-null results of the processor
+     */
+    public Pairs executeOnOwnedKeys(String name, Data processorData, List<Data> keys) {
+        return executeOnOwnedKeys(name, processorData, keys, false);
+    }
+
+    private Pairs executeOnOwnedKeys(final String name, final Data processorData, final List<Data> keys,
+                                     final boolean withNullResults) {
+        final CMap cmap = getOrCreateMapAndWait(name);
+        final Pairs results = new Pairs(keys.size());
+        final List<Data> rejected = new ArrayList<Data>();
+        if (cmap.store != null && cmap.writeDelayMillis == 0) {
+            rejected.addAll(keys);
+        } else {
+            final EntryProcessor processor = (EntryProcessor) toObject(processorData);
+            final int threadId = ThreadContext.get().getThreadId();
+            final BatchBackups backups = new BatchBackups(cmap);
+            final int[] next = new int[1];
+            while (next[0] < keys.size()) {
+                final MapEntryBatch applied = new MapEntryBatch(Math.min(batchSize, keys.size() - next[0]));
+                final Exception[] error = new Exception[1];
+                enqueueAndWait(new Processable() {
+                    public void process() {
+                        final long sliceEnd = System.nanoTime() + ENTRY_PROCESSOR_SLICE_NANOS;
+                        final int end = Math.min(next[0] + batchSize, keys.size());
+                        final Request entry = new Request();
+                        while (next[0] < end) {
+                            final Data key = keys.get(next[0]++);
+                            entry.reset();
+                            entry.local = true;
+                            entry.operation = CONCURRENT_MAP_EXECUTE_ON_KEY;
+                            entry.name = name;
+                            entry.key = key;
+                            entry.caller = thisAddress;
+                            entry.lockAddress = thisAddress;
+                            entry.lockThreadId = threadId;
+                            final Record record = cmap.getRecord(entry);
+                            if (!thisAddress.equals(getKeyOwner(entry)) || isMigrating(entry)
+                                    || !cmap.isNotLocked(entry) || !testLock(entry)
+                                    || (cmap.loader != null && (record == null || record.isLoadable()))) {
+                                rejected.add(key);
+                                continue;
+                            }
+                            final ProcessorEntry processorEntry = new ProcessorEntry(key, cmap.get(entry));
+                            try {
+                                addProcessorResult(results, key, processor.process(processorEntry), withNullResults);
+                            } catch (Exception e) {
+                                error[0] = e;
+                                return;
+                            }
+                            if (processorEntry.getState() != ProcessorEntry.UNCHANGED) {
+                                final int index = applied.add(key, applyEntryChange(cmap, entry, processorEntry));
+                                applied.setVersion(index, entry.version);
+                                if (entry.indexes != null) {
+                                    applied.setIndexes(index, entry.indexes, entry.indexTypes, entry.indexData);
+                                }
+                            }
+                            if (System.nanoTime() - sliceEnd >= 0) {
+                                // give the other operations waiting for the ServiceThread their turn
+                                return;
+                            }
+                        }
+                    }
+                });
+                for (int i = 0; i < applied.size(); i++) {
+                    backups.add(applied, i, applied.getVersion(i));
+                }
+                if (error[0] != null) {
+                    backups.send();
+                    Util.throwUncheckedException(error[0]);
+                }
+            }
+            backups.send();
+        }
+        for (Data key : rejected) {
+            addProcessorResult(results, key, new MEntryProcess().execute(name, key, processorData), withNullResults);
+        }
+        return results;
+    }
+
+    private static void addProcessorResult(Pairs results, Data key, Object result, boolean withNullResults) {
+        if (result != null) {
+            results.addKeyValue(new KeyValue(key, toData(result)));
+        } else if (withNullResults) {
+            results.addKeyValue(new KeyValue(key, null));
+        }
+    }
+
+    private void waitBeforeBatchRedo(ClusterOperation operation) {
+        try {
+            //noinspection BusyWait
+            Thread.sleep(redoWaitMillis);
+        } catch (InterruptedException e) {
+            handleInterruptedException(true, operation);
+        }
+        node.checkNodeState();
+    }
+
+    /**
+     * Groups entries by the owner of their keys and sends them in batches of at most
+     * <tt>hazelcast.map.batch.size</tt> entries. All batches are sent before any response
+     * is awaited. Entries whose owner is not known yet are added to <tt>unassigned</tt>.
+     */
+    private List<MBatch> sendBatches(ClusterOperation operation, String name, List<KeyValue> entries,
+                                     MapIndexService indexService, List<KeyValue> unassigned) {
+        final Map<Address, List<KeyValue>> ownerEntries = new HashMap<Address, List<KeyValue>>();
+        for (KeyValue entry : entries) {
+            final Address owner = getKeyOwnerAddress(entry.getKeyData());
+            if (owner == null) {
+                unassigned.add(entry);
+                continue;
+            }
+            List<KeyValue> list = ownerEntries.get(owner);
+            if (list == null) {
+                list = new ArrayList<KeyValue>();
+                ownerEntries.put(owner, list);
+            }
+            list.add(entry);
+        }
+        final List<MBatch> calls = new ArrayList<MBatch>();
+        for (Map.Entry<Address, List<KeyValue>> owner : ownerEntries.entrySet()) {
+            final List<KeyValue> list = owner.getValue();
+            for (int from = 0; from < list.size(); from += batchSize) {
+                final List<KeyValue> chunk = list.subList(from, Math.min(from + batchSize, list.size()));
+                final MapEntryBatch batch = new MapEntryBatch(chunk.size());
+                for (KeyValue entry : chunk) {
+                    final int index = batch.add(entry.getKeyData(), entry.getValueData());
+                    if (indexService != null) {
+                        final Object indexedValue = indexService.toIndexedValue(entry.getValueData());
+                        batch.setIndexes(index, indexService.getIndexValues(indexedValue),
+                                indexService.getIndexTypes(), indexService.getIndexData(indexedValue));
+                    }
+                }
+                final MBatch call = new MBatch(owner.getKey(), operation, name, batch, chunk);
+                call.doOp();
+                calls.add(call);
+            }
+        }
+        return calls;
+    }
+
+    private Address getKeyOwnerAddress(Data key) {
+        final Address owner = partitionManager.getPartition(getPartitionId(key)).getOwner();
+        if (owner != null) {
+            return owner;
+        }
+        final MemberImpl member = (MemberImpl) partitionServiceImpl.getPartition(key).getOwner();
+        return (member == null) ? null : member.getAddress();
+    }
+
+    /**
+     * Sends a {@link MapEntryBatch} to a single member. There is no automatic redo,
+     * entries of a batch which can't be handled are regrouped by the caller.
+     */
+    class MBatch extends SubCall {
+        final MapEntryBatch batch;
+        final List<KeyValue> entries;
+
+        MBatch(Address target, ClusterOperation operation, String name, MapEntryBatch batch, List<KeyValue> entries) {
+            super(target);
+            this.batch = batch;
+            this.entries = entries;
+            setLocal(operation, name, null, batch, -1, -1);
+            request.setObjectRequest();
+        }
+
+        /**
+         * @return response of the member, null if the batch has to be sent again
+         */
+        MapEntryBatch getResponse() {
+            final Object result = getResultAsObject(false);
+            if (result instanceof MapEntryBatch) {
+                return (MapEntryBatch) result;
+            } else if (result instanceof AddressAwareException) {
+                rethrowException(request.operation, (AddressAwareException) result);
+            } else if (result instanceof Throwable) {
+                Util.throwUncheckedException((Throwable) result);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Applied putAll entries grouped by backup member and replica index,
+     * sent as one batch per member instead of one backup call per entry.
+     * Entries without a value are backed up as removals.
+     */
+    class BatchBackups {
+        final CMap cmap;
+        final int backupCount;
+        final int totalBackupCount;
+        final Map<Address, MapEntryBatch>[] replicaBatches;
+        final List<MBatch> syncBackups = new ArrayList<MBatch>();
+        final List<Integer> syncReplicas = new ArrayList<Integer>();
+
+        @SuppressWarnings("unchecked")
+        BatchBackups(CMap cmap) {
+            this.cmap = cmap;
+            int localBackupCount = 0;
+            int localAsyncBackupCount = 0;
+            final int maxBackup = dataMemberCount.get() - 1;
+            if (maxBackup > 0) {
+                localBackupCount = Math.min(cmap.getBackupCount(), maxBackup);
+                localAsyncBackupCount = Math.min(cmap.getAsyncBackupCount(), (maxBackup - localBackupCount));
+            }
+            backupCount = Math.max(localBackupCount, 0);
+            totalBackupCount = backupCount + Math.max(localAsyncBackupCount, 0);
+            replicaBatches = new Map[totalBackupCount];
+            for (int i = 0; i < totalBackupCount; i++) {
+                replicaBatches[i] = new HashMap<Address, MapEntryBatch>();
+            }
+        }
+
+        void add(MapEntryBatch source, int index, long version) {
+            final Data key = source.getKey(index);
+            final int partitionId = getPartitionId(key);
+            for (int i = 0; i < totalBackupCount; i++) {
+                final Address target = getBackupMember(partitionId, i + 1);
+                if (target == null) {
+                    continue;
+                }
+                MapEntryBatch batch = replicaBatches[i].get(target);
+                if (batch == null) {
+                    batch = new MapEntryBatch(batchSize);
+                    replicaBatches[i].put(target, batch);
+                }
+                final int backupIndex = batch.add(key, source.getValue(index));
+                batch.setVersion(backupIndex, version);
+                if (source.getIndexes(index) != null) {
+                    batch.setIndexes(backupIndex, source.getIndexes(index), source.getIndexTypes(index),
+                            source.getIndexData(index));
+                }
+                if (batch.size() == batchSize) {
+                    send(i, target, batch);
+                    replicaBatches[i].remove(target);
+                }
+            }
+        }
+
+        private void send(int replica, Address target, MapEntryBatch batch) {
+            final MBatch backup = new MBatch(target, CONCURRENT_MAP_BACKUP_PUT_ALL, cmap.getName(), batch, null);
+            backup.request.longValue = replica + 1;
+            backup.doOp();
+            if (replica < backupCount) {
+                syncBackups.add(backup);
+                syncReplicas.add(replica + 1);
+            }
+        }
+
+        /**
+         * Sends an entry of a backup batch again on its own, like the backup of a
+         * single put, for the entries the backup member answered with REDO.
+         */
+        private void resend(int replicaIndex, MapEntryBatch batch, int index) {
+            final Request entry = new Request();
+            entry.name = cmap.getName();
+            entry.key = batch.getKey(index);
+            entry.value = batch.getValue(index);
+            entry.version = batch.getVersion(index);
+            entry.blockId = getPartitionId(entry.key);
+            if (batch.getIndexes(index) != null) {
+                entry.setIndexes(batch.getIndexes(index), batch.getIndexTypes(index), batch.getIndexData(index));
+            }
+            final ClusterOperation operation = (entry.value == null)
+                    ? CONCURRENT_MAP_BACKUP_REMOVE : CONCURRENT_MAP_BACKUP_PUT;
+            final MBackup backupOp = new MBackup();
+            backupOp.sendBackup(operation, replicaIndex, entry);
+            try {
+                if (!backupOp.getResultAsBoolean()) {
+                    logger.log(Level.FINEST, "Backup failed -> " + entry);
+                }
+            } catch (HazelcastException e) {
+                final Level level = backupRedoEnabled ? Level.WARNING : Level.FINEST;
+                logger.log(level, "Backup operation [" + operation + "] has failed! "
+                        + e.getClass().getName() + ": " + e.getMessage());
+            }
+        }
+
+        void send() {
+            for (int i = 0; i < totalBackupCount; i++) {
+                for (Map.Entry<Address, MapEntryBatch> entry : replicaBatches[i].entrySet()) {
+                    send(i, entry.getKey(), entry.getValue());
+                }
+                replicaBatches[i].clear();
+            }
+            for (int i = 0; i < syncBackups.size(); i++) {
+                final MBatch backup = syncBackups.get(i);
+                final int replicaIndex = syncReplicas.get(i);
+                MapEntryBatch response = null;
+                try {
+                    response = backup.getResponse();
+                } catch (HazelcastException e) {
+                    final Level level = backupRedoEnabled ? Level.WARNING : Level.FINEST;
+                    logger.log(level, "Backup operation [" + CONCURRENT_MAP_BACKUP_PUT_ALL + "] has failed! "
+                            + e.getClass().getName() + ": " + e.getMessage());
+                }
+                for (int j = 0; j < backup.batch.size(); j++) {
+                    if (response == null || response.isRedo(j)) {
+                        resend(replicaIndex, backup.batch, j);
+                    }
+                }
+            }
+            syncBackups.clear();
+            syncReplicas.clear();
+        }
+    }
+
     class MGet extends MTargetAwareOp {
         Object keyObject = null;
 
@@ -1096,34 +1772,9 @@ public class ConcurrentMapManager extends BaseManager {
                     }
                 }
                 dataKey = toData(key);
-                Record ownedRecord = cMap.getOwnedRecord(dataKey);
-                if (ownedRecord != null && ownedRecord.isActive() && ownedRecord.isValid()) {
-                    long version = ownedRecord.getVersion();
-                    Object result = null;
-                    if (tc.isClient()) {
-                        final Data valueData = ownedRecord.getValueData();
-                        if (valueData != null && valueData.size() > 0) {
-                            result = valueData;
-                        }
-                    } else {
-                        final Object value = ownedRecord.getValue();
-                        if (value != null) {
-                            result = value;
-                        }
-                    }
-                    if (result != null && ownedRecord.getVersion() == version) {
-                        ownedRecord.setLastAccessed();
-                        return result;
-                    }
-                }
-                if (cMap.isReadBackupData()) {
-                    final Record record = cMap.mapRecords.get(dataKey);
-                    if (record != null && record.isActive() && record.isValid()) {
-                        final Data valueData = record.getValueData();
-                        if (valueData != null && valueData.size() > 0) {
-                            return tc.isClient() ? valueData : toObject(valueData);
-                        }
-                    }
+                Object value = getLocal(cMap, dataKey, tc.isClient());
+                if (value != null) {
+                    return value;
                 }
             }
             if (dataKey == null) {
@@ -1136,6 +1787,43 @@ public class ConcurrentMapManager extends BaseManager {
             return value;
         }
 
+        /**
+         * Value of an owned record, or of a backup when backup reads are enabled.
+         * Null when the value has to be asked to the owner.
+         */
+        Object getLocal(CMap cMap, Data dataKey, boolean client) {
+            Record ownedRecord = cMap.getOwnedRecord(dataKey);
+            if (ownedRecord != null && ownedRecord.isActive() && ownedRecord.isValid()) {
+                long version = ownedRecord.getVersion();
+                Object result = null;
+                if (client) {
+                    final Data valueData = ownedRecord.getValueData();
+                    if (valueData != null && valueData.size() > 0) {
+                        result = valueData;
+                    }
+                } else {
+                    final Object value = ownedRecord.getValue();
+                    if (value != null) {
+                        result = value;
+                    }
+                }
+                if (result != null && ownedRecord.getVersion() == version) {
+                    ownedRecord.setLastAccessed();
+                    return result;
+                }
+            }
+            if (cMap.isReadBackupData()) {
+                final Record record = cMap.mapRecords.get(dataKey);
+                if (record != null && record.isActive() && record.isValid()) {
+                    final Data valueData = record.getValueData();
+                    if (valueData != null && valueData.size() > 0) {
+                        return client ? valueData : toObject(valueData);
+                    }
+                }
+            }
+            return null;
+        }
+
         @Override
         public void reset() {
             keyObject = null;
@@ -1168,6 +1856,351 @@ public class ConcurrentMapManager extends BaseManager {
         }
     }
 
+    /**
+     * Completes a {@link ResponseQueueCall} that no thread waits for. Redo is retried from the
+     * scheduled executor after <tt>redoWaitMillis</tt>; the no-response timeout and node shutdown
+     * are checked by {@link #checkAsyncCallTimeouts()} and {@link #shutdown()}, as
+     * <tt>waitAndGetResult</tt> does for a waiting thread.
+     * The call delegates its <tt>doOp</tt> and <tt>setResult</tt> to {@link #beforeSend()}
+     * and {@link #handle(Object)}.
+     */
+    abstract class AsyncCompletion {
+        private final ResponseQueueCall call;
+        private final AtomicBoolean done = new AtomicBoolean(false);
+        private volatile long sent = 0;
+
+        AsyncCompletion(ResponseQueueCall call) {
+            this.call = call;
+        }
+
+        abstract void onResult(Object result);
+
+        abstract void onFailure(Throwable e);
+
+        boolean beforeSend() {
+            if (done.get()) {
+                return false;
+            }
+            pendingAsyncCalls.add(this);
+            if (done.get()) {
+                pendingAsyncCalls.remove(this);
+                return false;
+            }
+            if (!node.isActive()) {
+                fail(new IllegalStateException("Hazelcast Instance is not active!"));
+                return false;
+            }
+            sent = Clock.currentTimeMillis();
+            return true;
+        }
+
+        void handle(Object obj) {
+            if (done.get()) {
+                return;
+            }
+            final Request request = call.request;
+            if (obj == OBJECT_REDO) {
+                request.redoCount++;
+                logRedo(request, call.redoType, true);
+                if (request.redoCount > redoGiveUpThreshold) {
+                    fail(new OperationTimeoutException(request.operation.toString(),
+                            "Redo threshold[" + redoGiveUpThreshold + "] exceeded!"
+                                    + " Last redo cause: " + call.redoType + ", Name: " + request.name));
+                    return;
+                }
+                try {
+                    node.executorManager.getScheduledExecutorService().schedule(new Runnable() {
+                        public void run() {
+                            try {
+                                call.beforeRedo();
+                                call.doOp();
+                            } catch (Throwable e) {
+                                fail(e);
+                            }
+                        }
+                    }, redoWaitMillis, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    fail(new IllegalStateException("Hazelcast Instance is not active!"));
+                }
+            } else if (obj instanceof AddressAwareException) {
+                final AddressAwareException exception = (AddressAwareException) obj;
+                fail(new HazelcastException(request.operation + " failed at " + thisAddress
+                        + " because of an exception thrown at " + exception.getAddress(), exception.getException()));
+            } else if (obj instanceof DistributedTimeoutException) {
+                fail(new OperationTimeoutException(request.operation.toString(),
+                        "Operation Timeout: " + request.timeout));
+            } else if (done.compareAndSet(false, true)) {
+                pendingAsyncCalls.remove(this);
+                try {
+                    onResult(obj == OBJECT_NULL ? null : obj);
+                } catch (Throwable e) {
+                    onFailure(e);
+                }
+            }
+        }
+
+        void checkTimeout(long now) {
+            final Request request = call.request;
+            if (call.canTimeout() && request.timeout != Long.MAX_VALUE && request.timeout >= 0
+                    && maxOperationTimeout <= now - sent) {
+                removeRemoteCall(call.getCallId());
+                fail(new OperationTimeoutException(request.operation.toString(),
+                        "Operation Timeout (with no response!): " + maxOperationTimeout));
+            }
+        }
+
+        void fail(Throwable e) {
+            if (done.compareAndSet(false, true)) {
+                pendingAsyncCalls.remove(this);
+                onFailure(e);
+            }
+        }
+
+        /**
+         * Lets a completed call be sent once more, e.g. to redo an operation whose owner died.
+         */
+        void reopen() {
+            done.set(false);
+        }
+    }
+
+    /**
+     * {@link AsyncCompletion} of a backup aware operation: the owner's response sends the backups
+     * and the future completes once the sync backups answered, after redoing the operation if the
+     * owner died meanwhile, like {@link MBackupAwareOp#backup(ClusterOperation)} does.
+     */
+    abstract class BackupAwareCompletion extends AsyncCompletion {
+        private final MBackupAwareOp op;
+        private final AsyncCall future;
+        private volatile Object ownerResult = null;
+        private volatile boolean redone = false;
+
+        BackupAwareCompletion(MBackupAwareOp op, AsyncCall future) {
+            super(op);
+            this.op = op;
+            this.future = future;
+        }
+
+        /**
+         * Returns the backup operation for the owner's result, <tt>null</tt> if nothing is backed up.
+         */
+        abstract ClusterOperation getBackupOperation(Object result);
+
+        void onResult(final Object result) {
+            if (redone) {
+                future.setResult(ownerResult);
+                return;
+            }
+            final ClusterOperation backupOperation = getBackupOperation(result);
+            if (backupOperation == null) {
+                future.setResult(result);
+                return;
+            }
+            ownerResult = result;
+            op.backupAsync(backupOperation, new Runnable() {
+                public void run() {
+                    if (op.isOwnerDeadAfterBackup()) {
+                        logger.log(Level.WARNING, "Target[" + op.target + "] is dead! " +
+                                "Hazelcast will retry " + op.request.operation);
+                        redone = true;
+                        reopen();
+                        op.doOp();
+                    } else {
+                        future.setResult(result);
+                    }
+                }
+            });
+        }
+
+        void onFailure(Throwable e) {
+            future.setResult(e);
+        }
+    }
+
+    /**
+     * {@link MGet} without a waiting thread; the response completes the given
+     * {@link AsyncCall} on the thread receiving it.
+     */
+    class MGetAsync extends MGet {
+        private final AsyncCompletion completion;
+
+        MGetAsync(final AsyncCall future) {
+            completion = new AsyncCompletion(this) {
+                void onResult(Object result) {
+                    future.setResult(result);
+                }
+
+                void onFailure(Throwable e) {
+                    future.setResult(e);
+                }
+            };
+        }
+
+        void getAsync(String name, Object key) {
+            this.keyObject = key;
+            final Data dataKey = toData(key);
+            final CMap cMap = maps.get(name);
+            if (cMap != null) {
+                cMap.incrementGetCount();
+                final NearCache nearCache = cMap.nearCache;
+                Object value = (nearCache == null) ? null : nearCache.get(key);
+                if (value == null) {
+                    value = getLocal(cMap, dataKey, false);
+                }
+                if (value != null) {
+                    completion.onResult(value);
+                    return;
+                }
+            }
+            setLocal(CONCURRENT_MAP_GET, name, dataKey, null, -1, -1);
+            request.setObjectRequest();
+            doOp();
+        }
+
+        @Override
+        public void doOp() {
+            if (completion.beforeSend()) {
+                try {
+                    super.doOp();
+                } catch (RuntimeException e) {
+                    completion.fail(e);
+                }
+            }
+        }
+
+        @Override
+        protected void setResult(Object obj) {
+            completion.handle(obj);
+        }
+    }
+
+    /**
+     * {@link MPut} of <tt>putAsync</tt>; neither the owner's response nor the backups
+     * are waited for by a thread.
+     */
+    class MPutAsync extends MPut {
+        private final AsyncCompletion completion;
+
+        MPutAsync(AsyncCall future) {
+            completion = new BackupAwareCompletion(this, future) {
+                ClusterOperation getBackupOperation(Object result) {
+                    request.longValue = Long.MIN_VALUE;
+                    return CONCURRENT_MAP_BACKUP_PUT;
+                }
+            };
+        }
+
+        void putAsync(String name, Object key, Object value, long ttl) {
+            setLocal(CONCURRENT_MAP_PUT, name, key, value, -1, ttl);
+            setIndexValues(request, value);
+            request.setObjectRequest();
+            doOp();
+        }
+
+        @Override
+        public void doOp() {
+            if (completion.beforeSend()) {
+                try {
+                    super.doOp();
+                } catch (RuntimeException e) {
+                    completion.fail(e);
+                }
+            }
+        }
+
+        @Override
+        protected void setResult(Object obj) {
+            completion.handle(obj);
+        }
+    }
+
+    /**
+     * {@link MRemove} of <tt>removeAsync</tt>; neither the owner's response nor the backups
+     * are waited for by a thread.
+     */
+    class MRemoveAsync extends MRemove {
+        private final AsyncCompletion completion;
+
+        MRemoveAsync(AsyncCall future) {
+            completion = new BackupAwareCompletion(this, future) {
+                ClusterOperation getBackupOperation(Object result) {
+                    return (result == null) ? null : CONCURRENT_MAP_BACKUP_REMOVE;
+                }
+            };
+        }
+
+        void removeAsync(String name, Object key) {
+            setLocal(CONCURRENT_MAP_REMOVE, name, key, null, -1, -1);
+            request.setObjectRequest();
+            doOp();
+        }
+
+        @Override
+        public void doOp() {
+            if (completion.beforeSend()) {
+                try {
+                    super.doOp();
+                } catch (RuntimeException e) {
+                    completion.fail(e);
+                }
+            }
+        }
+
+        @Override
+        protected void setResult(Object obj) {
+            completion.handle(obj);
+        }
+    }
+
+    /**
+     * {@link MBackup} of an async operation, <tt>onBackups</tt> runs once the
+     * last sync backup answered or failed.
+     */
+    class MBackupAsync extends MBackup {
+        private final AsyncCompletion completion;
+
+        MBackupAsync(final ClusterOperation operation, final AtomicInteger remaining, final Runnable onBackups) {
+            completion = new AsyncCompletion(this) {
+                void onResult(Object result) {
+                    if (!Boolean.TRUE.equals(result) && logger.isLoggable(Level.FINEST)) {
+                        logger.log(Level.FINEST, "Backup failed -> " + request);
+                    }
+                    backupDone();
+                }
+
+                void onFailure(Throwable e) {
+                    final Level level = backupRedoEnabled ? Level.WARNING : Level.FINEST;
+                    logger.log(level, "Backup operation [" + operation + "] has failed! "
+                            + e.getClass().getName() + ": " + e.getMessage());
+                    logger.log(Level.FINEST, e.getMessage(), e);
+                    backupDone();
+                }
+
+                private void backupDone() {
+                    if (remaining.decrementAndGet() == 0) {
+                        onBackups.run();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void doOp() {
+            if (completion.beforeSend()) {
+                try {
+                    super.doOp();
+                } catch (RuntimeException e) {
+                    completion.fail(e);
+                }
+            }
+        }
+
+        @Override
+        protected void setResult(Object obj) {
+            completion.handle(obj);
+        }
+    }
+
     class MValueCount extends MTargetAwareOp {
         public Object count(String name, Object key, long timeout) {
             request.setLongRequest();
@@ -1414,13 +2447,19 @@ public class ConcurrentMapManager extends BaseManager {
         return cmap != null && (cmap.getMapIndexService().hasIndexedAttributes());
     }
 
+    /**
+     * Extracts the index values of the value on the calling thread, the owner
+     * indexes the entry with them without deserializing the value.
+     */
     void setIndexValues(Request request, Object value) {
         CMap cmap = getMap(request.name);
         if (cmap != null) {
-            Long[] indexes = cmap.getMapIndexService().getIndexValues(value);
+            final MapIndexService indexService = cmap.getMapIndexService();
+            final Object indexedValue = indexService.toIndexedValue(value);
+            Long[] indexes = indexService.getIndexValues(indexedValue);
             if (indexes != null) {
-                byte[] indexTypes = cmap.getMapIndexService().getIndexTypes();
-                request.setIndexes(indexes, indexTypes);
+                byte[] indexTypes = indexService.getIndexTypes();
+                request.setIndexes(indexes, indexTypes, indexService.getIndexData(indexedValue));
                 for (byte b : indexTypes) {
                     if (b == -1) {
                         throw new RuntimeException("Index type cannot be -1: " + b);
@@ -1430,6 +2469,43 @@ public class ConcurrentMapManager extends BaseManager {
         }
     }
 
+    /**
+     * Runs an {@link EntryProcessor} on the owner of the key. The owner answers with
+     * the result of the processor and the new value, if the entry is changed,
+     * which is then backed up by the caller.
+     */
+    class MEntryProcess extends MBackupAndMigrationAwareOp {
+
+        public Object execute(String name, Object key, Data processor) {
+            setLocal(CONCURRENT_MAP_EXECUTE_ON_KEY, name, key, processor, -1, -1);
+            // processors are not transactional
+            request.txnId = -1;
+            doOp();
+            Object response = getResultAsIs();
+            if (response instanceof Data) {
+                response = toObject((Data) response);
+            }
+            if (response instanceof AddressAwareException) {
+                rethrowException(request.operation, (AddressAwareException) response);
+            }
+            final long state = request.longValue;
+            if (state == ProcessorEntry.UPDATED) {
+                final MultiData multiData = (MultiData) response;
+                request.value = multiData.getData(1);
+                final CMap cmap = getMap(name);
+                if (cmap != null && cmap.getMapIndexService().hasIndexedAttributes()) {
+                    setIndexValues(request, toObject(request.value));
+                }
+                backup(CONCURRENT_MAP_BACKUP_PUT);
+                return toObject(multiData.getData(0));
+            } else if (state == ProcessorEntry.REMOVED) {
+                request.value = null;
+                backup(CONCURRENT_MAP_BACKUP_REMOVE);
+            }
+            return response;
+        }
+    }
+
     class MAtomicNumber extends MDefaultBackupAndMigrationAwareOp {
         AtomicNumberOperationsCounter operationsCounter;
 
@@ -2181,8 +3257,7 @@ public class ConcurrentMapManager extends BaseManager {
                     logger.log(Level.FINEST, e.getMessage(), e);
                 }
             }
-            if (totalBackupCount > 0 && shouldRedoWhenOwnerDies()
-                    && target != null && node.getClusterImpl().getMember(target) == null) {
+            if (isOwnerDeadAfterBackup()) {
                 // Operation seems successful but since owner target is dead, we may loose data!
                 // We should retry actual operation for the new target
                 logger.log(Level.WARNING, "Target[" + target + "] is dead! " +
@@ -2197,6 +3272,44 @@ public class ConcurrentMapManager extends BaseManager {
             return false;
         }
 
+        /**
+         * Sends the backups like {@link #backup(ClusterOperation)} without waiting for them;
+         * <tt>onBackups</tt> runs once every sync backup answered or failed.
+         */
+        void backupAsync(ClusterOperation operation, Runnable onBackups) {
+            final int localBackupCount = backupCount;
+            final int localAsyncBackupCount = asyncBackupCount;
+            final int totalBackupCount = localBackupCount + localAsyncBackupCount;
+            if (totalBackupCount > maxBackupCount) {
+                String msg = "Max backup is " + maxBackupCount + " but total backupCount is " + totalBackupCount;
+                logger.log(Level.SEVERE, msg);
+                throw new HazelcastException(msg);
+            }
+            if (totalBackupCount > 0 && (request.key == null || request.key.size() == 0)) {
+                throw new HazelcastException("Key is null! " + request.key);
+            }
+            final AtomicInteger remaining = new AtomicInteger(localBackupCount);
+            for (int i = 0; i < totalBackupCount; i++) {
+                final int replicaIndex = i + 1;
+                if (i < localBackupCount) {
+                    new MBackupAsync(operation, remaining, onBackups).sendBackup(operation, replicaIndex, request);
+                } else {
+                    final Request reqBackup = Request.copyFromRequest(request);
+                    reqBackup.operation = operation;
+                    enqueueAndReturn(new AsyncBackupProcessable(reqBackup, replicaIndex));
+                }
+            }
+            if (localBackupCount <= 0) {
+                onBackups.run();
+            }
+        }
+
+        // operation seems successful but since owner target is dead, we may loose data
+        boolean isOwnerDeadAfterBackup() {
+            return (backupCount + asyncBackupCount) > 0 && shouldRedoWhenOwnerDies()
+                    && target != null && node.getClusterImpl().getMember(target) == null;
+        }
+
         // executed by ServiceThread
         void prepareForBackup() {
             int localBackupCount = 0;
@@ -2467,9 +3580,12 @@ public class ConcurrentMapManager extends BaseManager {
         return (hash == Integer.MIN_VALUE) ? 0 : Math.abs(hash) % partitionCount;
     }
 
+    /**
+     * Records are created by the ServiceThread and by the partition threads,
+     * see {@link CMap#isPartitionThreadSafe()}.
+     */
     public long newRecordId() {
-        checkServiceThread();
-        return newRecordId++;
+        return newRecordId.getAndIncrement();
     }
 
     void evictAsync(final String name, final Data key) {
@@ -2496,12 +3612,13 @@ public class ConcurrentMapManager extends BaseManager {
     }
 
     @Override
-    void registerListener(boolean add, String name, Data key, Address address, boolean includeValue) {
+    void registerListener(boolean add, String name, Data key, Address address, boolean includeValue,
+                          Data predicateData, long filterId) {
         CMap cmap = getOrCreateMap(name);
         if (add) {
-            cmap.addListener(key, address, includeValue);
+            cmap.addListener(key, address, includeValue, predicateData, filterId);
         } else {
-            cmap.removeListener(key, address);
+            cmap.removeListener(key, address, predicateData);
         }
     }
 
@@ -2510,9 +3627,27 @@ public class ConcurrentMapManager extends BaseManager {
             CMap cmap = getOrCreateMap(request.name);
             cmap.lockMap(request);
         }
-    }
-
-    class BackupOperationHandler extends TargetAwareOperationHandler {
+    }
+
+    class BackupOperationHandler extends TargetAwareOperationHandler implements PartitionAwarePacketProcessor {
+
+        public boolean processOnPartitionThread(Packet packet) {
+            if (packet.operation != CONCURRENT_MAP_BACKUP_PUT && packet.operation != CONCURRENT_MAP_BACKUP_REMOVE) {
+                return false;
+            }
+            final Request request = toPartitionThreadRequest(packet, (int) packet.longValue);
+            if (request == null) {
+                return false;
+            }
+            final boolean value = getMap(request.name).backup(request);
+            request.clearForResponse();
+            request.response = value;
+            if (request.callId != -1) {
+                returnResponse(request);
+            }
+            releasePacket(packet);
+            return true;
+        }
 
         boolean isCallerKnownMember(Request request) {
             return !backupRedoEnabled || super.isCallerKnownMember(request);
@@ -2559,6 +3694,119 @@ public class ConcurrentMapManager extends BaseManager {
         return cmap.backup(request);
     }
 
+    /**
+     * Base of the batch handlers, entries of the batch are handled one by one
+     * on the ServiceThread within a single pass. Entries of partitions this member
+     * does not own, or which are migrating, are answered with REDO.
+     */
+    abstract class BatchOperationHandler extends ResponsiveOperationHandler {
+
+        public void handle(Request request) {
+            final CMap cmap = getOrCreateMap(request.name);
+            final MapEntryBatch batch = (MapEntryBatch) toObject(request.value);
+            final boolean accept = isCallerKnownMember(request);
+            final Request entry = new Request();
+            final MapEntryBatch response = MapEntryBatch.newResponse(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                entry.reset();
+                entry.name = request.name;
+                entry.key = batch.getKey(i);
+                entry.caller = request.caller;
+                entry.lockAddress = request.lockAddress;
+                entry.lockThreadId = request.lockThreadId;
+                if (!accept || !isRightTarget(request, entry)) {
+                    response.setVersion(i, MapEntryBatch.REDO);
+                } else if (!handleEntry(cmap, request, batch, i, entry, response)) {
+                    response.setVersion(i, MapEntryBatch.REJECTED);
+                }
+            }
+            request.clearForResponse();
+            request.response = response;
+            returnResponse(request);
+        }
+
+        boolean isCallerKnownMember(Request request) {
+            return (request.local || getMember(request.caller) != null);
+        }
+
+        boolean isRightTarget(Request request, Request entry) {
+            return thisAddress.equals(getKeyOwner(entry)) && !isMigrating(entry);
+        }
+
+        /**
+         * @return false if the entry is rejected
+         */
+        abstract boolean handleEntry(CMap cmap, Request request, MapEntryBatch batch, int index,
+                                     Request entry, MapEntryBatch response);
+    }
+
+    class GetAllOperationHandler extends BatchOperationHandler {
+
+        boolean handleEntry(CMap cmap, Request request, MapEntryBatch batch, int index,
+                            Request entry, MapEntryBatch response) {
+            if (cmap.loader != null) {
+                return false;
+            }
+            final Data value = cmap.get(entry);
+            if (value != null && value.size() > 0) {
+                response.setValue(index, value);
+            }
+            return true;
+        }
+    }
+
+    class PutAllOperationHandler extends BatchOperationHandler {
+
+        boolean handleEntry(CMap cmap, Request request, MapEntryBatch batch, int index,
+                            Request entry, MapEntryBatch response) {
+            if ((cmap.store != null && cmap.writeDelayMillis == 0) || !cmap.isNotLocked(request)
+                    || !testLock(entry) || cmap.overCapacity()) {
+                return false;
+            }
+            entry.operation = CONCURRENT_MAP_SET;
+            entry.value = batch.getValue(index);
+            if (batch.getIndexes(index) != null) {
+                entry.setIndexes(batch.getIndexes(index), batch.getIndexTypes(index), batch.getIndexData(index));
+            }
+            cmap.put(entry);
+            response.setVersion(index, entry.version);
+            return true;
+        }
+    }
+
+    class BackupPutAllOperationHandler extends BatchOperationHandler {
+
+        boolean handleEntry(CMap cmap, Request request, MapEntryBatch batch, int index,
+                            Request entry, MapEntryBatch response) {
+            entry.value = batch.getValue(index);
+            entry.operation = (entry.value == null) ? CONCURRENT_MAP_BACKUP_REMOVE : CONCURRENT_MAP_BACKUP_PUT;
+            entry.longValue = request.longValue;
+            entry.blockId = getPartitionId(entry);
+            entry.version = batch.getVersion(index);
+            if (batch.getIndexes(index) != null) {
+                entry.setIndexes(batch.getIndexes(index), batch.getIndexTypes(index), batch.getIndexData(index));
+            }
+            cmap.backup(entry);
+            return true;
+        }
+
+        @Override
+        boolean isCallerKnownMember(Request request) {
+            return !backupRedoEnabled || super.isCallerKnownMember(request);
+        }
+
+        @Override
+        boolean isRightTarget(Request request, Request entry) {
+            if (!backupRedoEnabled) {
+                return true;
+            }
+            final int replicaIndex = (int) request.longValue;
+            final int partitionId = getPartitionId(entry);
+            return thisAddress.equals(getBackupMember(partitionId, replicaIndex))
+                    && !isMigrating(entry, replicaIndex);
+        }
+    }
+
     class AsyncMergePacketProcessor implements PacketProcessor {
         public void process(final Packet packet) {
             packet.operation = CONCURRENT_MAP_WAN_MERGE;
@@ -2607,6 +3855,37 @@ public class ConcurrentMapManager extends BaseManager {
         }
     }
 
+    /**
+     * Prepares a keyed mutation to be served on the partition thread owning its key.
+     * The ServiceThread is not running meanwhile, see ClusterService, so the map,
+     * partition and member state checked here does not change underneath.
+     *
+     * @param replicaIndex replica of the partition the packet is sent to, 0 for the owner
+     * @return request of the packet, or null if the packet needs the ServiceThread:
+     *         transactions, locks, scheduled operations, redo responses and
+     *         maps which are not {@link CMap#isPartitionThreadSafe() partition thread safe}
+     */
+    Request toPartitionThreadRequest(Packet packet, int replicaIndex) {
+        if (packet.txnId != -1 || packet.lockCount != 0) {
+            return null;
+        }
+        final CMap cmap = getMap(packet.name);
+        if (cmap == null || !cmap.isPartitionThreadSafe()) {
+            return null;
+        }
+        final Request request = Request.copyFromPacket(packet);
+        final PartitionInfo partition = partitionManager.getPartition(getPartitionId(request));
+        if (!thisAddress.equals(partition.getReplicaAddress(replicaIndex)) || isMigrating(request, replicaIndex)
+                || getMember(request.caller) == null || !cmap.isNotLocked(request)) {
+            return null;
+        }
+        final Record record = cmap.getRecord(request);
+        if (record != null && (record.isLocked() || record.hasScheduledAction() || record.getListeners() != null)) {
+            return null;
+        }
+        return request;
+    }
+
     class RemoveItemOperationHandler extends RemoveOperationHandler {
         void doOperation(Request request) {
             CMap cmap = getOrCreateMap(request.name);
@@ -2640,7 +3919,21 @@ public class ConcurrentMapManager extends BaseManager {
         }
     }
 
-    class RemoveOperationHandler extends SchedulableOperationHandler {
+    class RemoveOperationHandler extends SchedulableOperationHandler implements PartitionAwarePacketProcessor {
+
+        public boolean processOnPartitionThread(Packet packet) {
+            if (packet.operation != CONCURRENT_MAP_REMOVE) {
+                return false;
+            }
+            final Request request = toPartitionThreadRequest(packet, 0);
+            if (request == null) {
+                return false;
+            }
+            getMap(request.name).remove(request);
+            returnResponse(request);
+            releasePacket(packet);
+            return true;
+        }
 
         void doOperation(Request request) {
             CMap cmap = getOrCreateMap(request.name);
@@ -3027,7 +4320,23 @@ public class ConcurrentMapManager extends BaseManager {
         }
     }
 
-    class PutOperationHandler extends SchedulableOperationHandler {
+    class PutOperationHandler extends SchedulableOperationHandler implements PartitionAwarePacketProcessor {
+
+        public boolean processOnPartitionThread(Packet packet) {
+            if (packet.operation != CONCURRENT_MAP_PUT && packet.operation != CONCURRENT_MAP_SET
+                    && packet.operation != CONCURRENT_MAP_PUT_IF_ABSENT) {
+                return false;
+            }
+            final Request request = toPartitionThreadRequest(packet, 0);
+            if (request == null || getMap(request.name).isMaxSizeReached()) {
+                return false;
+            }
+            getMap(request.name).put(request);
+            returnResponse(request);
+            releasePacket(packet);
+            return true;
+        }
+
 //        @Override
 //        protected void onNoTimeToSchedule(Request request) {
 //            request.response = null;
@@ -3172,6 +4481,153 @@ public class ConcurrentMapManager extends BaseManager {
         }
     }
 
+    class EntryProcessOperationHandler extends SchedulableOperationHandler {
+
+        @Override
+        public void handle(Request request) {
+            final CMap cmap = getOrCreateMap(request.name);
+            if (!cmap.isNotLocked(request)) {
+                returnRedoResponse(request, REDO_MAP_LOCKED);
+            } else if (shouldSchedule(request)) {
+                if (request.hasEnoughTimeToSchedule()) {
+                    schedule(request);
+                } else {
+                    onNoTimeToSchedule(request);
+                }
+            } else {
+                final Record record = cmap.getRecord(request);
+                if ((record == null || record.isLoadable()) && cmap.loader != null) {
+                    storeExecutor.execute(new EntryProcessLoader(cmap, request), request.key.hashCode());
+                } else {
+                    processEntry(cmap, request);
+                }
+            }
+        }
+
+        @Override
+        void doOperation(Request request) {
+            final CMap cmap = getOrCreateMap(request.name);
+            final ProcessorEntry entry = runProcessor(cmap, request);
+            if (entry != null) {
+                applyProcessorEntry(cmap, request, entry);
+            }
+        }
+
+        void processEntry(CMap cmap, Request request) {
+            final ProcessorEntry entry = runProcessor(cmap, request);
+            if (entry != null && entry.getState() != ProcessorEntry.UNCHANGED
+                    && cmap.store != null && cmap.writeDelayMillis == 0) {
+                storeExecutor.execute(new EntryProcessStorer(cmap, request, entry), request.key.hashCode());
+            } else {
+                if (entry != null) {
+                    applyProcessorEntry(cmap, request, entry);
+                }
+                returnResponse(request);
+            }
+        }
+
+        /**
+         * @return processed entry, null if the processor has thrown an exception
+         */
+        ProcessorEntry runProcessor(CMap cmap, Request request) {
+            final ProcessorEntry entry = new ProcessorEntry(request.key, cmap.get(request));
+            try {
+                final EntryProcessor processor = (EntryProcessor) toObject(request.value);
+                request.response = toData(processor.process(entry));
+                return entry;
+            } catch (Exception e) {
+                logger.log(Level.FINEST, "EntryProcessor failed for " + request.name, e);
+                request.response = toData(new AddressAwareException(e, thisAddress));
+                return null;
+            }
+        }
+
+        void applyProcessorEntry(CMap cmap, Request request, ProcessorEntry entry) {
+            final Data result = (Data) request.response;
+            final Data value = applyEntryChange(cmap, request, entry);
+            request.response = (value == null) ? result
+                    : new MultiData((result == null) ? new Data() : result, value);
+            request.longValue = entry.getState();
+        }
+
+        class EntryProcessLoader extends AbstractMapStoreOperation {
+            Data valueData = null;
+
+            EntryProcessLoader(CMap cmap, Request request) {
+                super(cmap, request);
+            }
+
+            @Override
+            void doMapStoreOperation() {
+                valueData = toData(cmap.loader.load(toObject(request.key)));
+            }
+
+            public void process() {
+                if (!success) {
+                    returnResponse(request);
+                    return;
+                }
+                if (valueData != null) {
+                    Record record = cmap.getRecord(request);
+                    if (record == null) {
+                        cmap.createAndAddNewRecord(request.key, valueData);
+                    } else {
+                        record.setValueData(valueData);
+                    }
+                }
+                processEntry(cmap, request);
+            }
+        }
+
+        class EntryProcessStorer extends AbstractMapStoreOperation {
+            final ProcessorEntry entry;
+
+            EntryProcessStorer(CMap cmap, Request request, ProcessorEntry entry) {
+                super(cmap, request);
+                this.entry = entry;
+            }
+
+            @Override
+            void doMapStoreOperation() {
+                if (entry.getState() == ProcessorEntry.REMOVED) {
+                    cmap.store.delete(entry.getKey());
+                } else {
+                    cmap.store.store(entry.getKey(), entry.getValue());
+                    afterMapStore();
+                }
+            }
+
+            public void process() {
+                if (success) {
+                    applyProcessorEntry(cmap, request, entry);
+                }
+                returnResponse(request);
+            }
+        }
+    }
+
+    /**
+     * Applies the change made by an {@link EntryProcessor}, if any, like a put or remove.
+     * Executed by ServiceThread.
+     *
+     * @return new value, null if the entry is not changed or is removed
+     */
+    Data applyEntryChange(CMap cmap, Request request, ProcessorEntry entry) {
+        final long state = entry.getState();
+        if (state == ProcessorEntry.UPDATED) {
+            final Object value = entry.getValue();
+            final Data valueData = toData(value);
+            request.value = valueData;
+            setIndexValues(request, value);
+            cmap.put(request);
+            return valueData;
+        } else if (state == ProcessorEntry.REMOVED) {
+            request.value = null;
+            cmap.remove(request);
+        }
+        return null;
+    }
+
     abstract class AtomicNumberOperationHandler extends MTargetAwareOperationHandler {
         abstract long getNewValue(long oldValue, long value);
 
@@ -3763,7 +5219,7 @@ public class ConcurrentMapManager extends BaseManager {
             public void process() {
                 if (success) {
                     Record record = cmap.createNewTransientRecord(request.key, request.value);
-                    record.setIndexes(request.indexes, request.indexTypes);
+                    record.setIndexes(request.indexes, request.indexTypes, request.indexData);
                     request.response = new DataRecordEntry(record);
                 } else {
                     request.response = null;
@@ -3773,7 +5229,40 @@ public class ConcurrentMapManager extends BaseManager {
         }
     }
 
-    class GetOperationHandler extends MTargetAwareOperationHandler {
+    class GetOperationHandler extends MTargetAwareOperationHandler implements PartitionAwarePacketProcessor {
+
+        /**
+         * Serves the get from the owned record directly, same as the caller side
+         * short-cut in MGet. Anything needing the ServiceThread (map loader,
+         * multimap values, migrating or not-owned partitions, missing records)
+         * is handed over to it.
+         */
+        public boolean processOnPartitionThread(Packet packet) {
+            final CMap cmap = getMap(packet.name);
+            if (cmap == null || cmap.loader != null || cmap.isMultiMap()) {
+                return false;
+            }
+            final Address caller = packet.conn.getEndPoint();
+            if (getMember(caller) == null) {
+                return false;
+            }
+            final Record record = cmap.getOwnedRecord(packet.getKeyData());
+            if (record == null || !record.isActive() || !record.isValid()) {
+                return false;
+            }
+            final Data value = record.getValueData();
+            if (value == null) {
+                return false;
+            }
+            record.setLastAccessed();
+            // answer with the request packet itself, it goes back to the connection's pool once written
+            packet.clearForResponse();
+            packet.setValue(value);
+            packet.responseType = RESPONSE_SUCCESS;
+            sendResponse(packet);
+            return true;
+        }
+
         public void handle(Request request) {
             CMap cmap = getOrCreateMap(request.name);
             Record record = cmap.getRecord(request);
@@ -4299,10 +5788,131 @@ public class ConcurrentMapManager extends BaseManager {
 
     public Pairs queryMap(CMap cmap, ClusterOperation operation, Predicate predicate) throws QueryException {
         try {
+            if (predicate instanceof PagingPredicate) {
+                return queryPage(cmap, (PagingPredicate) predicate);
+            }
+            final long start = System.nanoTime();
+            QueryPlan queryPlan = null;
+            if (predicate instanceof ExplainPredicate) {
+                predicate = ((ExplainPredicate) predicate).getPredicate();
+                queryPlan = new QueryPlan(thisAddress);
+            }
             final QueryContext queryContext = new QueryContext(cmap.getName(), predicate, cmap.getMapIndexService());
+            queryContext.setQueryPlan(queryPlan);
             Set<MapEntry> results = cmap.getMapIndexService().doQuery(queryContext);
             boolean evaluateValues = (predicate != null && !queryContext.isStrong());
-            return createResultPairs(operation, results, evaluateValues, predicate);
+            final Pairs pairs;
+            if (evaluateValues && results != null && results.size() >= MIN_PARALLEL_QUERY_SIZE
+                    && Predicates.isThreadSafe(predicate)) {
+                pairs = createResultPairsInParallel(operation, results, predicate);
+            } else {
+                pairs = createResultPairs(operation, results, evaluateValues, predicate);
+            }
+            if (queryPlan != null) {
+                queryPlan.setResultCount(pairs.size());
+                queryPlan.setTotalNanos(System.nanoTime() - start);
+                pairs.setQueryPlan(queryPlan);
+            }
+            return pairs;
+        } catch (Throwable e) {
+            throw new QueryException(e);
+        }
+    }
+
+    /**
+     * Evaluates the predicate over partition sized slices of the records on the
+     * query executor. The calling thread scans slices as well, so the query
+     * completes even if all query threads are busy. Each slice collects its
+     * matches into its own pairs, which are concatenated at the end.
+     */
+    private Pairs createResultPairsInParallel(final ClusterOperation operation, Collection<MapEntry> colRecords,
+                                              final Predicate predicate) throws Throwable {
+        final MapEntry[] records = colRecords.toArray(new MapEntry[colRecords.size()]);
+        final int sliceSize = Math.max(MIN_PARALLEL_QUERY_SLICE_SIZE, records.length / partitionCount + 1);
+        final int sliceCount = (records.length + sliceSize - 1) / sliceSize;
+        final Pairs[] slicePairs = new Pairs[sliceCount];
+        final AtomicInteger nextSlice = new AtomicInteger();
+        final CountDownLatch remainingSlices = new CountDownLatch(sliceCount);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final Runnable scanner = new Runnable() {
+            public void run() {
+                int slice;
+                while ((slice = nextSlice.getAndIncrement()) < sliceCount) {
+                    try {
+                        if (error.get() == null) {
+                            final int from = slice * sliceSize;
+                            final int to = Math.min(records.length, from + sliceSize);
+                            slicePairs[slice] = createResultPairs(operation,
+                                    Arrays.asList(records).subList(from, to), true, predicate);
+                        }
+                    } catch (Throwable e) {
+                        error.compareAndSet(null, e);
+                    } finally {
+                        remainingSlices.countDown();
+                    }
+                }
+            }
+        };
+        final int threadCount = node.groupProperties.EXECUTOR_QUERY_THREAD_COUNT.getInteger();
+        final int helperCount = Math.min(threadCount, sliceCount) - 1;
+        for (int i = 0; i < helperCount; i++) {
+            node.executorManager.executeQueryTask(scanner);
+        }
+        scanner.run();
+        remainingSlices.await();
+        if (error.get() != null) {
+            throw error.get();
+        }
+        int size = 0;
+        for (Pairs pairs : slicePairs) {
+            size += pairs.size();
+        }
+        final Pairs result = new Pairs(size);
+        for (Pairs pairs : slicePairs) {
+            if (pairs.getKeyValues() != null) {
+                result.getKeyValues().addAll(pairs.getKeyValues());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the local entries that can be on the requested page, with their
+     * values so the caller can sort the entries of all members.
+     */
+    private Pairs queryPage(CMap cmap, PagingPredicate pagingPredicate) {
+        final Predicate predicate = pagingPredicate.getPredicate();
+        final QueryContext queryContext = new QueryContext(cmap.getName(), predicate, cmap.getMapIndexService());
+        final Set<MapEntry> results = cmap.getMapIndexService().doQuery(queryContext);
+        if (results == null) return new Pairs();
+        final boolean evaluateValues = (predicate != null && !queryContext.isStrong());
+        final long now = currentTimeMillis();
+        final List<MapEntry> matches = new ArrayList<MapEntry>(results.size());
+        for (MapEntry mapEntry : results) {
+            Record record = (Record) mapEntry;
+            if (record.isActive() && record.isValid(now) && record.hasValueData()
+                    && (!evaluateValues || predicate.apply(record))) {
+                matches.add(record);
+            }
+        }
+        return createResultPairs(CONCURRENT_MAP_ITERATE_ENTRIES, pagingPredicate.selectTop(matches), false, null);
+    }
+
+    public void aggregateMap(CMap cmap, Aggregator aggregator, Predicate predicate) throws QueryException {
+        try {
+            final MapIndexService mapIndexService = cmap.getMapIndexService();
+            final QueryContext queryContext = new QueryContext(cmap.getName(), predicate, mapIndexService);
+            final Collection<MapEntry> results = mapIndexService.doQuery(queryContext);
+            if (results == null) return;
+            final boolean evaluateValues = (predicate != null && !queryContext.isStrong());
+            final long now = currentTimeMillis();
+            for (MapEntry mapEntry : results) {
+                Record record = (Record) mapEntry;
+                if (record.isActive() && record.isValid(now) && record.hasValueData()
+                        && (!evaluateValues || predicate.apply(record))) {
+                    aggregator.accumulate(record);
+                }
+            }
         } catch (Throwable e) {
             throw new QueryException(e);
         }
@@ -4313,37 +5923,119 @@ public class ConcurrentMapManager extends BaseManager {
         if (colRecords != null) {
             long now = currentTimeMillis();
             for (MapEntry mapEntry : colRecords) {
-                Record record = (Record) mapEntry;
-                if (record.isActive() && record.isValid(now)) {
-                    if (record.getKeyData() == null || record.getKeyData().size() == 0) {
-                        throw new RuntimeException("Key cannot be null or zero-size: " + record.getKeyData());
-                    }
-                    boolean match = (!evaluateEntries) || predicate.apply(record);
-                    if (match) {
-                        boolean onlyKeys = (operation == CONCURRENT_MAP_ITERATE_KEYS_ALL ||
-                                operation == CONCURRENT_MAP_ITERATE_KEYS);
-                        Data key = record.getKeyData();
-                        if (record.hasValueData()) {
-                            Data value = (onlyKeys) ? null : record.getValueData();
-                            pairs.addKeyValue(new KeyValue(key, value));
-                        } else if (record.getMultiValues() != null) {
-                            int size = record.getMultiValues().size();
-                            if (size > 0) {
-                                if (operation == CONCURRENT_MAP_ITERATE_KEYS) {
-                                    pairs.addKeyValue(new KeyValue(key, null));
-                                } else {
-                                    Collection<ValueHolder> values = record.getMultiValues();
-                                    for (ValueHolder valueHolder : values) {
-                                        pairs.addKeyValue(new KeyValue(key, valueHolder.getData()));
-                                    }
-                                }
+                addResultPairs(pairs, operation, (Record) mapEntry, evaluateEntries, predicate, now);
+            }
+        }
+        return pairs;
+    }
+
+    private static void addResultPairs(Pairs pairs, ClusterOperation operation, Record record, boolean evaluateEntries,
+                                       Predicate predicate, long now) {
+        if (record.isActive() && record.isValid(now)) {
+            if (record.getKeyData() == null || record.getKeyData().size() == 0) {
+                throw new RuntimeException("Key cannot be null or zero-size: " + record.getKeyData());
+            }
+            boolean match = (!evaluateEntries) || predicate.apply(record);
+            if (match) {
+                boolean onlyKeys = (operation == CONCURRENT_MAP_ITERATE_KEYS_ALL ||
+                        operation == CONCURRENT_MAP_ITERATE_KEYS);
+                Data key = record.getKeyData();
+                if (record.hasValueData()) {
+                    Data value = (onlyKeys) ? null : record.getValueData();
+                    pairs.addKeyValue(new KeyValue(key, value));
+                } else if (record.getMultiValues() != null) {
+                    int size = record.getMultiValues().size();
+                    if (size > 0) {
+                        if (operation == CONCURRENT_MAP_ITERATE_KEYS) {
+                            pairs.addKeyValue(new KeyValue(key, null));
+                        } else {
+                            Collection<ValueHolder> values = record.getMultiValues();
+                            for (ValueHolder valueHolder : values) {
+                                pairs.addKeyValue(new KeyValue(key, valueHolder.getData()));
                             }
                         }
                     }
                 }
             }
         }
-        return pairs;
+    }
+
+    /**
+     * Opens a cursor over the local entries matching the predicate and
+     * fetches its first entries.
+     */
+    public QueryChunk openQueryCursor(CMap cmap, ClusterOperation operation, Predicate predicate, int fetchSize) {
+        final QueryContext queryContext = new QueryContext(cmap.getName(), predicate, cmap.getMapIndexService());
+        final Set<MapEntry> results = cmap.getMapIndexService().doQuery(queryContext);
+        if (results == null) {
+            return new QueryChunk(0, new Pairs(), true);
+        }
+        final boolean evaluateValues = (predicate != null && !queryContext.isStrong());
+        final QueryCursor cursor = new QueryCursor(queryCursorIds.incrementAndGet(), operation,
+                results.iterator(), evaluateValues, predicate);
+        queryCursors.put(cursor.id, cursor);
+        return fetchQueryCursor(cursor.id, fetchSize);
+    }
+
+    /**
+     * Fetches the next entries of an open cursor. The cursor is closed
+     * when its last entries are fetched.
+     */
+    public QueryChunk fetchQueryCursor(long cursorId, int fetchSize) {
+        final QueryCursor cursor = queryCursors.get(cursorId);
+        if (cursor == null) {
+            throw new IllegalStateException("Query cursor " + cursorId + " is closed or expired!");
+        }
+        final QueryChunk chunk = cursor.fetch(fetchSize);
+        if (chunk.isLast()) {
+            queryCursors.remove(cursorId);
+        }
+        return chunk;
+    }
+
+    public void closeQueryCursor(long cursorId) {
+        queryCursors.remove(cursorId);
+    }
+
+    void removeIdleQueryCursors() {
+        final long now = currentTimeMillis();
+        for (QueryCursor cursor : queryCursors.values()) {
+            if (now - cursor.lastAccessTime > queryCursorTimeoutMillis) {
+                queryCursors.remove(cursor.id);
+            }
+        }
+    }
+
+    /**
+     * Local entries of a query, read from the live query results a chunk
+     * at a time, so they are never copied at once.
+     */
+    class QueryCursor {
+        final long id;
+        final ClusterOperation operation;
+        final Iterator<MapEntry> records;
+        final boolean evaluateValues;
+        final Predicate predicate;
+        volatile long lastAccessTime = currentTimeMillis();
+
+        QueryCursor(long id, ClusterOperation operation, Iterator<MapEntry> records, boolean evaluateValues,
+                    Predicate predicate) {
+            this.id = id;
+            this.operation = operation;
+            this.records = records;
+            this.evaluateValues = evaluateValues;
+            this.predicate = predicate;
+        }
+
+        synchronized QueryChunk fetch(int fetchSize) {
+            final long now = currentTimeMillis();
+            lastAccessTime = now;
+            final Pairs pairs = new Pairs(Math.min(fetchSize, 1024));
+            while (pairs.size() < fetchSize && records.hasNext()) {
+                addResultPairs(pairs, operation, (Record) records.next(), evaluateValues, predicate, now);
+            }
+            return new QueryChunk(id, pairs, !records.hasNext());
+        }
     }
 
     Record recordExist(Request req) {
@@ -31,14 +31,30 @@ public class DataAwareEntryEvent extends EntryEvent {
 
     protected final boolean firedLocally;
 
+    protected final long filterId;
+
     public DataAwareEntryEvent(Member from, int eventType,
                                String name, Data dataKey,
                                Data dataNewValue, Data dataOldValue, boolean firedLocally) {
+        this(from, eventType, name, dataKey, dataNewValue, dataOldValue, firedLocally, ListenerManager.NO_FILTER);
+    }
+
+    public DataAwareEntryEvent(Member from, int eventType,
+                               String name, Data dataKey,
+                               Data dataNewValue, Data dataOldValue, boolean firedLocally, long filterId) {
         super(name, from, eventType, null, null);
         this.dataKey = dataKey;
         this.dataNewValue = dataNewValue;
         this.dataOldValue = dataOldValue;
         this.firedLocally = firedLocally;
+        this.filterId = filterId;
+    }
+
+    /**
+     * @return id of the predicate the event was filtered with on the owner
+     */
+    public long getFilterId() {
+        return filterId;
     }
 
     public Data getKeyData() {
@@ -22,21 +22,32 @@ import com.hazelcast.nio.Data;
 
 import static com.hazelcast.nio.IOUtil.toObject;
 
-@SuppressWarnings("SynchronizeOnThis")
+@SuppressWarnings({"SynchronizeOnThis", "VolatileLongOrDoubleField"})
 public final class DefaultRecord extends AbstractRecord {
 
     private volatile Object valueObject ;
     private volatile Data value;
 
+    private volatile long maxIdleMillis = Long.MAX_VALUE;
+    private volatile long writeTime = -1;
+    private volatile long removeTime = 0;
+    private volatile long lastAccessTime = 0;
+    private volatile long lastStoredTime = 0;
+    private volatile long creationTime = 0;
+    private volatile long expirationTime = Long.MAX_VALUE;
+    private volatile long lastUpdateTime = 0;
+
     public DefaultRecord(CMap cmap, int blockId, Data key, Data value, long ttl, long maxIdleMillis, long id) {
-        super(cmap, blockId, key, ttl, maxIdleMillis, id);
-        this.value = value;
+        super(cmap, blockId, key, id);
+        this.value = compressValue(value);
+        initTimes(ttl, maxIdleMillis);
     }
 
     public Record copy() {
         Record recordCopy = new DefaultRecord(cmap, blockId, key, value, getRemainingTTL(), getRemainingIdle(), id);
         if (optionalInfo != null) {
-            recordCopy.setIndexes(getOptionalInfo().indexes, getOptionalInfo().indexTypes);
+            recordCopy.setIndexes(getOptionalInfo().indexes, getOptionalInfo().indexTypes,
+                    getOptionalInfo().indexData);
             recordCopy.setMultiValues(getOptionalInfo().lsMultiValues);
         }
         final DistributedLock dl = lock;
@@ -47,6 +58,70 @@ public final class DefaultRecord extends AbstractRecord {
         return recordCopy;
     }
 
+    protected long getMaxIdleMillis() {
+        return maxIdleMillis;
+    }
+
+    protected void setMaxIdleMillis(long maxIdleMillis) {
+        this.maxIdleMillis = maxIdleMillis;
+    }
+
+    protected void storeExpirationTime(long expirationTime) {
+        this.expirationTime = expirationTime;
+    }
+
+    public long getExpirationTime() {
+        return expirationTime;
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    public void setCreationTime(long newValue) {
+        creationTime = newValue;
+    }
+
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    public void setLastAccessTime(long lastAccessTime) {
+        this.lastAccessTime = lastAccessTime;
+    }
+
+    public long getLastUpdateTime() {
+        return lastUpdateTime;
+    }
+
+    public void setLastUpdateTime(long lastUpdateTime) {
+        this.lastUpdateTime = lastUpdateTime;
+    }
+
+    public long getWriteTime() {
+        return writeTime;
+    }
+
+    public void setWriteTime(long writeTime) {
+        this.writeTime = writeTime;
+    }
+
+    public long getRemoveTime() {
+        return removeTime;
+    }
+
+    public void setRemoveTime(long removeTime) {
+        this.removeTime = removeTime;
+    }
+
+    public long getLastStoredTime() {
+        return lastStoredTime;
+    }
+
+    public void setLastStoredTime(long lastStoredTime) {
+        this.lastStoredTime = lastStoredTime;
+    }
+
     public Data getValueData() {
         return value;
     }
@@ -84,7 +159,7 @@ public final class DefaultRecord extends AbstractRecord {
     }
 
     public void setValueData(Data value) {
-        this.value = value;
+        this.value = compressValue(value);
         // invalidation should be called after value is set!
         // otherwise a call to getValue() from another thread
         // may cause stale data to be read when cacheValue is true.
@@ -23,6 +23,8 @@ import com.hazelcast.core.Prefix;
 import com.hazelcast.impl.base.KeyValue;
 import com.hazelcast.impl.base.Pairs;
 import com.hazelcast.nio.Data;
+import com.hazelcast.query.ExplainPredicate;
+import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 
 import java.util.*;
@@ -35,13 +37,20 @@ public class Entries extends AbstractSet {
     private final ClusterOperation operation;
     private final boolean checkValue;
     private final ConcurrentMapManager concurrentMapManager;
+    private final ExplainPredicate explainPredicate;
 
     public Entries(ConcurrentMapManager concurrentMapManager, String name, ClusterOperation operation, Predicate predicate) {
         this.concurrentMapManager = concurrentMapManager;
         this.name = name;
         this.operation = operation;
+        this.explainPredicate = (predicate instanceof ExplainPredicate) ? (ExplainPredicate) predicate : null;
+        if (explainPredicate != null) {
+            explainPredicate.clearQueryPlans();
+        }
         if (name.startsWith(Prefix.MULTIMAP)) {
             colKeyValues = new LinkedList<Map.Entry>();
+        } else if (predicate instanceof PagingPredicate) {
+            colKeyValues = new LinkedHashSet<Map.Entry>();
         } else {
             colKeyValues = new HashSet<Map.Entry>();
         }
@@ -75,10 +84,16 @@ public class Entries extends AbstractSet {
 
     public void clearEntries() {
         colKeyValues.clear();
+        if (explainPredicate != null) {
+            explainPredicate.clearQueryPlans();
+        }
     }
 
     public void addEntries(Pairs pairs) {
         if (pairs == null) return;
+        if (explainPredicate != null && pairs.getQueryPlan() != null) {
+            explainPredicate.addQueryPlan(pairs.getQueryPlan());
+        }
         if (pairs.getKeyValues() == null) return;
         TransactionImpl txn = ThreadContext.get().getCallContext().getTransaction();
         for (KeyValue entry : pairs.getKeyValues()) {
@@ -100,6 +115,12 @@ public class Entries extends AbstractSet {
         }
     }
 
+    public void selectPage(PagingPredicate pagingPredicate) {
+        List<Map.Entry> page = pagingPredicate.selectPage(colKeyValues);
+        colKeyValues.clear();
+        colKeyValues.addAll(page);
+    }
+
     public Collection<Map.Entry> getKeyValues() {
         return colKeyValues;
     }
@@ -48,9 +48,16 @@ public class GroupProperties {
     public static final String PROP_SOCKET_LINGER_SECONDS = "hazelcast.socket.linger.seconds";
     public static final String PROP_SOCKET_KEEP_ALIVE = "hazelcast.socket.keep.alive";
     public static final String PROP_SOCKET_NO_DELAY = "hazelcast.socket.no.delay";
+    public static final String PROP_SOCKET_SEND_BUFFER_DIRECT = "hazelcast.socket.send.buffer.direct";
+    public static final String PROP_SOCKET_WRITE_COALESCE_SIZE = "hazelcast.socket.write.coalesce.size";
+    public static final String PROP_SOCKET_WRITE_COALESCE_MICROS = "hazelcast.socket.write.coalesce.micros";
+    public static final String PROP_CONNECTION_DATA_LANE_COUNT = "hazelcast.connection.data.lane.count";
+    public static final String PROP_CONNECTION_BULK_LANE_ENABLED = "hazelcast.connection.bulk.lane.enabled";
+    public static final String PROP_CONNECTION_EVENT_LANE_ENABLED = "hazelcast.connection.event.lane.enabled";
     public static final String PROP_SERIALIZER_GZIP_ENABLED = "hazelcast.serializer.gzip.enabled";
     public static final String PROP_SERIALIZER_SHARED = "hazelcast.serializer.shared";
     public static final String PROP_PACKET_VERSION = "hazelcast.packet.version";
+    public static final String PROP_QUERY_PLAN_CACHE_SIZE = "hazelcast.query.plan.cache.size";
     public static final String PROP_SHUTDOWNHOOK_ENABLED = "hazelcast.shutdownhook.enabled";
     public static final String PROP_WAIT_SECONDS_BEFORE_JOIN = "hazelcast.wait.seconds.before.join";
     public static final String PROP_MAX_WAIT_SECONDS_BEFORE_JOIN = "hazelcast.max.wait.seconds.before.join";
@@ -70,10 +77,12 @@ public class GroupProperties {
     public static final String PROP_CONCURRENT_MAP_PARTITION_COUNT = "hazelcast.map.partition.count";
     public static final String PROP_REMOVE_DELAY_SECONDS = "hazelcast.map.remove.delay.seconds";
     public static final String PROP_CLEANUP_DELAY_SECONDS = "hazelcast.map.cleanup.delay.seconds";
+    public static final String PROP_QUERY_CURSOR_TIMEOUT_SECONDS = "hazelcast.query.cursor.timeout.seconds";
     public static final String PROP_EXECUTOR_QUERY_THREAD_COUNT = "hazelcast.executor.query.thread.count";
     public static final String PROP_EXECUTOR_EVENT_THREAD_COUNT = "hazelcast.executor.event.thread.count";
     public static final String PROP_EXECUTOR_CLIENT_THREAD_COUNT = "hazelcast.executor.client.thread.count";
     public static final String PROP_EXECUTOR_STORE_THREAD_COUNT = "hazelcast.executor.store.thread.count";
+    public static final String PROP_PARTITION_THREAD_COUNT = "hazelcast.partition.thread.count";
     public static final String PROP_LOGGING_TYPE = "hazelcast.logging.type";
     public static final String PROP_LOG_STATE = "hazelcast.log.state";
     public static final String PROP_ENABLE_JMX = "hazelcast.jmx";
@@ -87,6 +96,8 @@ public class GroupProperties {
     public static final String PROP_MC_MAX_VISIBLE_INSTANCE_COUNT = "hazelcast.mc.max.visible.instance.count";
     public static final String PROP_MC_URL_CHANGE_ENABLED = "hazelcast.mc.url.change.enabled";
     public static final String PROP_CONCURRENT_MAP_SIMPLE_RECORD = "hazelcast.map.simple.record";
+    public static final String PROP_CONCURRENT_MAP_COMPACT_RECORD = "hazelcast.map.compact.record";
+    public static final String PROP_CONCURRENT_MAP_BATCH_SIZE = "hazelcast.map.batch.size";
     public static final String PROP_CONNECTION_MONITOR_INTERVAL = "hazelcast.connection.monitor.interval";
     public static final String PROP_CONNECTION_MONITOR_MAX_FAULTS = "hazelcast.connection.monitor.max.faults";
     public static final String PROP_PARTITION_MIGRATION_INTERVAL = "hazelcast.partition.migration.interval";
@@ -106,7 +117,9 @@ public class GroupProperties {
 
     public static final GroupProperty SERIALIZER_SHARED = new GroupProperty(null, PROP_SERIALIZER_SHARED, "false");
 
-    public static final GroupProperty PACKET_VERSION = new GroupProperty(null, PROP_PACKET_VERSION, "8");
+    public static final GroupProperty PACKET_VERSION = new GroupProperty(null, PROP_PACKET_VERSION, "10");
+
+    public static final GroupProperty QUERY_PLAN_CACHE_SIZE = new GroupProperty(null, PROP_QUERY_PLAN_CACHE_SIZE, "1000");
 
     public final GroupProperty IO_THREAD_COUNT;
 
@@ -164,6 +177,18 @@ public class GroupProperties {
 
     public final GroupProperty SOCKET_NO_DELAY;
 
+    public final GroupProperty SOCKET_SEND_BUFFER_DIRECT;
+
+    public final GroupProperty SOCKET_WRITE_COALESCE_SIZE;   // number of kilobytes
+
+    public final GroupProperty SOCKET_WRITE_COALESCE_MICROS;
+
+    public final GroupProperty CONNECTION_DATA_LANE_COUNT;
+
+    public final GroupProperty CONNECTION_BULK_LANE_ENABLED;
+
+    public final GroupProperty CONNECTION_EVENT_LANE_ENABLED;
+
     public final GroupProperty SHUTDOWNHOOK_ENABLED;
 
     public final GroupProperty WAIT_SECONDS_BEFORE_JOIN;
@@ -202,6 +227,8 @@ public class GroupProperties {
 
     public final GroupProperty CLEANUP_DELAY_SECONDS;
 
+    public final GroupProperty QUERY_CURSOR_TIMEOUT_SECONDS;
+
     public final GroupProperty EXECUTOR_QUERY_THREAD_COUNT;
 
     public final GroupProperty EXECUTOR_EVENT_THREAD_COUNT;
@@ -210,6 +237,8 @@ public class GroupProperties {
 
     public final GroupProperty EXECUTOR_STORE_THREAD_COUNT;
 
+    public final GroupProperty PARTITION_THREAD_COUNT;
+
     public final GroupProperty LOG_STATE;
 
     public final GroupProperty LOGGING_TYPE;
@@ -236,6 +265,10 @@ public class GroupProperties {
 
     public final GroupProperty CONCURRENT_MAP_SIMPLE_RECORD;
 
+    public final GroupProperty CONCURRENT_MAP_COMPACT_RECORD;
+
+    public final GroupProperty CONCURRENT_MAP_BATCH_SIZE;
+
     public final GroupProperty CONNECTION_MONITOR_INTERVAL;
 
     public final GroupProperty CONNECTION_MONITOR_MAX_FAULTS;
@@ -254,7 +287,7 @@ public class GroupProperties {
 
     public final GroupProperty ELASTIC_MEMORY_ENABLED;
 
-    public final GroupProperty ELASTIC_MEMORY_TOTAL_SIZE;
+    public final GroupProperty ELASTIC_MEMORY_TOTAL_SIZE;   // a value is limited to the size of one segment, see OffHeapStorage
 
     public final GroupProperty ELASTIC_MEMORY_CHUNK_SIZE;
 
@@ -294,6 +327,12 @@ public class GroupProperties {
         SOCKET_LINGER_SECONDS = new GroupProperty(config, PROP_SOCKET_LINGER_SECONDS, "0");
         SOCKET_KEEP_ALIVE = new GroupProperty(config, PROP_SOCKET_KEEP_ALIVE, "true");
         SOCKET_NO_DELAY = new GroupProperty(config, PROP_SOCKET_NO_DELAY, "true");
+        SOCKET_SEND_BUFFER_DIRECT = new GroupProperty(config, PROP_SOCKET_SEND_BUFFER_DIRECT, "true");
+        SOCKET_WRITE_COALESCE_SIZE = new GroupProperty(config, PROP_SOCKET_WRITE_COALESCE_SIZE, "8");
+        SOCKET_WRITE_COALESCE_MICROS = new GroupProperty(config, PROP_SOCKET_WRITE_COALESCE_MICROS, "0");
+        CONNECTION_DATA_LANE_COUNT = new GroupProperty(config, PROP_CONNECTION_DATA_LANE_COUNT, "1");
+        CONNECTION_BULK_LANE_ENABLED = new GroupProperty(config, PROP_CONNECTION_BULK_LANE_ENABLED, "false");
+        CONNECTION_EVENT_LANE_ENABLED = new GroupProperty(config, PROP_CONNECTION_EVENT_LANE_ENABLED, "false");
         SHUTDOWNHOOK_ENABLED = new GroupProperty(config, PROP_SHUTDOWNHOOK_ENABLED, "true");
         WAIT_SECONDS_BEFORE_JOIN = new GroupProperty(config, PROP_WAIT_SECONDS_BEFORE_JOIN, "5");
         MAX_WAIT_SECONDS_BEFORE_JOIN = new GroupProperty(config, PROP_MAX_WAIT_SECONDS_BEFORE_JOIN, "20");
@@ -313,10 +352,12 @@ public class GroupProperties {
         CONCURRENT_MAP_PARTITION_COUNT = new GroupProperty(config, PROP_CONCURRENT_MAP_PARTITION_COUNT, "271");
         REMOVE_DELAY_SECONDS = new GroupProperty(config, PROP_REMOVE_DELAY_SECONDS, "5");
         CLEANUP_DELAY_SECONDS = new GroupProperty(config, PROP_CLEANUP_DELAY_SECONDS, "10");
+        QUERY_CURSOR_TIMEOUT_SECONDS = new GroupProperty(config, PROP_QUERY_CURSOR_TIMEOUT_SECONDS, "60");
         EXECUTOR_QUERY_THREAD_COUNT = new GroupProperty(config, PROP_EXECUTOR_QUERY_THREAD_COUNT, "8");
         EXECUTOR_EVENT_THREAD_COUNT = new GroupProperty(config, PROP_EXECUTOR_EVENT_THREAD_COUNT, "16");
         EXECUTOR_CLIENT_THREAD_COUNT = new GroupProperty(config, PROP_EXECUTOR_CLIENT_THREAD_COUNT, "40");
         EXECUTOR_STORE_THREAD_COUNT = new GroupProperty(config, PROP_EXECUTOR_STORE_THREAD_COUNT, "16");
+        PARTITION_THREAD_COUNT = new GroupProperty(config, PROP_PARTITION_THREAD_COUNT, "4");
         LOG_STATE = new GroupProperty(config, PROP_LOG_STATE, "false");
         LOGGING_TYPE = new GroupProperty(config, PROP_LOGGING_TYPE, "jdk");
         ENABLE_JMX = new GroupProperty(config, PROP_ENABLE_JMX, "false");
@@ -330,6 +371,8 @@ public class GroupProperties {
         MC_MAX_INSTANCE_COUNT = new GroupProperty(config, PROP_MC_MAX_VISIBLE_INSTANCE_COUNT, "100");
         MC_URL_CHANGE_ENABLED = new GroupProperty(config, PROP_MC_URL_CHANGE_ENABLED, "true");
         CONCURRENT_MAP_SIMPLE_RECORD = new GroupProperty(config, PROP_CONCURRENT_MAP_SIMPLE_RECORD, "false");
+        CONCURRENT_MAP_COMPACT_RECORD = new GroupProperty(config, PROP_CONCURRENT_MAP_COMPACT_RECORD, "false");
+        CONCURRENT_MAP_BATCH_SIZE = new GroupProperty(config, PROP_CONCURRENT_MAP_BATCH_SIZE, "1000");
         CONNECTION_MONITOR_INTERVAL = new GroupProperty(config, PROP_CONNECTION_MONITOR_INTERVAL, "100");
         CONNECTION_MONITOR_MAX_FAULTS = new GroupProperty(config, PROP_CONNECTION_MONITOR_MAX_FAULTS, "3");
         PARTITION_MIGRATION_INTERVAL = new GroupProperty(config, PROP_PARTITION_MIGRATION_INTERVAL, "0");
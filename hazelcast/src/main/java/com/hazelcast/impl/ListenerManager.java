@@ -25,16 +25,31 @@ import com.hazelcast.nio.*;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import static com.hazelcast.impl.ClusterOperation.*;
 import static com.hazelcast.nio.IOUtil.toData;
 
 public class ListenerManager extends BaseManager {
+    /**
+     * Filter id of the events sent to the listeners registered without a predicate.
+     */
+    public static final long NO_FILTER = -1;
+
+    /**
+     * Source of the filter ids of the predicates this member listens with. An id is assigned when a
+     * predicate is first registered and is unique on this member, so events of different predicates
+     * never match each other's listeners.
+     */
+    private final AtomicLong lastFilterId = new AtomicLong();
+
     final ConcurrentMap<String, List<ListenerItem>> namedListeners = new ConcurrentHashMap<String, List<ListenerItem>>(100);
 
     ListenerManager(Node node) {
@@ -59,17 +74,20 @@ public class ListenerManager extends BaseManager {
         Data value = packet.getValueData();
         String name = packet.name;
         Address from = packet.lockAddress;
+        long filterId = packet.version;
         releasePacket(packet);
-        enqueueEvent(eventType, name, key, value, from, false);
+        enqueueEvent(eventType, name, key, value, from, false, filterId);
     }
 
     private void handleAddRemoveListener(boolean add, Packet packet) {
         Data key = packet.getKeyData();
+        Data predicateData = packet.getValueData();
         boolean returnValue = (packet.longValue == 1);
+        long filterId = packet.version;
         String name = packet.name;
         Address address = packet.conn.getEndPoint();
         releasePacket(packet);
-        registerListener(add, name, key, address, returnValue);
+        registerListener(add, name, key, address, returnValue, predicateData, filterId);
     }
 
     public void syncForDead(Address deadAddress) {
@@ -78,7 +96,8 @@ public class ListenerManager extends BaseManager {
             for (ListenerItem listenerItem : listeners) {
                 if (!listenerItem.localListener) {
                     registerListener(false, listenerItem.name,
-                                     toData(listenerItem.key), deadAddress, listenerItem.includeValue);
+                                     toData(listenerItem.key), deadAddress, listenerItem.includeValue,
+                                     listenerItem.predicateData, listenerItem.filterId);
                 }
             }
         }
@@ -88,7 +107,8 @@ public class ListenerManager extends BaseManager {
         for (List<ListenerItem> listeners : namedListeners.values()) {
             for (ListenerItem listenerItem : listeners) {
                 if (!listenerItem.localListener) {
-                    registerListenerWithNoResponse(listenerItem.name, listenerItem.key, listenerItem.includeValue);
+                    registerListenerWithNoResponse(listenerItem.name, listenerItem.key, listenerItem.includeValue,
+                                                   listenerItem.predicateData, listenerItem.filterId);
                 }
             }
         }
@@ -102,7 +122,8 @@ public class ListenerManager extends BaseManager {
                     if (listenerItem.key != null) {
                         dataKey = ThreadContext.get().toData(listenerItem.key);
                     }
-                    sendAddListener(newAddress, listenerItem.name, dataKey, listenerItem.includeValue);
+                    sendAddListener(newAddress, listenerItem.name, dataKey, listenerItem.includeValue,
+                                    listenerItem.predicateData, listenerItem.filterId);
                 }
             }
         }
@@ -119,7 +140,8 @@ public class ListenerManager extends BaseManager {
             if (from == null) throw new RuntimeException("Listener origin is not known!");
             boolean add = (request.operation == ADD_LISTENER);
             boolean includeValue = (request.longValue == 1);
-            registerListener(add, request.name, request.key, request.caller, includeValue);
+            registerListener(add, request.name, request.key, request.caller, includeValue, request.value,
+                    request.version);
             request.response = Boolean.TRUE;
         }
     }
@@ -128,11 +150,19 @@ public class ListenerManager extends BaseManager {
         final String name;
         final boolean add;
         final boolean includeValue;
+        final Data predicateData;
+        final long filterId;
 
         public AddRemoveListener(String name, boolean add, boolean includeValue) {
+            this(name, add, includeValue, null, NO_FILTER);
+        }
+
+        public AddRemoveListener(String name, boolean add, boolean includeValue, Data predicateData, long filterId) {
             this.name = name;
             this.add = add;
             this.includeValue = includeValue;
+            this.predicateData = predicateData;
+            this.filterId = filterId;
         }
 
         SubCall createNewTargetAwareOp(Address target) {
@@ -155,40 +185,49 @@ public class ListenerManager extends BaseManager {
             public AddListenerAtTarget(Address target) {
                 super(target);
                 ClusterOperation operation = (add) ? ADD_LISTENER : REMOVE_LISTENER;
-                setLocal(operation, name, null, null, -1, -1);
+                setLocal(operation, name, null, predicateData, -1, -1);
                 request.setBooleanRequest();
                 request.longValue = (includeValue) ? 1 : 0;
+                request.version = filterId;
             }
         }
     }
 
-    private void registerListener(String name, Object key, boolean add, boolean includeValue) {
+    private void registerListener(String name, Object key, boolean add, boolean includeValue, Data predicateData,
+                                  long filterId) {
         if (key == null) {
-            AddRemoveListener addRemoveListener = new AddRemoveListener(name, add, includeValue);
+            AddRemoveListener addRemoveListener = new AddRemoveListener(name, add, includeValue, predicateData,
+                    filterId);
             addRemoveListener.call();
         } else {
             node.concurrentMapManager.new MAddKeyListener().addListener(name, add, key, includeValue);
         }
     }
 
-    private void registerListenerWithNoResponse(String name, Object key, boolean includeValue) {
+    private void registerListenerWithNoResponse(String name, Object key, boolean includeValue, Data predicateData,
+                                                long filterId) {
         Data dataKey = null;
         if (key != null) {
             dataKey = ThreadContext.get().toData(key);
         }
-        enqueueAndReturn(new ListenerRegistrationProcess(name, dataKey, includeValue));
+        enqueueAndReturn(new ListenerRegistrationProcess(name, dataKey, includeValue, predicateData, filterId));
     }
 
     final class ListenerRegistrationProcess implements Processable {
         final String name;
         final Data key;
         final boolean includeValue;
+        final Data predicateData;
+        final long filterId;
 
-        public ListenerRegistrationProcess(String name, Data key, boolean includeValue) {
+        public ListenerRegistrationProcess(String name, Data key, boolean includeValue, Data predicateData,
+                                           long filterId) {
             super();
             this.key = key;
             this.name = name;
             this.includeValue = includeValue;
+            this.predicateData = predicateData;
+            this.filterId = filterId;
         }
 
         public void process() {
@@ -214,19 +253,20 @@ public class ListenerManager extends BaseManager {
         private void processWithoutKey() {
             for (MemberImpl member : lsMembers) {
                 if (member.localMember()) {
-                    registerListener(true, name, null, thisAddress, includeValue);
+                    registerListener(true, name, null, thisAddress, includeValue, predicateData, filterId);
                 } else {
-                    sendAddListener(member.getAddress(), name, null, includeValue);
+                    sendAddListener(member.getAddress(), name, null, includeValue, predicateData, filterId);
                 }
             }
         }
     }
 
     void sendAddListener(Address toAddress, String name, Data key,
-                         boolean includeValue) {
+                         boolean includeValue, Data predicateData, long filterId) {
         Packet packet = obtainPacket();
-        packet.set(name, ClusterOperation.ADD_LISTENER_NO_RESPONSE, key, null);
+        packet.set(name, ClusterOperation.ADD_LISTENER_NO_RESPONSE, key, predicateData);
         packet.longValue = (includeValue) ? 1 : 0;
+        packet.version = filterId;
         sendOrReleasePacket(packet, toAddress);
     }
 
@@ -252,15 +292,33 @@ public class ListenerManager extends BaseManager {
 
     public synchronized void addListener(String name, Object listener, Object key, boolean includeValue,
                                          Instance.InstanceType instanceType) {
+        addListener(name, listener, key, includeValue, instanceType, null);
+    }
+
+    /**
+     * Adds a listener which is notified only of the entries matching the predicate.
+     * The predicate is evaluated by the owner of the entry, events of the entries
+     * not matching it are not sent at all. Events carry the filter id this member assigned
+     * to the predicate, so the listeners of different predicates never receive each other's events.
+     *
+     * @param predicateData serialized predicate, <tt>null</tt> to receive all the events
+     */
+    public synchronized void addListener(String name, Object listener, Object key, boolean includeValue,
+                                         Instance.InstanceType instanceType, Data predicateData) {
         List<ListenerItem> listeners = getOrCreateListenerList(name);
         boolean remotelyRegister = true;
+        long filterId = NO_FILTER;
         for (ListenerItem listenerItem : listeners) {
+            if (!listenerItem.localListener && predicateData != null && predicateData.equals(listenerItem.predicateData)) {
+                filterId = listenerItem.filterId;
+            }
             if (!remotelyRegister) {
-                break;
+                continue;
             }
             // If existing listener is local then continue 
             // and don't take into account for remote registration check. (issue:584)
-            if (!listenerItem.localListener && listenerItem.name.equals(name)) {
+            if (!listenerItem.localListener && listenerItem.name.equals(name)
+                    && equals(listenerItem.predicateData, predicateData)) {
                 if (key == null) {
                     if (listenerItem.key == null &&
                             (!includeValue || listenerItem.includeValue == includeValue)) {
@@ -274,36 +332,53 @@ public class ListenerManager extends BaseManager {
                 }
             }
         }
+        if (predicateData != null && filterId == NO_FILTER) {
+            filterId = lastFilterId.incrementAndGet();
+        }
         if (remotelyRegister) {
-            registerListener(name, key, true, includeValue);
+            registerListener(name, key, true, includeValue, predicateData, filterId);
         }
         ListenerItem listenerItem = new ListenerItem(name, key, listener, includeValue, instanceType);
+        listenerItem.predicateData = predicateData;
+        listenerItem.filterId = filterId;
         listeners.add(listenerItem);
     }
 
+    private static boolean equals(Data data1, Data data2) {
+        return (data1 == null) ? data2 == null : data1.equals(data2);
+    }
+
     public void removeListener(String name, Object listener, Object key) {
         List<ListenerItem> listeners = namedListeners.get(name);
         if (listeners == null) return;
+        final Set<Data> removedPredicates = new HashSet<Data>();
         for (ListenerItem listenerItem : listeners) {
             if (listener != null && listener.equals(listenerItem.listener)
                     && listenerItem.name.equals(name)) {
-                if (key == null && listenerItem.key == null) {
-                    listeners.remove(listenerItem);
-                } else if (key != null && key.equals(listenerItem.key)) {
+                if ((key == null && listenerItem.key == null)
+                        || (key != null && key.equals(listenerItem.key))) {
                     listeners.remove(listenerItem);
+                    if (listenerItem.predicateData != null) {
+                        removedPredicates.add(listenerItem.predicateData);
+                    }
                 }
             }
         }
         boolean left = false;
         for (ListenerItem listenerItem : listeners) {
-            if (key == null && listenerItem.key == null) {
+            if (listenerItem.predicateData != null) {
+                removedPredicates.remove(listenerItem.predicateData);
+            } else if (key == null && listenerItem.key == null) {
                 left = true;
             } else if (key != null && key.equals(listenerItem.key)) {
                 left = true;
             }
         }
         if (!left) {
-            registerListener(name, key, false, false);
+            registerListener(name, key, false, false, null, NO_FILTER);
+        }
+        for (Data predicateData : removedPredicates) {
+            registerListener(name, key, false, false, predicateData, NO_FILTER);
         }
     }
 
@@ -439,6 +514,8 @@ public class ListenerManager extends BaseManager {
         public boolean includeValue;
         public Instance.InstanceType instanceType;
         public boolean localListener = false;
+        public Data predicateData = null;
+        public long filterId = NO_FILTER;
 
         public ListenerItem() {
         }
@@ -461,23 +538,29 @@ public class ListenerManager extends BaseManager {
 
         public boolean listens(DataAwareEntryEvent dataAwareEntryEvent) {
             String name = dataAwareEntryEvent.getLongName();
-            return this.name.equals(name) && (this.key == null || dataAwareEntryEvent.getKey().equals(this.key));
+            return this.name.equals(name) && (this.key == null || dataAwareEntryEvent.getKey().equals(this.key))
+                    && dataAwareEntryEvent.getFilterId() == filterId;
         }
 
         public void writeData(DataOutput out) throws IOException {
             out.writeUTF(name);
             writeObject(out, key);
             out.writeBoolean(includeValue);
+            writeObject(out, predicateData);
+            out.writeLong(filterId);
         }
 
         public void readData(DataInput in) throws IOException {
             name = in.readUTF();
             key = readObject(in);
             includeValue = in.readBoolean();
+            predicateData = (Data) readObject(in);
+            filterId = in.readLong();
         }
 
         public void process() {
-            getNode().listenerManager.registerListener(true, name, toData(key), getConnection().getEndPoint(), includeValue);
+            getNode().listenerManager.registerListener(true, name, toData(key), getConnection().getEndPoint(),
+                    includeValue, predicateData, filterId);
         }
     }
 }
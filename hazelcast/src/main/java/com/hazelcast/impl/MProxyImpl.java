@@ -19,12 +19,15 @@ package com.hazelcast.impl;
 import com.hazelcast.core.*;
 import com.hazelcast.impl.ConcurrentMapManager.*;
 import com.hazelcast.impl.base.FactoryAwareNamedProxy;
+import com.hazelcast.impl.base.KeyValue;
+import com.hazelcast.impl.base.Pairs;
 import com.hazelcast.impl.concurrentmap.AddMapIndex;
 import com.hazelcast.impl.monitor.LocalMapStatsImpl;
 import com.hazelcast.impl.monitor.MapOperationsCounter;
 import com.hazelcast.monitor.LocalMapStats;
 import com.hazelcast.nio.Data;
 import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.query.Aggregator;
 import com.hazelcast.query.Expression;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.Predicates;
@@ -35,6 +38,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -45,6 +49,7 @@ import java.util.concurrent.TimeoutException;
 import static com.hazelcast.impl.ClusterOperation.CONCURRENT_MAP_ITERATE_KEYS;
 import static com.hazelcast.impl.Util.toMillis;
 import static com.hazelcast.nio.IOUtil.toData;
+import static com.hazelcast.nio.IOUtil.toObject;
 
 public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSerializable {
 
@@ -126,6 +131,11 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
 
     public Future getAsync(Object key) {
         beforeCall();
+        final ThreadContext tc = ThreadContext.get();
+        final TransactionImpl txn = tc.getCallContext().getTransaction();
+        if (!tc.isClient() && (txn == null || txn.getStatus() != Transaction.TXN_STATUS_ACTIVE)) {
+            return mproxyReal.getAsync(key);
+        }
         final MProxyImpl mProxy = MProxyImpl.this;
         final Data dataKey = toData(key);
         AsyncCall call = new ClassLoaderAwareAsyncCall() {
@@ -140,6 +150,11 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
 
     public Future putAsync(Object key, Object value) {
         beforeCall();
+        final ThreadContext tc = ThreadContext.get();
+        final TransactionImpl txn = tc.getCallContext().getTransaction();
+        if (!tc.isClient() && (txn == null || txn.getStatus() != Transaction.TXN_STATUS_ACTIVE)) {
+            return mproxyReal.putAsync(key, value);
+        }
         final MProxyImpl mProxy = MProxyImpl.this;
         final Data dataKey = toData(key);
         final Data dataValue = toData(value);
@@ -155,6 +170,11 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
 
     public Future removeAsync(Object key) {
         beforeCall();
+        final ThreadContext tc = ThreadContext.get();
+        final TransactionImpl txn = tc.getCallContext().getTransaction();
+        if (!tc.isClient() && (txn == null || txn.getStatus() != Transaction.TXN_STATUS_ACTIVE)) {
+            return mproxyReal.removeAsync(key);
+        }
         final MProxyImpl mProxy = MProxyImpl.this;
         final Data dataKey = toData(key);
         AsyncCall call = new ClassLoaderAwareAsyncCall() {
@@ -344,6 +364,26 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
         return dynamicProxy.localKeySet(predicate);
     }
 
+    public Object executeOnKey(Object key, EntryProcessor entryProcessor) {
+        return dynamicProxy.executeOnKey(key, entryProcessor);
+    }
+
+    public Map executeOnEntries(EntryProcessor entryProcessor) {
+        return dynamicProxy.executeOnEntries(entryProcessor);
+    }
+
+    public Map executeOnEntries(EntryProcessor entryProcessor, Predicate predicate) {
+        return dynamicProxy.executeOnEntries(entryProcessor, predicate);
+    }
+
+    public Object aggregate(Aggregator aggregator) {
+        return dynamicProxy.aggregate(aggregator);
+    }
+
+    public Object aggregate(Aggregator aggregator, Predicate predicate) {
+        return dynamicProxy.aggregate(aggregator, predicate);
+    }
+
     public Set keySet() {
         return dynamicProxy.keySet();
     }
@@ -364,6 +404,18 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
         return dynamicProxy.values(predicate);
     }
 
+    public CloseableIterator keyIterator(Predicate predicate, int fetchSize) {
+        return dynamicProxy.keyIterator(predicate, fetchSize);
+    }
+
+    public CloseableIterator entryIterator(Predicate predicate, int fetchSize) {
+        return dynamicProxy.entryIterator(predicate, fetchSize);
+    }
+
+    public CloseableIterator valueIterator(Predicate predicate, int fetchSize) {
+        return dynamicProxy.valueIterator(predicate, fetchSize);
+    }
+
     public Set entrySet(Predicate predicate) {
         return dynamicProxy.entrySet(predicate);
     }
@@ -441,6 +493,10 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
         dynamicProxy.addEntryListener(listener, key, includeValue);
     }
 
+    public void addEntryListener(EntryListener listener, Predicate predicate, boolean includeValue) {
+        dynamicProxy.addEntryListener(listener, predicate, includeValue);
+    }
+
     public void removeEntryListener(EntryListener listener) {
         dynamicProxy.removeEntryListener(listener);
     }
@@ -512,7 +568,7 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
         }
 
         public void addIndex(final String attribute, final boolean ordered) {
-            addIndex(Predicates.get(attribute), ordered);
+            addIndex(Predicates.indexExpression(attribute), ordered);
         }
 
         public void addIndex(final Expression expression, final boolean ordered) {
@@ -582,16 +638,66 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
             return concurrentMapManager.getAll(name, keys);
         }
 
+        /**
+         * {@link AsyncCall} completed by a map operation's response, deserializes
+         * the value on the thread calling <tt>get</tt>.
+         */
+        private abstract class DataAsyncCall extends AsyncCall {
+            @Override
+            protected void call() {
+            }
+
+            @Override
+            protected Object convertResult(Object result) {
+                if (result instanceof Data) {
+                    final Data data = (Data) result;
+                    return (data.size() == 0) ? null : toObject(data);
+                }
+                return result;
+            }
+        }
+
         public Future getAsync(Object key) {
-            throw new UnsupportedOperationException();
+            check(key);
+            final long begin = Clock.currentTimeMillis();
+            AsyncCall call = new DataAsyncCall() {
+                @Override
+                public void setResult(Object obj) {
+                    mapOperationCounter.incrementGets(Clock.currentTimeMillis() - begin);
+                    super.setResult(obj);
+                }
+            };
+            concurrentMapManager.new MGetAsync(call).getAsync(name, key);
+            return call;
         }
 
         public Future putAsync(Object key, Object value) {
-            throw new UnsupportedOperationException();
+            check(key);
+            check(value);
+            final long begin = Clock.currentTimeMillis();
+            AsyncCall call = new DataAsyncCall() {
+                @Override
+                public void setResult(Object obj) {
+                    mapOperationCounter.incrementPuts(Clock.currentTimeMillis() - begin);
+                    super.setResult(obj);
+                }
+            };
+            concurrentMapManager.new MPutAsync(call).putAsync(name, key, value, -1);
+            return call;
         }
 
         public Future removeAsync(Object key) {
-            throw new UnsupportedOperationException();
+            check(key);
+            final long begin = Clock.currentTimeMillis();
+            AsyncCall call = new DataAsyncCall() {
+                @Override
+                public void setResult(Object obj) {
+                    mapOperationCounter.incrementRemoves(Clock.currentTimeMillis() - begin);
+                    super.setResult(obj);
+                }
+            };
+            concurrentMapManager.new MRemoveAsync(call).removeAsync(name, key);
+            return call;
         }
 
         public Object put(Object key, Object value, long ttl, TimeUnit timeunit) {
@@ -767,7 +873,7 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
             long begin = Clock.currentTimeMillis();
             check(key);
             check(value);
-            MPut mput = concurrentMapManager.new MPut();
+            MPut mput = ThreadContext.get().getCallCache(factory).getMPut();
             Object result = mput.putIfAbsent(name, key, value, ttl);
             mput.clearRequest();
             mapOperationCounter.incrementPuts(Clock.currentTimeMillis() - begin);
@@ -830,8 +936,9 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
             long begin = Clock.currentTimeMillis();
             check(key);
             check(value);
-            MRemove mremove = concurrentMapManager.new MRemove();
+            MRemove mremove = ThreadContext.get().getCallCache(factory).getMRemove();
             boolean result = mremove.removeIfSame(name, key, value);
+            mremove.clearRequest();
             mapOperationCounter.incrementRemoves(Clock.currentTimeMillis() - begin);
             return result;
         }
@@ -840,8 +947,9 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
             long begin = Clock.currentTimeMillis();
             check(key);
             check(value);
-            MPut mput = concurrentMapManager.new MPut();
+            MPut mput = ThreadContext.get().getCallCache(factory).getMPut();
             Object result = mput.replace(name, key, value);
+            mput.clearRequest();
             mapOperationCounter.incrementPuts(Clock.currentTimeMillis() - begin);
             return result;
         }
@@ -851,8 +959,9 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
             check(key);
             check(oldValue);
             check(newValue);
-            MPut mput = concurrentMapManager.new MPut();
+            MPut mput = ThreadContext.get().getCallCache(factory).getMPut();
             Boolean result = mput.replace(name, key, oldValue, newValue);
+            mput.clearRequest();
             mapOperationCounter.incrementPuts(Clock.currentTimeMillis() - begin);
             return result;
         }
@@ -896,6 +1005,12 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
             addGenericListener(listener, key, includeValue, getInstanceType());
         }
 
+        public void addEntryListener(EntryListener listener, Predicate predicate, boolean includeValue) {
+            if (listener == null)
+                throw new IllegalArgumentException("Listener cannot be null");
+            listenerManager.addListener(name, listener, null, includeValue, getInstanceType(), toData(predicate));
+        }
+
         public void removeEntryListener(EntryListener listener) {
             if (listener == null)
                 throw new IllegalArgumentException("Listener cannot be null");
@@ -1005,6 +1120,41 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
             return concurrentMapManager.queryLocal(name, CONCURRENT_MAP_ITERATE_KEYS, predicate);
         }
 
+        public Object executeOnKey(Object key, EntryProcessor entryProcessor) {
+            check(key);
+            check(entryProcessor);
+            mapOperationCounter.incrementOtherOperations();
+            MEntryProcess mEntryProcess = concurrentMapManager.new MEntryProcess();
+            return mEntryProcess.execute(name, key, toData(entryProcessor));
+        }
+
+        public Map executeOnEntries(EntryProcessor entryProcessor) {
+            return executeOnEntries(entryProcessor, null);
+        }
+
+        public Map executeOnEntries(EntryProcessor entryProcessor, Predicate predicate) {
+            check(entryProcessor);
+            mapOperationCounter.incrementOtherOperations();
+            Pairs pairs = concurrentMapManager.executeOnEntries(name, entryProcessor, predicate);
+            Map results = new HashMap(pairs.size());
+            if (pairs.getKeyValues() != null) {
+                for (KeyValue keyValue : pairs.getKeyValues()) {
+                    results.put(keyValue.getKey(), keyValue.getValue());
+                }
+            }
+            return results;
+        }
+
+        public Object aggregate(Aggregator aggregator) {
+            return aggregate(aggregator, null);
+        }
+
+        public Object aggregate(Aggregator aggregator, Predicate predicate) {
+            check(aggregator);
+            mapOperationCounter.incrementOtherOperations();
+            return concurrentMapManager.aggregate(name, aggregator, predicate);
+        }
+
         public Set entrySet(Predicate predicate) {
             return (Set) query(ClusterOperation.CONCURRENT_MAP_ITERATE_ENTRIES, predicate);
         }
@@ -1017,6 +1167,18 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
             return query(ClusterOperation.CONCURRENT_MAP_ITERATE_VALUES, predicate);
         }
 
+        public CloseableIterator keyIterator(Predicate predicate, int fetchSize) {
+            return iterate(ClusterOperation.CONCURRENT_MAP_ITERATE_KEYS, predicate, fetchSize);
+        }
+
+        public CloseableIterator entryIterator(Predicate predicate, int fetchSize) {
+            return iterate(ClusterOperation.CONCURRENT_MAP_ITERATE_ENTRIES, predicate, fetchSize);
+        }
+
+        public CloseableIterator valueIterator(Predicate predicate, int fetchSize) {
+            return iterate(ClusterOperation.CONCURRENT_MAP_ITERATE_VALUES, predicate, fetchSize);
+        }
+
         public Set entrySet() {
             return (Set) query(ClusterOperation.CONCURRENT_MAP_ITERATE_ENTRIES, null);
         }
@@ -1042,6 +1204,11 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
             return concurrentMapManager.query(name, iteratorType, predicate);
         }
 
+        private CloseableIterator iterate(ClusterOperation iteratorType, Predicate predicate, int fetchSize) {
+            mapOperationCounter.incrementOtherOperations();
+            return concurrentMapManager.iterate(name, iteratorType, predicate, fetchSize);
+        }
+
         public void destroy() {
             factory.destroyInstanceClusterWide(name, null);
         }
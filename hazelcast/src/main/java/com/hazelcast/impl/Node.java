@@ -423,6 +423,7 @@ public class Node {
         serviceThread.setPriority(groupProperties.SERVICE_THREAD_PRIORITY.getInteger());
         logger.log(Level.FINEST, "Starting thread " + serviceThread.getName());
         serviceThread.start();
+        clusterService.startPartitionThreads();
         connectionManager.start();
         final NetworkConfig networkConfig = config.getNetworkConfig();
         if (networkConfig.getJoin().getMulticastConfig().isEnabled()) {
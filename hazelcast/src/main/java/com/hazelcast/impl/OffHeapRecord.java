@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.impl.base.DistributedLock;
+import com.hazelcast.impl.storage.DataRef;
+import com.hazelcast.impl.storage.Storage;
+import com.hazelcast.nio.Data;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Record keeping its value in a {@link Storage}, only the reference to the value
+ * stays on the heap. Value is never cached in object form.
+ * <p/>
+ * Chunks of the old value are released as soon as the value is replaced or invalidated.
+ * Readers outside of the ServiceThread re-read the value if it is replaced during the copy.
+ */
+@SuppressWarnings("VolatileLongOrDoubleField")
+public final class OffHeapRecord extends AbstractRecord {
+
+    private static final AtomicReferenceFieldUpdater<OffHeapRecord, DataRef> VALUE_REF =
+            AtomicReferenceFieldUpdater.newUpdater(OffHeapRecord.class, DataRef.class, "valueRef");
+
+    private final Storage storage;
+
+    private volatile DataRef valueRef;
+
+    private volatile long maxIdleMillis = Long.MAX_VALUE;
+    private volatile long writeTime = -1;
+    private volatile long removeTime = 0;
+    private volatile long lastAccessTime = 0;
+    private volatile long lastStoredTime = 0;
+    private volatile long creationTime = 0;
+    private volatile long expirationTime = Long.MAX_VALUE;
+    private volatile long lastUpdateTime = 0;
+
+    public OffHeapRecord(Storage storage, CMap cmap, int blockId, Data key, Data value,
+                         long ttl, long maxIdleMillis, long id) {
+        super(cmap, blockId, key, id);
+        this.storage = storage;
+        if (value != null) {
+            this.valueRef = storage.put(hash(), compressValue(value));
+        }
+        initTimes(ttl, maxIdleMillis);
+    }
+
+    private int hash() {
+        return key.getPartitionHash();
+    }
+
+    public Record copy() {
+        Record recordCopy = new OffHeapRecord(storage, cmap, blockId, key, getValueData(),
+                getRemainingTTL(), getRemainingIdle(), id);
+        if (optionalInfo != null) {
+            recordCopy.setIndexes(getOptionalInfo().indexes, getOptionalInfo().indexTypes,
+                    getOptionalInfo().indexData);
+            recordCopy.setMultiValues(getOptionalInfo().lsMultiValues);
+        }
+        final DistributedLock dl = lock;
+        if (dl != null) {
+            recordCopy.setLock(new DistributedLock(dl));
+        }
+        recordCopy.setVersion(getVersion());
+        return recordCopy;
+    }
+
+    protected long getMaxIdleMillis() {
+        return maxIdleMillis;
+    }
+
+    protected void setMaxIdleMillis(long maxIdleMillis) {
+        this.maxIdleMillis = maxIdleMillis;
+    }
+
+    protected void storeExpirationTime(long expirationTime) {
+        this.expirationTime = expirationTime;
+    }
+
+    public long getExpirationTime() {
+        return expirationTime;
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    public void setCreationTime(long newValue) {
+        creationTime = newValue;
+    }
+
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    public void setLastAccessTime(long lastAccessTime) {
+        this.lastAccessTime = lastAccessTime;
+    }
+
+    public long getLastUpdateTime() {
+        return lastUpdateTime;
+    }
+
+    public void setLastUpdateTime(long lastUpdateTime) {
+        this.lastUpdateTime = lastUpdateTime;
+    }
+
+    public long getWriteTime() {
+        return writeTime;
+    }
+
+    public void setWriteTime(long writeTime) {
+        this.writeTime = writeTime;
+    }
+
+    public long getRemoveTime() {
+        return removeTime;
+    }
+
+    public void setRemoveTime(long removeTime) {
+        this.removeTime = removeTime;
+    }
+
+    public long getLastStoredTime() {
+        return lastStoredTime;
+    }
+
+    public void setLastStoredTime(long lastStoredTime) {
+        this.lastStoredTime = lastStoredTime;
+    }
+
+    public Data getValueData() {
+        while (true) {
+            final DataRef ref = valueRef;
+            if (ref == null) {
+                return null;
+            }
+            final Data data = storage.get(hash(), ref);
+            // chunks may have been released and reused while copying
+            if (valueRef == ref) {
+                return data;
+            }
+        }
+    }
+
+    public Object getValue() {
+        return toObject(getValueData());
+    }
+
+    public Object setValue(Object value) {
+        return getValue();
+    }
+
+    public void setValueData(Data value) {
+        final DataRef newRef = (value == null) ? null : storage.put(hash(), compressValue(value));
+        release(VALUE_REF.getAndSet(this, newRef));
+    }
+
+    private void release(DataRef ref) {
+        if (ref != null) {
+            storage.remove(hash(), ref);
+        }
+    }
+
+    public int valueCount() {
+        int count = 0;
+        if (hasValueData()) {
+            count = 1;
+        } else if (getMultiValues() != null) {
+            count = getMultiValues().size();
+        }
+        return count;
+    }
+
+    public long getCost() {
+        final DataRef ref = valueRef;
+        final long cost = (ref == null) ? 0 : ref.size();
+        return cost + getKeyData().size() + 312;
+    }
+
+    public boolean hasValueData() {
+        return valueRef != null;
+    }
+
+    public void invalidate() {
+        release(VALUE_REF.getAndSet(this, null));
+    }
+}
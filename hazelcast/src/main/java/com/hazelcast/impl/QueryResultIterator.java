@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.impl;
+
+import com.hazelcast.core.CloseableIterator;
+import com.hazelcast.core.DistributedTask;
+import com.hazelcast.core.Member;
+import com.hazelcast.core.RuntimeInterruptedException;
+import com.hazelcast.impl.base.KeyValue;
+import com.hazelcast.impl.concurrentmap.MapQueryCursorCallable;
+import com.hazelcast.impl.concurrentmap.QueryChunk;
+import com.hazelcast.nio.Data;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.Predicate;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import static com.hazelcast.impl.ClusterOperation.*;
+import static com.hazelcast.nio.IOUtil.toData;
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Iterates the results of a query fetching them from one member at a time, in chunks.
+ * The next chunk is fetched only when the previous one is consumed, and members read
+ * their results from a cursor, so the memory used by the query does not depend on the
+ * number of results.
+ * <p/>
+ * The iteration is weakly consistent: entries updated or migrated during the iteration
+ * may be missed or returned twice, and changes of the current transaction are not seen.
+ * An abandoned iteration should be closed; otherwise the cursor of the member expires
+ * after <tt>hazelcast.query.cursor.timeout.seconds</tt> of inactivity.
+ */
+public class QueryResultIterator<E> implements CloseableIterator<E> {
+    private final ExecutorService executorService;
+    private final FactoryImpl factory;
+    private final String name;
+    private final ClusterOperation operation;
+    private final Data predicateData;
+    private final int fetchSize;
+    private final Iterator<Member> members;
+    private Member member = null;
+    private long cursorId = 0;
+    private boolean lastChunk = true;
+    private Iterator<KeyValue> chunk = Collections.<KeyValue>emptyList().iterator();
+
+    /**
+     * @param executorService executor running the fetches on the members
+     * @param members         members to query
+     * @param factory         instance of the calling member, <tt>null</tt> on clients
+     * @param operation       one of the key, value or entry iteration operations
+     */
+    public QueryResultIterator(ExecutorService executorService, Collection<Member> members, FactoryImpl factory,
+                               String name, ClusterOperation operation, Predicate predicate, int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize should be greater than 0!");
+        }
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Paging predicates are not supported!");
+        }
+        this.executorService = executorService;
+        this.factory = factory;
+        this.name = name;
+        this.operation = operation;
+        this.predicateData = toData(predicate);
+        this.fetchSize = fetchSize;
+        final List<Member> dataMembers = new ArrayList<Member>(members.size());
+        for (Member m : members) {
+            if (!m.isLiteMember()) {
+                dataMembers.add(m);
+            }
+        }
+        this.members = dataMembers.iterator();
+    }
+
+    public boolean hasNext() {
+        while (!chunk.hasNext()) {
+            if (lastChunk) {
+                if (!members.hasNext()) {
+                    return false;
+                }
+                member = members.next();
+                cursorId = 0;
+            }
+            final QueryChunk queryChunk = execute(new MapQueryCursorCallable(name, operation, predicateData, cursorId, fetchSize));
+            cursorId = queryChunk.getCursorId();
+            lastChunk = queryChunk.isLast();
+            final List<KeyValue> keyValues = queryChunk.getPairs().getKeyValues();
+            if (keyValues != null) {
+                chunk = keyValues.iterator();
+            }
+        }
+        return true;
+    }
+
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final KeyValue keyValue = chunk.next();
+        if (operation == CONCURRENT_MAP_ITERATE_KEYS) {
+            return (E) keyValue.getKey();
+        } else if (operation == CONCURRENT_MAP_ITERATE_VALUES) {
+            return (E) toObject(keyValue.getValueData());
+        }
+        if (factory != null) {
+            keyValue.setName(factory, name);
+        }
+        return (E) keyValue;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Closes the cursor of the member being iterated.
+     */
+    public void close() {
+        chunk = Collections.<KeyValue>emptyList().iterator();
+        if (!lastChunk) {
+            lastChunk = true;
+            execute(new MapQueryCursorCallable(name, operation, null, cursorId, 0));
+        }
+        while (members.hasNext()) {
+            members.next();
+        }
+    }
+
+    private QueryChunk execute(MapQueryCursorCallable callable) {
+        final DistributedTask<QueryChunk> task = new DistributedTask<QueryChunk>(callable, member);
+        executorService.execute(task);
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            throw new RuntimeInterruptedException(e.getMessage());
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+}
@@ -57,7 +57,13 @@ public interface Record extends MapEntry {
 
     byte[] getIndexTypes();
 
-    void setIndexes(Long[] indexes, byte[] indexTypes);
+    /**
+     * @return serialized {@link com.hazelcast.query.IndexValues} of the indexes
+     *         whose values are not sent as long values, <tt>null</tt> if there are none
+     */
+    Data getIndexData();
+
+    void setIndexes(Long[] indexes, byte[] indexTypes, Data indexData);
 
     int valueCount();
 
@@ -61,6 +61,7 @@ public class Request implements CallStateAware {
     public long txnId = DEFAULT_TXN_ID;
     public Long[] indexes;
     public byte[] indexTypes;
+    public Data indexData;
     public Object attachment = null;
     public Object response = null;
     public ResponseType responseType = ResponseType.OBJECT;
@@ -115,6 +116,7 @@ public class Request implements CallStateAware {
         this.redoCount = DEFAULT_REDO_COUNT;
         this.indexes = null;
         this.indexTypes = null;
+        this.indexData = null;
         this.responseType = ResponseType.OBJECT;
         this.record = null;
         this.callState = null;
@@ -127,9 +129,10 @@ public class Request implements CallStateAware {
         this.response = null;
     }
 
-    public void setIndexes(Long[] newIndexes, byte[] indexTypes) {
+    public void setIndexes(Long[] newIndexes, byte[] indexTypes, Data indexData) {
         this.indexes = newIndexes;
         this.indexTypes = indexTypes;
+        this.indexData = indexData;
         if (indexes.length != indexTypes.length) {
             throw new RuntimeException("Indexes length and indexTypes length has to be the same."
                     + indexes.length + " vs. " + indexTypes.length);
@@ -171,6 +174,7 @@ public class Request implements CallStateAware {
 //        this.redoCount = DEFAULT_REDO_COUNT;
         this.indexes = null;
         this.indexTypes = null;
+        this.indexData = null;
         this.responseType = ResponseType.OBJECT;
         // set the values //
         set(true,
@@ -207,6 +211,7 @@ public class Request implements CallStateAware {
         scheduled = req.scheduled;
         indexes = req.indexes;
         indexTypes = req.indexTypes;
+        indexData = req.indexData;
     }
 
     public static Request copyFromPacket(Packet packet) {
@@ -222,6 +227,7 @@ public class Request implements CallStateAware {
             packet.version, packet.redoData);
         indexes = packet.indexes;
         indexTypes = packet.indexTypes;
+        indexData = packet.getIndexData();
         callState = packet.callState;
     }
 
@@ -241,7 +247,7 @@ public class Request implements CallStateAware {
         key = record.getKeyData();
         value = record.getValueData();
         if (record.getIndexes() != null) {
-            setIndexes(record.getIndexes(), record.getIndexTypes());
+            setIndexes(record.getIndexes(), record.getIndexTypes(), record.getIndexData());
         }
     }
 
@@ -261,6 +267,7 @@ public class Request implements CallStateAware {
             this.version = DEFAULT_VERSION;
             this.indexes = null;
             this.indexTypes = null;
+            this.indexData = null;
             this.record = null;
         }
     }
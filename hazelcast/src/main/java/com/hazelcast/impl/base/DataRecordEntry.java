@@ -47,6 +47,7 @@ public class DataRecordEntry implements DataSerializable, MapEntry {
     private Data valueData = null;
     private Long[] indexes;
     private byte[] indexTypes;
+    private Data indexData;
     private Object key = null;
     private Object value = null;
     private long lastStoredTime;
@@ -82,6 +83,7 @@ public class DataRecordEntry implements DataSerializable, MapEntry {
         valueData = value;
         indexes = record.getIndexes();
         indexTypes = record.getIndexTypes();
+        indexData = record.getIndexData();
         DistributedLock lock = record.getLock();
         if (lock != null && lock.getLockCount() > 0) {
             lockAddress = lock.getLockAddress();
@@ -120,6 +122,13 @@ public class DataRecordEntry implements DataSerializable, MapEntry {
             out.writeLong(indexes[i]);
             out.write(indexTypes[i]);
         }
+        if (indexCount > 0) {
+            boolean indexDataNull = (indexData == null);
+            out.writeBoolean(indexDataNull);
+            if (!indexDataNull) {
+                indexData.writeData(out);
+            }
+        }
         out.writeInt(lockThreadId);
         boolean hasLockAddress = lockAddress != null;
         out.writeBoolean(hasLockAddress);
@@ -164,6 +173,11 @@ public class DataRecordEntry implements DataSerializable, MapEntry {
                 indexes[i] = in.readLong();
                 indexTypes[i] = in.readByte();
             }
+            boolean indexDataNull = in.readBoolean();
+            if (!indexDataNull) {
+                indexData = new Data();
+                indexData.readData(in);
+            }
         }
         lockThreadId = in.readInt();
         boolean hasLockAddress = in.readBoolean();
@@ -264,6 +278,10 @@ public class DataRecordEntry implements DataSerializable, MapEntry {
         return indexTypes;
     }
 
+    public Data getIndexData() {
+        return indexData;
+    }
+
     public Address getLockAddress() {
         return lockAddress;
     }
@@ -21,6 +21,8 @@ import com.hazelcast.impl.Node;
 import com.hazelcast.impl.ProxyFactory;
 import com.hazelcast.impl.concurrentmap.DefaultRecordFactory;
 import com.hazelcast.impl.concurrentmap.RecordFactory;
+import com.hazelcast.impl.storage.OffHeapStorage;
+import com.hazelcast.impl.storage.Storage;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.security.SecurityContext;
 
@@ -37,6 +39,8 @@ public class DefaultNodeInitializer implements NodeInitializer {
     protected String build;
     private int buildNumber;
     protected boolean simpleRecord = false;
+    protected boolean compactRecord = false;
+    protected Storage storage;
 
     public void beforeInitialize(Node node) {
         this.node = node;
@@ -44,6 +48,10 @@ public class DefaultNodeInitializer implements NodeInitializer {
         logger = node.getLogger("com.hazelcast.initializer");
         parseSystemProps();
         simpleRecord = node.groupProperties.CONCURRENT_MAP_SIMPLE_RECORD.getBoolean();
+        compactRecord = node.groupProperties.CONCURRENT_MAP_COMPACT_RECORD.getBoolean();
+        if (!node.isLiteMember() && node.groupProperties.ELASTIC_MEMORY_ENABLED.getBoolean()) {
+            storage = OffHeapStorage.create(node.groupProperties);
+        }
     }
 
     public void printNodeInfo(Node node) {
@@ -81,7 +89,7 @@ public class DefaultNodeInitializer implements NodeInitializer {
     }
 
     public RecordFactory getRecordFactory() {
-        return new DefaultRecordFactory(simpleRecord);
+        return new DefaultRecordFactory(simpleRecord, compactRecord, storage);
     }
 
     public int getBuildNumber() {
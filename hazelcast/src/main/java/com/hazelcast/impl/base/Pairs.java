@@ -17,6 +17,7 @@
 package com.hazelcast.impl.base;
 
 import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.query.QueryPlan;
 
 import java.io.DataInput;
 import java.io.DataOutput;
@@ -26,6 +27,7 @@ import java.util.List;
 
 public class Pairs implements DataSerializable {
     private List<KeyValue> lsKeyValues = null;
+    private QueryPlan queryPlan = null;
 
     public Pairs() {
     }
@@ -47,6 +49,10 @@ public class Pairs implements DataSerializable {
         for (int i = 0; i < size; i++) {
             getKeyValues().get(i).writeData(out);
         }
+        out.writeBoolean(queryPlan != null);
+        if (queryPlan != null) {
+            queryPlan.writeData(out);
+        }
     }
 
     public void readData(DataInput in) throws IOException {
@@ -59,6 +65,10 @@ public class Pairs implements DataSerializable {
             kv.readData(in);
             getKeyValues().add(kv);
         }
+        if (in.readBoolean()) {
+            queryPlan = new QueryPlan();
+            queryPlan.readData(in);
+        }
     }
 
     public int size() {
@@ -83,6 +93,17 @@ public class Pairs implements DataSerializable {
         return lsKeyValues;
     }
 
+    /**
+     * @return plan of the query which returned the pairs, <tt>null</tt> if the query was not explained
+     */
+    public QueryPlan getQueryPlan() {
+        return queryPlan;
+    }
+
+    public void setQueryPlan(QueryPlan queryPlan) {
+        this.queryPlan = queryPlan;
+    }
+
     @Override
     public String toString() {
         return "Pairs{" +
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.base;
+
+import com.hazelcast.nio.Packet;
+
+/**
+ * A PacketProcessor which is able to serve some of its packets
+ * on the partition thread owning the packet's key, without touching the ServiceThread.
+ */
+public interface PartitionAwarePacketProcessor extends PacketProcessor {
+
+    /**
+     * Called on the partition thread owning the key of the packet, while the ServiceThread
+     * is not running. Implementations may mutate the records of the packet's partition
+     * only, state shared by the partitions must be left to the ServiceThread.
+     * Waiting for the ServiceThread here would never return.
+     *
+     * @param packet packet to process
+     * @return true if packet is processed and response is sent,
+     *         false if packet should be handed over to the ServiceThread
+     */
+    boolean processOnPartitionThread(Packet packet);
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.impl.CMap;
+import com.hazelcast.impl.ConcurrentMapManager;
+import com.hazelcast.impl.FactoryImpl;
+import com.hazelcast.impl.PartitionManager;
+import com.hazelcast.nio.Data;
+import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.query.Aggregator;
+import com.hazelcast.query.Predicate;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Accumulates the entries owned by this member into a copy of the aggregator
+ * and returns it as a partial result, or <tt>null</tt> if the partitions changed
+ * in the meantime. Created without a partition version it aggregates the
+ * whole map and returns the final result.
+ */
+public class AggregationCallable implements Callable<Object>, DataSerializable, HazelcastInstanceAware {
+
+    private static final int NO_PARTITION_VERSION = -1;
+
+    private String mapName;
+    private Data aggregatorData;
+    private Data predicateData;
+    private int partitionVersion = NO_PARTITION_VERSION;
+    private transient FactoryImpl factory = null;
+
+    public AggregationCallable() {
+    }
+
+    public AggregationCallable(String mapName, Data aggregatorData, Data predicateData) {
+        this.mapName = mapName;
+        this.aggregatorData = aggregatorData;
+        this.predicateData = predicateData;
+    }
+
+    public AggregationCallable(String mapName, Data aggregatorData, Data predicateData, int partitionVersion) {
+        this(mapName, aggregatorData, predicateData);
+        this.partitionVersion = partitionVersion;
+    }
+
+    public Object call() throws Exception {
+        final ConcurrentMapManager concurrentMapManager = factory.node.concurrentMapManager;
+        final Aggregator aggregator = (Aggregator) toObject(aggregatorData);
+        final Predicate predicate = (Predicate) toObject(predicateData);
+        if (partitionVersion == NO_PARTITION_VERSION) {
+            return concurrentMapManager.aggregate(mapName, aggregator, predicate);
+        }
+        CMap cmap = concurrentMapManager.getMap(mapName);
+        if (cmap == null) return aggregator;
+        PartitionManager partitionManager = concurrentMapManager.getPartitionManager();
+        if (partitionManager.getVersion() != partitionVersion) return null;
+        concurrentMapManager.aggregateMap(cmap, aggregator, predicate);
+        if (partitionManager.getVersion() != partitionVersion) return null;
+        return aggregator;
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeUTF(mapName);
+        out.writeInt(partitionVersion);
+        aggregatorData.writeData(out);
+        boolean hasPredicate = predicateData != null;
+        out.writeBoolean(hasPredicate);
+        if (hasPredicate) {
+            predicateData.writeData(out);
+        }
+    }
+
+    public void readData(DataInput in) throws IOException {
+        mapName = in.readUTF();
+        partitionVersion = in.readInt();
+        aggregatorData = new Data();
+        aggregatorData.readData(in);
+        boolean hasPredicate = in.readBoolean();
+        if (hasPredicate) {
+            predicateData = new Data();
+            predicateData.readData(in);
+        }
+    }
+
+    public void setHazelcastInstance(HazelcastInstance hazelcastInstance) {
+        this.factory = (FactoryImpl) hazelcastInstance;
+    }
+}
@@ -17,22 +17,43 @@
 package com.hazelcast.impl.concurrentmap;
 
 import com.hazelcast.impl.*;
+import com.hazelcast.impl.storage.Storage;
 import com.hazelcast.nio.Data;
 
 public class DefaultRecordFactory implements RecordFactory {
 
     protected final boolean simple;
 
+    protected final boolean compact;
+
+    protected final Storage storage;
+
     public DefaultRecordFactory(boolean simple) {
+        this(simple, false);
+    }
+
+    public DefaultRecordFactory(boolean simple, boolean compact) {
+        this(simple, compact, null);
+    }
+
+    public DefaultRecordFactory(boolean simple, boolean compact, Storage storage) {
         super();
         this.simple = simple;
+        this.compact = compact;
+        this.storage = storage;
     }
 
     public Record createNewRecord(CMap cmap, int blockId, Data key, Data value,
                                   long ttl, long maxIdleMillis, long id) {
+        if (storage != null && cmap.isOffHeap()) {
+            return new OffHeapRecord(storage, cmap, blockId, key, value, ttl, maxIdleMillis, id);
+        }
         if (simple) {
             return new SimpleRecord(blockId, cmap, id, key, value);
         }
+        if (compact) {
+            return new CompactRecord(cmap, blockId, key, value, ttl, maxIdleMillis, id);
+        }
         return new DefaultRecord(cmap, blockId, key, value, ttl, maxIdleMillis, id);
     }
 
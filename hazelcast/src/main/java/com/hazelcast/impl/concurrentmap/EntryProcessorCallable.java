@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.core.EntryProcessor;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.impl.ConcurrentMapManager;
+import com.hazelcast.impl.FactoryImpl;
+import com.hazelcast.impl.base.Pairs;
+import com.hazelcast.nio.Data;
+import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.query.Predicate;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Applies an {@link EntryProcessor} to the given keys on the member owning them.
+ * Without keys it applies it to the owned entries matching the predicate, or returns
+ * <tt>null</tt> if the partitions changed before, and created without a partition
+ * version to all entries of the map matching the predicate.
+ */
+public class EntryProcessorCallable implements Callable<Pairs>, DataSerializable, HazelcastInstanceAware {
+
+    private static final int NO_PARTITION_VERSION = -1;
+
+    private String mapName;
+    private Data processorData;
+    private List<Data> keys;
+    private Data predicateData;
+    private int partitionVersion = NO_PARTITION_VERSION;
+    private transient FactoryImpl factory = null;
+
+    public EntryProcessorCallable() {
+    }
+
+    public EntryProcessorCallable(String mapName, Data processorData, List<Data> keys) {
+        this.mapName = mapName;
+        this.processorData = processorData;
+        this.keys = keys;
+    }
+
+    public EntryProcessorCallable(String mapName, Data processorData, Data predicateData) {
+        this.mapName = mapName;
+        this.processorData = processorData;
+        this.predicateData = predicateData;
+    }
+
+    public EntryProcessorCallable(String mapName, Data processorData, Data predicateData, int partitionVersion) {
+        this(mapName, processorData, predicateData);
+        this.partitionVersion = partitionVersion;
+    }
+
+    public Pairs call() throws Exception {
+        final ConcurrentMapManager concurrentMapManager = factory.node.concurrentMapManager;
+        if (keys != null) {
+            return concurrentMapManager.executeOnOwnedKeys(mapName, processorData, keys);
+        }
+        final Predicate predicate = (Predicate) toObject(predicateData);
+        if (partitionVersion == NO_PARTITION_VERSION) {
+            return concurrentMapManager.executeOnEntries(mapName, (EntryProcessor) toObject(processorData), predicate);
+        }
+        return concurrentMapManager.executeOnOwnedEntries(mapName, processorData, predicate, partitionVersion);
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeUTF(mapName);
+        out.writeInt(partitionVersion);
+        processorData.writeData(out);
+        out.writeBoolean(keys != null);
+        if (keys != null) {
+            out.writeInt(keys.size());
+            for (Data key : keys) {
+                key.writeData(out);
+            }
+        }
+        out.writeBoolean(predicateData != null);
+        if (predicateData != null) {
+            predicateData.writeData(out);
+        }
+    }
+
+    public void readData(DataInput in) throws IOException {
+        mapName = in.readUTF();
+        partitionVersion = in.readInt();
+        processorData = new Data();
+        processorData.readData(in);
+        if (in.readBoolean()) {
+            final int size = in.readInt();
+            keys = new ArrayList<Data>(size);
+            for (int i = 0; i < size; i++) {
+                final Data key = new Data();
+                key.readData(in);
+                keys.add(key);
+            }
+        }
+        if (in.readBoolean()) {
+            predicateData = new Data();
+            predicateData.readData(in);
+        }
+    }
+
+    public void setHazelcastInstance(HazelcastInstance hazelcastInstance) {
+        this.factory = (FactoryImpl) hazelcastInstance;
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.nio.Data;
+import com.hazelcast.nio.DataSerializable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Entries of a map sent to a single member in one packet by the batch
+ * getAll/putAll operations and their backups.
+ * <p/>
+ * A response carries only the values and versions of the request entries,
+ * in the same order. Entries of partitions the member does not own or which are
+ * migrating are marked as {@link #REDO} and sent again in a later batch. Entries
+ * which can't be handled in a single pass, e.g. locked keys, are marked as
+ * {@link #REJECTED} and are retried by the caller one by one.
+ */
+public class MapEntryBatch implements DataSerializable {
+
+    public static final long REDO = -1;
+
+    public static final long REJECTED = -2;
+
+    private static final byte KEYS = 1;
+    private static final byte VALUES = 1 << 1;
+    private static final byte VERSIONS = 1 << 2;
+    private static final byte INDEXES = 1 << 3;
+
+    private int size = 0;
+    private Data[] keys = null;
+    private Data[] values = null;
+    private long[] versions = null;
+    private Long[][] indexes = null;
+    private byte[][] indexTypes = null;
+    private Data[] indexData = null;
+
+    public MapEntryBatch() {
+    }
+
+    public MapEntryBatch(int capacity) {
+        keys = new Data[capacity];
+    }
+
+    public static MapEntryBatch newResponse(int size) {
+        final MapEntryBatch response = new MapEntryBatch();
+        response.size = size;
+        response.versions = new long[size];
+        return response;
+    }
+
+    public int add(Data key, Data value) {
+        final int index = size++;
+        keys[index] = key;
+        if (value != null) {
+            setValue(index, value);
+        }
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Data getKey(int index) {
+        return keys[index];
+    }
+
+    public Data getValue(int index) {
+        return (values == null) ? null : values[index];
+    }
+
+    public void setValue(int index, Data value) {
+        if (values == null) {
+            values = new Data[keys == null ? size : keys.length];
+        }
+        values[index] = value;
+    }
+
+    public long getVersion(int index) {
+        return versions[index];
+    }
+
+    public void setVersion(int index, long version) {
+        if (versions == null) {
+            versions = new long[keys.length];
+        }
+        versions[index] = version;
+    }
+
+    public boolean isRedo(int index) {
+        return versions[index] == REDO;
+    }
+
+    public boolean isRejected(int index) {
+        return versions[index] == REJECTED;
+    }
+
+    public Long[] getIndexes(int index) {
+        return (indexes == null) ? null : indexes[index];
+    }
+
+    public byte[] getIndexTypes(int index) {
+        return (indexTypes == null) ? null : indexTypes[index];
+    }
+
+    public Data getIndexData(int index) {
+        return (indexData == null) ? null : indexData[index];
+    }
+
+    public void setIndexes(int index, Long[] values, byte[] types, Data data) {
+        if (indexes == null) {
+            indexes = new Long[keys.length][];
+            indexTypes = new byte[keys.length][];
+            indexData = new Data[keys.length];
+        }
+        indexes[index] = values;
+        indexTypes[index] = types;
+        indexData[index] = data;
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeInt(size);
+        byte flags = 0;
+        if (keys != null) flags |= KEYS;
+        if (values != null) flags |= VALUES;
+        if (versions != null) flags |= VERSIONS;
+        if (indexes != null) flags |= INDEXES;
+        out.writeByte(flags);
+        for (int i = 0; i < size; i++) {
+            if (keys != null) {
+                keys[i].writeData(out);
+            }
+            if (values != null) {
+                final Data value = values[i];
+                out.writeBoolean(value != null);
+                if (value != null) {
+                    value.writeData(out);
+                }
+            }
+            if (versions != null) {
+                out.writeLong(versions[i]);
+            }
+            if (indexes != null) {
+                final Long[] entryIndexes = indexes[i];
+                final int indexCount = (entryIndexes == null) ? 0 : entryIndexes.length;
+                out.writeByte(indexCount);
+                for (int j = 0; j < indexCount; j++) {
+                    out.writeLong(entryIndexes[j]);
+                    out.writeByte(indexTypes[i][j]);
+                }
+                if (indexCount > 0) {
+                    final Data data = indexData[i];
+                    out.writeBoolean(data != null);
+                    if (data != null) {
+                        data.writeData(out);
+                    }
+                }
+            }
+        }
+    }
+
+    public void readData(DataInput in) throws IOException {
+        size = in.readInt();
+        final byte flags = in.readByte();
+        keys = ((flags & KEYS) != 0) ? new Data[size] : null;
+        values = ((flags & VALUES) != 0) ? new Data[size] : null;
+        versions = ((flags & VERSIONS) != 0) ? new long[size] : null;
+        indexes = ((flags & INDEXES) != 0) ? new Long[size][] : null;
+        indexTypes = ((flags & INDEXES) != 0) ? new byte[size][] : null;
+        indexData = ((flags & INDEXES) != 0) ? new Data[size] : null;
+        for (int i = 0; i < size; i++) {
+            if (keys != null) {
+                keys[i] = new Data();
+                keys[i].readData(in);
+            }
+            if (values != null && in.readBoolean()) {
+                values[i] = new Data();
+                values[i].readData(in);
+            }
+            if (versions != null) {
+                versions[i] = in.readLong();
+            }
+            if (indexes != null) {
+                final int indexCount = in.readByte();
+                if (indexCount > 0) {
+                    indexes[i] = new Long[indexCount];
+                    indexTypes[i] = new byte[indexCount];
+                    for (int j = 0; j < indexCount; j++) {
+                        indexes[i][j] = in.readLong();
+                        indexTypes[i][j] = in.readByte();
+                    }
+                    if (in.readBoolean()) {
+                        indexData[i] = new Data();
+                        indexData[i].readData(in);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MapEntryBatch{size=" + size + '}';
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.impl.CMap;
+import com.hazelcast.impl.ClusterOperation;
+import com.hazelcast.impl.ConcurrentMapManager;
+import com.hazelcast.impl.FactoryImpl;
+import com.hazelcast.impl.base.Pairs;
+import com.hazelcast.nio.Data;
+import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.query.Predicate;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Opens a query cursor on the member, fetches the next entries of an open
+ * cursor, or closes it if the fetch size is zero.
+ */
+public class MapQueryCursorCallable implements Callable<QueryChunk>, DataSerializable, HazelcastInstanceAware {
+    private String mapName;
+    private ClusterOperation operation;
+    private Data predicateData;
+    private long cursorId;
+    private int fetchSize;
+    private transient HazelcastInstance hazelcast;
+
+    public MapQueryCursorCallable() {
+    }
+
+    /**
+     * @param cursorId id of the cursor to fetch from, <tt>0</tt> to open a new cursor
+     */
+    public MapQueryCursorCallable(String mapName, ClusterOperation operation, Data predicateData, long cursorId, int fetchSize) {
+        this.mapName = mapName;
+        this.operation = operation;
+        this.predicateData = predicateData;
+        this.cursorId = cursorId;
+        this.fetchSize = fetchSize;
+    }
+
+    public QueryChunk call() throws Exception {
+        ConcurrentMapManager concurrentMapManager = ((FactoryImpl) hazelcast).node.concurrentMapManager;
+        if (fetchSize == 0) {
+            concurrentMapManager.closeQueryCursor(cursorId);
+            return new QueryChunk(cursorId, new Pairs(), true);
+        } else if (cursorId != 0) {
+            return concurrentMapManager.fetchQueryCursor(cursorId, fetchSize);
+        }
+        CMap cmap = concurrentMapManager.getMap(mapName);
+        if (cmap == null) return new QueryChunk(0, new Pairs(), true);
+        return concurrentMapManager.openQueryCursor(cmap, operation, (Predicate) toObject(predicateData), fetchSize);
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeUTF(mapName);
+        out.writeShort(operation.getValue());
+        out.writeLong(cursorId);
+        out.writeInt(fetchSize);
+        boolean hasPredicate = predicateData != null;
+        out.writeBoolean(hasPredicate);
+        if (hasPredicate) {
+            predicateData.writeData(out);
+        }
+    }
+
+    public void readData(DataInput in) throws IOException {
+        mapName = in.readUTF();
+        operation = ClusterOperation.create(in.readShort());
+        cursorId = in.readLong();
+        fetchSize = in.readInt();
+        boolean hasPredicate = in.readBoolean();
+        if (hasPredicate) {
+            predicateData = new Data();
+            predicateData.readData(in);
+        }
+    }
+
+    public void setHazelcastInstance(HazelcastInstance hazelcastInstance) {
+        this.hazelcast = hazelcastInstance;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.nio.Data;
+
+import java.util.Map;
+
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Entry handed to an {@link com.hazelcast.core.EntryProcessor} on the owner.
+ * Key and value are deserialized on first access, so the processor gets
+ * a copy of the stored value.
+ */
+public class ProcessorEntry implements Map.Entry {
+
+    public static final long UNCHANGED = 0;
+
+    public static final long UPDATED = 1;
+
+    public static final long REMOVED = 2;
+
+    private final Data keyData;
+    private final Data valueData;
+    private Object key = null;
+    private Object value = null;
+    private boolean valueRead = false;
+    private boolean modified = false;
+
+    public ProcessorEntry(Data keyData, Data valueData) {
+        this.keyData = keyData;
+        this.valueData = (valueData == null || valueData.size() == 0) ? null : valueData;
+    }
+
+    public Data getKeyData() {
+        return keyData;
+    }
+
+    public Object getKey() {
+        if (key == null) {
+            key = toObject(keyData);
+        }
+        return key;
+    }
+
+    public Object getValue() {
+        if (!valueRead) {
+            value = toObject(valueData);
+            valueRead = true;
+        }
+        return value;
+    }
+
+    public Object setValue(Object newValue) {
+        final Object oldValue = getValue();
+        value = newValue;
+        modified = true;
+        return oldValue;
+    }
+
+    /**
+     * @return {@link #UNCHANGED}, {@link #UPDATED} or {@link #REMOVED}
+     */
+    public long getState() {
+        if (!modified) {
+            return UNCHANGED;
+        }
+        return (value == null) ? REMOVED : UPDATED;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessorEntry{key=" + getKey() + ", state=" + getState() + '}';
+    }
+}
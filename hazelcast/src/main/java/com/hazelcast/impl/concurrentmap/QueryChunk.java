@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.impl.base.Pairs;
+import com.hazelcast.nio.DataSerializable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Entries fetched from a query cursor of a member.
+ */
+public class QueryChunk implements DataSerializable {
+    private long cursorId;
+    private Pairs pairs;
+    private boolean last;
+
+    public QueryChunk() {
+    }
+
+    public QueryChunk(long cursorId, Pairs pairs, boolean last) {
+        this.cursorId = cursorId;
+        this.pairs = pairs;
+        this.last = last;
+    }
+
+    public long getCursorId() {
+        return cursorId;
+    }
+
+    public Pairs getPairs() {
+        return pairs;
+    }
+
+    /**
+     * @return true if the cursor has no more entries and is closed
+     */
+    public boolean isLast() {
+        return last;
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeLong(cursorId);
+        out.writeBoolean(last);
+        pairs.writeData(out);
+    }
+
+    public void readData(DataInput in) throws IOException {
+        cursorId = in.readLong();
+        last = in.readBoolean();
+        pairs = new Pairs();
+        pairs.readData(in);
+    }
+
+    @Override
+    public String toString() {
+        return "QueryChunk{" +
+                "cursorId=" + cursorId +
+                ", pairs=" + pairs +
+                ", last=" + last +
+                '}';
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.monitor;
+
+import com.hazelcast.monitor.LocalIndexStats;
+import com.hazelcast.nio.DataSerializable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class LocalIndexStatsImpl implements LocalIndexStats, DataSerializable {
+    private String attribute;
+    private boolean ordered;
+    private long indexedEntryCount;
+    private long hits;
+    private long rangeScanCount;
+    private long returnedEntryCount;
+    private long totalLatencyNanos;
+
+    public LocalIndexStatsImpl() {
+    }
+
+    public LocalIndexStatsImpl(String attribute, boolean ordered) {
+        this.attribute = attribute;
+        this.ordered = ordered;
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeUTF(attribute);
+        out.writeBoolean(ordered);
+        out.writeLong(indexedEntryCount);
+        out.writeLong(hits);
+        out.writeLong(rangeScanCount);
+        out.writeLong(returnedEntryCount);
+        out.writeLong(totalLatencyNanos);
+    }
+
+    public void readData(DataInput in) throws IOException {
+        attribute = in.readUTF();
+        ordered = in.readBoolean();
+        indexedEntryCount = in.readLong();
+        hits = in.readLong();
+        rangeScanCount = in.readLong();
+        returnedEntryCount = in.readLong();
+        totalLatencyNanos = in.readLong();
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public long getIndexedEntryCount() {
+        return indexedEntryCount;
+    }
+
+    public void setIndexedEntryCount(long indexedEntryCount) {
+        this.indexedEntryCount = indexedEntryCount;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getRangeScanCount() {
+        return rangeScanCount;
+    }
+
+    public void setRangeScanCount(long rangeScanCount) {
+        this.rangeScanCount = rangeScanCount;
+    }
+
+    public long getReturnedEntryCount() {
+        return returnedEntryCount;
+    }
+
+    public void setReturnedEntryCount(long returnedEntryCount) {
+        this.returnedEntryCount = returnedEntryCount;
+    }
+
+    public double getAverageReturnedEntryCount() {
+        final long lookups = hits + rangeScanCount;
+        return (lookups == 0) ? 0 : (double) returnedEntryCount / lookups;
+    }
+
+    public long getTotalLatencyNanos() {
+        return totalLatencyNanos;
+    }
+
+    public void setTotalLatencyNanos(long totalLatencyNanos) {
+        this.totalLatencyNanos = totalLatencyNanos;
+    }
+
+    public long getAverageLatencyNanos() {
+        final long lookups = hits + rangeScanCount;
+        return (lookups == 0) ? 0 : totalLatencyNanos / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "LocalIndexStatsImpl{" +
+                "attribute=" + attribute +
+                ", ordered=" + ordered +
+                ", indexedEntryCount=" + indexedEntryCount +
+                ", hits=" + hits +
+                ", rangeScanCount=" + rangeScanCount +
+                ", returnedEntryCount=" + returnedEntryCount +
+                ", averageLatencyNanos=" + getAverageLatencyNanos() +
+                '}';
+    }
+}
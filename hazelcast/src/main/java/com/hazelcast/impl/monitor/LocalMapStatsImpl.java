@@ -16,12 +16,15 @@
 
 package com.hazelcast.impl.monitor;
 
+import com.hazelcast.monitor.LocalIndexStats;
 import com.hazelcast.monitor.LocalMapOperationStats;
 import com.hazelcast.monitor.LocalMapStats;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class LocalMapStatsImpl extends LocalInstanceStatsSupport<LocalMapOperationStats> implements LocalMapStats {
@@ -40,6 +43,9 @@ public class LocalMapStatsImpl extends LocalInstanceStatsSupport<LocalMapOperati
     private long lockedEntryCount;
     private long lockWaitCount;
     private long dirtyEntryCount;
+    private long indexedQueryCount;
+    private long fullScanQueryCount;
+    private final Map<String, LocalIndexStats> indexStats = new HashMap<String, LocalIndexStats>();
 
     enum Op {
         CREATE,
@@ -71,6 +77,12 @@ public class LocalMapStatsImpl extends LocalInstanceStatsSupport<LocalMapOperati
         out.writeLong(lockedEntryCount);
         out.writeLong(lockWaitCount);
         out.writeLong(dirtyEntryCount);
+        out.writeLong(indexedQueryCount);
+        out.writeLong(fullScanQueryCount);
+        out.writeInt(indexStats.size());
+        for (LocalIndexStats stats : indexStats.values()) {
+            ((LocalIndexStatsImpl) stats).writeData(out);
+        }
     }
 
     void readDataInternal(DataInput in) throws IOException {
@@ -89,6 +101,14 @@ public class LocalMapStatsImpl extends LocalInstanceStatsSupport<LocalMapOperati
         lockedEntryCount = in.readLong();
         lockWaitCount = in.readLong();
         dirtyEntryCount = in.readLong();
+        indexedQueryCount = in.readLong();
+        fullScanQueryCount = in.readLong();
+        final int indexCount = in.readInt();
+        for (int i = 0; i < indexCount; i++) {
+            final LocalIndexStatsImpl stats = new LocalIndexStatsImpl();
+            stats.readData(in);
+            indexStats.put(stats.getAttribute(), stats);
+        }
     }
 
     @Override
@@ -216,6 +236,30 @@ public class LocalMapStatsImpl extends LocalInstanceStatsSupport<LocalMapOperati
         this.dirtyEntryCount = l;
     }
 
+    public long getIndexedQueryCount() {
+        return indexedQueryCount;
+    }
+
+    public void setIndexedQueryCount(long indexedQueryCount) {
+        this.indexedQueryCount = indexedQueryCount;
+    }
+
+    public long getFullScanQueryCount() {
+        return fullScanQueryCount;
+    }
+
+    public void setFullScanQueryCount(long fullScanQueryCount) {
+        this.fullScanQueryCount = fullScanQueryCount;
+    }
+
+    public Map<String, LocalIndexStats> getIndexStats() {
+        return indexStats;
+    }
+
+    public void putIndexStats(LocalIndexStatsImpl stats) {
+        indexStats.put(stats.getAttribute(), stats);
+    }
+
     @Override
     public String toString() {
         return "LocalMapStatsImpl{" +
@@ -234,6 +278,9 @@ public class LocalMapStatsImpl extends LocalInstanceStatsSupport<LocalMapOperati
                 ", lockedEntryCount=" + lockedEntryCount +
                 ", lockWaitCount=" + lockWaitCount +
                 ", dirtyEntryCount=" + dirtyEntryCount +
+                ", indexedQueryCount=" + indexedQueryCount +
+                ", fullScanQueryCount=" + fullScanQueryCount +
+                ", indexStats=" + indexStats.values() +
                 ", " + operationStats +
                 '}';
     }
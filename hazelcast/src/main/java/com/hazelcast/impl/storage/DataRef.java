@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.storage;
+
+/**
+ * Address of a value inside a {@link Storage}: the segment and chunks holding it and its length.
+ * A new instance is created on every put, so references can be compared by identity.
+ */
+public final class DataRef {
+
+    final int segment;
+
+    final int[] chunks;
+
+    final int length;
+
+    final int partitionHash;
+
+    DataRef(int segment, int[] chunks, int length, int partitionHash) {
+        this.segment = segment;
+        this.chunks = chunks;
+        this.length = length;
+        this.partitionHash = partitionHash;
+    }
+
+    public int size() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return "DataRef{segment=" + segment + ", chunks=" + chunks.length + ", length=" + length + '}';
+    }
+}
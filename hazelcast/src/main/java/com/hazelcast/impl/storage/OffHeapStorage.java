@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.storage;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.impl.GroupProperties;
+import com.hazelcast.nio.Data;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link Storage} over direct ByteBuffers, outside of the Java heap.
+ * <p/>
+ * Memory is split into segments, each one a direct buffer divided into
+ * fixed size chunks with its own free list. A value occupies
+ * <tt>ceil(size / chunkSize)</tt> chunks of a single segment, the one its hash
+ * selects or, when that one is full, the next one with enough free chunks.
+ * So a value cannot be larger than a segment, see {@link #getMaxValueSize()}.
+ * <p/>
+ * Memory is allocated up-front, so <tt>-XX:MaxDirectMemorySize</tt> has to be
+ * at least <tt>hazelcast.elastic.memory.total.size</tt>.
+ */
+public final class OffHeapStorage implements Storage {
+
+    private static final int MIN_SEGMENT_COUNT = 16;
+
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private static final int KILO = 1024;
+
+    private static final int MEGA = KILO * KILO;
+
+    private static OffHeapStorage sharedStorage;
+
+    private final Segment[] segments;
+
+    private final int chunkSize;
+
+    private final int segmentChunkCount;
+
+    public OffHeapStorage(long totalSize, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        int segmentCount = MIN_SEGMENT_COUNT;
+        while (totalSize / segmentCount > MAX_SEGMENT_SIZE) {
+            segmentCount <<= 1;
+        }
+        final int chunkCount = (int) (totalSize / segmentCount / chunkSize);
+        if (chunkCount <= 0) {
+            throw new IllegalArgumentException("Total size " + totalSize + " is too small for "
+                    + segmentCount + " segments of " + chunkSize + " byte chunks");
+        }
+        this.chunkSize = chunkSize;
+        this.segmentChunkCount = chunkCount;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(chunkCount);
+        }
+    }
+
+    /**
+     * Creates the storage configured by the elastic memory properties,
+     * or returns the one shared by all members of this JVM
+     * when <tt>hazelcast.elastic.memory.shared.storage</tt> is set.
+     */
+    public static Storage create(GroupProperties groupProperties) {
+        final long totalSize = parseSize(groupProperties.ELASTIC_MEMORY_TOTAL_SIZE.getString(), MEGA);
+        final int chunkSize = (int) parseSize(groupProperties.ELASTIC_MEMORY_CHUNK_SIZE.getString(), KILO);
+        if (!groupProperties.ELASTIC_MEMORY_SHARED_STORAGE.getBoolean()) {
+            return new OffHeapStorage(totalSize, chunkSize);
+        }
+        synchronized (OffHeapStorage.class) {
+            if (sharedStorage == null) {
+                sharedStorage = new OffHeapStorage(totalSize, chunkSize);
+            }
+            return sharedStorage;
+        }
+    }
+
+    /**
+     * Parses sizes like <tt>128</tt>, <tt>128M</tt>, <tt>1K</tt> or <tt>2G</tt>.
+     * Values without a unit are in <tt>defaultUnit</tt> bytes.
+     */
+    static long parseSize(String value, int defaultUnit) {
+        String size = value.trim().toUpperCase();
+        long unit = defaultUnit;
+        final char last = size.charAt(size.length() - 1);
+        if (last == 'K') {
+            unit = KILO;
+        } else if (last == 'M') {
+            unit = MEGA;
+        } else if (last == 'G') {
+            unit = (long) MEGA * KILO;
+        }
+        if (!Character.isDigit(last)) {
+            size = size.substring(0, size.length() - 1);
+        }
+        return Long.parseLong(size.trim()) * unit;
+    }
+
+    public DataRef put(int hash, Data data) {
+        final byte[] buffer = data.buffer;
+        final int length = (buffer == null) ? 0 : buffer.length;
+        final int chunkCount = (length + chunkSize - 1) / chunkSize;
+        if (chunkCount > segmentChunkCount) {
+            throw new HazelcastException("Cannot store " + length + " bytes off-heap, values are limited to "
+                    + getMaxValueSize() + " bytes, the size of a segment. Increase "
+                    + GroupProperties.PROP_ELASTIC_MEMORY_TOTAL_SIZE);
+        }
+        final int first = segmentIndex(hash);
+        int index = first;
+        int[] chunks = segments[index].allocate(chunkCount);
+        while (chunks == null) {
+            index = (index + 1) % segments.length;
+            if (index == first) {
+                throw new HazelcastException("Not enough off-heap memory to store " + length
+                        + " bytes, increase " + GroupProperties.PROP_ELASTIC_MEMORY_TOTAL_SIZE);
+            }
+            chunks = segments[index].allocate(chunkCount);
+        }
+        final Segment segment = segments[index];
+        final ByteBuffer target = segment.buffer.duplicate();
+        int offset = 0;
+        for (int chunk : chunks) {
+            final int len = Math.min(chunkSize, length - offset);
+            target.position(chunk * chunkSize);
+            target.put(buffer, offset, len);
+            offset += len;
+        }
+        return new DataRef(index, chunks, length, data.partitionHash);
+    }
+
+    public Data get(int hash, DataRef ref) {
+        final Data data = new Data();
+        data.partitionHash = ref.partitionHash;
+        if (ref.length == 0) {
+            return data;
+        }
+        final byte[] buffer = new byte[ref.length];
+        final ByteBuffer source = segments[ref.segment].buffer.duplicate();
+        int offset = 0;
+        for (int chunk : ref.chunks) {
+            final int len = Math.min(chunkSize, ref.length - offset);
+            source.position(chunk * chunkSize);
+            source.get(buffer, offset, len);
+            offset += len;
+        }
+        data.buffer = buffer;
+        return data;
+    }
+
+    public void remove(int hash, DataRef ref) {
+        segments[ref.segment].release(ref.chunks);
+    }
+
+    public long getFreeSize() {
+        long free = 0;
+        for (Segment segment : segments) {
+            free += (long) segment.getFreeCount() * chunkSize;
+        }
+        return free;
+    }
+
+    /**
+     * @return the size of the largest value which can be stored, the size of a segment:
+     *         <tt>hazelcast.elastic.memory.total.size</tt> divided by the segment count,
+     *         16 or more so that no segment is larger than 1G
+     */
+    public long getMaxValueSize() {
+        return (long) segmentChunkCount * chunkSize;
+    }
+
+    private int segmentIndex(int hash) {
+        return (hash & Integer.MAX_VALUE) % segments.length;
+    }
+
+    private class Segment {
+        final ByteBuffer buffer;
+        final int[] freeChunks;
+        final Lock lock = new ReentrantLock();
+        int freeCount;
+
+        Segment(int chunkCount) {
+            buffer = ByteBuffer.allocateDirect(chunkCount * chunkSize);
+            freeChunks = new int[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                freeChunks[i] = chunkCount - 1 - i;
+            }
+            freeCount = chunkCount;
+        }
+
+        int[] allocate(int count) {
+            lock.lock();
+            try {
+                if (count > freeCount) {
+                    return null;
+                }
+                final int[] chunks = new int[count];
+                freeCount -= count;
+                System.arraycopy(freeChunks, freeCount, chunks, 0, count);
+                return chunks;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(int[] chunks) {
+            lock.lock();
+            try {
+                System.arraycopy(chunks, 0, freeChunks, freeCount, chunks.length);
+                freeCount += chunks.length;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int getFreeCount() {
+            lock.lock();
+            try {
+                return freeCount;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.storage;
+
+import com.hazelcast.nio.Data;
+
+/**
+ * Stores serialized values outside of the record.
+ * <p/>
+ * <tt>hash</tt> is used to pick the storage segment, the same hash has to be
+ * passed for all calls on a {@link DataRef}.
+ */
+public interface Storage {
+
+    DataRef put(int hash, Data data);
+
+    Data get(int hash, DataRef ref);
+
+    void remove(int hash, DataRef ref);
+}
@@ -20,7 +20,10 @@ import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.EntryEvent;
 import com.hazelcast.core.EntryListener;
 import com.hazelcast.core.IMap;
+import com.hazelcast.monitor.LocalIndexStats;
+import com.hazelcast.query.ExplainPredicate;
 import com.hazelcast.query.Predicate;
+import com.hazelcast.query.QueryPlan;
 import com.hazelcast.query.SqlPredicate;
 
 import javax.management.MBeanServer;
@@ -138,6 +141,45 @@ public class MapMBean extends AbstractMBean<IMap> {
         return sb.append("}").toString();
     }
 
+    @JMXOperation("explain")
+    @JMXDescription("Query plans of the members")
+    public String explain(final String query) {
+        final ExplainPredicate explainPredicate = new ExplainPredicate(new SqlPredicate(query));
+        getManagedObject().keySet(explainPredicate);
+        final StringBuilder sb = new StringBuilder();
+        for (QueryPlan queryPlan : explainPredicate.getQueryPlans()) {
+            sb.append(queryPlan).append("\n");
+        }
+        return sb.toString();
+    }
+
+    @JMXAttribute("IndexedQueryCount")
+    @JMXDescription("Number of local queries using indexes")
+    public long getIndexedQueryCount() {
+        return getManagedObject().getLocalMapStats().getIndexedQueryCount();
+    }
+
+    @JMXAttribute("FullScanQueryCount")
+    @JMXDescription("Number of local queries scanning all entries")
+    public long getFullScanQueryCount() {
+        return getManagedObject().getLocalMapStats().getFullScanQueryCount();
+    }
+
+    @JMXAttribute("IndexStats")
+    @JMXDescription("Statistics of the local indexes")
+    public String getIndexStats() {
+        final StringBuilder sb = new StringBuilder();
+        for (LocalIndexStats stats : getManagedObject().getLocalMapStats().getIndexStats().values()) {
+            sb.append(stats.getAttribute())
+                    .append(": hits=").append(stats.getHits())
+                    .append(", rangeScans=").append(stats.getRangeScanCount())
+                    .append(", averageReturnedEntries=").append(stats.getAverageReturnedEntryCount())
+                    .append(", averageLatencyNanos=").append(stats.getAverageLatencyNanos())
+                    .append("\n");
+        }
+        return sb.toString();
+    }
+
     @JMXAttribute("Config")
     @JMXDescription("Map configuration")
     public String getConfig() {
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.monitor;
+
+/**
+ * Statistics of a map index on this member. Counters are accumulated
+ * since the index was created.
+ */
+public interface LocalIndexStats {
+
+    /**
+     * Returns the indexed attribute.
+     *
+     * @return indexed attribute.
+     */
+    String getAttribute();
+
+    /**
+     * Returns true if the index supports range queries.
+     *
+     * @return true if the index is ordered.
+     */
+    boolean isOrdered();
+
+    /**
+     * Returns the number of entries in the index.
+     *
+     * @return number of indexed entries.
+     */
+    long getIndexedEntryCount();
+
+    /**
+     * Returns the number of lookups of equal values.
+     *
+     * @return number of hits.
+     */
+    long getHits();
+
+    /**
+     * Returns the number of lookups of value ranges, such as
+     * greater than, between and like queries.
+     *
+     * @return number of range scans.
+     */
+    long getRangeScanCount();
+
+    /**
+     * Returns the number of entries returned by all lookups.
+     *
+     * @return number of returned entries.
+     */
+    long getReturnedEntryCount();
+
+    /**
+     * Returns the average number of entries returned by a lookup,
+     * a measure of how selective the index is.
+     *
+     * @return average number of entries returned by a lookup.
+     */
+    double getAverageReturnedEntryCount();
+
+    /**
+     * Returns the average latency of lookups in nanoseconds.
+     *
+     * @return average latency in nanoseconds.
+     */
+    long getAverageLatencyNanos();
+}
@@ -16,6 +16,8 @@
 
 package com.hazelcast.monitor;
 
+import java.util.Map;
+
 /**
  * Local map statistics. As everything is partitioned in Hazelcast,
  * each member owns 1/N (N being the number of members in the cluster)
@@ -140,4 +142,26 @@ public interface LocalMapStats extends LocalInstanceStats<LocalMapOperationStats
      * @return
      */
     long getDirtyEntryCount();
+
+    /**
+     * Returns the number of queries whose local entries were selected with indexes.
+     *
+     * @return number of indexed queries.
+     */
+    long getIndexedQueryCount();
+
+    /**
+     * Returns the number of queries evaluated on all local entries
+     * because no index could be used.
+     *
+     * @return number of full scan queries.
+     */
+    long getFullScanQueryCount();
+
+    /**
+     * Returns the statistics of the indexes of the map on this member.
+     *
+     * @return index statistics by indexed attribute.
+     */
+    Map<String, LocalIndexStats> getIndexStats();
 }
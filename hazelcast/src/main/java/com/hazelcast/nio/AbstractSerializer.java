@@ -98,9 +98,17 @@ public abstract class AbstractSerializer {
             return;
         }
         try {
-            TypeSerializer ts = (ds.isSuitable(object)) ? ds : cs;
-            bos.writeByte(ts.getTypeId());
-            ts.write(bos, object);
+            if (object instanceof IndexedDataSerializable) {
+                bos.writeByte(IndexedFields.SERIALIZER_TYPE_INDEXED_DATA);
+                ds.writeIndexed(bos, (IndexedDataSerializable) object);
+            } else if (object instanceof IdentifiedDataSerializable) {
+                bos.writeByte(DataSerializableFactories.SERIALIZER_TYPE_IDENTIFIED_DATA);
+                ds.writeIdentified(bos, (IdentifiedDataSerializable) object);
+            } else {
+                TypeSerializer ts = (ds.isSuitable(object)) ? ds : cs;
+                bos.writeByte(ts.getTypeId());
+                ts.write(bos, object);
+            }
             bos.flush();
         } catch (Throwable e) {
             if (e instanceof OutOfMemoryError) {
@@ -117,6 +125,15 @@ public abstract class AbstractSerializer {
         byte typeId = -1;
         try {
             typeId = bis.readByte();
+            if (typeId == IndexedFields.SERIALIZER_TYPE_INDEXED_DATA) {
+                return ds.readIndexed(bis);
+            } else if (typeId == DataSerializableFactories.SERIALIZER_TYPE_IDENTIFIED_DATA) {
+                return ds.readIdentified(bis);
+            } else if (typeId == CompressionCodecs.SERIALIZER_TYPE_COMPRESSED_DATA) {
+                final int offset = bis.getPosition() - 1;
+                final byte[] uncompressed = CompressionCodecs.decompress(bis.getBuffer(), offset, bis.getCount() - offset);
+                return toObject(new FastByteArrayInputStream(uncompressed));
+            }
             TypeSerializer ts = (typeId == ds.getTypeId()) ? ds : cs;
             return ts.read(bis);
         } catch (Throwable e) {
@@ -38,6 +38,8 @@ public final class Address implements DataSerializable {
     private byte type;
     private transient String scopeId;
     private transient boolean hostSet;
+    private transient byte[] hostBytes;
+    private transient int hash;
 
     public Address() {
     }
@@ -72,13 +74,15 @@ public final class Address implements DataSerializable {
         this.type = address.type;
         this.scopeId = address.scopeId;
         this.hostSet = address.hostSet;
+        this.hostBytes = address.hostBytes;
+        this.hash = address.hash;
     }
 
     public void writeData(DataOutput out) throws IOException {
         out.writeInt(port);
         out.write(type);
         if (host != null) {
-            byte[] address = host.getBytes();
+            byte[] address = getHostBytes();
             out.writeInt(address.length);
             out.write(address);
         } else {
@@ -95,13 +99,15 @@ public final class Address implements DataSerializable {
             in.readFully(address);
             host = new String(address);
         }
+        hostBytes = null;
+        hash = 0;
     }
 
     public void writeObject(ByteBuffer buffer) {
         buffer.putInt(port);
         buffer.put(type);
         if (host != null) {
-            byte[] address = host.getBytes();
+            byte[] address = getHostBytes();
             buffer.putInt(address.length);
             buffer.put(address);
         } else {
@@ -118,6 +124,8 @@ public final class Address implements DataSerializable {
             buffer.get(address);
             host = new String(address);
         }
+        hostBytes = null;
+        hash = 0;
     }
 
     public String getHost() {
@@ -151,7 +159,21 @@ public final class Address implements DataSerializable {
 
     @Override
     public int hashCode() {
-        return hash(host.getBytes()) * 29 + port;
+        int h = hash;
+        if (h == 0) {
+            h = hash(getHostBytes()) * 29 + port;
+            hash = h;
+        }
+        return h;
+    }
+
+    private byte[] getHostBytes() {
+        byte[] bytes = hostBytes;
+        if (bytes == null) {
+            bytes = host.getBytes();
+            hostBytes = bytes;
+        }
+        return bytes;
     }
 
     private int hash(byte[] bytes) {
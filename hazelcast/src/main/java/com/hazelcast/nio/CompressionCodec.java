@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio;
+
+/**
+ * Compresses the serialized values of the maps configured with its name,
+ * see {@link com.hazelcast.config.MapConfig#setCompressionCodec(String)}.
+ * <p/>
+ * Codecs are registered with {@link CompressionCodecs#register(CompressionCodec)}
+ * on every member and client, and must be thread-safe and deterministic:
+ * equal bytes have to be compressed to equal bytes.
+ */
+public interface CompressionCodec {
+
+    /**
+     * @return id of the codec written into the compressed values
+     */
+    byte getId();
+
+    /**
+     * @return name of the codec used in the map configuration
+     */
+    String getName();
+
+    byte[] compress(byte[] bytes) throws Exception;
+
+    /**
+     * @param bytes             buffer holding the compressed bytes
+     * @param offset            offset of the compressed bytes in the buffer
+     * @param length            number of compressed bytes
+     * @param uncompressedLength number of bytes before compression
+     * @return uncompressed bytes
+     */
+    byte[] decompress(byte[] bytes, int offset, int length, int uncompressedLength) throws Exception;
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Codecs compressing the serialized map values, shared by all instances in the JVM.
+ * <p/>
+ * Serialized form:
+ * <pre>
+ *   [type id][codec id][int uncompressed length][int uncompressed hash][compressed data]
+ * </pre>
+ * The hash of the uncompressed value is kept for the value index.
+ */
+public final class CompressionCodecs {
+
+    public static final byte SERIALIZER_TYPE_COMPRESSED_DATA = 4;
+
+    private static final int HEADER_LENGTH = 10;
+
+    private static final ConcurrentMap<String, CompressionCodec> codecsByName =
+            new ConcurrentHashMap<String, CompressionCodec>();
+
+    private static final CompressionCodec[] codecsById = new CompressionCodec[Byte.MAX_VALUE + 1];
+
+    static {
+        register(new DeflateCodec());
+        register(new Lz4Codec());
+    }
+
+    private CompressionCodecs() {
+    }
+
+    /**
+     * @throws IllegalStateException if another codec is registered with the id or name
+     */
+    public static synchronized void register(CompressionCodec codec) {
+        final byte id = codec.getId();
+        if (id <= 0) {
+            throw new IllegalArgumentException("Codec id must be positive!");
+        }
+        final CompressionCodec current = codecsById[id];
+        if (current != null && current.getClass() != codec.getClass()) {
+            throw new IllegalStateException("Another codec is already registered with id " + id + "!");
+        }
+        final CompressionCodec named = codecsByName.get(codec.getName());
+        if (named != null && named.getId() != id) {
+            throw new IllegalStateException("Another codec is already registered with name " + codec.getName() + "!");
+        }
+        codecsById[id] = codec;
+        codecsByName.put(codec.getName(), codec);
+    }
+
+    /**
+     * @return the codec registered with the name, or <tt>null</tt>
+     */
+    public static CompressionCodec getCodec(String name) {
+        return codecsByName.get(name);
+    }
+
+    public static boolean isCompressed(Data data) {
+        return data != null && data.buffer != null && data.buffer.length > 0
+                && data.buffer[0] == SERIALIZER_TYPE_COMPRESSED_DATA;
+    }
+
+    /**
+     * Compresses the value if it is at least <tt>threshold</tt> bytes long
+     * and its compressed form is smaller.
+     *
+     * @return compressed value, or the value itself
+     */
+    public static Data compress(Data data, CompressionCodec codec, int threshold) {
+        if (data == null || data.buffer == null || data.buffer.length < Math.max(threshold, 1)
+                || isCompressed(data)) {
+            return data;
+        }
+        final byte[] compressed;
+        try {
+            compressed = codec.compress(data.buffer);
+        } catch (Exception e) {
+            throw new HazelcastSerializationException(e);
+        }
+        if (compressed.length + HEADER_LENGTH >= data.buffer.length) {
+            return data;
+        }
+        final byte[] buffer = new byte[compressed.length + HEADER_LENGTH];
+        buffer[0] = SERIALIZER_TYPE_COMPRESSED_DATA;
+        buffer[1] = codec.getId();
+        writeInt(buffer, 2, data.buffer.length);
+        writeInt(buffer, 6, data.hashCode());
+        System.arraycopy(compressed, 0, buffer, HEADER_LENGTH, compressed.length);
+        final Data result = new Data(buffer);
+        result.setPartitionHash(data.partitionHash);
+        return result;
+    }
+
+    /**
+     * @return uncompressed value, or the value itself if it is not compressed
+     */
+    public static Data decompress(Data data) {
+        if (!isCompressed(data)) {
+            return data;
+        }
+        final Data result = new Data(decompress(data.buffer, 0, data.buffer.length));
+        result.setPartitionHash(data.partitionHash);
+        return result;
+    }
+
+    /**
+     * @return hash of the uncompressed value
+     */
+    public static int hashCode(Data data) {
+        return isCompressed(data) ? readInt(data.buffer, 6) : data.hashCode();
+    }
+
+    /**
+     * @param offset offset of the compressed value, starting with its type id
+     * @param length length of the compressed value
+     */
+    static byte[] decompress(byte[] buffer, int offset, int length) {
+        final int codecId = buffer[offset + 1];
+        final CompressionCodec codec = (codecId > 0) ? codecsById[codecId] : null;
+        if (codec == null) {
+            throw new HazelcastSerializationException("No CompressionCodec is registered with id " + codecId);
+        }
+        try {
+            return codec.decompress(buffer, offset + HEADER_LENGTH, length - HEADER_LENGTH, readInt(buffer, offset + 2));
+        } catch (HazelcastSerializationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new HazelcastSerializationException(e);
+        }
+    }
+
+    private static void writeInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] buffer, int offset) {
+        return ((buffer[offset] & 0xff) << 24) | ((buffer[offset + 1] & 0xff) << 16)
+                | ((buffer[offset + 2] & 0xff) << 8) | (buffer[offset + 3] & 0xff);
+    }
+}
@@ -23,6 +23,8 @@ import com.hazelcast.util.SimpleBoundedQueue;
 import java.io.IOException;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 
 public final class Connection {
@@ -53,6 +55,13 @@ public final class Connection {
 
     private ConnectionMonitor monitor;
 
+    private volatile int lane = 0;
+
+    private volatile boolean holding = false;
+
+    // packets read while holding, guarded by this
+    private List<Packet> heldPackets = null;
+
     public Connection(ConnectionManager connectionManager, InOutSelector inOutSelector, int connectionId, SocketChannelWrapper socketChannel) {
         this.inOutSelector = inOutSelector;
         this.connectionId = connectionId;
@@ -170,6 +179,54 @@ public final class Connection {
         return monitor;
     }
 
+    /**
+     * @return lane of the connection, 0 for the primary connection to a member
+     */
+    public int getLane() {
+        return lane;
+    }
+
+    public void setLane(int lane) {
+        this.lane = lane;
+    }
+
+    /**
+     * Holds the member packets read from the connection until {@link #releasePackets()}.
+     */
+    synchronized void holdPackets() {
+        heldPackets = new ArrayList<Packet>();
+        holding = true;
+    }
+
+    /**
+     * @return true if the packet is held, false if it should be handled now
+     */
+    boolean holdPacket(Packet packet) {
+        if (!holding) {
+            return false;
+        }
+        synchronized (this) {
+            if (heldPackets == null) {
+                return false;
+            }
+            heldPackets.add(packet);
+            return true;
+        }
+    }
+
+    /**
+     * Handles the held packets in the order they were read, and the next packets as they are read.
+     */
+    synchronized void releasePackets() {
+        if (heldPackets != null) {
+            for (Packet packet : heldPackets) {
+                connectionManager.ioService.handleMemberPacket(packet);
+            }
+            heldPackets = null;
+            holding = false;
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lane connections to a member, in addition to its primary connection at lane 0.
+ * A bound lane is used only after it is {@link #activate(int, Connection) activated},
+ * once the handover marker is queued on the primary connection.
+ */
+class ConnectionLanes {
+
+    private final AtomicReferenceArray<Connection> connections;
+
+    private final AtomicIntegerArray connecting;
+
+    // connection id of the active connection of each lane, 0 if the lane is not active
+    private final AtomicIntegerArray active;
+
+    ConnectionLanes(int laneCount) {
+        connections = new AtomicReferenceArray<Connection>(laneCount);
+        connecting = new AtomicIntegerArray(laneCount);
+        active = new AtomicIntegerArray(laneCount);
+    }
+
+    Connection get(int lane) {
+        return connections.get(lane);
+    }
+
+    /**
+     * @return the live connection of the lane if it is active, <tt>null</tt> otherwise
+     */
+    Connection getActive(int lane) {
+        final Connection connection = connections.get(lane);
+        if (connection != null && connection.live() && active.get(lane) == connection.getConnectionId()) {
+            return connection;
+        }
+        return null;
+    }
+
+    void activate(int lane, Connection connection) {
+        if (connections.get(lane) == connection) {
+            active.set(lane, connection.getConnectionId());
+        }
+    }
+
+    /**
+     * @return true if the caller should connect the lane
+     */
+    boolean startConnecting(int lane) {
+        return connecting.compareAndSet(lane, 0, 1);
+    }
+
+    void connectionFailed(int lane) {
+        connecting.set(lane, 0);
+    }
+
+    /**
+     * @return true if the connection became the connection of the lane
+     */
+    boolean bind(int lane, Connection connection) {
+        connecting.set(lane, 0);
+        final Connection current = connections.get(lane);
+        if (current != null && current.live()) {
+            return false;
+        }
+        return connections.compareAndSet(lane, current, connection);
+    }
+
+    /**
+     * @return true if the connection was the connection of the lane
+     */
+    boolean remove(int lane, Connection connection) {
+        connecting.set(lane, 0);
+        if (connections.compareAndSet(lane, connection, null)) {
+            active.compareAndSet(lane, connection.getConnectionId(), 0);
+            return true;
+        }
+        return false;
+    }
+
+    Collection<Connection> getConnections() {
+        final Collection<Connection> result = new ArrayList<Connection>(connections.length());
+        for (int lane = 0; lane < connections.length(); lane++) {
+            final Connection connection = connections.get(lane);
+            if (connection != null) {
+                result.add(connection);
+            }
+        }
+        return result;
+    }
+}
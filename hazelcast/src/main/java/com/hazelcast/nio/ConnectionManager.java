@@ -16,10 +16,13 @@
 
 package com.hazelcast.nio;
 
+import com.hazelcast.cluster.AbstractRemotelyProcessable;
 import com.hazelcast.cluster.Bind;
+import com.hazelcast.cluster.LaneHandover;
 import com.hazelcast.config.SSLConfig;
 import com.hazelcast.config.SocketInterceptorConfig;
 import com.hazelcast.impl.ClusterOperation;
+import com.hazelcast.impl.PartitionManager;
 import com.hazelcast.impl.ThreadContext;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.ssl.BasicSSLContextFactory;
@@ -36,6 +39,7 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
@@ -49,6 +53,12 @@ public class ConnectionManager {
 
     final int SOCKET_SEND_BUFFER_SIZE;
 
+    final boolean SOCKET_SEND_BUFFER_DIRECT;
+
+    final int SOCKET_WRITE_COALESCE_SIZE;
+
+    final long SOCKET_WRITE_COALESCE_NANOS;
+
     final int SOCKET_LINGER_SECONDS;
 
     final boolean SOCKET_KEEP_ALIVE;
@@ -57,6 +67,10 @@ public class ConnectionManager {
 
     private final ConcurrentMap<Address, Connection> mapConnections = new ConcurrentHashMap<Address, Connection>(100);
 
+    private final ConcurrentMap<Address, ConnectionLanes> mapLanes = new ConcurrentHashMap<Address, ConnectionLanes>(100);
+
+    private final ConcurrentMap<Address, ConnectionLanes> mapInboundLanes = new ConcurrentHashMap<Address, ConnectionLanes>(100);
+
     private final ConcurrentMap<Address, ConnectionMonitor> mapMonitors = new ConcurrentHashMap<Address, ConnectionMonitor>(100);
 
     private final Set<Address> setConnectionInProgress = new ConcurrentHashSet<Address>();
@@ -89,15 +103,41 @@ public class ConnectionManager {
 
     private Thread socketAcceptorThread; // accessed only in synchronized block
 
+    private static final Set<ClusterOperation> BULK_OPERATIONS = EnumSet.of(
+            ClusterOperation.CONCURRENT_MAP_MIGRATE_RECORD,
+            ClusterOperation.CONCURRENT_MAP_BACKUP_PUT,
+            ClusterOperation.CONCURRENT_MAP_BACKUP_REMOVE,
+            ClusterOperation.CONCURRENT_MAP_BACKUP_REMOVE_MULTI,
+            ClusterOperation.CONCURRENT_MAP_BACKUP_LOCK,
+            ClusterOperation.CONCURRENT_MAP_BACKUP_ADD,
+            ClusterOperation.CONCURRENT_MAP_BACKUP_PUT_AND_UNLOCK,
+            ClusterOperation.CONCURRENT_MAP_BACKUP_PUT_ALL);
+
+    private final int dataLaneCount;
+
+    private final int bulkLane;
+
+    private final int eventLane;
+
+    private final int laneCount;
+
     public ConnectionManager(IOService ioService, ServerSocketChannel serverSocketChannel) {
         this.ioService = ioService;
         this.serverSocketChannel = serverSocketChannel;
         this.logger = ioService.getLogger(ConnectionManager.class.getName());
         this.SOCKET_RECEIVE_BUFFER_SIZE = ioService.getSocketReceiveBufferSize() * KILO_BYTE;
         this.SOCKET_SEND_BUFFER_SIZE = ioService.getSocketSendBufferSize() * KILO_BYTE;
+        this.SOCKET_SEND_BUFFER_DIRECT = ioService.isSocketSendBufferDirect();
+        this.SOCKET_WRITE_COALESCE_SIZE = ioService.getSocketWriteCoalesceSize() * KILO_BYTE;
+        this.SOCKET_WRITE_COALESCE_NANOS = TimeUnit.MICROSECONDS.toNanos(ioService.getSocketWriteCoalesceMicros());
         this.SOCKET_LINGER_SECONDS = ioService.getSocketLingerSeconds();
         this.SOCKET_KEEP_ALIVE = ioService.getSocketKeepAlive();
         this.SOCKET_NO_DELAY = ioService.getSocketNoDelay();
+        this.dataLaneCount = Math.max(1, ioService.getConnectionDataLaneCount());
+        int lanes = dataLaneCount;
+        this.bulkLane = ioService.isConnectionBulkLaneEnabled() ? lanes++ : 0;
+        this.eventLane = ioService.isConnectionEventLaneEnabled() ? lanes++ : 0;
+        this.laneCount = lanes;
         int selectorCount = ioService.getSelectorThreadCount();
         selectors = new InOutSelector[selectorCount];
         final Collection<Integer> ports = ioService.getOutboundPorts();
@@ -202,7 +242,13 @@ public class ConnectionManager {
     }
 
     public boolean bind(Connection connection, Address remoteEndPoint, Address localEndpoint, final boolean replyBack) {
-        log(Level.FINEST, "Binding " + connection + " to " + remoteEndPoint + ", replyBack is " + replyBack);
+        return bind(connection, remoteEndPoint, localEndpoint, replyBack, 0);
+    }
+
+    public boolean bind(Connection connection, Address remoteEndPoint, Address localEndpoint, final boolean replyBack,
+                        final int lane) {
+        log(Level.FINEST, "Binding " + connection + " to " + remoteEndPoint + ", replyBack is " + replyBack
+                + ", lane is " + lane);
         final Address thisAddress = ioService.getThisAddress();
         if (!connection.isClient() && !thisAddress.equals(localEndpoint)) {
             log(Level.WARNING, "Wrong bind request from " + remoteEndPoint
@@ -211,6 +257,10 @@ public class ConnectionManager {
             return false;
         }
         connection.setEndPoint(remoteEndPoint);
+        if (lane > 0) {
+            return (replyBack) ? bindInboundLane(connection, remoteEndPoint, lane)
+                    : bindLane(connection, remoteEndPoint, lane);
+        }
         if (replyBack) {
             sendBindRequest(connection, remoteEndPoint, false);
         }
@@ -235,15 +285,165 @@ public class ConnectionManager {
         return false;
     }
 
+    /**
+     * Binds a lane connection this member opened, used only for sending the packets
+     * routed to its lane by {@link #write(Connection, Packet)}. The lane is used once
+     * a {@link LaneHandover} is queued on the primary connection, so the peer reads the
+     * packets sent before the handover first. Lane connections are not reported to
+     * the connection listeners, losing one closes the primary connection instead.
+     */
+    private boolean bindLane(Connection connection, Address remoteEndPoint, int lane) {
+        connection.setLane(lane);
+        if (lane >= laneCount) {
+            return false;
+        }
+        final ConnectionLanes lanes = getConnectionLanes(mapLanes, remoteEndPoint);
+        final Connection primary = mapConnections.get(remoteEndPoint);
+        if (primary == null || !primary.live()) {
+            connection.close();
+            return false;
+        }
+        if (!lanes.bind(lane, connection)) {
+            return false;
+        }
+        synchronized (lanes) {
+            primary.getWriteHandler().enqueueSocketWritable(createRemotelyProcessPacket(new LaneHandover(lane)));
+            lanes.activate(lane, connection);
+        }
+        return true;
+    }
+
+    /**
+     * Binds a lane connection the member opened to this member. The packets read from
+     * it are held until the {@link LaneHandover} of the lane is read from the primary
+     * connection.
+     */
+    private boolean bindInboundLane(Connection connection, Address remoteEndPoint, int lane) {
+        connection.setLane(lane);
+        if (lane >= laneCount || remoteEndPoint.equals(ioService.getThisAddress())
+                || !getConnectionLanes(mapInboundLanes, remoteEndPoint).bind(lane, connection)) {
+            log(Level.WARNING, "Cannot bind lane " + lane + " of " + remoteEndPoint + ", lane count is " + laneCount);
+            return false;
+        }
+        // held before replying, the member sends over the lane only after the reply
+        connection.holdPackets();
+        sendBindRequest(connection, remoteEndPoint, false, lane);
+        return true;
+    }
+
+    /**
+     * Releases the packets held on the lane of the member, called when its
+     * {@link LaneHandover} is read from the primary connection.
+     */
+    public void handover(Connection connection, int lane) {
+        final ConnectionLanes lanes = mapInboundLanes.get(connection.getEndPoint());
+        final Connection laneConnection = (lanes == null || lane >= laneCount) ? null : lanes.get(lane);
+        if (laneConnection != null) {
+            laneConnection.releasePackets();
+        }
+    }
+
+    private ConnectionLanes getConnectionLanes(ConcurrentMap<Address, ConnectionLanes> map, Address endPoint) {
+        ConnectionLanes lanes = map.get(endPoint);
+        if (lanes == null) {
+            lanes = new ConnectionLanes(laneCount);
+            final ConnectionLanes lanesOld = map.putIfAbsent(endPoint, lanes);
+            if (lanesOld != null) {
+                lanes = lanesOld;
+            }
+        }
+        return lanes;
+    }
+
+    /**
+     * Queues the packet on the connection of the lane it is routed to: events to the
+     * event lane, backups and migrations to the bulk lane, and keyed operations to
+     * the data lanes by the partition hash of the key. Other packets and responses
+     * use the given connection, as do all packets until the lane is active.
+     * <p/>
+     * The packets of a lane are sent in order: the packets queued on the primary
+     * connection before the lane became active are processed by the member before
+     * the packets of the lane. Losing a lane connection is handled as losing the
+     * primary connection, which is closed with all lanes of the member: the calls
+     * waiting for the member are redone and the packets in flight, such as async
+     * backups and events, are lost. The member is kept and connected again.
+     *
+     * @param connection primary connection to a member
+     */
+    public void write(Connection connection, Packet packet) {
+        final int lane = (laneCount == 1 || connection.getLane() != 0
+                || packet.operation == ClusterOperation.RESPONSE) ? 0 : selectLane(packet);
+        final Address endPoint = connection.getEndPoint();
+        if (lane == 0 || endPoint == null || mapConnections.get(endPoint) != connection) {
+            connection.getWriteHandler().enqueueSocketWritable(packet);
+            return;
+        }
+        final ConnectionLanes lanes = getConnectionLanes(mapLanes, endPoint);
+        Connection laneConnection = lanes.getActive(lane);
+        if (laneConnection == null) {
+            // the lane may become active meanwhile, the packet has to be queued before the handover
+            synchronized (lanes) {
+                laneConnection = lanes.getActive(lane);
+                if (laneConnection == null) {
+                    connection.getWriteHandler().enqueueSocketWritable(packet);
+                }
+            }
+            if (laneConnection == null) {
+                final Connection boundConnection = lanes.get(lane);
+                if (live && (boundConnection == null || !boundConnection.live()) && lanes.startConnecting(lane)) {
+                    ioService.executeAsync(new SocketConnector(this, endPoint, true, lane));
+                }
+                return;
+            }
+        }
+        laneConnection.getWriteHandler().enqueueSocketWritable(packet);
+    }
+
+    int selectLane(Packet packet) {
+        final ClusterOperation operation = packet.operation;
+        if (operation == ClusterOperation.EVENT) {
+            return eventLane;
+        }
+        if (BULK_OPERATIONS.contains(operation) || (operation == ClusterOperation.EXECUTE && packet.name != null
+                && packet.name.endsWith(PartitionManager.MIGRATION_EXECUTOR_NAME))) {
+            return bulkLane;
+        }
+        final DataHolder key = packet.getKey();
+        if (dataLaneCount > 1 && key != null) {
+            return (key.getPartitionHash() & Integer.MAX_VALUE) % dataLaneCount;
+        }
+        return 0;
+    }
+
+    /**
+     * @return connections of the lanes this member opened to the member
+     */
+    Collection<Connection> getLaneConnections(Address address) {
+        final ConnectionLanes lanes = mapLanes.get(address);
+        return (lanes == null) ? Collections.<Connection>emptyList() : lanes.getConnections();
+    }
+
+    void failedLaneConnection(Address address, int lane) {
+        final ConnectionLanes lanes = mapLanes.get(address);
+        if (lanes != null) {
+            lanes.connectionFailed(lane);
+        }
+    }
+
     void sendBindRequest(final Connection connection, final Address remoteEndPoint, final boolean replyBack) {
+        sendBindRequest(connection, remoteEndPoint, replyBack, 0);
+    }
+
+    void sendBindRequest(final Connection connection, final Address remoteEndPoint, final boolean replyBack,
+                         final int lane) {
         connection.setEndPoint(remoteEndPoint);
         //make sure bind packet is the first packet sent to the end point.
-        Packet bindPacket = createBindPacket(new Bind(ioService.getThisAddress(), remoteEndPoint, replyBack));
+        Packet bindPacket = createRemotelyProcessPacket(new Bind(ioService.getThisAddress(), remoteEndPoint, replyBack, lane));
         connection.getWriteHandler().enqueueSocketWritable(bindPacket);
         //now you can send anything...
     }
 
-    private Packet createBindPacket(Bind rp) {
+    private Packet createRemotelyProcessPacket(AbstractRemotelyProcessable rp) {
         Data value = ThreadContext.get().toData(rp);
         Packet packet = new Packet();
         packet.set("remotelyProcess", ClusterOperation.REMOTELY_PROCESS, null, value);
@@ -324,7 +524,19 @@ public class ConnectionManager {
         log(Level.FINEST, "Destroying " + connection);
         setActiveConnections.remove(connection);
         final Address endPoint = connection.getEndPoint();
-        if (endPoint != null) {
+        if (endPoint != null && connection.getLane() > 0) {
+            final boolean outbound = removeLane(mapLanes.get(endPoint), connection);
+            final boolean inbound = removeLane(mapInboundLanes.get(endPoint), connection);
+            if (outbound || inbound) {
+                // packets in flight on the lane are lost, handled as a lost primary connection
+                final Connection primary = mapConnections.get(endPoint);
+                if (primary != null && primary.live()) {
+                    log(Level.INFO, "Lane " + connection.getLane() + " to " + endPoint
+                            + " is lost, closing the primary connection");
+                    primary.close();
+                }
+            }
+        } else if (endPoint != null) {
             setConnectionInProgress.remove(endPoint);
             final Connection existingConn = mapConnections.get(endPoint);
             if (existingConn == connection) {
@@ -332,6 +544,8 @@ public class ConnectionManager {
                 for (ConnectionListener listener : setConnectionListeners) {
                     listener.connectionRemoved(connection);
                 }
+                closeLanes(mapLanes.remove(endPoint));
+                closeLanes(mapInboundLanes.remove(endPoint));
             }
         }
         if (connection.live()) {
@@ -346,6 +560,13 @@ public class ConnectionManager {
                 count += conn.getWriteHandler().size();
             }
         }
+        for (ConnectionLanes lanes : mapLanes.values()) {
+            for (Connection conn : lanes.getConnections()) {
+                if (conn.live()) {
+                    count += conn.getWriteHandler().size();
+                }
+            }
+        }
         return count;
     }
 
@@ -412,10 +633,25 @@ public class ConnectionManager {
         shutdownIOSelectors();
         setConnectionInProgress.clear();
         mapConnections.clear();
+        mapLanes.clear();
+        mapInboundLanes.clear();
         mapMonitors.clear();
         setActiveConnections.clear();
     }
 
+    /**
+     * @return true if the connection was bound to its lane
+     */
+    private boolean removeLane(ConnectionLanes lanes, Connection connection) {
+        return lanes != null && connection.getLane() < laneCount && lanes.remove(connection.getLane(), connection);
+    }
+
+    private void closeLanes(ConnectionLanes lanes) {
+        if (lanes != null) {
+            closeConnections(lanes.getConnections());
+        }
+    }
+
     private void closeConnections(Collection<Connection> connections) {
         for (Connection conn : connections) {
             try {
@@ -16,6 +16,8 @@
 
 package com.hazelcast.nio;
 
+import com.hazelcast.impl.Util;
+
 import java.nio.ByteBuffer;
 
 public final class DataHolder {
@@ -46,6 +48,13 @@ public final class DataHolder {
         this.partitionHash = partitionHash;
     }
 
+    public int getPartitionHash() {
+        if (partitionHash == -1) {
+            partitionHash = Util.hashCode(buffer.array());
+        }
+        return partitionHash;
+    }
+
     public int size() {
         return size;
     }
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Factories of the {@link IdentifiedDataSerializable} classes, shared by all
+ * instances in the JVM.
+ * <p/>
+ * Serialized form:
+ * <pre>
+ *   [type id][int factory id][int class id][object data]
+ * </pre>
+ */
+public final class DataSerializableFactories {
+
+    public static final byte SERIALIZER_TYPE_IDENTIFIED_DATA = 3;
+
+    private static final ConcurrentMap<Integer, DataSerializableFactory> factories =
+            new ConcurrentHashMap<Integer, DataSerializableFactory>();
+
+    private DataSerializableFactories() {
+    }
+
+    /**
+     * Registers the factory of the classes having the factory id.
+     *
+     * @throws IllegalStateException if another factory is registered with the id
+     */
+    public static void register(int factoryId, DataSerializableFactory factory) {
+        if (factory == null) {
+            throw new IllegalArgumentException("Factory cannot be null!");
+        }
+        final DataSerializableFactory current = factories.putIfAbsent(factoryId, factory);
+        if (current != null && current != factory) {
+            throw new IllegalStateException("Another factory is already registered with id " + factoryId + "!");
+        }
+    }
+
+    public static void deregister(int factoryId) {
+        factories.remove(factoryId);
+    }
+
+    /**
+     * @return new instance of the class
+     * @throws HazelcastSerializationException if no factory is registered with the
+     *                                         factory id or it does not know the class id
+     */
+    static IdentifiedDataSerializable newInstance(int factoryId, int id) {
+        final DataSerializableFactory factory = factories.get(factoryId);
+        if (factory == null) {
+            throw new HazelcastSerializationException("No DataSerializableFactory is registered with id " + factoryId);
+        }
+        final IdentifiedDataSerializable ds = factory.create(id);
+        if (ds == null) {
+            throw new HazelcastSerializationException("DataSerializableFactory " + factoryId
+                    + " cannot create class " + id);
+        }
+        return ds;
+    }
+}
@@ -20,10 +20,7 @@ import com.hazelcast.impl.GroupProperties;
 
 import java.io.*;
 import java.math.BigInteger;
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.Date;
-import java.util.TreeSet;
+import java.util.*;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -83,7 +80,25 @@ public class DefaultSerializer implements CustomSerializer {
         }
     });
 
-    private TypeSerializer[] typeSerializer;
+    /**
+     * Serializers indexed by type id, replaced on every registration.
+     */
+    private static volatile TypeSerializer[] typeSerializers = new TypeSerializer[0];
+
+    /**
+     * Number of registrations so far, so the serializer caches know when to clear.
+     */
+    private static volatile int registrations = 0;
+
+    private static volatile TypeSerializer globalSerializer;
+
+    /**
+     * Serializer found for each class written by the owning thread. Classes are
+     * weakly referenced, so the cache does not keep their class loaders alive.
+     */
+    private final Map<Class, TypeSerializer> serializerCache = new WeakHashMap<Class, TypeSerializer>();
+
+    private int cacheRegistrations = -1;
 
     static {
         registerSerializer(new ByteArraySerializer());
@@ -98,45 +113,115 @@ public class DefaultSerializer implements CustomSerializer {
         registerSerializer(new ObjectSerializer());
     }
 
+    /**
+     * Registers the serializer for all Hazelcast instances in the JVM; instances of one
+     * JVM cannot use different serializers. Serializers are found once per class, so
+     * {@link TypeSerializer#isSuitable(Object)} should depend on the class of the object only.
+     *
+     * @throws IllegalArgumentException if another serializer is registered with the type id
+     */
     public static void registerSerializer(TypeSerializer ts) {
         if (ts != null) {
-            serializers.add(ts);
+            synchronized (serializers) {
+                checkTypeId(ts);
+                serializers.add(ts);
+                updateTypeSerializers();
+            }
+        }
+    }
+
+    /**
+     * Sets the serializer of the objects no registered serializer but Java
+     * serialization is suitable for, such as a Kryo based serializer. It is
+     * used for the objects it is suitable for and Java serialization for the
+     * others. <tt>null</tt> removes the global serializer. Like registered
+     * serializers, it is used by all Hazelcast instances in the JVM.
+     *
+     * @throws IllegalArgumentException if another serializer is registered with the type id
+     */
+    public static void setGlobalSerializer(TypeSerializer ts) {
+        synchronized (serializers) {
+            if (ts != null) {
+                checkTypeId(ts);
+            }
+            globalSerializer = ts;
+            updateTypeSerializers();
+        }
+    }
+
+    private static void checkTypeId(TypeSerializer ts) {
+        final byte typeId = ts.getTypeId();
+        if (typeId < 0) {
+            throw new IllegalArgumentException("Type id of " + ts + " cannot be negative!");
+        }
+        final TypeSerializer current = (typeId < typeSerializers.length) ? typeSerializers[typeId] : null;
+        if (current != null && current != globalSerializer && current.getClass() != ts.getClass()) {
+            throw new IllegalArgumentException("Type id " + typeId + " of " + ts
+                    + " is already registered for " + current + "!");
         }
     }
 
-    public DefaultSerializer() {
-        this.typeSerializer = new TypeSerializer[serializers.size()];
+    private static void updateTypeSerializers() {
+        final TypeSerializer global = globalSerializer;
+        int length = (global == null) ? 0 : global.getTypeId() + 1;
+        for (TypeSerializer ts : serializers) {
+            length = Math.max(length, ts.getTypeId() + 1);
+        }
+        final TypeSerializer[] array = new TypeSerializer[length];
         for (TypeSerializer ts : serializers) {
-            this.typeSerializer[ts.getTypeId()] = ts;
+            array[ts.getTypeId()] = ts;
+        }
+        if (global != null) {
+            array[global.getTypeId()] = global;
+        }
+        typeSerializers = array;
+        registrations++;
+    }
+
+    private static TypeSerializer findSerializer(final Object obj) {
+        synchronized (serializers) {
+            final TypeSerializer global = globalSerializer;
+            for (TypeSerializer ts : serializers) {
+                if (ts.getTypeId() == SERIALIZER_TYPE_OBJECT && global != null && global.isSuitable(obj)) {
+                    return global;
+                }
+                if (ts.isSuitable(obj)) {
+                    return ts;
+                }
+            }
+            return null;
         }
     }
 
     public void write(OutputStream os, Object obj) throws Exception {
         FastByteArrayOutputStream bos = (FastByteArrayOutputStream) os;
-        byte typeId = -1;
-        for (TypeSerializer ts : serializers) {
-            if (ts.isSuitable(obj)) {
-                this.typeSerializer[ts.getTypeId()] = ts;
-                typeId = ts.getTypeId();
-                break;
+        final Class klass = obj.getClass();
+        final int current = registrations;
+        if (current != cacheRegistrations) {
+            serializerCache.clear();
+            cacheRegistrations = current;
+        }
+        TypeSerializer ts = serializerCache.get(klass);
+        if (ts == null) {
+            ts = findSerializer(obj);
+            if (ts == null) {
+                throw new NotSerializableException("There is no suitable serializer for " + klass.getName());
             }
+            serializerCache.put(klass, ts);
         }
-        if (typeId == -1) {
-            throw new NotSerializableException("There is no suitable serializer for " + obj.getClass().getName());
-        }
-        bos.writeByte(typeId);
-        this.typeSerializer[typeId].write(bos, obj);
+        bos.writeByte(ts.getTypeId());
+        ts.write(bos, obj);
     }
 
     public Object read(InputStream is) throws Exception {
         FastByteArrayInputStream bis = (FastByteArrayInputStream) is;
         final byte typeId = bis.readByte();
-        if ((typeId < 0) || (typeId >= this.typeSerializer.length)) {
+        final TypeSerializer[] array = typeSerializers;
+        if ((typeId < 0) || (typeId >= array.length) || (array[typeId] == null)) {
             throw new IllegalArgumentException("There is no suitable deserializer for type 0x"
                     + Integer.toHexString(typeId));
         }
-        Object result = this.typeSerializer[typeId].read(bis);
-        return result;
+        return array[typeId].read(bis);
     }
 
     public static class LongSerializer implements TypeSerializer<Long> {
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio;
+
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate at the fastest level, with a deflater and an inflater reused per thread.
+ */
+public class DeflateCodec implements CompressionCodec {
+
+    public static final byte ID = 1;
+
+    public static final String NAME = "deflate";
+
+    private final ThreadLocal<Deflater> deflaters = new ThreadLocal<Deflater>() {
+        @Override
+        protected Deflater initialValue() {
+            return new Deflater(Deflater.BEST_SPEED);
+        }
+    };
+
+    private final ThreadLocal<Inflater> inflaters = new ThreadLocal<Inflater>() {
+        @Override
+        protected Inflater initialValue() {
+            return new Inflater();
+        }
+    };
+
+    public byte getId() {
+        return ID;
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public byte[] compress(byte[] bytes) throws Exception {
+        final Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(bytes);
+        deflater.finish();
+        byte[] buffer = new byte[bytes.length / 2 + 64];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == buffer.length) {
+                final byte[] newBuffer = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, newBuffer, 0, length);
+                buffer = newBuffer;
+            }
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+        final byte[] compressed = new byte[length];
+        System.arraycopy(buffer, 0, compressed, 0, length);
+        return compressed;
+    }
+
+    public byte[] decompress(byte[] bytes, int offset, int length, int uncompressedLength) throws Exception {
+        final Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(bytes, offset, length);
+        final byte[] result = new byte[uncompressedLength];
+        int n = 0;
+        while (n < uncompressedLength) {
+            final int read = inflater.inflate(result, n, uncompressedLength - n);
+            if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                break;
+            }
+            n += read;
+        }
+        if (n != uncompressedLength) {
+            throw new IOException("Corrupt deflate data, expected " + uncompressedLength + " bytes but read " + n);
+        }
+        return result;
+    }
+}
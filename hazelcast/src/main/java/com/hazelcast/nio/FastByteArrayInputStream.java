@@ -95,6 +95,18 @@ public class FastByteArrayInputStream extends ByteArrayInputStream implements Da
         pos = mark;
     }
 
+    final byte[] getBuffer() {
+        return buf;
+    }
+
+    final int getPosition() {
+        return pos;
+    }
+
+    final int getCount() {
+        return count;
+    }
+
     public void set(byte[] bytes, int size) {
         this.buf = bytes;
         this.pos = 0;
@@ -142,6 +142,19 @@ public final class FastByteArrayOutputStream extends ByteArrayOutputStream imple
         write((v) & 0xFF);
     }
 
+    /**
+     * Overwrites the 4 bytes at the position, which must have been written already.
+     */
+    public final void writeInt(final int position, final int v) {
+        if (position < 0 || position + 4 > count) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", count: " + count);
+        }
+        buf[position] = (byte) (v >>> 24);
+        buf[position + 1] = (byte) (v >>> 16);
+        buf[position + 2] = (byte) (v >>> 8);
+        buf[position + 3] = (byte) v;
+    }
+
     public final void writeLong(final long v) throws IOException {
         writeBuffer[0] = (byte) (v >>> 56);
         writeBuffer[1] = (byte) (v >>> 48);
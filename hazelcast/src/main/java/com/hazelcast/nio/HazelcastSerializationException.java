@@ -22,6 +22,10 @@ import com.hazelcast.core.HazelcastException;
  * This is an exception thrown when an exception occurs while serializing/deserializing objects.
  */
 public class HazelcastSerializationException extends HazelcastException {
+    public HazelcastSerializationException(String message) {
+        super(message);
+    }
+
     public HazelcastSerializationException(String message, Throwable cause) {
         super(message, cause);
     }
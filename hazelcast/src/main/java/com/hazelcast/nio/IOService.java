@@ -25,6 +25,7 @@ import com.hazelcast.impl.base.SystemLogService;
 import com.hazelcast.logging.ILogger;
 
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 public interface IOService {
 
@@ -90,8 +91,20 @@ public interface IOService {
 
     boolean getSocketNoDelay();
 
+    boolean isSocketSendBufferDirect();
+
+    int getSocketWriteCoalesceSize();
+
+    int getSocketWriteCoalesceMicros();
+
     int getSelectorThreadCount();
 
+    int getConnectionDataLaneCount();
+
+    boolean isConnectionBulkLaneEnabled();
+
+    boolean isConnectionEventLaneEnabled();
+
     long getConnectionMonitorInterval();
 
     int getConnectionMonitorMaxFaults();
@@ -104,5 +117,7 @@ public interface IOService {
 
     void executeAsync(Runnable runnable);
 
+    void schedule(Runnable runnable, long delay, TimeUnit unit);
+
     Collection<Integer> getOutboundPorts();
 }
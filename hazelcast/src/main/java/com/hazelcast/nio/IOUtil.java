@@ -66,6 +66,8 @@ public final class IOUtil {
                 for (int i = 0; i < n; i++) {
                     dest.put(src.get());
                 }
+            } else if (!dest.hasArray()) {
+                copyToDirectBuffer(src, dest);
             } else {
                 int srcPosition = src.position();
                 int destPosition = dest.position();
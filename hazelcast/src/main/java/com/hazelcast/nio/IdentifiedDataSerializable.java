@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio;
+
+/**
+ * DataSerializable written with the ids of its factory and class instead of its
+ * class name, and created by its {@link DataSerializableFactory} without reflection.
+ * <p/>
+ * The factory has to be registered with {@link DataSerializableFactories#register(int, DataSerializableFactory)}
+ * on every member and client before the objects are serialized:
+ * <pre>
+ *   DataSerializableFactories.register(1, new DataSerializableFactory() {
+ *       public IdentifiedDataSerializable create(int id) {
+ *           switch (id) {
+ *               case 1: return new Trade();
+ *               case 2: return new Quote();
+ *               default: return null;
+ *           }
+ *       }
+ *   });
+ * </pre>
+ * {@link IndexedDataSerializable} objects are still written with their class names.
+ */
+public interface IdentifiedDataSerializable extends DataSerializable {
+
+    /**
+     * @return id of the factory creating the instances of the class
+     */
+    int getFactoryId();
+
+    /**
+     * @return id of the class, unique within its factory
+     */
+    int getId();
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio;
+
+import java.io.IOException;
+
+/**
+ * DataSerializable whose serialized form starts with a table of the fields
+ * used in queries and indexes. Queries and index updates read these fields
+ * straight from the serialized bytes, without deserializing the object.
+ * <p/>
+ * Each field has to be written with the name of the query attribute and the
+ * value the attribute has on the object:
+ * <pre>
+ *   public void writeIndexedFields(IndexedFieldWriter writer) throws IOException {
+ *       writer.writeInt("age", age);
+ *       writer.writeUTF("name", name);
+ *   }
+ * </pre>
+ * Attributes missing from the table are read from the deserialized object.
+ */
+public interface IndexedDataSerializable extends DataSerializable {
+
+    void writeIndexedFields(IndexedFieldWriter writer) throws IOException;
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio;
+
+import java.io.IOException;
+
+import static com.hazelcast.nio.IndexedFields.*;
+
+/**
+ * Writes the field table of an {@link IndexedDataSerializable}.
+ */
+public final class IndexedFieldWriter {
+
+    private final FastByteArrayOutputStream out;
+
+    IndexedFieldWriter(FastByteArrayOutputStream out) {
+        this.out = out;
+    }
+
+    public void writeBoolean(String name, boolean value) throws IOException {
+        final int position = startField(name, FIELD_TYPE_BOOLEAN);
+        out.writeBoolean(value);
+        endField(position);
+    }
+
+    public void writeByte(String name, byte value) throws IOException {
+        final int position = startField(name, FIELD_TYPE_BYTE);
+        out.writeByte(value);
+        endField(position);
+    }
+
+    public void writeChar(String name, char value) throws IOException {
+        final int position = startField(name, FIELD_TYPE_CHAR);
+        out.writeChar(value);
+        endField(position);
+    }
+
+    public void writeShort(String name, short value) throws IOException {
+        final int position = startField(name, FIELD_TYPE_SHORT);
+        out.writeShort(value);
+        endField(position);
+    }
+
+    public void writeInt(String name, int value) throws IOException {
+        final int position = startField(name, FIELD_TYPE_INT);
+        out.writeInt(value);
+        endField(position);
+    }
+
+    public void writeLong(String name, long value) throws IOException {
+        final int position = startField(name, FIELD_TYPE_LONG);
+        out.writeLong(value);
+        endField(position);
+    }
+
+    public void writeFloat(String name, float value) throws IOException {
+        final int position = startField(name, FIELD_TYPE_FLOAT);
+        out.writeFloat(value);
+        endField(position);
+    }
+
+    public void writeDouble(String name, double value) throws IOException {
+        final int position = startField(name, FIELD_TYPE_DOUBLE);
+        out.writeDouble(value);
+        endField(position);
+    }
+
+    /**
+     * @param value string value, may be <tt>null</tt>
+     */
+    public void writeUTF(String name, String value) throws IOException {
+        final int position = startField(name, (value == null) ? FIELD_TYPE_NULL : FIELD_TYPE_STRING);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+        endField(position);
+    }
+
+    /**
+     * Writes the header of the field.
+     *
+     * @return position of the field length, to be set when the field is written
+     */
+    private int startField(String name, byte fieldType) throws IOException {
+        if (name == null) {
+            throw new IllegalArgumentException("Field name cannot be null!");
+        }
+        out.writeInt(name.hashCode());
+        final int position = out.getCount();
+        out.writeInt(0);
+        out.writeUTF(name);
+        out.writeByte(fieldType);
+        return position;
+    }
+
+    private void endField(int position) {
+        out.writeInt(position, out.getCount() - position - 4);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio;
+
+import java.io.IOException;
+
+/**
+ * Reads single fields of serialized {@link IndexedDataSerializable} objects.
+ * <p/>
+ * Serialized form:
+ * <pre>
+ *   [type id][int table length][field]...[class name][object data]
+ *   field: [int name hash][int field length][UTF name][byte field type][value]
+ * </pre>
+ */
+public final class IndexedFields {
+
+    public static final byte SERIALIZER_TYPE_INDEXED_DATA = 2;
+
+    /**
+     * Returned by {@link #readField(Data, String)} when the value has no such field.
+     */
+    public static final Object NOT_FOUND = new Object();
+
+    static final byte FIELD_TYPE_NULL = 0;
+    static final byte FIELD_TYPE_BOOLEAN = 1;
+    static final byte FIELD_TYPE_BYTE = 2;
+    static final byte FIELD_TYPE_CHAR = 3;
+    static final byte FIELD_TYPE_SHORT = 4;
+    static final byte FIELD_TYPE_INT = 5;
+    static final byte FIELD_TYPE_LONG = 6;
+    static final byte FIELD_TYPE_FLOAT = 7;
+    static final byte FIELD_TYPE_DOUBLE = 8;
+    static final byte FIELD_TYPE_STRING = 9;
+
+    private static final int TABLE_OFFSET = 5;
+
+    private IndexedFields() {
+    }
+
+    public static boolean isIndexed(Data data) {
+        return data != null && data.buffer != null && data.buffer.length >= TABLE_OFFSET
+                && data.buffer[0] == SERIALIZER_TYPE_INDEXED_DATA;
+    }
+
+    /**
+     * @param data      serialized value
+     * @param fieldName name of the field
+     * @return value of the field, or {@link #NOT_FOUND} if the value is not an
+     *         {@link IndexedDataSerializable} or has no such field
+     */
+    public static Object readField(Data data, String fieldName) {
+        if (!isIndexed(data)) {
+            return NOT_FOUND;
+        }
+        final byte[] buffer = data.buffer;
+        final int end = TABLE_OFFSET + readInt(buffer, 1);
+        final int hash = fieldName.hashCode();
+        int position = TABLE_OFFSET;
+        while (position < end) {
+            final int fieldLength = readInt(buffer, position + 4);
+            final int fieldStart = position + 8;
+            if (readInt(buffer, position) == hash) {
+                try {
+                    final FastByteArrayInputStream in = new FastByteArrayInputStream(buffer, fieldStart, fieldLength);
+                    if (fieldName.equals(in.readUTF())) {
+                        return readValue(in);
+                    }
+                } catch (IOException e) {
+                    throw new HazelcastSerializationException(e);
+                }
+            }
+            position = fieldStart + fieldLength;
+        }
+        return NOT_FOUND;
+    }
+
+    private static Object readValue(FastByteArrayInputStream in) throws IOException {
+        final byte fieldType = in.readByte();
+        switch (fieldType) {
+            case FIELD_TYPE_NULL:
+                return null;
+            case FIELD_TYPE_BOOLEAN:
+                return in.readBoolean();
+            case FIELD_TYPE_BYTE:
+                return in.readByte();
+            case FIELD_TYPE_CHAR:
+                return in.readChar();
+            case FIELD_TYPE_SHORT:
+                return in.readShort();
+            case FIELD_TYPE_INT:
+                return in.readInt();
+            case FIELD_TYPE_LONG:
+                return in.readLong();
+            case FIELD_TYPE_FLOAT:
+                return in.readFloat();
+            case FIELD_TYPE_DOUBLE:
+                return in.readDouble();
+            case FIELD_TYPE_STRING:
+                return in.readUTF();
+            default:
+                throw new HazelcastSerializationException("Unknown field type " + fieldType);
+        }
+    }
+
+    private static int readInt(byte[] buffer, int position) {
+        return ((buffer[position] & 0xFF) << 24) | ((buffer[position + 1] & 0xFF) << 16)
+                | ((buffer[position + 2] & 0xFF) << 8) | (buffer[position + 3] & 0xFF);
+    }
+}
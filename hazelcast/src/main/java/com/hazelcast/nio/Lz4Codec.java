@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Pure Java codec writing the LZ4 block format: fast, with a lower ratio than deflate.
+ */
+public class Lz4Codec implements CompressionCodec {
+
+    public static final byte ID = 2;
+
+    public static final String NAME = "lz4";
+
+    private static final int MIN_MATCH = 4;
+
+    private static final int LAST_LITERALS = 5;
+
+    private static final int MF_LIMIT = 12;
+
+    private static final int MAX_DISTANCE = 65535;
+
+    private static final int HASH_LOG = 12;
+
+    private static final int RUN_MASK = 15;
+
+    private final ThreadLocal<int[]> hashTables = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1 << HASH_LOG];
+        }
+    };
+
+    public byte getId() {
+        return ID;
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public byte[] compress(byte[] src) throws Exception {
+        final int length = src.length;
+        final byte[] dst = new byte[length + length / 255 + 16];
+        int op = 0;
+        int anchor = 0;
+        if (length >= MF_LIMIT + 1) {
+            final int[] hashTable = hashTables.get();
+            Arrays.fill(hashTable, -1);
+            final int mfLimit = length - MF_LIMIT;
+            final int matchLimit = length - LAST_LITERALS;
+            int ip = 0;
+            while (ip < mfLimit) {
+                final int sequence = readInt(src, ip);
+                final int h = hash(sequence);
+                int ref = hashTable[h];
+                hashTable[h] = ip;
+                if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    ip++;
+                    continue;
+                }
+                while (ip > anchor && ref > 0 && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && src[ref + matchLength] == src[ip + matchLength]) {
+                    matchLength++;
+                }
+                op = writeSequence(src, anchor, ip - anchor, dst, op, matchLength - MIN_MATCH);
+                dst[op++] = (byte) (ip - ref);
+                dst[op++] = (byte) ((ip - ref) >>> 8);
+                op = writeLength(dst, op, matchLength - MIN_MATCH);
+                ip += matchLength;
+                anchor = ip;
+            }
+        }
+        op = writeSequence(src, anchor, length - anchor, dst, op, 0);
+        final byte[] compressed = new byte[op];
+        System.arraycopy(dst, 0, compressed, 0, op);
+        return compressed;
+    }
+
+    public byte[] decompress(byte[] src, int offset, int length, int uncompressedLength) throws Exception {
+        final byte[] dst = new byte[uncompressedLength];
+        final int end = offset + length;
+        int ip = offset;
+        int op = 0;
+        try {
+            while (true) {
+                final int token = src[ip++] & 0xff;
+                int literalLength = token >>> 4;
+                if (literalLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xff;
+                        literalLength += b;
+                    } while (b == 255);
+                }
+                System.arraycopy(src, ip, dst, op, literalLength);
+                ip += literalLength;
+                op += literalLength;
+                if (ip >= end) {
+                    break;
+                }
+                final int distance = (src[ip] & 0xff) | ((src[ip + 1] & 0xff) << 8);
+                ip += 2;
+                int matchLength = token & RUN_MASK;
+                if (matchLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xff;
+                        matchLength += b;
+                    } while (b == 255);
+                }
+                matchLength += MIN_MATCH;
+                int ref = op - distance;
+                if (distance == 0 || ref < 0) {
+                    throw new IOException("Corrupt lz4 data, invalid match distance " + distance);
+                }
+                for (int i = 0; i < matchLength; i++) {
+                    dst[op++] = dst[ref++];
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt lz4 data: " + e);
+        }
+        if (op != uncompressedLength) {
+            throw new IOException("Corrupt lz4 data, expected " + uncompressedLength + " bytes but read " + op);
+        }
+        return dst;
+    }
+
+    private static int writeSequence(byte[] src, int literalOffset, int literalLength, byte[] dst, int op, int matchLength) {
+        final int tokenPosition = op++;
+        final int literalToken = Math.min(literalLength, RUN_MASK);
+        dst[tokenPosition] = (byte) ((literalToken << 4) | Math.min(matchLength, RUN_MASK));
+        op = writeLength(dst, op, literalLength);
+        System.arraycopy(src, literalOffset, dst, op, literalLength);
+        return op + literalLength;
+    }
+
+    /**
+     * Writes the part of the length not fitting into the token.
+     */
+    private static int writeLength(byte[] dst, int op, int length) {
+        if (length >= RUN_MASK) {
+            int remaining = length - RUN_MASK;
+            while (remaining >= 255) {
+                dst[op++] = (byte) 255;
+                remaining -= 255;
+            }
+            dst[op++] = (byte) remaining;
+        }
+        return op;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) | ((bytes[offset + 1] & 0xff) << 8)
+                | ((bytes[offset + 2] & 0xff) << 16) | ((bytes[offset + 3] & 0xff) << 24);
+    }
+}
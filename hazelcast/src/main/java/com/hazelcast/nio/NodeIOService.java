@@ -30,6 +30,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class NodeIOService implements IOService {
 
@@ -171,10 +172,34 @@ public class NodeIOService implements IOService {
         return this.node.getGroupProperties().SOCKET_NO_DELAY.getBoolean();
     }
 
+    public boolean isSocketSendBufferDirect() {
+        return this.node.getGroupProperties().SOCKET_SEND_BUFFER_DIRECT.getBoolean();
+    }
+
+    public int getSocketWriteCoalesceSize() {
+        return this.node.getGroupProperties().SOCKET_WRITE_COALESCE_SIZE.getInteger();
+    }
+
+    public int getSocketWriteCoalesceMicros() {
+        return this.node.getGroupProperties().SOCKET_WRITE_COALESCE_MICROS.getInteger();
+    }
+
     public int getSelectorThreadCount() {
         return node.groupProperties.IO_THREAD_COUNT.getInteger();
     }
 
+    public int getConnectionDataLaneCount() {
+        return node.groupProperties.CONNECTION_DATA_LANE_COUNT.getInteger();
+    }
+
+    public boolean isConnectionBulkLaneEnabled() {
+        return node.groupProperties.CONNECTION_BULK_LANE_ENABLED.getBoolean();
+    }
+
+    public boolean isConnectionEventLaneEnabled() {
+        return node.groupProperties.CONNECTION_EVENT_LANE_ENABLED.getBoolean();
+    }
+
     public void disconnectExistingCalls(final Address deadEndpoint) {
         if (deadEndpoint != null) {
             node.clusterManager.enqueueAndReturn(new Processable() {
@@ -211,6 +236,10 @@ public class NodeIOService implements IOService {
         node.executorManager.executeNow(runnable);
     }
 
+    public void schedule(final Runnable runnable, final long delay, final TimeUnit unit) {
+        node.executorManager.getScheduledExecutorService().schedule(runnable, delay, unit);
+    }
+
     public Collection<Integer> getOutboundPorts() {
         final NetworkConfig networkConfig = node.getConfig().getNetworkConfig();
         final Collection<String> portDefinitions = networkConfig.getOutboundPortDefinitions() == null
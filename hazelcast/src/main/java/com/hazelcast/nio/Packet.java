@@ -21,6 +21,7 @@ import com.hazelcast.impl.base.CallState;
 import com.hazelcast.impl.base.CallStateAware;
 import com.hazelcast.util.ByteUtil;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -31,16 +32,21 @@ public final class Packet implements SocketWritable, CallStateAware {
 
     public static final byte PACKET_VERSION = GroupProperties.PACKET_VERSION.getByte();
 
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
     public String name;
 
     public ClusterOperation operation = ClusterOperation.NONE;
 
-    public final ByteBuffer bbSizes = ByteBuffer.allocate(13);
+    public final ByteBuffer bbSizes = ByteBuffer.allocate(17);
 
     public final ByteBuffer bbHeader = ByteBuffer.allocate(500);
 
     private DataHolder key = null;
 
+    // index values which are not sent as longs, see com.hazelcast.query.IndexValues
+    DataHolder indexData = null;
+
     private DataHolder value = null;
 
     public Long[] indexes = null;
@@ -83,6 +89,10 @@ public final class Packet implements SocketWritable, CallStateAware {
 
     public CallState callState = null;
 
+    private String lastName = null;
+
+    private byte[] lastNameBytes = null;
+
     public Packet() {
     }
 
@@ -114,12 +124,33 @@ public final class Packet implements SocketWritable, CallStateAware {
         }
     }
 
-    private static String getString(ByteBuffer bb) {
+    /**
+     * Pooled packets are mostly reused for the same names,
+     * the last decoded name is returned if its bytes did not change.
+     */
+    private String getName(ByteBuffer bb) {
         int length = bb.getInt();
         if (length == 0) return null;
+        final byte[] lastBytes = lastNameBytes;
+        if (lastBytes != null && lastBytes.length == length && bb.hasArray()
+                && equals(lastBytes, bb.array(), bb.arrayOffset() + bb.position())) {
+            bb.position(bb.position() + length);
+            return lastName;
+        }
         byte[] bytes = new byte[length];
         bb.get(bytes, 0, length);
-        return new String(bytes);
+        lastNameBytes = bytes;
+        lastName = new String(bytes);
+        return lastName;
+    }
+
+    private static boolean equals(byte[] bytes, byte[] array, int offset) {
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            if (bytes[i] != array[offset + i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     protected void writeBoolean(ByteBuffer bb, boolean value) {
@@ -200,11 +231,13 @@ public final class Packet implements SocketWritable, CallStateAware {
         bbSizes.putInt(key == null ? 0 : key.size);
         bbSizes.putInt(value == null ? 0 : value.size);
         bbSizes.put(PACKET_VERSION);
+        bbSizes.putInt(indexData == null ? 0 : indexData.size);
         bbSizes.flip();
         totalSize = 0;
         totalSize += bbSizes.limit();
         totalSize += bbHeader.limit();
         totalSize += key == null ? 0 : key.size;
+        totalSize += indexData == null ? 0 : indexData.size;
         totalSize += value == null ? 0 : value.size;
     }
 
@@ -239,7 +272,7 @@ public final class Packet implements SocketWritable, CallStateAware {
         }
         callId = bbHeader.getLong();
         responseType = bbHeader.get();
-        name = getString(bbHeader);
+        name = getName(bbHeader);
         byte indexCount = bbHeader.get();
         if (indexCount > 0) {
             indexes = new Long[indexCount];
@@ -275,6 +308,7 @@ public final class Packet implements SocketWritable, CallStateAware {
         this.version = -1;
         this.indexes = null;
         this.indexTypes = null;
+        this.indexData = null;
     }
 
     public void reset() {
@@ -295,6 +329,7 @@ public final class Packet implements SocketWritable, CallStateAware {
         bbSizes.clear();
         bbHeader.clear();
         key = null;
+        indexData = null;
         value = null;
         conn = null;
         totalSize = 0;
@@ -322,6 +357,7 @@ public final class Packet implements SocketWritable, CallStateAware {
         version = request.version;
         indexes = request.indexes;
         indexTypes = request.indexTypes;
+        setIndexData(request.indexData);
         callState = request.callState;
         redoData = request.redoCount > Byte.MAX_VALUE
                     ? Byte.MAX_VALUE : (byte) request.redoCount; // just don't care values greater than 127.
@@ -330,7 +366,7 @@ public final class Packet implements SocketWritable, CallStateAware {
     @Override
     public String toString() {
         int keySize = (key == null) ? 0 : key.size();
-        int valueSize = (getValueData() == null) ? 0 : getValueData().size();
+        int valueSize = (value == null) ? 0 : value.size();
         Object str = null;
         if (operation == ClusterOperation.REMOTELY_PROCESS) {
             try {
@@ -359,12 +395,44 @@ public final class Packet implements SocketWritable, CallStateAware {
         if (key != null && key.size() > 0) {
             totalWritten += IOUtil.copyToHeapBuffer(key.buffer, dest);
         }
-        if (getValueData() != null && getValueData().size() > 0) {
+        if (indexData != null && indexData.size() > 0) {
+            totalWritten += IOUtil.copyToHeapBuffer(indexData.buffer, dest);
+        }
+        if (value != null && value.size() > 0) {
             totalWritten += IOUtil.copyToHeapBuffer(value.buffer, dest);
         }
         return totalWritten >= totalSize;
     }
 
+    /**
+     * Writes the rest of this packet straight to the channel, right after the pending bytes
+     * of the socket buffer. Key and value are gathered from their own buffers instead of
+     * being copied into the socket buffer first.
+     */
+    final boolean writeToSocketChannel(SocketChannelWrapper channel, ByteBuffer pending) throws IOException {
+        final int pendingSize = pending.remaining();
+        final ByteBuffer[] buffers = new ByteBuffer[]{pending, bbSizes, bbHeader,
+                (key == null) ? EMPTY_BUFFER : key.buffer,
+                (indexData == null) ? EMPTY_BUFFER : indexData.buffer,
+                (value == null) ? EMPTY_BUFFER : value.buffer};
+        final long written = channel.write(buffers);
+        totalWritten += written - (pendingSize - pending.remaining());
+        return totalWritten >= totalSize;
+    }
+
+    /**
+     * Returns the buffer of the value once header, key and index values are read
+     * and only the value is left, null otherwise.
+     */
+    final ByteBuffer getValueBufferToRead() {
+        if (sizeRead && !bbHeader.hasRemaining() && (key == null || !key.shouldRead())
+                && (indexData == null || !indexData.shouldRead())
+                && value != null && value.shouldRead()) {
+            return value.buffer;
+        }
+        return null;
+    }
+
     public final boolean read(ByteBuffer bb) {
         while (!sizeRead && bb.hasRemaining() && bbSizes.hasRemaining()) {
             IOUtil.copyToHeapBuffer(bb, bbSizes);
@@ -386,6 +454,8 @@ public final class Packet implements SocketWritable, CallStateAware {
                         + " Found: " + packetVersion;
                 throw new RuntimeException(msg);
             }
+            int indexDataSize = bbSizes.getInt();
+            if (indexDataSize > 0) indexData = new DataHolder(indexDataSize);
         }
         if (sizeRead) {
             while (bb.hasRemaining() && bbHeader.hasRemaining()) {
@@ -394,15 +464,22 @@ public final class Packet implements SocketWritable, CallStateAware {
             while (key != null && bb.hasRemaining() && key.shouldRead()) {
                 key.read(bb);
             }
-            while (getValueData() != null && bb.hasRemaining() && value.shouldRead()) {
+            while (indexData != null && bb.hasRemaining() && indexData.shouldRead()) {
+                indexData.read(bb);
+            }
+            while (value != null && bb.hasRemaining() && value.shouldRead()) {
                 value.read(bb);
             }
         }
-        if (sizeRead && !bbHeader.hasRemaining() && (key == null || !key.shouldRead()) && (value == null || !value.shouldRead())) {
+        if (sizeRead && !bbHeader.hasRemaining() && (key == null || !key.shouldRead())
+                && (indexData == null || !indexData.shouldRead()) && (value == null || !value.shouldRead())) {
             sizeRead = false;
             if (key != null) {
                 key.postRead();
             }
+            if (indexData != null) {
+                indexData.postRead();
+            }
             if (value != null) {
                 value.postRead();
             }
@@ -454,6 +531,14 @@ public final class Packet implements SocketWritable, CallStateAware {
         return (value == null) ? null : value.toData();
     }
 
+    public Data getIndexData() {
+        return (indexData == null) ? null : indexData.toData();
+    }
+
+    public void setIndexData(Data indexData) {
+        this.indexData = (indexData == null || indexData.size() == 0) ? null : new DataHolder(indexData);
+    }
+
     public void setKey(Data key) {
         this.key = (key == null || key.size() == 0) ? null : new DataHolder(key);
     }
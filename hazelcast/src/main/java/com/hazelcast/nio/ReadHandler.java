@@ -71,6 +71,10 @@ class ReadHandler extends AbstractSelectionHandler implements Runnable {
                 }
             }
             if (socketReader == null) return;
+            if (inBuffer.position() == 0 && socketReader instanceof SocketPacketReader
+                    && ((SocketPacketReader) socketReader).readValueFromChannel()) {
+                return;
+            }
             int readBytes = socketChannel.read(inBuffer);
             if (readBytes == -1) {
                 throw new EOFException();
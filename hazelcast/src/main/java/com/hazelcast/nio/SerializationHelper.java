@@ -48,6 +48,12 @@ public class SerializationHelper {
         } else if (obj instanceof Boolean) {
             out.writeByte(6);
             out.writeBoolean((Boolean) obj);
+        } else if (obj instanceof IdentifiedDataSerializable) {
+            final IdentifiedDataSerializable ds = (IdentifiedDataSerializable) obj;
+            out.writeByte(10);
+            out.writeInt(ds.getFactoryId());
+            out.writeInt(ds.getId());
+            ds.writeData(out);
         } else if (obj instanceof DataSerializable) {
             out.writeByte(7);
             out.writeUTF(obj.getClass().getName());
@@ -95,6 +101,11 @@ public class SerializationHelper {
             return ds;
         } else if (type == 8) {
             return new Date(in.readLong());
+        } else if (type == 10) {
+            final int factoryId = in.readInt();
+            final DataSerializable ds = DataSerializableFactories.newInstance(factoryId, in.readInt());
+            ds.readData(in);
+            return ds;
         } else if (type == 9) {
             int len = in.readInt();
             byte[] buf = new byte[len];
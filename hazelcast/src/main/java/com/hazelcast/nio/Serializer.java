@@ -112,6 +112,39 @@ public final class Serializer extends AbstractSerializer {
             bbos.writeUTF(toClassName(obj));
             obj.writeData(bbos);
         }
+
+        /**
+         * Writes the field table of the object before the object itself,
+         * see {@link IndexedFields}.
+         */
+        public final void writeIndexed(final FastByteArrayOutputStream bbos, final IndexedDataSerializable obj) throws Exception {
+            final int tableLengthPosition = bbos.getCount();
+            bbos.writeInt(0);
+            obj.writeIndexedFields(new IndexedFieldWriter(bbos));
+            bbos.writeInt(tableLengthPosition, bbos.getCount() - tableLengthPosition - 4);
+            write(bbos, obj);
+        }
+
+        public final DataSerializable readIndexed(final FastByteArrayInputStream bbis) throws Exception {
+            bbis.skipBytes(bbis.readInt());
+            return read(bbis);
+        }
+
+        /**
+         * Writes the ids of the factory and class of the object instead of its
+         * class name, see {@link DataSerializableFactories}.
+         */
+        public final void writeIdentified(final FastByteArrayOutputStream bbos, final IdentifiedDataSerializable obj) throws Exception {
+            bbos.writeInt(obj.getFactoryId());
+            bbos.writeInt(obj.getId());
+            obj.writeData(bbos);
+        }
+
+        public final DataSerializable readIdentified(final FastByteArrayInputStream bbis) throws Exception {
+            final IdentifiedDataSerializable ds = DataSerializableFactories.newInstance(bbis.readInt(), bbis.readInt());
+            ds.readData(bbis);
+            return ds;
+        }
     }
 }
 
@@ -31,12 +31,18 @@ public class SocketConnector implements Runnable {
     private final Address address;
     private final ILogger logger;
     private final boolean silent;
+    private final int lane;
 
     public SocketConnector(ConnectionManager connectionManager, Address address, boolean silent) {
+        this(connectionManager, address, silent, 0);
+    }
+
+    public SocketConnector(ConnectionManager connectionManager, Address address, boolean silent, int lane) {
         this.connectionManager = connectionManager;
         this.address = address;
         this.logger = connectionManager.ioService.getLogger(this.getClass().getName());
         this.silent = silent;
+        this.lane = lane;
     }
 
     public void run() {
@@ -44,6 +50,9 @@ public class SocketConnector implements Runnable {
             String message = "ConnectionManager is not live, connection attempt to " +
                              address + " is cancelled!";
             log(Level.FINEST, message);
+            if (lane > 0) {
+                connectionManager.failedLaneConnection(address, lane);
+            }
             return;
         }
         try {
@@ -85,7 +94,11 @@ public class SocketConnector implements Runnable {
             }
         } catch (Throwable e) {
             logger.log(Level.FINEST, e.getMessage(), e);
-            connectionManager.failedConnection(address, e, silent);
+            if (lane > 0) {
+                connectionManager.failedLaneConnection(address, lane);
+            } else {
+                connectionManager.failedConnection(address, e, silent);
+            }
         }
     }
 
@@ -116,7 +129,8 @@ public class SocketConnector implements Runnable {
             final SocketChannelWrapper socketChannelWrapper = connectionManager
                     .wrapSocketChannel(socketChannel, true);
             Connection connection = connectionManager.assignSocketChannel(socketChannelWrapper);
-            connectionManager.sendBindRequest(connection, address, true);
+            connection.setLane(lane);
+            connectionManager.sendBindRequest(connection, address, true, lane);
         } catch (Exception e) {
             closeSocket(socketChannel);
             final Level level = silent ? Level.FINEST : Level.INFO;
@@ -20,6 +20,7 @@ import com.hazelcast.logging.ILogger;
 
 import javax.crypto.Cipher;
 import javax.crypto.ShortBufferException;
+import java.io.EOFException;
 import java.nio.ByteBuffer;
 import java.util.logging.Level;
 
@@ -27,6 +28,8 @@ import static com.hazelcast.nio.IOUtil.copyToHeapBuffer;
 
 class SocketPacketReader implements SocketReader {
 
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
     Packet packet = null;
 
     final PacketReader packetReader;
@@ -62,6 +65,30 @@ class SocketPacketReader implements SocketReader {
         packetReader.readPacket(inBuffer);
     }
 
+    /**
+     * Reads the rest of a value larger than the read buffer straight from the channel
+     * into the packet, instead of copying it through the read buffer.
+     * Returns false if the packet being read has no such value left.
+     */
+    boolean readValueFromChannel() throws Exception {
+        if (packet == null || !(packetReader instanceof DefaultPacketReader)) {
+            return false;
+        }
+        final ByteBuffer valueBuffer = packet.getValueBufferToRead();
+        if (valueBuffer == null
+                || valueBuffer.remaining() < connection.getConnectionManager().SOCKET_RECEIVE_BUFFER_SIZE) {
+            return false;
+        }
+        if (socketChannel.read(valueBuffer) == -1) {
+            throw new EOFException();
+        }
+        if (packet.read(EMPTY_BUFFER)) {
+            enqueueFullPacket(packet);
+            packet = null;
+        }
+        return true;
+    }
+
     public void enqueueFullPacket(final Packet p) {
         p.flipBuffers();
         p.read();
@@ -71,7 +98,9 @@ class SocketPacketReader implements SocketReader {
             ioService.handleClientPacket(p);
         } else {
             connection.setType(Connection.Type.MEMBER);
-            ioService.handleMemberPacket(p);
+            if (!connection.holdPacket(p)) {
+                ioService.handleMemberPacket(p);
+            }
         }
     }
 
@@ -57,6 +57,13 @@ public class SocketPacketWriter implements SocketWriter<Packet> {
         return packetWriter.writePacket(socketWritable, socketBuffer);
     }
 
+    /**
+     * Packets can be written to the channel directly only when they are not encrypted.
+     */
+    boolean isGatheringSupported() {
+        return packetWriter instanceof DefaultPacketWriter;
+    }
+
     interface PacketWriter {
         boolean writePacket(Packet packet, ByteBuffer socketBB) throws Exception;
     }
@@ -119,6 +126,9 @@ public class SocketPacketWriter implements SocketWriter<Packet> {
             if (packet.getKey() != null && packet.getKey().size() > 0 && socketBB.hasRemaining()) {
                 packet.totalWritten += encryptAndWriteToSocket(packet.getKey().buffer, socketBB);
             }
+            if (packet.indexData != null && packet.indexData.size() > 0 && socketBB.hasRemaining()) {
+                packet.totalWritten += encryptAndWriteToSocket(packet.indexData.buffer, socketBB);
+            }
             if (packet.getValue() != null && packet.getValue().size() > 0 && socketBB.hasRemaining()) {
                 packet.totalWritten += encryptAndWriteToSocket(packet.getValue().buffer, socketBB);
             }
@@ -192,6 +202,9 @@ public class SocketPacketWriter implements SocketWriter<Packet> {
             if (packet.getKey() != null && packet.getKey().size() > 0 && socketBB.hasRemaining()) {
                 packet.totalWritten += encryptAndWriteToSocket(packet.getKey().buffer, socketBB);
             }
+            if (packet.indexData != null && packet.indexData.size() > 0 && socketBB.hasRemaining()) {
+                packet.totalWritten += encryptAndWriteToSocket(packet.indexData.buffer, socketBB);
+            }
             if (packet.getValue() != null && packet.getValue().size() > 0 && socketBB.hasRemaining()) {
                 packet.totalWritten += encryptAndWriteToSocket(packet.getValue().buffer, socketBB);
             }
@@ -24,6 +24,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -65,6 +66,25 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
 
     private boolean ready = false;
 
+    private boolean gatheringWrite = false;
+
+    private final int coalesceSize;
+
+    private final long coalesceNanos;
+
+    private long lastWriteNanos = 0;
+
+    private long coalesceStartNanos = 0;
+
+    private boolean flushScheduled = false;
+
+    private final Runnable flushTask = new Runnable() {
+        public void run() {
+            flushScheduled = false;
+            handle();
+        }
+    };
+
     private volatile SocketWritable lastWritable = null;
 
     private volatile SocketWriter socketWriter = null;
@@ -75,13 +95,21 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
 
     WriteHandler(Connection connection) {
         super(connection, connection.getInOutSelector());
-        socketBB = ByteBuffer.allocate(connectionManager.SOCKET_SEND_BUFFER_SIZE);
+        final int bufferSize = connectionManager.SOCKET_SEND_BUFFER_SIZE;
+        socketBB = connectionManager.SOCKET_SEND_BUFFER_DIRECT
+                ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+        coalesceSize = Math.min(connectionManager.SOCKET_WRITE_COALESCE_SIZE, bufferSize);
+        coalesceNanos = connectionManager.SOCKET_WRITE_COALESCE_NANOS;
     }
 
     public void setProtocol(String protocol) {
         if (socketWriter == null) {
             if ("HZC".equals(protocol)) {
-                socketWriter = new SocketPacketWriter(connection);
+                final SocketPacketWriter packetWriter = new SocketPacketWriter(connection);
+                // SSL channels do not support gathering writes
+                gatheringWrite = packetWriter.isGatheringSupported()
+                        && socketChannel.getClass() == DefaultSocketChannelWrapper.class;
+                socketWriter = packetWriter;
                 socketBB.put("HZC".getBytes());
                 inOutSelector.addTask(this);
             } else {
@@ -125,23 +153,37 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
         }
         if (!connection.live())
             return;
+        boolean holding = false;
         try {
             while (socketBB.hasRemaining()) {
                 if (lastWritable == null) {
                     lastWritable = poll();
                 }
-                if (lastWritable != null) {
+                if (lastWritable != null && isLargePacket(lastWritable)) {
+                    final boolean complete;
+                    socketBB.flip();
+                    try {
+                        complete = ((Packet) lastWritable).writeToSocketChannel(socketChannel, socketBB);
+                    } catch (Exception e) {
+                        lastWritable = null;
+                        handleSocketException(e);
+                        return;
+                    }
+                    if (socketBB.hasRemaining()) {
+                        socketBB.compact();
+                    } else {
+                        socketBB.clear();
+                    }
+                    if (complete) {
+                        onWritten(lastWritable);
+                        lastWritable = null;
+                    } else {
+                        break;
+                    }
+                } else if (lastWritable != null) {
                     boolean complete = socketWriter.write(lastWritable, socketBB);
                     if (complete) {
-                        if (lastWritable instanceof Packet) {
-                            Packet packet = (Packet) lastWritable;
-                            connection.releasePacket(packet);
-                            if (systemLogService.shouldTrace()) {
-                                systemLogService.trace(packet,
-                                        new SystemArgsLog("WrittenOut ",
-                                                connection.getEndPoint(), packet.operation));
-                            }
-                        }
+                        onWritten(lastWritable);
                         lastWritable = null;
                     } else {
                         if (socketBB.hasRemaining()) {
@@ -153,6 +195,12 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
                 }
             }
             if (socketBB.position() > 0) {
+                if (shouldCoalesce() && scheduleFlush()) {
+                    holding = true;
+                    return;
+                }
+                coalesceStartNanos = 0;
+                lastWriteNanos = System.nanoTime();
                 socketBB.flip();
                 try {
                     socketChannel.write(socketBB);
@@ -173,7 +221,77 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
                     "[" + connection.getEndPoint() + "]: " + t.getMessage());
         } finally {
             ready = false;
-            registerWrite();
+            if (!holding) {
+                registerWrite();
+            }
+        }
+    }
+
+    /**
+     * Holds back a small write, so the packets enqueued in the next few microseconds are
+     * written with the same system call. Only busy connections, which wrote within the
+     * coalescing window, wait; an idle connection writes right away.
+     */
+    private boolean shouldCoalesce() {
+        if (coalesceNanos == 0 || lastWritable != null || socketBB.position() >= coalesceSize) {
+            return false;
+        }
+        final long now = System.nanoTime();
+        if (coalesceStartNanos == 0) {
+            if (now - lastWriteNanos >= coalesceNanos) {
+                return false;
+            }
+            coalesceStartNanos = now;
+            return true;
+        }
+        return now - coalesceStartNanos < coalesceNanos;
+    }
+
+    /**
+     * Writes the held back buffer when the coalescing window ends. OP_WRITE is not registered
+     * meanwhile, as the writable socket would wake the selector up again right away; a packet
+     * enqueued in the window still re-runs this handler and may fill the byte budget first.
+     *
+     * @return false if the flush could not be scheduled, so the buffer has to be written now
+     */
+    private boolean scheduleFlush() {
+        if (flushScheduled) {
+            return true;
+        }
+        final long delay = coalesceStartNanos + coalesceNanos - System.nanoTime();
+        try {
+            connectionManager.ioService.schedule(new Runnable() {
+                public void run() {
+                    inOutSelector.addTask(flushTask);
+                    inOutSelector.selector.wakeup();
+                }
+            }, delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // the node is shutting down
+            return false;
+        }
+        flushScheduled = true;
+        return true;
+    }
+
+    /**
+     * Packets which do not fit into the socket buffer are written with a gathering write,
+     * so their key and value are not copied into the socket buffer.
+     */
+    private boolean isLargePacket(SocketWritable socketWritable) {
+        return gatheringWrite && socketWritable instanceof Packet
+                && ((Packet) socketWritable).totalSize > socketBB.capacity();
+    }
+
+    private void onWritten(SocketWritable socketWritable) {
+        if (socketWritable instanceof Packet) {
+            Packet packet = (Packet) socketWritable;
+            connection.releasePacket(packet);
+            if (systemLogService.shouldTrace()) {
+                systemLogService.trace(packet,
+                        new SystemArgsLog("WrittenOut ",
+                                connection.getEndPoint(), packet.operation));
+            }
         }
     }
 
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.core.MapEntry;
+
+import java.io.Serializable;
+
+/**
+ * Computes an aggregate over map entries. A copy of the aggregator is sent to
+ * every member, accumulates the matching entries owned by the member and is
+ * sent back as a partial result. Partial results are combined on the caller,
+ * so only the aggregators travel over the network, not the entries.
+ * <p/>
+ * Implementations keep their partial result in serializable fields.
+ *
+ * @param <R> type of the result
+ * @see Aggregators
+ * @see com.hazelcast.core.IMap#aggregate(Aggregator, Predicate)
+ */
+public interface Aggregator<K, V, R> extends Serializable {
+
+    /**
+     * Adds the entry to the partial result. Called on the member owning the entry.
+     *
+     * @param mapEntry entry to accumulate
+     */
+    void accumulate(MapEntry<K, V> mapEntry);
+
+    /**
+     * Adds the partial result of another copy of this aggregator.
+     * Called on the caller.
+     *
+     * @param partial aggregator holding a partial result
+     */
+    void combine(Aggregator<K, V, R> partial);
+
+    /**
+     * @return result of the entries accumulated and combined so far
+     */
+    R getResult();
+}
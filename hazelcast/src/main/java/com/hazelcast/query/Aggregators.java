@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.core.MapEntry;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.nio.IOUtil.toData;
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Built-in aggregators. Attributes are resolved like the attributes of
+ * {@link Predicates#get(String)}, <tt>null</tt> or <tt>"this"</tt> stands for
+ * the value itself. Entries with a <tt>null</tt> attribute are skipped.
+ * <p/>
+ * <pre>
+ *   Number total = employees.aggregate(Aggregators.sum("salary"), new SqlPredicate("active"));
+ *   Map&lt;Object, Double&gt; avgAgeByDept = employees.aggregate(
+ *           Aggregators.groupBy("department", Aggregators.avg("age")));
+ * </pre>
+ */
+public final class Aggregators {
+
+    private Aggregators() {
+    }
+
+    /**
+     * @return number of matching entries
+     */
+    public static <K, V> Aggregator<K, V, Long> count() {
+        return new CountAggregator<K, V>();
+    }
+
+    /**
+     * @return sum of the attribute as a <tt>Long</tt>, as a <tt>BigInteger</tt> if the sum
+     *         overflows or any of the values is a <tt>BigInteger</tt>, as a <tt>BigDecimal</tt>
+     *         if any of the values is a <tt>BigDecimal</tt>, or as a <tt>Double</tt> if any of
+     *         the values is a floating point number
+     */
+    public static <K, V> Aggregator<K, V, Number> sum(String attribute) {
+        return new SumAggregator<K, V>(attribute);
+    }
+
+    /**
+     * @return average of the attribute, <tt>null</tt> if there are no values
+     */
+    public static <K, V> Aggregator<K, V, Double> avg(String attribute) {
+        return new AvgAggregator<K, V>(attribute);
+    }
+
+    /**
+     * @return smallest value of the attribute, <tt>null</tt> if there are no values
+     */
+    public static <K, V> Aggregator<K, V, Comparable> min(String attribute) {
+        return new MinMaxAggregator<K, V>(attribute, false);
+    }
+
+    /**
+     * @return largest value of the attribute, <tt>null</tt> if there are no values
+     */
+    public static <K, V> Aggregator<K, V, Comparable> max(String attribute) {
+        return new MinMaxAggregator<K, V>(attribute, true);
+    }
+
+    /**
+     * Groups the entries by the attribute and aggregates each group with a copy
+     * of the given aggregator.
+     *
+     * @return results of the aggregator by attribute value
+     */
+    public static <K, V, R> Aggregator<K, V, Map<Object, R>> groupBy(String attribute, Aggregator<K, V, R> aggregator) {
+        return new GroupByAggregator<K, V, R>(attribute, aggregator);
+    }
+
+    abstract static class AttributeAggregator<K, V, R> implements Aggregator<K, V, R> {
+        final String attribute;
+        transient Expression expression;
+
+        AttributeAggregator(String attribute) {
+            this.attribute = attribute;
+        }
+
+        Object getAttribute(MapEntry<K, V> mapEntry) {
+            if (attribute == null) {
+                return mapEntry.getValue();
+            }
+            if (expression == null) {
+                expression = Predicates.get(attribute);
+            }
+            return expression.getValue(mapEntry);
+        }
+    }
+
+    static class CountAggregator<K, V> implements Aggregator<K, V, Long> {
+        long count;
+
+        public void accumulate(MapEntry<K, V> mapEntry) {
+            count++;
+        }
+
+        public void combine(Aggregator<K, V, Long> partial) {
+            count += ((CountAggregator) partial).count;
+        }
+
+        public Long getResult() {
+            return count;
+        }
+    }
+
+    static class SumAggregator<K, V> extends AttributeAggregator<K, V, Number> {
+        long longSum;
+        double doubleSum;
+        // sum of the BigDecimal and BigInteger values and of the long sums which overflowed
+        BigDecimal bigSum;
+        boolean floating;
+        boolean decimal;
+
+        SumAggregator(String attribute) {
+            super(attribute);
+        }
+
+        public void accumulate(MapEntry<K, V> mapEntry) {
+            Object value = getAttribute(mapEntry);
+            if (value instanceof Long || value instanceof Integer || value instanceof Short
+                    || value instanceof Byte || value instanceof AtomicLong || value instanceof AtomicInteger) {
+                addLong(((Number) value).longValue());
+            } else if (value instanceof BigInteger) {
+                addBig(new BigDecimal((BigInteger) value));
+            } else if (value instanceof BigDecimal) {
+                addBig((BigDecimal) value);
+                decimal = true;
+            } else if (value instanceof Number) {
+                doubleSum += ((Number) value).doubleValue();
+                floating = true;
+            }
+        }
+
+        private void addLong(long value) {
+            final long sum = longSum + value;
+            if (((longSum ^ sum) & (value ^ sum)) < 0) {
+                // overflow, the long sum is carried over to the big sum
+                addBig(BigDecimal.valueOf(longSum));
+                longSum = value;
+            } else {
+                longSum = sum;
+            }
+        }
+
+        private void addBig(BigDecimal value) {
+            bigSum = (bigSum == null) ? value : bigSum.add(value);
+        }
+
+        public void combine(Aggregator<K, V, Number> partial) {
+            SumAggregator other = (SumAggregator) partial;
+            addLong(other.longSum);
+            if (other.bigSum != null) {
+                addBig(other.bigSum);
+            }
+            doubleSum += other.doubleSum;
+            floating |= other.floating;
+            decimal |= other.decimal;
+        }
+
+        public Number getResult() {
+            if (floating) {
+                return (bigSum == null) ? longSum + doubleSum
+                        : bigSum.add(BigDecimal.valueOf(longSum)).doubleValue() + doubleSum;
+            }
+            if (bigSum == null) {
+                return longSum;
+            }
+            final BigDecimal sum = bigSum.add(BigDecimal.valueOf(longSum));
+            return decimal ? sum : sum.toBigInteger();
+        }
+    }
+
+    static class AvgAggregator<K, V> extends AttributeAggregator<K, V, Double> {
+        double sum;
+        long count;
+
+        AvgAggregator(String attribute) {
+            super(attribute);
+        }
+
+        public void accumulate(MapEntry<K, V> mapEntry) {
+            Object value = getAttribute(mapEntry);
+            if (value instanceof Number) {
+                sum += ((Number) value).doubleValue();
+                count++;
+            }
+        }
+
+        public void combine(Aggregator<K, V, Double> partial) {
+            AvgAggregator other = (AvgAggregator) partial;
+            sum += other.sum;
+            count += other.count;
+        }
+
+        public Double getResult() {
+            return (count == 0) ? null : sum / count;
+        }
+    }
+
+    static class MinMaxAggregator<K, V> extends AttributeAggregator<K, V, Comparable> {
+        final boolean max;
+        Comparable value;
+
+        MinMaxAggregator(String attribute, boolean max) {
+            super(attribute);
+            this.max = max;
+        }
+
+        public void accumulate(MapEntry<K, V> mapEntry) {
+            offer((Comparable) getAttribute(mapEntry));
+        }
+
+        public void combine(Aggregator<K, V, Comparable> partial) {
+            offer(((MinMaxAggregator) partial).value);
+        }
+
+        private void offer(Comparable candidate) {
+            if (candidate == null) {
+                return;
+            }
+            if (value == null) {
+                value = candidate;
+            } else {
+                int compare = candidate.compareTo(value);
+                if (max ? compare > 0 : compare < 0) {
+                    value = candidate;
+                }
+            }
+        }
+
+        public Comparable getResult() {
+            return value;
+        }
+    }
+
+    static class GroupByAggregator<K, V, R> extends AttributeAggregator<K, V, Map<Object, R>> {
+        final Aggregator<K, V, R> aggregator;
+        final Map<Object, Aggregator<K, V, R>> groups = new HashMap<Object, Aggregator<K, V, R>>();
+
+        GroupByAggregator(String attribute, Aggregator<K, V, R> aggregator) {
+            super(attribute);
+            this.aggregator = aggregator;
+        }
+
+        public void accumulate(MapEntry<K, V> mapEntry) {
+            Object group = getAttribute(mapEntry);
+            if (group == null) {
+                return;
+            }
+            Aggregator<K, V, R> groupAggregator = groups.get(group);
+            if (groupAggregator == null) {
+                groupAggregator = (Aggregator<K, V, R>) toObject(toData(aggregator));
+                groups.put(group, groupAggregator);
+            }
+            groupAggregator.accumulate(mapEntry);
+        }
+
+        public void combine(Aggregator<K, V, Map<Object, R>> partial) {
+            Map<Object, Aggregator<K, V, R>> otherGroups = ((GroupByAggregator<K, V, R>) partial).groups;
+            for (Map.Entry<Object, Aggregator<K, V, R>> entry : otherGroups.entrySet()) {
+                Aggregator<K, V, R> groupAggregator = groups.get(entry.getKey());
+                if (groupAggregator == null) {
+                    groups.put(entry.getKey(), entry.getValue());
+                } else {
+                    groupAggregator.combine(entry.getValue());
+                }
+            }
+        }
+
+        public Map<Object, R> getResult() {
+            Map<Object, R> results = new HashMap<Object, R>(groups.size());
+            for (Map.Entry<Object, Aggregator<K, V, R>> entry : groups.entrySet()) {
+                results.put(entry.getKey(), entry.getValue().getResult());
+            }
+            return results;
+        }
+    }
+}
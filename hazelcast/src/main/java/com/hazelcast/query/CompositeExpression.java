@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.nio.DataSerializable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Expression of a composite index, the values of several attributes in the given order.
+ * Created for comma separated index attributes:
+ * <pre>
+ *   imap.addIndex("customerId, status", false);
+ *   imap.addIndex("region, createdAt", true);
+ * </pre>
+ * Conjunctions of predicates on the attributes are answered with a single lookup:
+ * equality on all the attributes, or, for ordered indexes, equality on the leading
+ * attributes and optionally a range or a <tt>LIKE</tt> prefix on the following one.
+ */
+public class CompositeExpression extends Predicates.AbstractExpression implements DataSerializable {
+    private Expression[] components;
+
+    public CompositeExpression() {
+    }
+
+    public CompositeExpression(String... attributes) {
+        if (attributes.length < 2) {
+            throw new IllegalArgumentException("Composite index needs at least two attributes!");
+        }
+        components = new Expression[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            components[i] = Predicates.get(attributes[i].trim());
+        }
+    }
+
+    public Object getValue(Object obj) {
+        final Object[] values = new Object[components.length];
+        for (int i = 0; i < components.length; i++) {
+            values[i] = components[i].getValue(obj);
+        }
+        return new CompositeValue(values);
+    }
+
+    Expression[] getComponents() {
+        return components;
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeInt(components.length);
+        for (Expression component : components) {
+            writeObject(out, component);
+        }
+    }
+
+    public void readData(DataInput in) throws IOException {
+        components = new Expression[in.readInt()];
+        for (int i = 0; i < components.length; i++) {
+            components[i] = (Expression) readObject(in);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompositeExpression)) return false;
+        CompositeExpression that = (CompositeExpression) o;
+        return Arrays.equals(components, that.components);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(components);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < components.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(components[i]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.core.MapEntry;
+import com.hazelcast.query.Predicates.BetweenPredicate;
+import com.hazelcast.query.Predicates.EqualPredicate;
+import com.hazelcast.query.Predicates.GreaterLessPredicate;
+import com.hazelcast.query.Predicates.LikePredicate;
+
+import java.util.*;
+
+import static com.hazelcast.query.CompositeValue.NEGATIVE_INFINITY;
+import static com.hazelcast.query.CompositeValue.POSITIVE_INFINITY;
+
+/**
+ * Predicates of a conjunction answered by a single lookup on a composite index:
+ * equality on the leading attributes of the index and optionally a range or
+ * a <tt>LIKE</tt> prefix on the following attribute.
+ * <p/>
+ * Only created by the owner while querying, never serialized.
+ */
+class CompositeIndexPredicate implements IndexAwarePredicate {
+    private final Index index;
+    private final EqualPredicate[] equalities;
+    private final Predicate range;
+
+    private CompositeIndexPredicate(Index index, EqualPredicate[] equalities, Predicate range) {
+        this.index = index;
+        this.equalities = equalities;
+        this.range = range;
+    }
+
+    /**
+     * Replaces the predicates covered by the best matching composite index.
+     *
+     * @param conjuncts  predicates of a conjunction
+     * @param mapIndexes indexes of the map
+     * @return the predicates to evaluate instead of the conjuncts,
+     *         <tt>null</tt> if no composite index matches
+     */
+    static Predicate[] plan(List<Predicate> conjuncts, Map<Expression, Index> mapIndexes) {
+        Map<Expression, EqualPredicate> equalities = null;
+        Map<Expression, Predicate> ranges = null;
+        for (Index index : mapIndexes.values()) {
+            if (!(index.getExpression() instanceof CompositeExpression)) {
+                continue;
+            }
+            if (equalities == null) {
+                equalities = new HashMap<Expression, EqualPredicate>();
+                ranges = new HashMap<Expression, Predicate>();
+                collectCandidates(conjuncts, equalities, ranges);
+            }
+        }
+        if (equalities == null || (equalities.isEmpty() && ranges.isEmpty())) {
+            return null;
+        }
+        CompositeIndexPredicate best = null;
+        int bestScore = 0;
+        for (Index index : mapIndexes.values()) {
+            if (!(index.getExpression() instanceof CompositeExpression)) {
+                continue;
+            }
+            final Expression[] components = ((CompositeExpression) index.getExpression()).getComponents();
+            int matched = 0;
+            while (matched < components.length && equalities.containsKey(components[matched])) {
+                matched++;
+            }
+            final boolean complete = matched == components.length;
+            if (!complete && !index.isOrdered()) {
+                continue;
+            }
+            Predicate range = complete ? null : ranges.get(components[matched]);
+            if (range instanceof LikePredicate && !(index.getComponentSample(matched) instanceof String)) {
+                range = null;
+            }
+            final int score = matched + (range != null ? 1 : 0);
+            if (score == 0 || (score == 1 && mapIndexes.containsKey(components[0]))) {
+                // a single attribute index does the same
+                continue;
+            }
+            if (score > bestScore || (score == bestScore && complete)) {
+                final EqualPredicate[] matchedEqualities = new EqualPredicate[matched];
+                for (int i = 0; i < matched; i++) {
+                    matchedEqualities[i] = equalities.get(components[i]);
+                }
+                best = new CompositeIndexPredicate(index, matchedEqualities, range);
+                bestScore = score;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        final List<Predicate> planned = new ArrayList<Predicate>(conjuncts.size());
+        planned.add(best);
+        for (Predicate conjunct : conjuncts) {
+            if (!best.covers(conjunct)) {
+                planned.add(conjunct);
+            }
+        }
+        return planned.toArray(new Predicate[planned.size()]);
+    }
+
+    private static void collectCandidates(List<Predicate> conjuncts, Map<Expression, EqualPredicate> equalities,
+                                          Map<Expression, Predicate> ranges) {
+        for (Predicate conjunct : conjuncts) {
+            if (conjunct instanceof EqualPredicate) {
+                final EqualPredicate p = (EqualPredicate) conjunct;
+                if (p.secondIsExpression || !(p.first instanceof Predicates.GetExpression)) {
+                    continue;
+                }
+                if (p.getClass() == EqualPredicate.class) {
+                    if (!equalities.containsKey(p.first)) {
+                        equalities.put(p.first, p);
+                    }
+                } else if (p instanceof GreaterLessPredicate || p instanceof BetweenPredicate) {
+                    if (!ranges.containsKey(p.first)) {
+                        ranges.put(p.first, p);
+                    }
+                }
+            } else if (conjunct instanceof LikePredicate) {
+                final LikePredicate p = (LikePredicate) conjunct;
+                if (p.first instanceof Predicates.GetExpression && p.getPrefix().length() > 0
+                        && !ranges.containsKey(p.first)) {
+                    ranges.put(p.first, p);
+                }
+            }
+        }
+    }
+
+    private boolean covers(Predicate predicate) {
+        if (predicate == range) {
+            return true;
+        }
+        for (EqualPredicate equality : equalities) {
+            if (predicate == equality) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean apply(MapEntry mapEntry) {
+        for (EqualPredicate equality : equalities) {
+            if (!equality.apply(mapEntry)) {
+                return false;
+            }
+        }
+        return range == null || range.apply(mapEntry);
+    }
+
+    public boolean collectIndexAwarePredicates(List<IndexAwarePredicate> lsIndexAwarePredicates, Map<Expression, Index> mapIndexes) {
+        lsIndexAwarePredicates.add(this);
+        if (range instanceof LikePredicate) {
+            final LikePredicate like = (LikePredicate) range;
+            final String prefix = like.getPrefix();
+            return like.second.equals(prefix) || like.second.equals(prefix + "%");
+        }
+        return true;
+    }
+
+    public void collectAppliedIndexes(Set<Index> setAppliedIndexes, Map<Expression, Index> mapIndexes) {
+        setAppliedIndexes.add(index);
+    }
+
+    public boolean isIndexed(QueryContext queryContext) {
+        return true;
+    }
+
+    public Set<MapEntry> filter(QueryContext queryContext) {
+        final int matched = equalities.length;
+        final Object[] prefix = new Object[matched];
+        for (int i = 0; i < matched; i++) {
+            prefix[i] = index.getComponentValue(i, equalities[i].second);
+        }
+        if (matched == ((CompositeExpression) index.getExpression()).getComponents().length) {
+            return index.getRecords(new CompositeValue(prefix));
+        }
+        final CompositeValue from;
+        final CompositeValue to;
+        if (range == null) {
+            from = bound(prefix, NEGATIVE_INFINITY);
+            to = bound(prefix, POSITIVE_INFINITY);
+        } else if (range instanceof GreaterLessPredicate) {
+            final GreaterLessPredicate p = (GreaterLessPredicate) range;
+            final Object value = index.getComponentValue(matched, p.second);
+            if (p.less) {
+                // null values are not in any range
+                from = bound(prefix, null, POSITIVE_INFINITY);
+                to = bound(prefix, value, p.equal ? POSITIVE_INFINITY : NEGATIVE_INFINITY);
+            } else {
+                from = bound(prefix, value, p.equal ? NEGATIVE_INFINITY : POSITIVE_INFINITY);
+                to = bound(prefix, POSITIVE_INFINITY);
+            }
+        } else if (range instanceof BetweenPredicate) {
+            final BetweenPredicate p = (BetweenPredicate) range;
+            from = bound(prefix, index.getComponentValue(matched, p.second), NEGATIVE_INFINITY);
+            to = bound(prefix, index.getComponentValue(matched, p.to), POSITIVE_INFINITY);
+        } else {
+            final LikePredicate p = (LikePredicate) range;
+            final String likePrefix = p.getPrefix();
+            from = bound(prefix, likePrefix, NEGATIVE_INFINITY);
+            if (p.second.equals(likePrefix)) {
+                to = bound(prefix, likePrefix, POSITIVE_INFINITY);
+            } else {
+                to = bound(prefix, likePrefix + Character.MAX_VALUE, POSITIVE_INFINITY);
+            }
+        }
+        return index.getSubRecordsBetween(from, to);
+    }
+
+    private static CompositeValue bound(Object[] prefix, Object... components) {
+        final Object[] bound = new Object[prefix.length + components.length];
+        System.arraycopy(prefix, 0, bound, 0, prefix.length);
+        System.arraycopy(components, 0, bound, prefix.length, components.length);
+        return new CompositeValue(bound);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < equalities.length; i++) {
+            if (i > 0) {
+                sb.append(" AND ");
+            }
+            sb.append(equalities[i]);
+        }
+        if (range != null) {
+            sb.append(equalities.length > 0 ? " AND " : "").append(range);
+        }
+        return sb.append(" USING ").append(index.getExpression()).append(")").toString();
+    }
+}
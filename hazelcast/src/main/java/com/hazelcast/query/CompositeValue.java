@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import java.util.Arrays;
+
+/**
+ * Index value of a composite index. Values are ordered by their components, <tt>null</tt>
+ * components first. Values with fewer components are used as range bounds and are
+ * ordered before the values they are a prefix of, unless their last component
+ * is {@link #POSITIVE_INFINITY}.
+ */
+final class CompositeValue implements Comparable<CompositeValue> {
+
+    static final Object NEGATIVE_INFINITY = new Object() {
+        public String toString() {
+            return "-INF";
+        }
+    };
+
+    static final Object POSITIVE_INFINITY = new Object() {
+        public String toString() {
+            return "+INF";
+        }
+    };
+
+    private final Object[] components;
+    private final boolean comparable;
+
+    CompositeValue(Object[] components) {
+        boolean allComparable = true;
+        for (int i = 0; i < components.length; i++) {
+            Object component = components[i];
+            if (component != null && !(component instanceof Comparable)
+                    && component != NEGATIVE_INFINITY && component != POSITIVE_INFINITY) {
+                components[i] = component.hashCode();
+                allComparable = false;
+            }
+        }
+        this.components = components;
+        this.comparable = allComparable;
+    }
+
+    /**
+     * @param components components as read from the {@link IndexValues} of a record
+     * @param comparable false if some of the components are hash codes
+     */
+    CompositeValue(Object[] components, boolean comparable) {
+        this.components = components;
+        this.comparable = comparable;
+    }
+
+    Object[] getComponents() {
+        return components;
+    }
+
+    /**
+     * @return false if some of the components are not comparable and are
+     *         represented by their hash codes
+     */
+    boolean isComparable() {
+        return comparable;
+    }
+
+    public int compareTo(CompositeValue other) {
+        final Object[] otherComponents = other.components;
+        final int length = Math.min(components.length, otherComponents.length);
+        for (int i = 0; i < length; i++) {
+            int result = compareComponents(components[i], otherComponents[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        if (components.length == otherComponents.length) {
+            return 0;
+        } else if (components.length > otherComponents.length) {
+            return components[length] == NEGATIVE_INFINITY ? -1 : 1;
+        } else {
+            return otherComponents[length] == NEGATIVE_INFINITY ? 1 : -1;
+        }
+    }
+
+    private static int compareComponents(Object c1, Object c2) {
+        if (c1 == c2) {
+            return 0;
+        } else if (c1 == NEGATIVE_INFINITY || c2 == POSITIVE_INFINITY) {
+            return -1;
+        } else if (c1 == POSITIVE_INFINITY || c2 == NEGATIVE_INFINITY) {
+            return 1;
+        } else if (c1 == null) {
+            return -1;
+        } else if (c2 == null) {
+            return 1;
+        }
+        return IndexValueComparator.INSTANCE.compare(c1, c2);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompositeValue)) return false;
+        return Arrays.equals(components, ((CompositeValue) o).components);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(components);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(components);
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.EntryListener;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MapEntry;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Local, read-only view of the entries of a distributed map matching a predicate.
+ * The view is populated with a query and then kept up to date by the entry events
+ * of the map, so reads are local memory lookups which lag behind the map at most
+ * by the event delivery delay. The events are filtered by the owners of the entries
+ * with {@link IMap#addEntryListener(EntryListener, Predicate, boolean)}, so only the
+ * updates of the entries entering, staying in or leaving the view are delivered.
+ * <p/>
+ * <pre>
+ *   ContinuousQueryCache&lt;String, Instrument&gt; instruments =
+ *           new ContinuousQueryCache&lt;String, Instrument&gt;(map, new SqlPredicate("active and venue = 'X'"));
+ *   instruments.addIndex("currency");
+ *   Collection&lt;Instrument&gt; euro = instruments.values(new SqlPredicate("currency = 'EUR'"));
+ * </pre>
+ * The view has to be destroyed when it is not needed anymore, to remove its listener.
+ */
+public class ContinuousQueryCache<K, V> extends AbstractMap<K, V> {
+
+    private final IMap<K, V> map;
+    private final Predicate predicate;
+    private final ConcurrentMap<K, V> entries = new ConcurrentHashMap<K, V>();
+    private final ConcurrentMap<Expression, ConcurrentMap<Object, ConcurrentMap<K, Boolean>>> indexes =
+            new ConcurrentHashMap<Expression, ConcurrentMap<Object, ConcurrentMap<K, Boolean>>>();
+    private final EntryListener<K, V> listener = new CacheUpdater();
+    // events received while (re)populating, guarded by this
+    private List<CachedEntry<K, V>> pendingUpdates = null;
+
+    public ContinuousQueryCache(IMap<K, V> map, Predicate predicate) {
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Paging predicates are not supported!");
+        }
+        this.map = map;
+        this.predicate = predicate;
+        synchronized (this) {
+            pendingUpdates = new ArrayList<CachedEntry<K, V>>();
+        }
+        if (predicate == null) {
+            map.addEntryListener(listener, true);
+        } else {
+            map.addEntryListener(listener, predicate, true);
+        }
+        populate();
+    }
+
+    /**
+     * Reloads the view from the map, for instance after members left the
+     * cluster and events may have been lost.
+     */
+    public void refresh() {
+        synchronized (this) {
+            pendingUpdates = new ArrayList<CachedEntry<K, V>>();
+        }
+        populate();
+    }
+
+    private void populate() {
+        final Set<Map.Entry<K, V>> snapshot = (predicate == null) ? map.entrySet() : map.entrySet(predicate);
+        synchronized (this) {
+            for (K key : entries.keySet()) {
+                evict(key);
+            }
+            for (Map.Entry<K, V> entry : snapshot) {
+                store(entry.getKey(), entry.getValue());
+            }
+            for (CachedEntry<K, V> update : pendingUpdates) {
+                apply(update);
+            }
+            pendingUpdates = null;
+        }
+    }
+
+    /**
+     * Stops updating the view and clears it.
+     */
+    public void destroy() {
+        map.removeEntryListener(listener);
+        synchronized (this) {
+            entries.clear();
+            indexes.clear();
+        }
+    }
+
+    /**
+     * Adds a local hash index on the attribute, which is used by the queries
+     * of this view having an equality condition on the attribute.
+     *
+     * @param attribute attribute of the values, like in {@link Predicates#get(String)}
+     */
+    public synchronized void addIndex(String attribute) {
+        final Expression expression = Predicates.get(attribute);
+        if (indexes.containsKey(expression)) {
+            return;
+        }
+        final ConcurrentMap<Object, ConcurrentMap<K, Boolean>> index = new ConcurrentHashMap<Object, ConcurrentMap<K, Boolean>>();
+        for (Map.Entry<K, V> entry : entries.entrySet()) {
+            addToIndex(index, expression, entry.getKey(), entry.getValue());
+        }
+        indexes.put(expression, index);
+    }
+
+    public Set<K> keySet(Predicate predicate) {
+        return query(predicate).keySet();
+    }
+
+    public Collection<V> values(Predicate predicate) {
+        return query(predicate).values();
+    }
+
+    public Set<Map.Entry<K, V>> entrySet(Predicate predicate) {
+        return query(predicate).entrySet();
+    }
+
+    private Map<K, V> query(Predicate predicate) {
+        final Map<K, V> results = new HashMap<K, V>();
+        final Collection<K> candidates = getIndexedCandidates(predicate);
+        for (K key : (candidates == null) ? entries.keySet() : candidates) {
+            final V value = entries.get(key);
+            if (value != null && predicate.apply(new CachedEntry<K, V>(key, value))) {
+                results.put(key, value);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return keys of the smallest index bucket matching an equality condition
+     *         of the predicate, or <tt>null</tt> if no index can be used
+     */
+    private Collection<K> getIndexedCandidates(Predicate predicate) {
+        if (indexes.isEmpty()) {
+            return null;
+        }
+        final List<Predicate> conjuncts = new ArrayList<Predicate>();
+        collectConjuncts(predicate, conjuncts);
+        Collection<K> candidates = null;
+        for (Predicate conjunct : conjuncts) {
+            if (conjunct.getClass() != Predicates.EqualPredicate.class) {
+                continue;
+            }
+            final Predicates.EqualPredicate equalPredicate = (Predicates.EqualPredicate) conjunct;
+            final ConcurrentMap<Object, ConcurrentMap<K, Boolean>> index = indexes.get(equalPredicate.first);
+            if (index == null || equalPredicate.secondIsExpression || equalPredicate.second == null) {
+                continue;
+            }
+            final Iterator<Object> it = index.keySet().iterator();
+            if (!it.hasNext()) {
+                return Collections.emptySet();
+            }
+            final Object value = Predicates.EqualPredicate.getConvertedRealValue(it.next(), equalPredicate.second);
+            final ConcurrentMap<K, Boolean> bucket = index.get(value);
+            if (bucket == null) {
+                return Collections.emptySet();
+            }
+            if (candidates == null || bucket.size() < candidates.size()) {
+                candidates = bucket.keySet();
+            }
+        }
+        return candidates;
+    }
+
+    private static void collectConjuncts(Predicate predicate, List<Predicate> conjuncts) {
+        if (predicate instanceof SqlPredicate) {
+            collectConjuncts(((SqlPredicate) predicate).getPredicate(), conjuncts);
+        } else if (predicate instanceof PredicateBuilder) {
+            collectConjuncts(((PredicateBuilder) predicate).lsPredicates.get(0), conjuncts);
+        } else if (predicate instanceof Predicates.AndOrPredicate && ((Predicates.AndOrPredicate) predicate).and) {
+            ((Predicates.AndOrPredicate) predicate).collectConjuncts(conjuncts);
+        } else if (predicate != null) {
+            conjuncts.add(predicate);
+        }
+    }
+
+    private void store(K key, V value) {
+        final V oldValue = entries.put(key, value);
+        for (Map.Entry<Expression, ConcurrentMap<Object, ConcurrentMap<K, Boolean>>> index : indexes.entrySet()) {
+            if (oldValue != null) {
+                removeFromIndex(index.getValue(), index.getKey(), key, oldValue);
+            }
+            addToIndex(index.getValue(), index.getKey(), key, value);
+        }
+    }
+
+    private void evict(K key) {
+        final V oldValue = entries.remove(key);
+        if (oldValue != null) {
+            for (Map.Entry<Expression, ConcurrentMap<Object, ConcurrentMap<K, Boolean>>> index : indexes.entrySet()) {
+                removeFromIndex(index.getValue(), index.getKey(), key, oldValue);
+            }
+        }
+    }
+
+    private void addToIndex(ConcurrentMap<Object, ConcurrentMap<K, Boolean>> index, Expression expression, K key, V value) {
+        final Object attribute = expression.getValue(new CachedEntry<K, V>(key, value));
+        if (attribute != null) {
+            ConcurrentMap<K, Boolean> bucket = index.get(attribute);
+            if (bucket == null) {
+                bucket = new ConcurrentHashMap<K, Boolean>();
+                index.put(attribute, bucket);
+            }
+            bucket.put(key, Boolean.TRUE);
+        }
+    }
+
+    private void removeFromIndex(ConcurrentMap<Object, ConcurrentMap<K, Boolean>> index, Expression expression, K key, V value) {
+        final Object attribute = expression.getValue(new CachedEntry<K, V>(key, value));
+        if (attribute != null) {
+            final ConcurrentMap<K, Boolean> bucket = index.get(attribute);
+            if (bucket != null) {
+                bucket.remove(key);
+                if (bucket.isEmpty()) {
+                    index.remove(attribute);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param update key with the new value, or with <tt>null</tt> if the key
+     *               left the view
+     */
+    private synchronized void update(CachedEntry<K, V> update) {
+        if (pendingUpdates != null) {
+            pendingUpdates.add(update);
+        } else {
+            apply(update);
+        }
+    }
+
+    private void apply(CachedEntry<K, V> update) {
+        if (update.value == null) {
+            evict(update.key);
+        } else {
+            store(update.key, update.value);
+        }
+    }
+
+    @Override
+    public V get(Object key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return Collections.unmodifiableMap(entries).entrySet();
+    }
+
+    private class CacheUpdater implements EntryListener<K, V> {
+        public void entryAdded(EntryEvent<K, V> event) {
+            entryUpdated(event);
+        }
+
+        /**
+         * The owner sends the update if the old or the new value matches, the new value
+         * decides whether the entry enters or stays in the view, or leaves it.
+         */
+        public void entryUpdated(EntryEvent<K, V> event) {
+            final CachedEntry<K, V> entry = new CachedEntry<K, V>(event.getKey(), event.getValue());
+            if (entry.value == null || predicate == null || predicate.apply(entry)) {
+                update(entry);
+            } else {
+                update(new CachedEntry<K, V>(entry.key, null));
+            }
+        }
+
+        public void entryRemoved(EntryEvent<K, V> event) {
+            update(new CachedEntry<K, V>(event.getKey(), null));
+        }
+
+        public void entryEvicted(EntryEvent<K, V> event) {
+            entryRemoved(event);
+        }
+    }
+
+    private static class CachedEntry<K, V> implements MapEntry<K, V> {
+        final K key;
+        final V value;
+
+        CachedEntry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        public long getCost() {
+            return 0;
+        }
+
+        public long getCreationTime() {
+            return 0;
+        }
+
+        public long getExpirationTime() {
+            return Long.MAX_VALUE;
+        }
+
+        public int getHits() {
+            return 0;
+        }
+
+        public long getLastAccessTime() {
+            return 0;
+        }
+
+        public long getLastStoredTime() {
+            return 0;
+        }
+
+        public long getLastUpdateTime() {
+            return 0;
+        }
+
+        public long getVersion() {
+            return 0;
+        }
+
+        public boolean isValid() {
+            return true;
+        }
+    }
+}
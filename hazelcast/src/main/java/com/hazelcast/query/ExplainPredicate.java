@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.core.MapEntry;
+import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.nio.SerializationHelper;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Queries the entries matching the predicate and collects the {@link QueryPlan}
+ * of every member: the indexes used, the number of entries selected by the
+ * indexes and returned, and the time spent.
+ * <p/>
+ * <pre>
+ *   ExplainPredicate explain = new ExplainPredicate(new SqlPredicate("active AND age &lt; 30"));
+ *   Collection&lt;Employee&gt; employees = map.values(explain);
+ *   for (QueryPlan plan : explain.getQueryPlans()) {
+ *       System.out.println(plan);
+ *   }
+ * </pre>
+ * Plans are collected by members only, queries of clients return no plans.
+ * An explain predicate is not thread-safe.
+ */
+public class ExplainPredicate implements Predicate, DataSerializable {
+
+    private Predicate predicate;
+    private final List<QueryPlan> queryPlans = new ArrayList<QueryPlan>();
+
+    public ExplainPredicate() {
+    }
+
+    public ExplainPredicate(Predicate predicate) {
+        if (predicate instanceof PagingPredicate || predicate instanceof ExplainPredicate) {
+            throw new IllegalArgumentException("Paging and explain predicates cannot be explained!");
+        }
+        this.predicate = predicate;
+    }
+
+    public boolean apply(MapEntry mapEntry) {
+        return predicate == null || predicate.apply(mapEntry);
+    }
+
+    public Predicate getPredicate() {
+        return predicate;
+    }
+
+    /**
+     * @return plans of the members which executed the last query
+     */
+    public List<QueryPlan> getQueryPlans() {
+        return new ArrayList<QueryPlan>(queryPlans);
+    }
+
+    public void addQueryPlan(QueryPlan queryPlan) {
+        queryPlans.add(queryPlan);
+    }
+
+    public void clearQueryPlans() {
+        queryPlans.clear();
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        SerializationHelper.writeObject(out, predicate);
+    }
+
+    public void readData(DataInput in) throws IOException {
+        predicate = (Predicate) SerializationHelper.readObject(in);
+    }
+
+    @Override
+    public String toString() {
+        return "EXPLAIN " + predicate;
+    }
+}
@@ -19,22 +19,45 @@ package com.hazelcast.query;
 import com.hazelcast.core.MapEntry;
 import com.hazelcast.impl.Record;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Date;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Index {
+    /**
+     * Index value of the entries whose attribute is <tt>null</tt>. Kept apart
+     * from the ordered values, it matches only equal and not-equal lookups.
+     */
+    static final Comparable NULL = new NullValue();
+
     // recordId -- indexValue
-    private final ConcurrentMap<Long, Long> recordValues = new ConcurrentHashMap<Long, Long>(100, 0.75f, 1);
+    private final ConcurrentMap<Long, Comparable> recordValues = new ConcurrentHashMap<Long, Comparable>(100, 0.75f, 1);
     // indexValue -- Map<recordId, Record>
     private final IndexStore indexStore;
     private final Expression expression;
     private final boolean ordered;
     private final int attributeIndex;
     private volatile byte returnType = -1;
+    // false while the type is only the declared type of the attribute
+    private volatile boolean returnTypeObserved = false;
+    // false if values were stored before the index turned to values of mixed types
+    private volatile boolean canonicalStore = true;
     volatile boolean strong = false;
-    volatile boolean checkedStrength = false;
+    private volatile Comparable sampleValue = null;
+    // class of the values of an enum index, to look up constants given by name
+    private volatile Class enumClass = null;
+    // first non-null component values of a composite index
+    private volatile Object[] componentSamples = null;
+    // lookup statistics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong rangeScans = new AtomicLong();
+    private final AtomicLong returnedEntries = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
 
     private static final int TYPE_STRING = 101;
     private static final int TYPE_INT = 102;
@@ -45,8 +68,13 @@ public class Index {
     private static final int TYPE_BYTE = 107;
     private static final int TYPE_CHAR = 108;
     private static final int TYPE_DATE = 109;
+    private static final int TYPE_ENUM = 110;
+    private static final int TYPE_BIG_DECIMAL = 111;
     private static final int TYPE_UNKNOWN = Byte.MAX_VALUE;
 
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
     Index(Expression expression, boolean ordered, int attributeIndex) {
         this.expression = expression;
         this.ordered = ordered;
@@ -58,12 +86,15 @@ public class Index {
         }
     }
 
-    public void index(Long newValue, Record record) {
+    public void index(Comparable newValue, Record record) {
         if (expression != null && returnType == -1) {
             setReturnType(record.getIndexTypes()[attributeIndex]);
         }
+        if (!canonicalStore && returnType == TYPE_UNKNOWN) {
+            canonicalizeStore();
+        }
         final Long recordId = record.getId();
-        Long oldValue = recordValues.get(recordId);
+        Comparable oldValue = recordValues.get(recordId);
         if (record.isActive()) {
             // add or update
             if (oldValue == null) {
@@ -84,40 +115,244 @@ public class Index {
     }
 
     void setReturnType(byte returnType) {
-        this.returnType = returnType;
-        if (returnType == TYPE_DOUBLE) {
-            if (indexStore instanceof SortedIndexStore) {
-                throw new RuntimeException("Double type indexes cannot be sorted!");
+        setReturnType(returnType, true);
+    }
+
+    /**
+     * Once values of two different types are seen the index turns to {@link #TYPE_UNKNOWN}
+     * for good, its numbers are stored in their {@link #toCanonicalValue(Comparable) canonical}
+     * form from then on.
+     *
+     * @param observed false if the type is the declared type of the attribute, which is
+     *                 replaced by the type of the first value
+     */
+    private void setReturnType(byte type, boolean observed) {
+        final byte current = this.returnType;
+        if (current == -1 || (observed && !returnTypeObserved)) {
+            this.returnType = type;
+        } else if (observed && current != type && current != TYPE_UNKNOWN) {
+            // values of different types
+            this.returnType = TYPE_UNKNOWN;
+            canonicalStore = false;
+        }
+        if (observed) {
+            returnTypeObserved = true;
+        }
+        strong = (this.returnType != TYPE_UNKNOWN);
+    }
+
+    /**
+     * Stores the values indexed before the index turned to values of mixed types
+     * in their canonical form. Called by the owner before indexing a record.
+     */
+    private void canonicalizeStore() {
+        canonicalStore = true;
+        for (Map.Entry<Long, Comparable> entry : recordValues.entrySet()) {
+            final Comparable value = entry.getValue();
+            final Comparable canonicalValue = toCanonicalValue(value);
+            if (!canonicalValue.equals(value)) {
+                final ConcurrentMap<Long, Record> records = indexStore.getMapRecords().get(value);
+                final Record record = (records == null) ? null : records.get(entry.getKey());
+                if (record != null) {
+                    removeRecordIndex(value, entry.getKey());
+                    newRecordIndex(canonicalValue, record);
+                }
             }
-            UnsortedIndexStore unsortedIndexStore = (UnsortedIndexStore) indexStore;
-            unsortedIndexStore.setDoubleValue(true);
         }
     }
 
+    boolean isExtractedFromValue() {
+        return isExtractedFromValue(returnType);
+    }
+
+    /**
+     * Index values sent by the callers are long values. They are exact for primitive
+     * numbers, dates, booleans, characters and enums (by ordinal); values of other types,
+     * including <tt>BigDecimal</tt> and <tt>BigInteger</tt>, are sent apart as {@link IndexValues}.
+     *
+     * @param type index type sent by the caller
+     * @return true if the index value is sent in the {@link IndexValues} of the record
+     */
+    static boolean isExtractedFromValue(byte type) {
+        return type == TYPE_STRING || type == TYPE_BIG_DECIMAL || type == TYPE_UNKNOWN;
+    }
+
+    /**
+     * @param indexValue long index value sent by the caller
+     * @return index value to store
+     */
+    Comparable toIndexValue(Long indexValue) {
+        return toIndexValue(indexValue, returnType);
+    }
+
+    /**
+     * @param indexValue long index value sent by the caller
+     * @param type       type of the value sent by the caller
+     * @return index value to store
+     */
+    Comparable toIndexValue(Long indexValue, byte type) {
+        if (indexValue == null || indexValue == Long.MIN_VALUE) {
+            return NULL;
+        } else if (type == TYPE_DOUBLE) {
+            return toCanonicalValue(Double.longBitsToDouble(indexValue));
+        } else if (type == TYPE_FLOAT) {
+            return toCanonicalValue(Float.intBitsToFloat(indexValue.intValue()));
+        }
+        return indexValue;
+    }
+
+    /**
+     * Extracts the index value of the attribute of the record value. Called by the caller
+     * of the operation, the owner reads the value back with {@link #toIndexValue(IndexValues)}.
+     *
+     * @param value       record value
+     * @param indexValues index values of the record to set the value of this index to
+     */
+    void extractIndexValue(Object value, IndexValues indexValues) {
+        final Object extractedValue = expression.getValue(value);
+        if (extractedValue == null) {
+            indexValues.set(attributeIndex, NULL, true);
+        } else if (extractedValue instanceof CompositeValue) {
+            final CompositeValue compositeValue = (CompositeValue) extractedValue;
+            indexValues.set(attributeIndex, compositeValue, compositeValue.isComparable());
+        } else if (returnType == TYPE_STRING) {
+            indexValues.set(attributeIndex, extractedValue.toString(), true);
+        } else if (extractedValue instanceof Comparable) {
+            indexValues.set(attributeIndex, (Comparable) extractedValue, true);
+        } else {
+            indexValues.set(attributeIndex, extractedValue.hashCode(), false);
+        }
+    }
+
+    /**
+     * @param indexValues index values sent by the caller, <tt>null</tt> if there are none
+     * @return index value to store
+     */
+    Comparable toIndexValue(IndexValues indexValues) {
+        final Comparable value = (indexValues == null) ? null : indexValues.get(attributeIndex);
+        if (value == null) {
+            return NULL;
+        }
+        if (value instanceof CompositeValue) {
+            if (!indexValues.isStrong(attributeIndex)) {
+                strong = false;
+            }
+            updateComponentSamples(((CompositeValue) value).getComponents());
+            return value;
+        }
+        if (!indexValues.isStrong(attributeIndex)) {
+            // hash code of a value which is not comparable
+            strong = false;
+            return new HashValue(value.hashCode());
+        }
+        final Comparable indexValue = toCanonicalValue(value);
+        if (sampleValue == null) {
+            sampleValue = indexValue;
+        }
+        return indexValue;
+    }
+
+    /**
+     * Numbers of <tt>BigDecimal</tt> indexes and of indexes of values of mixed types are
+     * stored as <tt>Long</tt>s if they are integers in the long range and as <tt>BigDecimal</tt>s
+     * without trailing zeros otherwise, so equal numbers of different types or scales
+     * are a single index value.
+     */
+    private Comparable toCanonicalValue(Comparable value) {
+        if ((returnType == TYPE_BIG_DECIMAL || returnType == TYPE_UNKNOWN)
+                && value instanceof Number && !IndexValueComparator.isSpecial((Number) value)) {
+            final BigDecimal number = IndexValueComparator.toBigDecimal((Number) value);
+            if (number.signum() == 0) {
+                return 0L;
+            }
+            final BigDecimal stripped = number.stripTrailingZeros();
+            if (stripped.scale() <= 0 && stripped.compareTo(LONG_MIN) >= 0 && stripped.compareTo(LONG_MAX) <= 0) {
+                return stripped.longValue();
+            }
+            return stripped;
+        }
+        return value;
+    }
+
+    private void updateComponentSamples(Object[] components) {
+        Object[] samples = componentSamples;
+        if (samples == null) {
+            samples = new Object[components.length];
+        } else {
+            boolean complete = true;
+            for (Object sample : samples) {
+                complete &= (sample != null);
+            }
+            if (complete) {
+                return;
+            }
+            samples = samples.clone();
+        }
+        for (int i = 0; i < components.length; i++) {
+            if (samples[i] == null) {
+                samples[i] = components[i];
+            }
+        }
+        componentSamples = samples;
+    }
+
+    Object getComponentSample(int component) {
+        final Object[] samples = componentSamples;
+        return (samples == null) ? null : samples[component];
+    }
+
+    /**
+     * Converts a value given in a query to the type of a component of a composite index.
+     *
+     * @param component position of the component
+     * @param value     value given in the query
+     * @return component value to look up
+     */
+    Object getComponentValue(int component, Object value) {
+        final Object sample = getComponentSample(component);
+        if (value != null && !(value instanceof Comparable)) {
+            return value.hashCode();
+        } else if (value == null || sample == null || sample.getClass() == value.getClass()) {
+            return value;
+        } else if (sample instanceof String) {
+            return value.toString();
+        }
+        return convertToSampleType((Comparable) sample, value);
+    }
+
     public Long extractLongValue(Object value) {
+        if (expression instanceof CompositeExpression) {
+            // composite index values are extracted by the owner
+            setReturnType((byte) TYPE_UNKNOWN);
+            return 0L;
+        }
         Object extractedValue = expression.getValue(value);
         setReturnType(extractedValue);
         if (extractedValue == null) {
             return Long.MIN_VALUE;
         } else {
-            setReturnType(getIndexType(extractedValue.getClass()));
-            if (!checkedStrength) {
-                if (extractedValue instanceof Boolean || extractedValue instanceof Number) {
-                    strong = true;
-                }
-                checkedStrength = true;
+            setReturnType(getIndexType(extractedValue.getClass()), true);
+            if (enumClass == null && extractedValue instanceof Enum) {
+                enumClass = ((Enum) extractedValue).getDeclaringClass();
             }
             return getLongValueByType(extractedValue);
         }
     }
 
-    private void newRecordIndex(Long newValue, Record record) {
+    private void newRecordIndex(Comparable newValue, Record record) {
         Long recordId = record.getId();
         indexStore.newRecordIndex(newValue, record);
         recordValues.put(recordId, newValue);
     }
 
-    void removeRecordIndex(Long oldValue, Long recordId) {
+    void removeRecordIndex(Long recordId) {
+        Comparable oldValue = recordValues.get(recordId);
+        if (oldValue != null) {
+            removeRecordIndex(oldValue, recordId);
+        }
+    }
+
+    void removeRecordIndex(Comparable oldValue, Long recordId) {
         recordValues.remove(recordId);
         indexStore.removeRecordIndex(oldValue, recordId);
     }
@@ -126,40 +361,103 @@ public class Index {
         sbState.append("\nexp:" + expression + ", recordValues:" + recordValues.size() + ", " + indexStore);
     }
 
-    public Set<MapEntry> getRecords(Set<Long> uniqueValues) {
+    public Set<MapEntry> getRecords(Set<? extends Comparable> uniqueValues) {
+        final long start = System.nanoTime();
+        final Set<MapEntry> results;
         if (uniqueValues.size() == 1) {
-            return indexStore.getRecords(uniqueValues.iterator().next());
+            results = indexStore.getRecords(uniqueValues.iterator().next());
         } else {
-            MultiResultSet results = new MultiResultSet(recordValues);
-            indexStore.getRecords(results, uniqueValues);
-            return results;
+            MultiResultSet multiResults = new MultiResultSet(recordValues);
+            indexStore.getRecords(multiResults, uniqueValues);
+            results = multiResults;
         }
+        return recordLookup(hits, results, start);
     }
 
-    public Set<MapEntry> getRecords(Long value) {
-        return indexStore.getRecords(value);
+    public Set<MapEntry> getRecords(Comparable value) {
+        final long start = System.nanoTime();
+        return recordLookup(hits, indexStore.getRecords(value), start);
     }
 
-    public Set<MapEntry> getSubRecordsBetween(Long from, Long to) {
+    public Set<MapEntry> getSubRecordsBetween(Comparable from, Comparable to) {
+        final long start = System.nanoTime();
         MultiResultSet results = new MultiResultSet(recordValues);
-        indexStore.getSubRecordsBetween(results, from, to);
-        return results;
+        if (from != NULL && to != NULL) {
+            indexStore.getSubRecordsBetween(results, from, to);
+        }
+        return recordLookup(rangeScans, results, start);
     }
 
-    public Set<MapEntry> getSubRecords(PredicateType predicateType, Long searchedValue) {
+    public Set<MapEntry> getSubRecords(PredicateType predicateType, Comparable searchedValue) {
+        final long start = System.nanoTime();
         MultiResultSet results = new MultiResultSet(recordValues);
-        indexStore.getSubRecords(results, predicateType, searchedValue);
+        if (searchedValue != NULL) {
+            indexStore.getSubRecords(results, predicateType, searchedValue);
+        } else if (predicateType == PredicateType.NOT_EQUAL) {
+            indexStore.getSubRecords(results, predicateType, NULL);
+        }
+        return recordLookup(rangeScans, results, start);
+    }
+
+    public Set<MapEntry> getSubRecordsWithPrefix(String prefix) {
+        final long start = System.nanoTime();
+        MultiResultSet results = new MultiResultSet(recordValues);
+        indexStore.getSubRecordsWithPrefix(results, prefix);
+        return recordLookup(rangeScans, results, start);
+    }
+
+    private Set<MapEntry> recordLookup(AtomicLong lookupCount, Set<MapEntry> results, long start) {
+        totalLatencyNanos.addAndGet(System.nanoTime() - start);
+        lookupCount.incrementAndGet();
+        if (results != null) {
+            returnedEntries.addAndGet(results.size());
+        }
         return results;
     }
 
+    /**
+     * @return number of lookups of equal values
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of lookups of value ranges
+     */
+    public long getRangeScans() {
+        return rangeScans.get();
+    }
+
+    /**
+     * @return number of entries returned by all lookups
+     */
+    public long getReturnedEntries() {
+        return returnedEntries.get();
+    }
+
+    /**
+     * @return nanoseconds spent in all lookups
+     */
+    public long getTotalLatencyNanos() {
+        return totalLatencyNanos.get();
+    }
+
+    /**
+     * @return number of indexed entries
+     */
+    public int getIndexedEntries() {
+        return recordValues.size();
+    }
+
     void setReturnType(Object extractedValue) {
         if (returnType == -1) {
             if (expression instanceof Predicates.GetExpressionImpl) {
                 Predicates.GetExpressionImpl ex = (Predicates.GetExpressionImpl) expression;
-                setReturnType(getIndexType(ex.getter.getReturnType()));
+                setReturnType(getIndexType(ex.getter.getReturnType()), false);
             } else {
                 if (extractedValue == null) throw new RuntimeException("Indexed value cannot be null!");
-                setReturnType(getIndexType(extractedValue.getClass()));
+                setReturnType(getIndexType(extractedValue.getClass()), true);
             }
         }
     }
@@ -168,6 +466,10 @@ public class Index {
         return returnType;
     }
 
+    boolean isStringIndex() {
+        return returnType == TYPE_STRING;
+    }
+
     public static byte getIndexType(Class klass) {
         if (klass == String.class) {
             return TYPE_STRING;
@@ -187,8 +489,10 @@ public class Index {
             return TYPE_CHAR;
         } else if (Date.class.isAssignableFrom(klass)) { // util.Date, sql.Timestamp, sql.Date
             return TYPE_DATE;
-        } else if (klass.isEnum()) {
-            return TYPE_STRING;
+        } else if (Enum.class.isAssignableFrom(klass)) {
+            return TYPE_ENUM;
+        } else if (klass == BigDecimal.class || klass == BigInteger.class) {
+            return TYPE_BIG_DECIMAL;
         } else {
             return TYPE_UNKNOWN;
         }
@@ -204,67 +508,129 @@ public class Index {
             return ((Number) value).longValue();
         } else if (value instanceof Boolean) {
             return (Boolean.TRUE.equals(value)) ? 1 : -1;
-        } else if (value instanceof String) {
-            return getLongValueForString((String) value);
-        } else if (value.getClass().isEnum()) {
-            return getLongValueForString(value.toString());
+        } else if (value instanceof Character) {
+            return (Character) value;
         } else if (value instanceof Date) {
             return ((Date) value).getTime();
+        } else if (value instanceof Enum) {
+            return ((Enum) value).ordinal();
         } else {
+            // strings and other types are indexed by the owner from the record value
             return value.hashCode();
         }
     }
 
-    long getLongValue(Object value) {
-        if (value == null) return Long.MIN_VALUE;
-        int valueType = getIndexType(value.getClass());
-        if (valueType != returnType) {
-            if (value instanceof String) {
-                String str = (String) value;
-                if (returnType == TYPE_INT) {
-                    value = Integer.valueOf(str);
-                } else if (returnType == TYPE_LONG) {
-                    value = Long.valueOf(str);
-                } else if (returnType == TYPE_BOOLEAN) {
-                    value = Boolean.valueOf(str);
-                } else if (returnType == TYPE_DOUBLE) {
-                    value = Double.valueOf(str);
-                } else if (returnType == TYPE_FLOAT) {
-                    value = Float.valueOf(str);
-                } else if (returnType == TYPE_BYTE) {
-                    value = Byte.valueOf(str);
-                } else if (returnType == TYPE_CHAR) {
-                    value = str.hashCode();
-                } else if (returnType == TYPE_DATE) {
-                    value = DateHelper.tryParse(str);
+    /**
+     * Converts a value given in a query to the type of the index values.
+     *
+     * @param value value given in the query
+     * @return index value to look up
+     */
+    Comparable getIndexValue(Object value) {
+        if (value == null) return NULL;
+        if (returnType == -1 || expression == null) {
+            return (value instanceof Comparable) ? (Comparable) value : new HashValue(value.hashCode());
+        }
+        if (returnType == TYPE_STRING) {
+            return value.toString();
+        }
+        if (returnType == TYPE_ENUM && !(value instanceof Enum)) {
+            final Class klass = getEnumClass();
+            if (klass == null) {
+                // nothing is indexed yet
+                return NULL;
+            }
+            // enum constants may be given with their class name
+            final String name = value.toString();
+            value = Enum.valueOf(klass, name.substring(name.lastIndexOf('.') + 1));
+        }
+        if (returnType == TYPE_BIG_DECIMAL) {
+            if (!(value instanceof Number)) {
+                value = new BigDecimal(value.toString());
+            }
+            return toCanonicalValue((Comparable) value);
+        }
+        if (returnType == TYPE_UNKNOWN) {
+            if (!(value instanceof Comparable)) {
+                return new HashValue(value.hashCode());
+            }
+            final Comparable sample = sampleValue;
+            if (sample instanceof Number && value instanceof String) {
+                try {
+                    value = new BigDecimal((String) value);
+                } catch (NumberFormatException ignored) {
+                    // looked up as a string
                 }
+            } else if (sample != null && !(value instanceof Number && sample instanceof Number)
+                    && sample.getClass() != value.getClass()) {
+                value = convertToSampleType(sample, value);
+            }
+            return (value instanceof Comparable) ? toCanonicalValue((Comparable) value)
+                    : new HashValue(value.hashCode());
+        }
+        if (value instanceof String) {
+            String str = (String) value;
+            if (returnType == TYPE_BOOLEAN) {
+                value = Boolean.valueOf(str);
+            } else if (returnType == TYPE_DOUBLE) {
+                value = Double.valueOf(str);
+            } else if (returnType == TYPE_FLOAT) {
+                value = Float.valueOf(str);
+            } else if (returnType == TYPE_CHAR) {
+                value = (str.length() == 1) ? str.charAt(0) : str.hashCode();
+            } else if (returnType == TYPE_DATE) {
+                value = DateHelper.tryParse(str);
+            } else {
+                value = Long.valueOf(str);
             }
         }
-        return getLongValueByType(value);
+        if (returnType == TYPE_DOUBLE && value instanceof Number) {
+            return ((Number) value).doubleValue();
+        } else if (returnType == TYPE_FLOAT && value instanceof Number) {
+            return ((Number) value).floatValue();
+        }
+        return toIndexValue(getLongValueByType(value));
     }
 
     /**
-     * @see String#compareTo(String)
+     * @return class of the indexed enum values, <tt>null</tt> if it is not known yet
      */
-    private static long getLongValueForString(String s) {
-        final int maxCharsToIndex = 5;  // just index first 5 chars
-        final char[] chars = s.toCharArray();
-        long result = 0L;
-        for (int i = 0; i < Math.min(maxCharsToIndex, chars.length); i++) {
-            result += Math.pow(127, (maxCharsToIndex - i)) * chars[i];
+    private Class getEnumClass() {
+        Class klass = enumClass;
+        if (klass == null) {
+            // index values are sent by the callers, one indexed record is read to learn the class
+            for (ConcurrentMap<Long, Record> records : indexStore.getMapRecords().values()) {
+                for (Record record : records.values()) {
+                    final Object value = expression.getValue(record);
+                    if (value instanceof Enum) {
+                        klass = ((Enum) value).getDeclaringClass();
+                        enumClass = klass;
+                        return klass;
+                    }
+                }
+            }
         }
-        return result;
+        return klass;
+    }
+
+    private static Object convertToSampleType(Comparable sample, Object value) {
+        if (sample instanceof BigDecimal) {
+            return new BigDecimal(value.toString());
+        } else if (sample instanceof BigInteger) {
+            return new BigInteger(value.toString());
+        }
+        return Predicates.AbstractPredicate.getRealObject(sample, value);
     }
 
     public int getAttributeIndex() {
         return attributeIndex;
     }
 
-    ConcurrentMap<Long, Long> getRecordValues() {
+    ConcurrentMap<Long, Comparable> getRecordValues() {
         return recordValues;
     }
 
-    ConcurrentMap<Long, ConcurrentMap<Long, Record>> getMapRecords() {
+    ConcurrentMap<Comparable, ConcurrentMap<Long, Record>> getMapRecords() {
         return indexStore.getMapRecords();
     }
 
@@ -305,4 +671,46 @@ public class Index {
         sb.append('}');
         return sb.toString();
     }
+
+    /**
+     * Index value of a value which is not comparable. Hash values are ordered
+     * apart from the other index values, an index holding them is not strong.
+     */
+    static final class HashValue implements Comparable<HashValue> {
+        private final int hash;
+
+        HashValue(int hash) {
+            this.hash = hash;
+        }
+
+        public int compareTo(HashValue other) {
+            return (hash < other.hash) ? -1 : ((hash == other.hash) ? 0 : 1);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return (o instanceof HashValue) && ((HashValue) o).hash == hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return "HashValue{" + hash + '}';
+        }
+    }
+
+    private static final class NullValue implements Comparable {
+        public int compareTo(Object o) {
+            return (o == this) ? 0 : -1;
+        }
+
+        @Override
+        public String toString() {
+            return "NULL";
+        }
+    }
 }
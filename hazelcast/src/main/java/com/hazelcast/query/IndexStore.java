@@ -23,17 +23,19 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 
 public interface IndexStore {
-    void getSubRecordsBetween(MultiResultSet results, Long from, Long to);
+    void getSubRecordsBetween(MultiResultSet results, Comparable from, Comparable to);
 
-    void getSubRecords(MultiResultSet results, PredicateType predicateType, Long searchedValue);
+    void getSubRecords(MultiResultSet results, PredicateType predicateType, Comparable searchedValue);
 
-    void newRecordIndex(Long newValue, Record record);
+    void getSubRecordsWithPrefix(MultiResultSet results, String prefix);
 
-    void removeRecordIndex(Long oldValue, Long recordId);
+    void newRecordIndex(Comparable newValue, Record record);
 
-    Set<MapEntry> getRecords(Long value);
+    void removeRecordIndex(Comparable oldValue, Long recordId);
 
-    void getRecords(MultiResultSet results, Set<Long> values);
+    Set<MapEntry> getRecords(Comparable value);
 
-    ConcurrentMap<Long, ConcurrentMap<Long, Record>> getMapRecords();
+    void getRecords(MultiResultSet results, Set<? extends Comparable> values);
+
+    ConcurrentMap<Comparable, ConcurrentMap<Long, Record>> getMapRecords();
 }
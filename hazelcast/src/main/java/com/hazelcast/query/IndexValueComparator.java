@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orders index values of any type without throwing. Values are grouped by their kind:
+ * all numbers are one kind, values of any other class are a kind of their own. Kinds are
+ * ordered by name so values of different kinds never meet in <tt>compareTo</tt>. Numbers
+ * are ordered by their numeric value, equal numbers of different types by their class name.
+ */
+final class IndexValueComparator implements Comparator<Object> {
+
+    static final IndexValueComparator INSTANCE = new IndexValueComparator();
+
+    private IndexValueComparator() {
+    }
+
+    public int compare(Object v1, Object v2) {
+        if (v1 == v2) {
+            return 0;
+        }
+        final Class c1 = typeOf(v1);
+        final Class c2 = typeOf(v2);
+        if (c1 == c2) {
+            return ((Comparable) v1).compareTo(v2);
+        }
+        final Class kind1 = kindOf(v1, c1);
+        final Class kind2 = kindOf(v2, c2);
+        if (kind1 != kind2) {
+            return kind1.getName().compareTo(kind2.getName());
+        }
+        final int result = compareNumbers((Number) v1, (Number) v2);
+        return (result != 0) ? result : c1.getName().compareTo(c2.getName());
+    }
+
+    /**
+     * @return true if the values are of the same kind, so a range of one of them may hold the other
+     */
+    static boolean isSameKind(Object v1, Object v2) {
+        return kindOf(v1, typeOf(v1)) == kindOf(v2, typeOf(v2));
+    }
+
+    private static Class typeOf(Object value) {
+        // constants of an enum with bodies have classes of their own
+        return (value instanceof Enum) ? ((Enum) value).getDeclaringClass() : value.getClass();
+    }
+
+    private static Class kindOf(Object value, Class type) {
+        return (value instanceof Number) ? Number.class : type;
+    }
+
+    private static int compareNumbers(Number n1, Number n2) {
+        final int rank1 = rank(n1);
+        final int rank2 = rank(n2);
+        if (rank1 != rank2) {
+            return (rank1 < rank2) ? -1 : 1;
+        } else if (rank1 != 0) {
+            return 0;
+        }
+        return toBigDecimal(n1).compareTo(toBigDecimal(n2));
+    }
+
+    /**
+     * @return -1 for negative infinity, 1 for positive infinity, 2 for NaN, 0 otherwise
+     */
+    private static int rank(Number number) {
+        if (!isSpecial(number)) {
+            return 0;
+        }
+        final double value = number.doubleValue();
+        return Double.isNaN(value) ? 2 : ((value < 0) ? -1 : 1);
+    }
+
+    /**
+     * @return true if the number is a NaN or an infinite floating point number
+     */
+    static boolean isSpecial(Number number) {
+        if (number instanceof Double || number instanceof Float) {
+            final double value = number.doubleValue();
+            return Double.isNaN(value) || Double.isInfinite(value);
+        }
+        return false;
+    }
+
+    /**
+     * @param number a number which is not {@link #isSpecial(Number) special}
+     */
+    static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        } else if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        } else if (number instanceof Long || number instanceof Integer || number instanceof Short
+                || number instanceof Byte || number instanceof AtomicLong || number instanceof AtomicInteger) {
+            return BigDecimal.valueOf(number.longValue());
+        } else if (number instanceof Double || number instanceof Float) {
+            return BigDecimal.valueOf(number.doubleValue());
+        }
+        try {
+            return new BigDecimal(number.toString());
+        } catch (NumberFormatException e) {
+            return BigDecimal.valueOf(number.doubleValue());
+        }
+    }
+}
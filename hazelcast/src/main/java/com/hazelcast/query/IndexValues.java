@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.nio.DataSerializable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.hazelcast.nio.SerializationHelper.readObject;
+import static com.hazelcast.nio.SerializationHelper.writeObject;
+
+/**
+ * Index values of a record which cannot be sent as long values: strings, composite
+ * values and values of other types. They are extracted from the record value by the
+ * caller and sent along with the long index values, so the owner indexes the record
+ * without deserializing its value.
+ */
+public final class IndexValues implements DataSerializable {
+    private static final byte NONE = 0;
+    private static final byte VALUE = 1;
+    private static final byte COMPOSITE = 2;
+
+    private Comparable[] values;
+    // false if the value is the hash code of a value which is not comparable
+    private boolean[] strong;
+
+    public IndexValues() {
+    }
+
+    IndexValues(int indexCount) {
+        values = new Comparable[indexCount];
+        strong = new boolean[indexCount];
+    }
+
+    void set(int attributeIndex, Comparable value, boolean strongValue) {
+        values[attributeIndex] = (value == Index.NULL) ? null : value;
+        strong[attributeIndex] = strongValue;
+    }
+
+    /**
+     * @return index value of the attribute, <tt>null</tt> if the attribute is <tt>null</tt>
+     *         or is sent as a long value
+     */
+    Comparable get(int attributeIndex) {
+        return (attributeIndex < values.length) ? values[attributeIndex] : null;
+    }
+
+    boolean isStrong(int attributeIndex) {
+        return attributeIndex >= strong.length || strong[attributeIndex];
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeByte(values.length);
+        for (int i = 0; i < values.length; i++) {
+            final Comparable value = values[i];
+            if (value == null) {
+                out.writeByte(NONE);
+            } else if (value instanceof CompositeValue) {
+                final CompositeValue compositeValue = (CompositeValue) value;
+                final Object[] components = compositeValue.getComponents();
+                out.writeByte(COMPOSITE);
+                out.writeBoolean(compositeValue.isComparable());
+                out.writeByte(components.length);
+                for (Object component : components) {
+                    writeObject(out, component);
+                }
+            } else {
+                out.writeByte(VALUE);
+                out.writeBoolean(strong[i]);
+                writeObject(out, value);
+            }
+        }
+    }
+
+    public void readData(DataInput in) throws IOException {
+        final int indexCount = in.readByte();
+        values = new Comparable[indexCount];
+        strong = new boolean[indexCount];
+        for (int i = 0; i < indexCount; i++) {
+            final byte type = in.readByte();
+            if (type == COMPOSITE) {
+                final boolean comparable = in.readBoolean();
+                final Object[] components = new Object[in.readByte()];
+                for (int j = 0; j < components.length; j++) {
+                    components[j] = readObject(in);
+                }
+                values[i] = new CompositeValue(components, comparable);
+                strong[i] = comparable;
+            } else if (type == VALUE) {
+                strong[i] = in.readBoolean();
+                values[i] = (Comparable) readObject(in);
+            } else {
+                strong[i] = true;
+            }
+        }
+    }
+}
@@ -18,16 +18,24 @@ package com.hazelcast.query;
 
 import com.hazelcast.core.MapEntry;
 import com.hazelcast.impl.Record;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.nio.CompressionCodecs;
 import com.hazelcast.nio.Data;
+import com.hazelcast.nio.IndexedFields;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
 
+import static com.hazelcast.nio.IOUtil.toData;
 import static com.hazelcast.nio.IOUtil.toObject;
 
 public class MapIndexService {
+    private static final ILogger logger = Logger.getLogger(MapIndexService.class.getName());
     private final ConcurrentMap<Long, Record> records = new ConcurrentHashMap<Long, Record>(10000, 0.75f, 1);
     private final Index indexValue;
     private final Map<Expression, Index> mapIndexes = new ConcurrentHashMap<Expression, Index>(4, 0.75f, 1);
@@ -36,6 +44,8 @@ public class MapIndexService {
     @SuppressWarnings("VolatileArrayField")
     private volatile byte[] indexTypes = null;
     private final AtomicInteger size = new AtomicInteger(0);
+    private final AtomicLong indexedQueries = new AtomicLong();
+    private final AtomicLong fullScanQueries = new AtomicLong();
 
     public MapIndexService(boolean valueIndexed) {
         indexValue = (valueIndexed) ? new Index(null, false, -1) : null;
@@ -45,7 +55,7 @@ public class MapIndexService {
         Record existingRecord = records.remove(record.getId());
         if (existingRecord != null) {
             for (Index index : mapIndexes.values()) {
-                index.removeRecordIndex(record.getIndexes()[index.getAttributeIndex()], record.getId());
+                index.removeRecordIndex(record.getId());
             }
             size.decrementAndGet();
         }
@@ -66,7 +76,7 @@ public class MapIndexService {
         if (indexValue != null) {
             Long newValueIndex = -1L;
             if (record.isActive() && record.hasValueData()) {
-                newValueIndex = (long) record.getValueData().hashCode();
+                newValueIndex = (long) CompressionCodecs.hashCode(record.getValueData());
             }
             indexValue.index(newValueIndex, record);
         }
@@ -76,37 +86,80 @@ public class MapIndexService {
             if (indexTypes == null || indexValues.length != indexTypes.length) {
                 throw new IllegalArgumentException("index and types don't match " + Arrays.toString(indexTypes));
             }
+            IndexValues extractedValues = null;
+            if (record.isActive() && record.getIndexData() != null) {
+                extractedValues = readIndexValues(record);
+            }
             Collection<Index> indexes = mapIndexes.values();
             for (Index index : indexes) {
-                if (indexValues.length > index.getAttributeIndex()) {
-                    Long newValue = indexValues[index.getAttributeIndex()];
+                final int attributeIndex = index.getAttributeIndex();
+                if (indexValues.length > attributeIndex) {
+                    final byte indexType = indexTypes[attributeIndex];
+                    index.setReturnType(indexType);
+                    final Comparable newValue;
+                    // the index may hold values of mixed types, the type of this record tells how it is sent
+                    if (!Index.isExtractedFromValue(indexType)) {
+                        newValue = index.toIndexValue(indexValues[attributeIndex], indexType);
+                    } else {
+                        newValue = index.toIndexValue(extractedValues);
+                    }
                     index.index(newValue, record);
                 }
             }
         }
     }
 
+    /**
+     * Reads the index values extracted by the caller. Values which cannot be read
+     * are indexed as <tt>null</tt>, the record value itself is not deserialized.
+     */
+    private static IndexValues readIndexValues(Record record) {
+        try {
+            return (IndexValues) toObject(record.getIndexData());
+        } catch (Throwable e) {
+            logger.log(Level.WARNING, "Index values of " + record.getName() + " cannot be read", e);
+            return null;
+        }
+    }
+
     public Collection<Record> getOwnedRecords() {
         return records.values();
     }
 
+    public boolean isOwned(Record record) {
+        return records.get(record.getId()) == record;
+    }
+
+    /**
+     * Prepares the value to extract the index values from on the calling thread.
+     *
+     * @param value value of the entry, serialized or not
+     * @return value to pass to {@link #getIndexValues(Object)} and {@link #getIndexData(Object)}
+     */
+    public Object toIndexedValue(Object value) {
+        if (hasIndexedAttributes && value instanceof Data) {
+            // fields of indexed values are read from the serialized form
+            return IndexedFields.isIndexed((Data) value)
+                    ? new SerializedValueEntry((Data) value) : toObject((Data) value);
+        }
+        return value;
+    }
+
     public Long[] getIndexValues(Object value) {
         if (hasIndexedAttributes) {
             int indexCount = mapIndexes.size();
             Long[] newIndexes = new Long[indexCount];
-            if (value instanceof Data) {
-                value = toObject((Data) value);
-            }
+            value = toIndexedValue(value);
             Collection<Index> indexes = mapIndexes.values();
             for (Index index : indexes) {
                 int attributedIndex = index.getAttributeIndex();
                 newIndexes[attributedIndex] = index.extractLongValue(value);
             }
             byte[] _indexTypes = indexTypes;
-            if (_indexTypes == null || _indexTypes.length != indexCount) {
+            if (_indexTypes == null || _indexTypes.length != indexCount || typesChanged(_indexTypes)) {
                 synchronized (indexTypesLock) {
                     _indexTypes = indexTypes;
-                    if (_indexTypes == null || _indexTypes.length != indexCount) {
+                    if (_indexTypes == null || _indexTypes.length != indexCount || typesChanged(_indexTypes)) {
                         _indexTypes = new byte[indexCount];
                         for (Index index : indexes) {
                             int attributedIndex = index.getAttributeIndex();
@@ -121,6 +174,42 @@ public class MapIndexService {
         return null;
     }
 
+    /**
+     * @return true if an index turned to values of mixed types since the types were resolved
+     */
+    private boolean typesChanged(byte[] types) {
+        for (Index index : mapIndexes.values()) {
+            if (types[index.getAttributeIndex()] != index.getIndexType()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Extracts the values of the indexes which are not sent as long values, like
+     * strings and composite values, so the owner doesn't deserialize the record value.
+     * Called after {@link #getIndexValues(Object)}, which resolves the index types.
+     *
+     * @return serialized {@link IndexValues}, <tt>null</tt> if all the index values are longs
+     */
+    public Data getIndexData(Object value) {
+        if (!hasIndexedAttributes) {
+            return null;
+        }
+        IndexValues indexValues = null;
+        for (Index index : mapIndexes.values()) {
+            if (index.isExtractedFromValue()) {
+                if (indexValues == null) {
+                    indexValues = new IndexValues(mapIndexes.size());
+                    value = toIndexedValue(value);
+                }
+                index.extractIndexValue(value, indexValues);
+            }
+        }
+        return (indexValues == null) ? null : toData(indexValues);
+    }
+
     public byte[] getIndexTypes() {
         return indexTypes;
     }
@@ -146,7 +235,44 @@ public class MapIndexService {
         return index;
     }
 
+    /**
+     * Selects the entries to evaluate the predicate of the query on, with
+     * the indexes if possible.
+     *
+     * @return selected entries, <tt>null</tt> if no entry can match
+     */
     public Set<MapEntry> doQuery(QueryContext queryContext) {
+        final long start = System.nanoTime();
+        final Set<MapEntry> results = selectEntries(queryContext);
+        if (queryContext.getPredicate() != null) {
+            if (queryContext.isFullScan()) {
+                fullScanQueries.incrementAndGet();
+            } else {
+                indexedQueries.incrementAndGet();
+            }
+        }
+        final QueryPlan queryPlan = queryContext.getQueryPlan();
+        if (queryPlan != null) {
+            queryPlan.setFullScan(queryContext.isFullScan());
+            queryPlan.setEstimatedCount((results == null) ? 0 : results.size());
+            queryPlan.setIndexNanos(System.nanoTime() - start);
+        }
+        return results;
+    }
+
+    private Set<MapEntry> filter(IndexAwarePredicate predicate, QueryContext queryContext) {
+        final QueryPlan queryPlan = queryContext.getQueryPlan();
+        if (queryPlan != null) {
+            final Set<Index> appliedIndexes = new HashSet<Index>(1);
+            predicate.collectAppliedIndexes(appliedIndexes, mapIndexes);
+            for (Index index : appliedIndexes) {
+                queryPlan.addIndex(String.valueOf(index.getExpression()));
+            }
+        }
+        return predicate.filter(queryContext);
+    }
+
+    private Set<MapEntry> selectEntries(QueryContext queryContext) {
         boolean strong = false;
         Set<MapEntry> results;
         Predicate predicate = queryContext.getPredicate();
@@ -169,7 +295,7 @@ public class MapIndexService {
                 int indexAwarePredicateCount = lsIndexAwarePredicates.size();
                 if (indexAwarePredicateCount == 1) {
                     IndexAwarePredicate indexAwarePredicate = lsIndexAwarePredicates.get(0);
-                    Set<MapEntry> sub = indexAwarePredicate.filter(queryContext);
+                    Set<MapEntry> sub = filter(indexAwarePredicate, queryContext);
                     if (sub == null || sub.size() == 0) {
                         return null;
                     } else {
@@ -177,7 +303,7 @@ public class MapIndexService {
                     }
                 } else if (indexAwarePredicateCount > 0) {
                     IndexAwarePredicate indexAwarePredicateFirst = lsIndexAwarePredicates.get(0);
-                    Set<MapEntry> subFirst = indexAwarePredicateFirst.filter(queryContext);
+                    Set<MapEntry> subFirst = filter(indexAwarePredicateFirst, queryContext);
                     if (subFirst != null && subFirst.size() < 11) {
                         strong = true;
                         Set<MapEntry> resultSet = new HashSet<MapEntry>(subFirst);
@@ -198,7 +324,7 @@ public class MapIndexService {
                         Set<MapEntry> smallestSet = subFirst;
                         for (int i = 1; i < indexAwarePredicateCount; i++) {
                             IndexAwarePredicate p = lsIndexAwarePredicates.get(i);
-                            Set<MapEntry> sub = p.filter(queryContext);
+                            Set<MapEntry> sub = filter(p, queryContext);
                             if (sub == null) {
                                 strong = false;
                             } else if (sub.size() == 0) {
@@ -232,12 +358,27 @@ public class MapIndexService {
             }
             // no matching condition yet!
             // return everything.
+            queryContext.fullScan = true;
             return new SingleResultSet(records);
         } finally {
             queryContext.setStrong(strong);
         }
     }
 
+    /**
+     * @return number of queries whose entries were selected with the indexes
+     */
+    public long getIndexedQueries() {
+        return indexedQueries.get();
+    }
+
+    /**
+     * @return number of queries evaluated on all entries as no index could be used
+     */
+    public long getFullScanQueries() {
+        return fullScanQueries.get();
+    }
+
     public Map<Expression, Index> getIndexes() {
         return mapIndexes;
     }
@@ -24,14 +24,14 @@ import java.util.concurrent.ConcurrentMap;
 
 public class MultiResultSet extends AbstractSet<MapEntry> {
     private final List<Collection<Record>> resultSets = new ArrayList<Collection<Record>>();
-    private final Set<Long> indexValues = new HashSet<Long>();
-    private final ConcurrentMap<Long, Long> recordValues;
+    private final Set<Comparable> indexValues = new HashSet<Comparable>();
+    private final ConcurrentMap<Long, Comparable> recordValues;
 
-    MultiResultSet(ConcurrentMap<Long, Long> recordValues) {
+    MultiResultSet(ConcurrentMap<Long, Comparable> recordValues) {
         this.recordValues = recordValues;
     }
 
-    public void addResultSet(Long indexValue, Collection<Record> resultSet) {
+    public void addResultSet(Comparable indexValue, Collection<Record> resultSet) {
         resultSets.add(resultSet);
         indexValues.add(indexValue);
     }
@@ -43,7 +43,7 @@ public class MultiResultSet extends AbstractSet<MapEntry> {
 
     @Override
     public boolean contains(Object mapEntry) {
-        Long indexValue = recordValues.get(((Record) mapEntry).getId());
+        Comparable indexValue = recordValues.get(((Record) mapEntry).getId());
         return indexValue != null && indexValues.contains(indexValue);
     }
 
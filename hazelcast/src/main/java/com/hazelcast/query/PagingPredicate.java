@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.core.MapEntry;
+import com.hazelcast.impl.Record;
+import com.hazelcast.impl.base.KeyValue;
+import com.hazelcast.nio.Data;
+import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.nio.SerializationHelper;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+import static com.hazelcast.nio.IOUtil.toData;
+
+/**
+ * Returns one page of the entries matching the predicate, sorted by the comparator
+ * or, without a comparator, by the natural order of the values. Entries with the
+ * same order are sorted by their binary key so pages never overlap.
+ * <p/>
+ * Each member returns only the entries of its own that can be on the requested page,
+ * which the caller merges. The last entry of every fetched page is kept as an anchor,
+ * so the following page is fetched with only <tt>pageSize</tt> entries per member.
+ * <p/>
+ * <pre>
+ *   PagingPredicate pagingPredicate = new PagingPredicate(new SqlPredicate("active"), byDate, 50);
+ *   Collection&lt;Order&gt; firstPage = orders.values(pagingPredicate);
+ *   pagingPredicate.nextPage();
+ *   Collection&lt;Order&gt; secondPage = orders.values(pagingPredicate);
+ * </pre>
+ * Comparators have to be serializable. A paging predicate is not thread-safe.
+ */
+public class PagingPredicate implements Predicate, DataSerializable {
+
+    private Predicate predicate;
+    private Comparator<Map.Entry> comparator;
+    private int pageSize;
+    private int page;
+    private final Map<Integer, Anchor> anchors = new HashMap<Integer, Anchor>();
+
+    public PagingPredicate() {
+    }
+
+    public PagingPredicate(int pageSize) {
+        this(null, null, pageSize);
+    }
+
+    public PagingPredicate(Predicate predicate, int pageSize) {
+        this(predicate, null, pageSize);
+    }
+
+    public PagingPredicate(Comparator<Map.Entry> comparator, int pageSize) {
+        this(null, comparator, pageSize);
+    }
+
+    public PagingPredicate(Predicate predicate, Comparator<Map.Entry> comparator, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize should be greater than 0!");
+        }
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Nested paging predicates are not supported!");
+        }
+        this.predicate = predicate;
+        this.comparator = comparator;
+        this.pageSize = pageSize;
+    }
+
+    public boolean apply(MapEntry mapEntry) {
+        return predicate == null || predicate.apply(mapEntry);
+    }
+
+    public void nextPage() {
+        page++;
+    }
+
+    public void previousPage() {
+        if (page > 0) {
+            page--;
+        }
+    }
+
+    public void setPage(int page) {
+        if (page < 0) {
+            throw new IllegalArgumentException("page should not be negative!");
+        }
+        this.page = page;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public Predicate getPredicate() {
+        return predicate;
+    }
+
+    public Comparator<Map.Entry> getComparator() {
+        return comparator;
+    }
+
+    /**
+     * Selects the entries a member returns for the current page: the first
+     * entries after the nearest anchor, up to the end of the current page.
+     *
+     * @param entries matching entries in any order
+     * @return selected entries in page order
+     */
+    public <E extends Map.Entry> List<E> selectTop(Collection<E> entries) {
+        final Anchor anchor = nearestAnchor();
+        final int limit = (page - anchorPage(anchor)) * pageSize;
+        final Comparator<Map.Entry> reversed = Collections.reverseOrder(new EntryComparator());
+        final PriorityQueue<E> top = new PriorityQueue<E>(Math.min(limit, 1024) + 1, reversed);
+        for (E entry : entries) {
+            if (anchor == null || compare(entry, anchor) > 0) {
+                top.offer(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        final List<E> selected = new ArrayList<E>(top);
+        Collections.sort(selected, new EntryComparator());
+        return selected;
+    }
+
+    /**
+     * Selects the current page from the entries returned by all members and
+     * keeps its last entry as the anchor of the page.
+     *
+     * @param entries entries returned by {@link #selectTop(Collection)} of all members
+     * @return entries of the current page in page order
+     */
+    public <E extends Map.Entry> List<E> selectPage(Collection<E> entries) {
+        final List<E> top = selectTop(entries);
+        final int from = Math.min(top.size(), (page - anchorPage(nearestAnchor()) - 1) * pageSize);
+        return setAnchor(top.subList(from, Math.min(top.size(), from + pageSize)));
+    }
+
+    /**
+     * Sorts the entries of an already selected page and keeps its last entry
+     * as the anchor of the page.
+     *
+     * @param entries entries of the current page
+     * @return entries of the current page in page order
+     */
+    public <E extends Map.Entry> List<E> sortPage(Collection<E> entries) {
+        final List<E> sorted = new ArrayList<E>(entries);
+        Collections.sort(sorted, new EntryComparator());
+        return setAnchor(sorted);
+    }
+
+    private <E extends Map.Entry> List<E> setAnchor(List<E> pageEntries) {
+        if (pageEntries.size() == pageSize) {
+            final Map.Entry last = pageEntries.get(pageEntries.size() - 1);
+            anchors.put(page, new Anchor(page, last.getKey(), last.getValue(), keyData(last).buffer));
+        }
+        return new ArrayList<E>(pageEntries);
+    }
+
+    private Anchor nearestAnchor() {
+        for (int p = page - 1; p >= 0; p--) {
+            final Anchor anchor = anchors.get(p);
+            if (anchor != null) {
+                return anchor;
+            }
+        }
+        return null;
+    }
+
+    private static int anchorPage(Anchor anchor) {
+        return (anchor == null) ? -1 : anchor.page;
+    }
+
+    private int compare(Map.Entry entry, Anchor anchor) {
+        final int result = compareEntries(entry, anchor);
+        if (result != 0) {
+            return result;
+        }
+        return compareBytes(keyData(entry).buffer, anchor.keyBytes);
+    }
+
+    private int compareEntries(Map.Entry e1, Map.Entry e2) {
+        if (comparator != null) {
+            return comparator.compare(e1, e2);
+        }
+        return ((Comparable) e1.getValue()).compareTo(e2.getValue());
+    }
+
+    private static Data keyData(Map.Entry entry) {
+        if (entry instanceof Record) {
+            return ((Record) entry).getKeyData();
+        } else if (entry instanceof KeyValue) {
+            return ((KeyValue) entry).getKeyData();
+        }
+        return toData(entry.getKey());
+    }
+
+    private static int compareBytes(byte[] b1, byte[] b2) {
+        final int length = Math.min(b1.length, b2.length);
+        for (int i = 0; i < length; i++) {
+            if (b1[i] != b2[i]) {
+                return b1[i] - b2[i];
+            }
+        }
+        return b1.length - b2.length;
+    }
+
+    private class EntryComparator implements Comparator<Map.Entry> {
+        public int compare(Map.Entry e1, Map.Entry e2) {
+            final int result = compareEntries(e1, e2);
+            if (result != 0) {
+                return result;
+            }
+            return compareBytes(keyData(e1).buffer, keyData(e2).buffer);
+        }
+    }
+
+    private static class Anchor implements Map.Entry {
+        final int page;
+        final Object key;
+        final Object value;
+        final byte[] keyBytes;
+
+        Anchor(int page, Object key, Object value, byte[] keyBytes) {
+            this.page = page;
+            this.key = key;
+            this.value = value;
+            this.keyBytes = keyBytes;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public Object setValue(Object value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        SerializationHelper.writeObject(out, predicate);
+        SerializationHelper.writeObject(out, comparator);
+        out.writeInt(pageSize);
+        out.writeInt(page);
+        out.writeInt(anchors.size());
+        for (Anchor anchor : anchors.values()) {
+            out.writeInt(anchor.page);
+            SerializationHelper.writeObject(out, anchor.key);
+            SerializationHelper.writeObject(out, anchor.value);
+            out.writeInt(anchor.keyBytes.length);
+            out.write(anchor.keyBytes);
+        }
+    }
+
+    public void readData(DataInput in) throws IOException {
+        predicate = (Predicate) SerializationHelper.readObject(in);
+        comparator = (Comparator<Map.Entry>) SerializationHelper.readObject(in);
+        pageSize = in.readInt();
+        page = in.readInt();
+        final int anchorCount = in.readInt();
+        for (int i = 0; i < anchorCount; i++) {
+            final int anchorPage = in.readInt();
+            final Object key = SerializationHelper.readObject(in);
+            final Object value = SerializationHelper.readObject(in);
+            final byte[] keyBytes = new byte[in.readInt()];
+            in.readFully(keyBytes);
+            anchors.put(anchorPage, new Anchor(anchorPage, key, value, keyBytes));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PagingPredicate{predicate=" + predicate + ", page=" + page + ", pageSize=" + pageSize + "}";
+    }
+}
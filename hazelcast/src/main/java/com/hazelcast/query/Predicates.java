@@ -17,8 +17,12 @@
 package com.hazelcast.query;
 
 import com.hazelcast.core.MapEntry;
+import com.hazelcast.impl.Record;
 import com.hazelcast.impl.Util;
+import com.hazelcast.impl.base.DataRecordEntry;
+import com.hazelcast.nio.Data;
 import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.nio.IndexedFields;
 import com.hazelcast.nio.SerializationHelper;
 
 import java.io.DataInput;
@@ -28,6 +32,8 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -65,7 +71,7 @@ public final class Predicates {
             } else {
                 predicateType = equal ? PredicateType.GREATER_EQUAL : PredicateType.GREATER;
             }
-            return index.getSubRecords(predicateType, index.getLongValue(second));
+            return index.getSubRecords(predicateType, index.getIndexValue(second));
         }
 
         @Override
@@ -95,8 +101,8 @@ public final class Predicates {
 
     public static class BetweenPredicate extends EqualPredicate {
         Object to;
-        Comparable fromConvertedValue = null;
-        Comparable toConvertedValue = null;
+        volatile Comparable fromConvertedValue = null;
+        volatile Comparable toConvertedValue = null;
 
         public BetweenPredicate() {
         }
@@ -117,17 +123,21 @@ public final class Predicates {
             if (firstValue == null) {
                 return false;
             }
-            if (fromConvertedValue == null) {
-                fromConvertedValue = (Comparable) getConvertedRealValue(firstValue, second);
-                toConvertedValue = (Comparable) getConvertedRealValue(firstValue, to);
+            Comparable from = fromConvertedValue;
+            Comparable to = toConvertedValue;
+            if (from == null || to == null) {
+                from = (Comparable) getConvertedRealValue(firstValue, second);
+                to = (Comparable) getConvertedRealValue(firstValue, this.to);
+                fromConvertedValue = from;
+                toConvertedValue = to;
             }
-            if (firstValue == null || fromConvertedValue == null || toConvertedValue == null) return false;
-            return firstValue.compareTo(fromConvertedValue) >= 0 && firstValue.compareTo(toConvertedValue) <= 0;
+            if (from == null || to == null) return false;
+            return firstValue.compareTo(from) >= 0 && firstValue.compareTo(to) <= 0;
         }
 
         public Set<MapEntry> filter(QueryContext queryContext) {
             Index index = queryContext.getMapIndexes().get(first);
-            return index.getSubRecordsBetween(index.getLongValue(second), index.getLongValue(to));
+            return index.getSubRecordsBetween(index.getIndexValue(second), index.getIndexValue(to));
         }
 
         public void writeData(DataOutput out) throws IOException {
@@ -165,7 +175,7 @@ public final class Predicates {
         public Set<MapEntry> filter(QueryContext queryContext) {
             Index index = queryContext.getMapIndexes().get(first);
             if (index != null) {
-                return index.getSubRecords(PredicateType.NOT_EQUAL, index.getLongValue(second));
+                return index.getSubRecords(PredicateType.NOT_EQUAL, index.getIndexValue(second));
             } else {
                 return null;
             }
@@ -208,9 +218,9 @@ public final class Predicates {
     public static class InPredicate extends AbstractPredicate implements IndexAwarePredicate {
         Expression first;
         Object[] inValueArray = null;
-        Set inValues = null;
-        Set convertedInValues = null;
-        Object firstValueObject = null;
+        volatile Set inValues = null;
+        volatile Set convertedInValues = null;
+        volatile Object firstValueObject = null;
 
         public InPredicate() {
         }
@@ -222,10 +232,11 @@ public final class Predicates {
 
         private void checkInValues() {
             if (inValues == null) {
-                this.inValues = new HashSet(inValueArray.length);
+                final Set values = new HashSet(inValueArray.length);
                 for (Object o : inValueArray) {
-                    inValues.add(o);
+                    values.add(o);
                 }
+                this.inValues = values;
             }
         }
 
@@ -236,17 +247,19 @@ public final class Predicates {
             }
             Object entryValue = first.getValue(entry);
             if (entryValue == null) return false;
-            if (convertedInValues != null) {
-                return in(entryValue, convertedInValues);
+            final Set converted = convertedInValues;
+            if (converted != null) {
+                return in(entryValue, converted);
             } else {
                 if (entryValue.getClass() == firstValueObject.getClass()) {
                     return in(entryValue, inValues);
                 } else if (firstValueObject instanceof String) {
-                    convertedInValues = new HashSet(inValues.size());
+                    final Set values = new HashSet(inValues.size());
                     for (Object objValue : inValues) {
-                        convertedInValues.add(getRealObject(entryValue, objValue));
+                        values.add(getRealObject(entryValue, objValue));
                     }
-                    return in(entryValue, convertedInValues);
+                    convertedInValues = values;
+                    return in(entryValue, values);
                 }
             }
             return in(entryValue, inValues);
@@ -282,12 +295,11 @@ public final class Predicates {
             checkInValues();
             Index index = queryContext.getMapIndexes().get(first);
             if (index != null) {
-                Set<Long> setLongValues = new HashSet<Long>(inValues.size());
+                Set<Comparable> setIndexValues = new HashSet<Comparable>(inValues.size());
                 for (Object valueObj : inValues) {
-                    final Long value = index.getLongValue(valueObj);
-                    setLongValues.add(value);
+                    setIndexValues.add(index.getIndexValue(valueObj));
                 }
-                return index.getRecords(setLongValues);
+                return index.getRecords(setIndexValues);
             } else {
                 return null;
             }
@@ -335,7 +347,7 @@ public final class Predicates {
     public static class RegexPredicate extends AbstractPredicate {
         Expression<String> first;
         String regex;
-        Pattern pattern = null;
+        volatile Pattern pattern = null;
 
         public RegexPredicate() {
         }
@@ -380,10 +392,12 @@ public final class Predicates {
         }
     }
 
-    public static class LikePredicate extends AbstractPredicate {
+    public static class LikePredicate extends AbstractPredicate implements IndexAwarePredicate {
+        private static final String SPECIAL_CHARS = "%_.*+?[](){}|\\^$";
+
         Expression<String> first;
         String second;
-        Pattern pattern = null;
+        volatile Pattern pattern = null;
 
         public LikePredicate() {
         }
@@ -426,12 +440,70 @@ public final class Predicates {
         public String toString() {
             return first + " LIKE '" + second + "'";
         }
+
+        /**
+         * @return the literal characters the pattern starts with
+         */
+        String getPrefix() {
+            if (second == null) {
+                return "";
+            }
+            for (int i = 0; i < second.length(); i++) {
+                if (SPECIAL_CHARS.indexOf(second.charAt(i)) != -1) {
+                    return second.substring(0, i);
+                }
+            }
+            return second;
+        }
+
+        private Index getPrefixIndex(Map<Expression, Index> mapIndexes) {
+            if (first instanceof GetExpression && getPrefix().length() > 0) {
+                Index index = mapIndexes.get(first);
+                if (index != null && index.isStringIndex()) {
+                    return index;
+                }
+            }
+            return null;
+        }
+
+        public boolean collectIndexAwarePredicates(List<IndexAwarePredicate> lsIndexPredicates, Map<Expression, Index> mapIndexes) {
+            if (getPrefixIndex(mapIndexes) != null) {
+                lsIndexPredicates.add(this);
+                // only a plain prefix match needs no further evaluation
+                String prefix = getPrefix();
+                return second.equals(prefix) || second.equals(prefix + "%");
+            }
+            return false;
+        }
+
+        public void collectAppliedIndexes(Set<Index> setAppliedIndexes, Map<Expression, Index> mapIndexes) {
+            Index index = getPrefixIndex(mapIndexes);
+            if (index != null) {
+                setAppliedIndexes.add(index);
+            }
+        }
+
+        public boolean isIndexed(QueryContext queryContext) {
+            return getPrefixIndex(queryContext.getMapIndexes()) != null;
+        }
+
+        public Set<MapEntry> filter(QueryContext queryContext) {
+            Index index = getPrefixIndex(queryContext.getMapIndexes());
+            if (index == null) {
+                return null;
+            }
+            String prefix = getPrefix();
+            if (second.equals(prefix)) {
+                return index.getRecords(prefix);
+            }
+            return index.getSubRecordsWithPrefix(prefix);
+        }
     }
 
     public static class EqualPredicate extends AbstractPredicate implements IndexAwarePredicate {
         Expression first;
         Object second;
-        Object convertedSecondValue = null;
+        volatile Object convertedSecondValue = null;
         protected boolean secondIsExpression = false;
 
         public EqualPredicate() {
@@ -458,10 +530,12 @@ public final class Predicates {
                 } else if (second == null) {
                     return false;
                 } else {
-                    if (convertedSecondValue == null) {
-                        convertedSecondValue = getConvertedRealValue(firstVal, second);
+                    Object converted = convertedSecondValue;
+                    if (converted == null) {
+                        converted = getConvertedRealValue(firstVal, second);
+                        convertedSecondValue = converted;
                     }
-                    return doApply(firstVal, convertedSecondValue);
+                    return doApply(firstVal, converted);
                 }
             }
         }
@@ -504,7 +578,7 @@ public final class Predicates {
         public Set<MapEntry> filter(QueryContext queryContext) {
             Index index = queryContext.getMapIndexes().get(first);
             if (index != null) {
-                return index.getRecords(index.getLongValue(second));
+                return index.getRecords(index.getIndexValue(second));
             } else {
                 return null;
             }
@@ -636,8 +710,35 @@ public final class Predicates {
             return and;
         }
 
+        /**
+         * @return the predicates to evaluate with the indexes, conjunctions covered
+         *         by a composite index are replaced by a single lookup
+         */
+        private Predicate[] getIndexedPredicates(Map<Expression, Index> mapIndexes) {
+            if (and && !mapIndexes.isEmpty()) {
+                final List<Predicate> conjuncts = new ArrayList<Predicate>();
+                collectConjuncts(conjuncts);
+                final Predicate[] planned = CompositeIndexPredicate.plan(conjuncts, mapIndexes);
+                if (planned != null) {
+                    return planned;
+                }
+            }
+            return predicates;
+        }
+
+        void collectConjuncts(List<Predicate> conjuncts) {
+            for (Predicate predicate : predicates) {
+                if (predicate instanceof AndOrPredicate && ((AndOrPredicate) predicate).and) {
+                    ((AndOrPredicate) predicate).collectConjuncts(conjuncts);
+                } else {
+                    conjuncts.add(predicate);
+                }
+            }
+        }
+
         public boolean collectIndexAwarePredicates(List<IndexAwarePredicate> lsIndexPredicates, Map<Expression, Index> mapIndexes) {
             boolean strong = and;
+            final Predicate[] predicates = getIndexedPredicates(mapIndexes);
             if (!mapIndexes.isEmpty()) {
                 lsIndexPredicates.add(this);
                 if (strong) {
@@ -680,7 +781,7 @@ public final class Predicates {
 
         public Set<MapEntry> filter(QueryContext queryContext) {
             Set<MapEntry> results = null;
-            for (Predicate predicate : predicates) {
+            for (Predicate predicate : getIndexedPredicates(queryContext.getMapIndexes())) {
                 Set<MapEntry> filter = null;
                 if (predicate instanceof IndexAwarePredicate && ((IndexAwarePredicate) predicate).isIndexed(queryContext)) {
                     IndexAwarePredicate p = (IndexAwarePredicate) predicate;
@@ -734,7 +835,7 @@ public final class Predicates {
 
         public void collectAppliedIndexes(Set<Index> setAppliedIndexes, Map<Expression, Index> mapIndexes) {
             if (and) {
-                for (Predicate predicate : predicates) {
+                for (Predicate predicate : getIndexedPredicates(mapIndexes)) {
                     if (predicate instanceof IndexAwarePredicate) {
                         IndexAwarePredicate p = (IndexAwarePredicate) predicate;
                         p.collectAppliedIndexes(setAppliedIndexes, mapIndexes);
@@ -777,6 +878,65 @@ public final class Predicates {
         }
     }
 
+    /**
+     * Tells if the predicate may be evaluated by several threads at once. Only the
+     * built-in predicates over built-in expressions are, compound predicates if all
+     * of their children are. Subclasses and user predicates are not.
+     *
+     * @param predicate predicate of a query
+     * @return true if the predicate is built of thread-safe built-in predicates only
+     */
+    public static boolean isThreadSafe(Predicate predicate) {
+        if (predicate == null) {
+            return false;
+        }
+        final Class klass = predicate.getClass();
+        if (klass == EqualPredicate.class || klass == NotEqualPredicate.class
+                || klass == GreaterLessPredicate.class || klass == BetweenPredicate.class) {
+            final EqualPredicate p = (EqualPredicate) predicate;
+            return isThreadSafeExpression(p.first) && (!p.secondIsExpression || isThreadSafeExpression((Expression) p.second));
+        } else if (klass == InPredicate.class) {
+            return isThreadSafeExpression(((InPredicate) predicate).first);
+        } else if (klass == LikePredicate.class) {
+            return isThreadSafeExpression(((LikePredicate) predicate).first);
+        } else if (klass == RegexPredicate.class) {
+            return isThreadSafeExpression(((RegexPredicate) predicate).first);
+        } else if (klass == NotPredicate.class) {
+            return isThreadSafe(((NotPredicate) predicate).predicate);
+        } else if (klass == AndOrPredicate.class) {
+            for (Predicate child : ((AndOrPredicate) predicate).predicates) {
+                if (!isThreadSafe(child)) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (klass == PredicateBuilder.class) {
+            final List<Predicate> children = ((PredicateBuilder) predicate).lsPredicates;
+            return children.size() == 1 && isThreadSafe(children.get(0));
+        } else if (klass == SqlPredicate.class) {
+            return isThreadSafe(((SqlPredicate) predicate).getPredicate());
+        }
+        return false;
+    }
+
+    private static boolean isThreadSafeExpression(Expression expression) {
+        if (expression == null) {
+            return false;
+        }
+        final Class klass = expression.getClass();
+        if (klass == GetExpressionImpl.class || klass == EntryKeyObject.class) {
+            return true;
+        } else if (klass == CompositeExpression.class) {
+            for (Expression component : ((CompositeExpression) expression).getComponents()) {
+                if (!isThreadSafeExpression(component)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
     public static Predicate instanceOf(final Class klass) {
         return new Predicate() {
             public boolean apply(MapEntry mapEntry) {
@@ -853,6 +1013,26 @@ public final class Predicates {
         return new GetExpressionImpl(methodName);
     }
 
+    /**
+     * @param attributes attributes of a composite index, in the order of the index
+     * @return expression of a composite index
+     * @see CompositeExpression
+     */
+    public static Expression composite(final String... attributes) {
+        return new CompositeExpression(attributes);
+    }
+
+    /**
+     * @param attribute attribute of an index, or comma separated attributes of a composite index
+     * @return expression of the index
+     */
+    public static Expression indexExpression(final String attribute) {
+        if (attribute.indexOf(',') != -1) {
+            return composite(attribute.split(","));
+        }
+        return get(attribute);
+    }
+
     public static abstract class AbstractExpression extends SerializationHelper implements Expression {
 
     }
@@ -862,7 +1042,14 @@ public final class Predicates {
     }
 
     public static final class GetExpressionImpl<T> extends AbstractExpression implements GetExpression, DataSerializable {
-        transient Getter getter = null;
+        /**
+         * Resolved accessors by value class and attribute path, shared by all the
+         * expressions, so deserialized predicates and indexes don't resolve them again.
+         */
+        private static final ConcurrentMap<Class, ConcurrentMap<String, Getter>> GETTERS =
+                new ConcurrentHashMap<Class, ConcurrentMap<String, Getter>>();
+
+        transient volatile Getter getter = null;
         String input;
         List<GetExpressionImpl<T>> ls = null;
 
@@ -895,75 +1082,120 @@ public final class Predicates {
 
         private Object doGetValue(Object obj) {
             if (obj instanceof MapEntry) {
+                final Object fieldValue = IndexedFields.readField(getValueData((MapEntry) obj), input);
+                if (fieldValue != IndexedFields.NOT_FOUND) {
+                    return fieldValue;
+                }
                 obj = ((MapEntry) obj).getValue();
             }
             if (obj == null) return null;
             try {
-                if (getter == null) {
-                    Getter parent = null;
-                    Class clazz = obj.getClass();
-                    List<String> possibleMethodNames = new ArrayList<String>(3);
-                    for (final String name : input.split("\\.")) {
-                        Getter localGetter = null;
-                        possibleMethodNames.clear();
-                        possibleMethodNames.add(name);
-                        final String camelName = Character.toUpperCase(name.charAt(0)) + name.substring(1);
-                        possibleMethodNames.add("get" + camelName);
-                        possibleMethodNames.add("is" + camelName);
-                        if (name.equals("this")) {
-                            localGetter = new ThisGetter(parent, obj);
-                        } else {
-                            for (String methodName : possibleMethodNames) {
-                                try {
-                                    final Method method = clazz.getMethod(methodName, null);
-                                    method.setAccessible(true);
-                                    localGetter = new MethodGetter(parent, method);
-                                    clazz = method.getReturnType();
-                                    break;
-                                } catch (NoSuchMethodException ignored) {
-                                }
-                            }
-                            if (localGetter == null) {
-                                try {
-                                    final Field field = clazz.getField(name);
-                                    localGetter = new FieldGetter(parent, field);
-                                    clazz = field.getType();
-                                } catch (NoSuchFieldException ignored) {
-                                }
-                            }
-                            if (localGetter == null) {
-                                Class c = clazz;
-                                while (!Object.class.equals(c)) {
-                                    try {
-                                        final Field field = c.getDeclaredField(name);
-                                        field.setAccessible(true);
-                                        localGetter = new FieldGetter(parent, field);
-                                        clazz = field.getType();
-                                        break;
-                                    } catch (NoSuchFieldException ignored) {
-                                        c = c.getSuperclass();
-                                    }
-                                }
-                            }
-                        }
-                        if (localGetter == null) {
-                            throw new RuntimeException("There is no suitable accessor for '" + name + "'");
-                        }
-                        parent = localGetter;
-                    }
-                    getter = parent;
+                final Class clazz = obj.getClass();
+                Getter localGetter = getter;
+                if (localGetter == null || localGetter.targetClass != clazz) {
+                    localGetter = getGetter(clazz, input);
+                    getter = localGetter;
                 }
-                return getter.getValue(obj);
+                return localGetter.getValue(obj);
             } catch (Throwable e) {
                 Util.throwUncheckedException(e);
                 return null;
             }
         }
 
-        abstract class Getter {
+        /**
+         * @return serialized value of the entry, <tt>null</tt> if the entry doesn't hold it
+         */
+        private static Data getValueData(MapEntry entry) {
+            if (entry instanceof Record) {
+                return ((Record) entry).getValueData();
+            } else if (entry instanceof DataRecordEntry) {
+                return ((DataRecordEntry) entry).getValueData();
+            } else if (entry instanceof SerializedValueEntry) {
+                return ((SerializedValueEntry) entry).valueData;
+            }
+            return null;
+        }
+
+        static Getter getGetter(Class clazz, String input) {
+            ConcurrentMap<String, Getter> getters = GETTERS.get(clazz);
+            if (getters == null) {
+                getters = new ConcurrentHashMap<String, Getter>(4, 0.75f, 1);
+                final ConcurrentMap<String, Getter> existing = GETTERS.putIfAbsent(clazz, getters);
+                if (existing != null) {
+                    getters = existing;
+                }
+            }
+            Getter getter = getters.get(input);
+            if (getter == null) {
+                getter = createGetter(clazz, input);
+                getters.put(input, getter);
+            }
+            return getter;
+        }
+
+        private static Getter createGetter(final Class targetClass, String input) {
+            Class clazz = targetClass;
+            Getter parent = null;
+            List<String> possibleMethodNames = new ArrayList<String>(3);
+            for (final String name : input.split("\\.")) {
+                Getter localGetter = null;
+                possibleMethodNames.clear();
+                possibleMethodNames.add(name);
+                final String camelName = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+                possibleMethodNames.add("get" + camelName);
+                possibleMethodNames.add("is" + camelName);
+                if (name.equals("this")) {
+                    localGetter = new ThisGetter(targetClass, parent, clazz);
+                } else {
+                    for (String methodName : possibleMethodNames) {
+                        try {
+                            final Method method = clazz.getMethod(methodName, null);
+                            method.setAccessible(true);
+                            localGetter = new MethodGetter(targetClass, parent, method);
+                            clazz = method.getReturnType();
+                            break;
+                        } catch (NoSuchMethodException ignored) {
+                        }
+                    }
+                    if (localGetter == null) {
+                        try {
+                            final Field field = clazz.getField(name);
+                            localGetter = new FieldGetter(targetClass, parent, field);
+                            clazz = field.getType();
+                        } catch (NoSuchFieldException ignored) {
+                        }
+                    }
+                    if (localGetter == null) {
+                        Class c = clazz;
+                        while (!Object.class.equals(c)) {
+                            try {
+                                final Field field = c.getDeclaredField(name);
+                                field.setAccessible(true);
+                                localGetter = new FieldGetter(targetClass, parent, field);
+                                clazz = field.getType();
+                                break;
+                            } catch (NoSuchFieldException ignored) {
+                                c = c.getSuperclass();
+                            }
+                        }
+                    }
+                }
+                if (localGetter == null) {
+                    throw new RuntimeException("There is no suitable accessor for '" + name + "'");
+                }
+                parent = localGetter;
+            }
+            return parent;
+        }
+
+        abstract static class Getter {
+            // class of the values the getter is resolved for
+            protected final Class targetClass;
             protected final Getter parent;
 
-            public Getter(final Getter parent) {
+            public Getter(final Class targetClass, final Getter parent) {
+                this.targetClass = targetClass;
                 this.parent = parent;
             }
 
@@ -972,11 +1204,11 @@ public final class Predicates {
             abstract Class getReturnType();
         }
 
-        class MethodGetter extends Getter {
+        static class MethodGetter extends Getter {
             final Method method;
 
-            MethodGetter(Getter parent, Method method) {
-                super(parent);
+            MethodGetter(Class targetClass, Getter parent, Method method) {
+                super(targetClass, parent);
                 this.method = method;
             }
 
@@ -995,11 +1227,11 @@ public final class Predicates {
             }
         }
 
-        class FieldGetter extends Getter {
+        static class FieldGetter extends Getter {
             final Field field;
 
-            FieldGetter(Getter parent, Field field) {
-                super(parent);
+            FieldGetter(Class targetClass, Getter parent, Field field) {
+                super(targetClass, parent);
                 this.field = field;
             }
 
@@ -1018,12 +1250,12 @@ public final class Predicates {
             }
         }
 
-        class ThisGetter extends Getter {
-            final Object object;
+        static class ThisGetter extends Getter {
+            final Class clazz;
 
-            public ThisGetter(final Getter parent, Object object) {
-                super(parent);
-                this.object = object;
+            public ThisGetter(final Class targetClass, final Getter parent, Class clazz) {
+                super(targetClass, parent);
+                this.clazz = clazz;
             }
 
             @Override
@@ -1033,7 +1265,7 @@ public final class Predicates {
 
             @Override
             Class getReturnType() {
-                return this.object.getClass();
+                return clazz;
             }
         }
 
@@ -24,6 +24,8 @@ public class QueryContext {
     final String mapName;
     final Map<Expression, Index> mapIndexes;
     boolean strong = false;
+    boolean fullScan = false;
+    QueryPlan queryPlan = null;
 
     public QueryContext(String mapName, Predicate predicate, MapIndexService mapIndexService) {
         this.mapName = mapName;
@@ -40,6 +42,24 @@ public class QueryContext {
         this.strong = strong;
     }
 
+    /**
+     * @return true if no index could be used and all entries were returned
+     */
+    public boolean isFullScan() {
+        return fullScan;
+    }
+
+    public QueryPlan getQueryPlan() {
+        return queryPlan;
+    }
+
+    /**
+     * @param queryPlan plan to record the query execution into, <tt>null</tt> if not explained
+     */
+    public void setQueryPlan(QueryPlan queryPlan) {
+        this.queryPlan = queryPlan;
+    }
+
     public Predicate getPredicate() {
         return predicate;
     }
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.DataSerializable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How a member executed a query, collected by an {@link ExplainPredicate}.
+ */
+public class QueryPlan implements DataSerializable {
+
+    private Address member;
+    private final List<String> indexes = new ArrayList<String>(2);
+    private boolean fullScan;
+    private int estimatedCount;
+    private int resultCount;
+    private long indexNanos;
+    private long totalNanos;
+
+    public QueryPlan() {
+    }
+
+    public QueryPlan(Address member) {
+        this.member = member;
+    }
+
+    /**
+     * @return address of the member which executed the query
+     */
+    public Address getMember() {
+        return member;
+    }
+
+    /**
+     * @return attributes of the indexes used to select the entries
+     */
+    public List<String> getIndexes() {
+        return indexes;
+    }
+
+    void addIndex(String attribute) {
+        if (!indexes.contains(attribute)) {
+            indexes.add(attribute);
+        }
+    }
+
+    /**
+     * @return true if no index could be used and all local entries were evaluated
+     */
+    public boolean isFullScan() {
+        return fullScan;
+    }
+
+    void setFullScan(boolean fullScan) {
+        this.fullScan = fullScan;
+    }
+
+    /**
+     * @return number of entries selected by the indexes, or of all local entries
+     *         on a full scan
+     */
+    public int getEstimatedCount() {
+        return estimatedCount;
+    }
+
+    void setEstimatedCount(int estimatedCount) {
+        this.estimatedCount = estimatedCount;
+    }
+
+    /**
+     * @return number of entries returned by the member
+     */
+    public int getResultCount() {
+        return resultCount;
+    }
+
+    public void setResultCount(int resultCount) {
+        this.resultCount = resultCount;
+    }
+
+    /**
+     * @return nanoseconds spent selecting the entries with the indexes
+     */
+    public long getIndexNanos() {
+        return indexNanos;
+    }
+
+    void setIndexNanos(long indexNanos) {
+        this.indexNanos = indexNanos;
+    }
+
+    /**
+     * @return nanoseconds spent executing the query on the member
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public void setTotalNanos(long totalNanos) {
+        this.totalNanos = totalNanos;
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        member.writeData(out);
+        out.writeInt(indexes.size());
+        for (String index : indexes) {
+            out.writeUTF(index);
+        }
+        out.writeBoolean(fullScan);
+        out.writeInt(estimatedCount);
+        out.writeInt(resultCount);
+        out.writeLong(indexNanos);
+        out.writeLong(totalNanos);
+    }
+
+    public void readData(DataInput in) throws IOException {
+        member = new Address();
+        member.readData(in);
+        final int indexCount = in.readInt();
+        for (int i = 0; i < indexCount; i++) {
+            indexes.add(in.readUTF());
+        }
+        fullScan = in.readBoolean();
+        estimatedCount = in.readInt();
+        resultCount = in.readInt();
+        indexNanos = in.readLong();
+        totalNanos = in.readLong();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryPlan{" +
+                "member=" + member +
+                ", indexes=" + indexes +
+                ", fullScan=" + fullScan +
+                ", estimatedCount=" + estimatedCount +
+                ", resultCount=" + resultCount +
+                ", indexNanos=" + indexNanos +
+                ", totalNanos=" + totalNanos +
+                '}';
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.core.MapEntry;
+import com.hazelcast.nio.Data;
+
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Serialized value given to the index expressions, deserialized only
+ * if an expression needs a field missing from its field table.
+ */
+class SerializedValueEntry implements MapEntry {
+    final Data valueData;
+    Object value = null;
+
+    SerializedValueEntry(Data valueData) {
+        this.valueData = valueData;
+    }
+
+    public Object getKey() {
+        throw new UnsupportedOperationException();
+    }
+
+    public Object getValue() {
+        if (value == null) {
+            value = toObject(valueData);
+        }
+        return value;
+    }
+
+    public Object setValue(Object value) {
+        throw new UnsupportedOperationException();
+    }
+
+    public long getCost() {
+        return valueData.size();
+    }
+
+    public long getCreationTime() {
+        return 0;
+    }
+
+    public long getExpirationTime() {
+        return Long.MAX_VALUE;
+    }
+
+    public int getHits() {
+        return 0;
+    }
+
+    public long getLastAccessTime() {
+        return 0;
+    }
+
+    public long getLastStoredTime() {
+        return 0;
+    }
+
+    public long getLastUpdateTime() {
+        return 0;
+    }
+
+    public long getVersion() {
+        return 0;
+    }
+
+    public boolean isValid() {
+        return true;
+    }
+}
@@ -26,26 +26,28 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 public class SortedIndexStore implements IndexStore {
-    private final ConcurrentMap<Long, ConcurrentMap<Long, Record>> mapRecords = new ConcurrentHashMap<Long, ConcurrentMap<Long, Record>>(100, 0.75f, 1);
-    private final NavigableSet<Long> sortedSet = new ConcurrentSkipListSet<Long>();
+    private final ConcurrentMap<Comparable, ConcurrentMap<Long, Record>> mapRecords = new ConcurrentHashMap<Comparable, ConcurrentMap<Long, Record>>(100, 0.75f, 1);
+    // null values are only kept in mapRecords, they have no order
+    private final NavigableSet<Comparable> sortedSet = new ConcurrentSkipListSet<Comparable>(IndexValueComparator.INSTANCE);
 
-    public void getSubRecordsBetween(MultiResultSet results, Long from, Long to) {
-        Set<Long> values = sortedSet.subSet(from, to);
-        for (Long value : values) {
+    public void getSubRecordsBetween(MultiResultSet results, Comparable from, Comparable to) {
+        if (IndexValueComparator.INSTANCE.compare(from, to) > 0) {
+            return;
+        }
+        Set<Comparable> values = sortedSet.subSet(from, true, to, true);
+        for (Comparable value : values) {
+            if (!IndexValueComparator.isSameKind(value, from)) {
+                continue;
+            }
             ConcurrentMap<Long, Record> records = mapRecords.get(value);
             if (records != null) {
                 results.addResultSet(value, records.values());
             }
         }
-        // to wasn't included so include now
-        ConcurrentMap<Long, Record> records = mapRecords.get(to);
-        if (records != null) {
-            results.addResultSet(to, records.values());
-        }
     }
 
-    public void getSubRecords(MultiResultSet results, PredicateType predicateType, Long searchedValue) {
-        Set<Long> values = null;
+    public void getSubRecords(MultiResultSet results, PredicateType predicateType, Comparable searchedValue) {
+        Set<Comparable> values = null;
         boolean notEqual = false;
         switch (predicateType) {
             case LESSER:
@@ -61,17 +63,21 @@ public class SortedIndexStore implements IndexStore {
                 values = sortedSet.tailSet(searchedValue, true);
                 break;
             case NOT_EQUAL:
-                values = sortedSet;
+                values = mapRecords.keySet();
                 notEqual = true;
                 break;
         }
 
         if (values != null) {
-            for (Long value : values) {
-                if (notEqual && searchedValue.longValue() == value.longValue()) {
+            for (Comparable value : values) {
+                if (notEqual && searchedValue.equals(value)) {
                     // skip this value if predicateType is NOT_EQUAL
                     continue;
                 }
+                if (!notEqual && !IndexValueComparator.isSameKind(value, searchedValue)) {
+                    // values of other types are not in the range of the searched value
+                    continue;
+                }
                 ConcurrentMap<Long, Record> records = mapRecords.get(value);
                 if (records != null) {
                     results.addResultSet(value, records.values());
@@ -80,18 +86,32 @@ public class SortedIndexStore implements IndexStore {
         }
     }
 
-    public void newRecordIndex(Long newValue, Record record) {
+    public void getSubRecordsWithPrefix(MultiResultSet results, String prefix) {
+        for (Comparable value : sortedSet.tailSet(prefix, true)) {
+            if (!(value instanceof String) || !((String) value).startsWith(prefix)) {
+                break;
+            }
+            ConcurrentMap<Long, Record> records = mapRecords.get(value);
+            if (records != null) {
+                results.addResultSet(value, records.values());
+            }
+        }
+    }
+
+    public void newRecordIndex(Comparable newValue, Record record) {
         long recordId = record.getId();
         ConcurrentMap<Long, Record> records = mapRecords.get(newValue);
         if (records == null) {
             records = new ConcurrentHashMap<Long, Record>(1, 0.75f, 1);
             mapRecords.put(newValue, records);
-            sortedSet.add(newValue);
+            if (newValue != Index.NULL) {
+                sortedSet.add(newValue);
+            }
         }
         records.put(recordId, record);
     }
 
-    public void removeRecordIndex(Long oldValue, Long recordId) {
+    public void removeRecordIndex(Comparable oldValue, Long recordId) {
         ConcurrentMap<Long, Record> records = mapRecords.get(oldValue);
         if (records != null) {
             records.remove(recordId);
@@ -102,12 +122,12 @@ public class SortedIndexStore implements IndexStore {
         }
     }
 
-    public Set<MapEntry> getRecords(Long value) {
+    public Set<MapEntry> getRecords(Comparable value) {
         return new SingleResultSet(mapRecords.get(value));
     }
 
-    public void getRecords(MultiResultSet results, Set<Long> values) {
-        for (Long value : values) {
+    public void getRecords(MultiResultSet results, Set<? extends Comparable> values) {
+        for (Comparable value : values) {
             ConcurrentMap<Long, Record> records = mapRecords.get(value);
             if (records != null) {
                 results.addResultSet(value, records.values());
@@ -115,7 +135,7 @@ public class SortedIndexStore implements IndexStore {
         }
     }
 
-    public ConcurrentMap<Long, ConcurrentMap<Long, Record>> getMapRecords() {
+    public ConcurrentMap<Comparable, ConcurrentMap<Long, Record>> getMapRecords() {
         return mapRecords;
     }
 
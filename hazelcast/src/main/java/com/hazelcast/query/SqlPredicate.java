@@ -17,21 +17,48 @@
 package com.hazelcast.query;
 
 import com.hazelcast.core.MapEntry;
+import com.hazelcast.impl.GroupProperties;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.hazelcast.query.Predicates.*;
 
+/**
+ * Predicate written in a subset of SQL, like <tt>active AND age &gt; 30</tt>.
+ * Values can be given as parameters, so queries differing only in values share
+ * the same SQL text: <tt>new SqlPredicate("active AND age &gt; ?", 30)</tt>.
+ * <p/>
+ * Parsed SQL texts are cached by each member, up to
+ * {@link GroupProperties#PROP_QUERY_PLAN_CACHE_SIZE} texts. Each predicate builds
+ * its own predicate tree from the cached tokens, as the trees keep the values
+ * converted to the attribute types of the entries they were applied to.
+ */
 public class SqlPredicate extends AbstractPredicate implements IndexAwarePredicate {
+    private static final ConcurrentMap<String, Plan> plans = new ConcurrentHashMap<String, Plan>();
+    private static final Parser parser = new Parser();
+
     private transient Predicate predicate;
     private String sql;
+    private Object[] params = null;
 
     public SqlPredicate(String sql) {
         this.sql = sql;
-        predicate = createPredicate(sql);
+        predicate = createPredicate(sql, null);
+    }
+
+    /**
+     * @param sql    SQL text, with a <tt>?</tt> in place of each parameter
+     * @param params values of the parameters, in the order of the <tt>?</tt>s
+     */
+    public SqlPredicate(String sql, Object... params) {
+        this.sql = sql;
+        this.params = params;
+        predicate = createPredicate(sql, params);
     }
 
     public SqlPredicate() {
@@ -41,6 +68,10 @@ public class SqlPredicate extends AbstractPredicate implements IndexAwarePredica
         return predicate.apply(mapEntry);
     }
 
+    Predicate getPredicate() {
+        return predicate;
+    }
+
     public boolean collectIndexAwarePredicates(List<IndexAwarePredicate> lsIndexPredicates, Map<Expression, Index> mapIndexes) {
         if (predicate instanceof IndexAwarePredicate) {
             return ((IndexAwarePredicate) predicate).collectIndexAwarePredicates(lsIndexPredicates, mapIndexes);
@@ -64,19 +95,81 @@ public class SqlPredicate extends AbstractPredicate implements IndexAwarePredica
 
     public void writeData(DataOutput out) throws IOException {
         out.writeUTF(sql);
+        final int paramCount = (params == null) ? 0 : params.length;
+        out.writeInt(paramCount);
+        for (int i = 0; i < paramCount; i++) {
+            writeObject(out, params[i]);
+        }
     }
 
     public void readData(DataInput in) throws IOException {
         sql = in.readUTF();
-        predicate = createPredicate(sql);
+        final int paramCount = in.readInt();
+        if (paramCount > 0) {
+            params = new Object[paramCount];
+            for (int i = 0; i < paramCount; i++) {
+                params[i] = readObject(in);
+            }
+        }
+        predicate = createPredicate(sql, params);
     }
 
-    private int getApostropheIndex(String str, int start) {
+    private static int getApostropheIndex(String str, int start) {
         return str.indexOf("'", start);
     }
 
-    private Predicate createPredicate(String sql) {
-        Map<String, String> mapPhrases = new HashMap<String, String>(1);
+    private static Predicate createPredicate(String sql, Object[] params) {
+        Plan plan = plans.get(sql);
+        if (plan == null) {
+            plan = new Plan(sql);
+            if (plans.size() >= GroupProperties.QUERY_PLAN_CACHE_SIZE.getInteger()) {
+                // evicts an arbitrary plan, the cache only has to be bounded
+                final Iterator<String> it = plans.keySet().iterator();
+                if (it.hasNext()) {
+                    it.next();
+                    it.remove();
+                }
+            }
+            plans.put(sql, plan);
+        }
+        return plan.bind(params);
+    }
+
+    /**
+     * Parsed SQL text.
+     */
+    private static class Plan {
+        final String sql;
+        final List<String> tokens;
+        final Map<String, String> phrases = new HashMap<String, String>(1);
+        final int paramCount;
+
+        Plan(String sql) {
+            this.sql = sql;
+            final String[] parsedSql = new String[]{sql};
+            paramCount = replacePhrasesAndParams(parsedSql, phrases);
+            tokens = parser.toPrefix(parsedSql[0]);
+            if (tokens.size() == 0) throw new RuntimeException("Invalid SQL: [" + sql + "]");
+        }
+
+        Predicate bind(Object[] params) {
+            final int givenCount = (params == null) ? 0 : params.length;
+            if (givenCount != paramCount) {
+                throw new IllegalArgumentException("SQL [" + sql + "] has " + paramCount
+                        + " parameters, " + givenCount + " given!");
+            }
+            return createPredicate(this, params);
+        }
+    }
+
+    /**
+     * Replaces the quoted phrases of the SQL text with <tt>$n</tt> keys
+     * and the parameters with <tt>?n</tt> keys.
+     *
+     * @return parameter count
+     */
+    private static int replacePhrasesAndParams(String[] parsedSql, Map<String, String> mapPhrases) {
+        String sql = parsedSql[0];
         int apoIndex = getApostropheIndex(sql, 0);
         if (apoIndex != -1) {
             int phraseId = 0;
@@ -100,10 +193,35 @@ public class SqlPredicate extends AbstractPredicate implements IndexAwarePredica
             newSql.append(sql);
             sql = newSql.toString();
         }
-        Parser parser = new Parser();
-        List<String> sqlTokens = parser.toPrefix(sql);
-        List<Object> tokens = new ArrayList<Object>(sqlTokens);
-        if (tokens.size() == 0) throw new RuntimeException("Invalid SQL: [" + sql + "]");
+        int paramCount = 0;
+        int paramIndex = sql.indexOf('?');
+        if (paramIndex != -1) {
+            final StringBuilder newSql = new StringBuilder();
+            int start = 0;
+            while (paramIndex != -1) {
+                paramCount++;
+                newSql.append(sql, start, paramIndex).append('?').append(paramCount);
+                start = paramIndex + 1;
+                paramIndex = sql.indexOf('?', start);
+            }
+            newSql.append(sql.substring(start));
+            sql = newSql.toString();
+        }
+        parsedSql[0] = sql;
+        return paramCount;
+    }
+
+    private static Predicate createPredicate(Plan plan, Object[] params) {
+        final String sql = plan.sql;
+        Map<String, ?> mapPhrases = plan.phrases;
+        if (params != null) {
+            final Map<String, Object> values = new HashMap<String, Object>(plan.phrases);
+            for (int i = 0; i < params.length; i++) {
+                values.put("?" + (i + 1), params[i]);
+            }
+            mapPhrases = values;
+        }
+        List<Object> tokens = new ArrayList<Object>(plan.tokens);
         if (tokens.size() == 1) {
             return eval(tokens.get(0));
         }
@@ -117,73 +235,73 @@ public class SqlPredicate extends AbstractPredicate implements IndexAwarePredica
                     String token = (String) tokenObj;
                     if ("=".equals(token) || "==".equals(token)) {
                         int position = (i - 2);
-                        validateOperandPosition(position);
+                        validateOperandPosition(position, sql);
                         Object first = toValue(tokens.remove(position), mapPhrases);
                         Object second = toValue(tokens.remove(position), mapPhrases);
                         setOrAdd(tokens, position, equal(get((String) first), second));
                     } else if ("!=".equals(token)) {
                         int position = (i - 2);
-                        validateOperandPosition(position);
+                        validateOperandPosition(position, sql);
                         Object first = toValue(tokens.remove(position), mapPhrases);
                         Object second = toValue(tokens.remove(position), mapPhrases);
                         setOrAdd(tokens, position, notEqual(get((String) first), second));
                     } else if (">".equals(token)) {
                         int position = (i - 2);
-                        validateOperandPosition(position);
+                        validateOperandPosition(position, sql);
                         Object first = toValue(tokens.remove(position), mapPhrases);
                         Object second = toValue(tokens.remove(position), mapPhrases);
                         setOrAdd(tokens, position, greaterThan(get((String) first), (Comparable) second));
                     } else if (">=".equals(token)) {
                         int position = (i - 2);
-                        validateOperandPosition(position);
+                        validateOperandPosition(position, sql);
                         Object first = toValue(tokens.remove(position), mapPhrases);
                         Object second = toValue(tokens.remove(position), mapPhrases);
                         setOrAdd(tokens, position, greaterEqual(get((String) first), (Comparable) second));
                     } else if ("<=".equals(token)) {
                         int position = (i - 2);
-                        validateOperandPosition(position);
+                        validateOperandPosition(position, sql);
                         Object first = toValue(tokens.remove(position), mapPhrases);
                         Object second = toValue(tokens.remove(position), mapPhrases);
                         setOrAdd(tokens, position, lessEqual(get((String) first), (Comparable) second));
                     } else if ("<".equals(token)) {
                         int position = (i - 2);
-                        validateOperandPosition(position);
+                        validateOperandPosition(position, sql);
                         Object first = toValue(tokens.remove(position), mapPhrases);
                         Object second = toValue(tokens.remove(position), mapPhrases);
                         setOrAdd(tokens, position, lessThan(get((String) first), (Comparable) second));
                     } else if ("LIKE".equalsIgnoreCase(token)) {
                         int position = (i - 2);
-                        validateOperandPosition(position);
+                        validateOperandPosition(position, sql);
                         Object first = toValue(tokens.remove(position), mapPhrases);
                         Object second = toValue(tokens.remove(position), mapPhrases);
                         setOrAdd(tokens, position, like(get((String) first), (String) second));
                     } else if ("IN".equalsIgnoreCase(token)) {
                         int position = i - 2;
-                        validateOperandPosition(position);
+                        validateOperandPosition(position, sql);
                         Object exp = toValue(tokens.remove(position), mapPhrases);
-                        String[] values = toValue(((String) tokens.remove(position)).split(","), mapPhrases);
+                        Comparable[] values = toValue(((String) tokens.remove(position)).split(","), mapPhrases);
                         setOrAdd(tokens, position, Predicates.in(get((String) exp), values));
                     } else if ("NOT".equalsIgnoreCase(token)) {
                         int position = i - 1;
-                        validateOperandPosition(position);
+                        validateOperandPosition(position, sql);
                         Object exp = toValue(tokens.remove(position), mapPhrases);
                         setOrAdd(tokens, position, Predicates.not(eval(exp)));
                     } else if ("BETWEEN".equalsIgnoreCase(token)) {
                         int position = i - 3;
-                        validateOperandPosition(position);
+                        validateOperandPosition(position, sql);
                         Object expression = tokens.remove(position);
                         Object from = toValue(tokens.remove(position), mapPhrases);
                         Object to = toValue(tokens.remove(position), mapPhrases);
                         setOrAdd(tokens, position, between(get((String) expression), (Comparable) from, (Comparable) to));
                     } else if ("AND".equalsIgnoreCase(token)) {
                         int position = i - 2;
-                        validateOperandPosition(position);
+                        validateOperandPosition(position, sql);
                         Object first = toValue(tokens.remove(position), mapPhrases);
                         Object second = toValue(tokens.remove(position), mapPhrases);
                         setOrAdd(tokens, position, and(eval(first), eval(second)));
                     } else if ("OR".equalsIgnoreCase(token)) {
                         int position = i - 2;
-                        validateOperandPosition(position);
+                        validateOperandPosition(position, sql);
                         Object first = toValue(tokens.remove(position), mapPhrases);
                         Object second = toValue(tokens.remove(position), mapPhrases);
                         setOrAdd(tokens, position, or(eval(first), eval(second)));
@@ -198,16 +316,15 @@ public class SqlPredicate extends AbstractPredicate implements IndexAwarePredica
         return (Predicate) tokens.get(0);
     }
 
-    private void validateOperandPosition(int pos) {
+    private static void validateOperandPosition(int pos, String sql) {
         if (pos < 0) {
             throw new RuntimeException("Invalid SQL: [" + sql + "]");
         }
     }
 
-    private Object toValue(final Object key, final Map<String, String> phrases) {
-        final String value = phrases.get(key);
-        if (value != null) {
-            return value;
+    private static Object toValue(final Object key, final Map<String, ?> phrases) {
+        if (phrases.containsKey(key)) {
+            return phrases.get(key);
         } else if (key instanceof String && ("null".equalsIgnoreCase((String) key))) {
             return null;
         } else {
@@ -215,15 +332,15 @@ public class SqlPredicate extends AbstractPredicate implements IndexAwarePredica
         }
     }
 
-    private String[] toValue(final String[] keys, final Map<String, String> phrases) {
+    private static Comparable[] toValue(final String[] keys, final Map<String, ?> phrases) {
+        final Comparable[] values = new Comparable[keys.length];
         for (int i = 0; i < keys.length; i++) {
-            final String value = phrases.get(keys[i]);
-            if (value != null) keys[i] = value;
+            values[i] = (Comparable) toValue(keys[i], phrases);
         }
-        return keys;
+        return values;
     }
 
-    private void setOrAdd(List tokens, int position, Predicate predicate) {
+    private static void setOrAdd(List tokens, int position, Predicate predicate) {
         if (tokens.size() == 0) {
             tokens.add(predicate);
         } else {
@@ -231,7 +348,7 @@ public class SqlPredicate extends AbstractPredicate implements IndexAwarePredica
         }
     }
 
-    private Predicate eval(Object statement) {
+    private static Predicate eval(Object statement) {
         if (statement instanceof String) {
             return equal(get((String) statement), "true");
         } else {
@@ -24,81 +24,45 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 public class UnsortedIndexStore implements IndexStore {
-    private final ConcurrentMap<Long, ConcurrentMap<Long, Record>> mapRecords = new ConcurrentHashMap<Long, ConcurrentMap<Long, Record>>(100, 0.75f, 1);
-    private volatile boolean doubleValue = false;
+    private final ConcurrentMap<Comparable, ConcurrentMap<Long, Record>> mapRecords = new ConcurrentHashMap<Comparable, ConcurrentMap<Long, Record>>(100, 0.75f, 1);
 
-    public void setDoubleValue(boolean doubleValue) {
-        this.doubleValue = doubleValue;
-    }
-
-    public void getSubRecordsBetween(MultiResultSet results, Long from, Long to) {
-        Set<Long> values = mapRecords.keySet();
-        if (doubleValue) {
-            double f = Double.longBitsToDouble(from);
-            double t = Double.longBitsToDouble(to);
-            for (Long value : values) {
-                double v = Double.longBitsToDouble(value);
-                if (v >= f && v <= t) {
-                    ConcurrentMap<Long, Record> records = mapRecords.get(value);
-                    if (records != null) {
-                        results.addResultSet(value, records.values());
-                    }
-                }
-            }
-        } else {
-            for (Long value : values) {
-                if (value >= from && value <= to) {
-                    ConcurrentMap<Long, Record> records = mapRecords.get(value);
-                    if (records != null) {
-                        results.addResultSet(value, records.values());
-                    }
+    public void getSubRecordsBetween(MultiResultSet results, Comparable from, Comparable to) {
+        Set<Comparable> values = mapRecords.keySet();
+        for (Comparable value : values) {
+            if (value != Index.NULL && IndexValueComparator.isSameKind(value, from)
+                    && IndexValueComparator.INSTANCE.compare(value, from) >= 0
+                    && IndexValueComparator.INSTANCE.compare(value, to) <= 0) {
+                ConcurrentMap<Long, Record> records = mapRecords.get(value);
+                if (records != null) {
+                    results.addResultSet(value, records.values());
                 }
             }
         }
     }
 
-    public void getSubRecords(MultiResultSet results, PredicateType predicateType, Long searchedValue) {
-        Set<Long> values = mapRecords.keySet();
-        for (Long value : values) {
+    public void getSubRecords(MultiResultSet results, PredicateType predicateType, Comparable searchedValue) {
+        Set<Comparable> values = mapRecords.keySet();
+        for (Comparable value : values) {
             boolean valid = false;
-            if (doubleValue) {
-                double v = Double.longBitsToDouble(value);
-                double searchedV = Double.longBitsToDouble(searchedValue);
+            if (predicateType == PredicateType.NOT_EQUAL) {
+                valid = !value.equals(searchedValue);
+            } else if (value != Index.NULL && IndexValueComparator.isSameKind(value, searchedValue)) {
+                int result = IndexValueComparator.INSTANCE.compare(value, searchedValue);
                 switch (predicateType) {
                     case LESSER:
-                        valid = v < searchedV;
+                        valid = result < 0;
                         break;
                     case LESSER_EQUAL:
-                        valid = v <= searchedV;
+                        valid = result <= 0;
                         break;
                     case GREATER:
-                        valid = v > searchedV;
+                        valid = result > 0;
                         break;
                     case GREATER_EQUAL:
-                        valid = v >= searchedV;
-                        break;
-                    case NOT_EQUAL:
-                        valid = v != searchedV;
+                        valid = result >= 0;
                         break;
                 }
             }
-            switch (predicateType) {
-                case LESSER:
-                    valid = value < searchedValue;
-                    break;
-                case LESSER_EQUAL:
-                    valid = value <= searchedValue;
-                    break;
-                case GREATER:
-                    valid = value > searchedValue;
-                    break;
-                case GREATER_EQUAL:
-                    valid = value >= searchedValue;
-                    break;
-                case NOT_EQUAL:
-                    valid = value.longValue() != searchedValue.longValue();
-                    break;
-            }
             if (valid) {
                 ConcurrentMap<Long, Record> records = mapRecords.get(value);
                 if (records != null) {
@@ -108,7 +72,19 @@ public class UnsortedIndexStore implements IndexStore {
         }
     }
 
-    public void newRecordIndex(Long newValue, Record record) {
+    public void getSubRecordsWithPrefix(MultiResultSet results, String prefix) {
+        Set<Comparable> values = mapRecords.keySet();
+        for (Comparable value : values) {
+            if (value instanceof String && ((String) value).startsWith(prefix)) {
+                ConcurrentMap<Long, Record> records = mapRecords.get(value);
+                if (records != null) {
+                    results.addResultSet(value, records.values());
+                }
+            }
+        }
+    }
+
+    public void newRecordIndex(Comparable newValue, Record record) {
         Long recordId = record.getId();
         ConcurrentMap<Long, Record> records = mapRecords.get(newValue);
         if (records == null) {
@@ -118,7 +94,7 @@ public class UnsortedIndexStore implements IndexStore {
         records.put(recordId, record);
     }
 
-    public void removeRecordIndex(Long oldValue, Long recordId) {
+    public void removeRecordIndex(Comparable oldValue, Long recordId) {
         ConcurrentMap<Long, Record> records = mapRecords.get(oldValue);
         if (records != null) {
             records.remove(recordId);
@@ -128,12 +104,12 @@ public class UnsortedIndexStore implements IndexStore {
         }
     }
 
-    public Set<MapEntry> getRecords(Long value) {
+    public Set<MapEntry> getRecords(Comparable value) {
         return new SingleResultSet(mapRecords.get(value));
     }
 
-    public void getRecords(MultiResultSet results, Set<Long> values) {
-        for (Long value : values) {
+    public void getRecords(MultiResultSet results, Set<? extends Comparable> values) {
+        for (Comparable value : values) {
             ConcurrentMap<Long, Record> records = mapRecords.get(value);
             if (records != null) {
                 results.addResultSet(value, records.values());
@@ -141,7 +117,7 @@ public class UnsortedIndexStore implements IndexStore {
         }
     }
 
-    public ConcurrentMap<Long, ConcurrentMap<Long, Record>> getMapRecords() {
+    public ConcurrentMap<Comparable, ConcurrentMap<Long, Record>> getMapRecords() {
         return mapRecords;
     }
 
@@ -151,4 +127,4 @@ public class UnsortedIndexStore implements IndexStore {
                 "mapRecords=" + mapRecords.size() +
                 '}';
     }
-}
\ No newline at end of file
+}
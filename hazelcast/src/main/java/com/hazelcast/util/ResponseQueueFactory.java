@@ -21,32 +21,41 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 public class ResponseQueueFactory {
     public static BlockingQueue newResponseQueue() {
-        return new LockBasedResponseQueue();
+        return new LockFreeResponseQueue();
     }
 
-    private final static class LockBasedResponseQueue extends AbstractQueue implements BlockingQueue {
-        private Object response = null;
-        private final Lock lock = new ReentrantLock();
-        private final Condition noValue = lock.newCondition();
+    /**
+     * Holds a single response. Producer sets the slot with a CAS and unparks
+     * the waiting thread, there is no lock on either side.
+     * <p/>
+     * Supports a single consumer; only one thread may wait on take/poll at a time.
+     */
+    private final static class LockFreeResponseQueue extends AbstractQueue implements BlockingQueue {
         private final static Object NULL = new Object();
+        private final AtomicReference<Object> response = new AtomicReference<Object>();
+        private volatile Thread waiter = null;
 
         public Object take() throws InterruptedException {
-            lock.lock();
-            try {
-                //noinspection WhileLoopSpinsOnField
-                while (response == null) {
-                    noValue.await();
+            Object value = response.getAndSet(null);
+            if (value == null) {
+                waiter = Thread.currentThread();
+                try {
+                    while ((value = response.getAndSet(null)) == null) {
+                        if (Thread.interrupted()) {
+                            throw new InterruptedException();
+                        }
+                        LockSupport.park();
+                    }
+                } finally {
+                    waiter = null;
                 }
-                return getAndRemoveResponse();
-            } finally {
-                lock.unlock();
             }
+            return unwrap(value);
         }
 
         public boolean offer(Object o, long timeout, TimeUnit unit) throws InterruptedException {
@@ -55,18 +64,26 @@ public class ResponseQueueFactory {
 
         public Object poll(long timeout, TimeUnit unit) throws InterruptedException {
             if (timeout < 0) throw new IllegalArgumentException();
-            long remaining = unit.toMillis(timeout);
-            lock.lock();
-            try {
-                while (response == null && remaining > 0) {
-                    long start = Clock.currentTimeMillis();
-                    noValue.await(remaining, TimeUnit.MILLISECONDS);
-                    remaining -= (Clock.currentTimeMillis() - start);
+            Object value = response.getAndSet(null);
+            if (value == null) {
+                final long deadline = System.nanoTime() + unit.toNanos(timeout);
+                waiter = Thread.currentThread();
+                try {
+                    while ((value = response.getAndSet(null)) == null) {
+                        if (Thread.interrupted()) {
+                            throw new InterruptedException();
+                        }
+                        final long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            return null;
+                        }
+                        LockSupport.parkNanos(remaining);
+                    }
+                } finally {
+                    waiter = null;
                 }
-                return getAndRemoveResponse();
-            } finally {
-                lock.unlock();
             }
+            return unwrap(value);
         }
 
         public void put(Object o) throws InterruptedException {
@@ -77,37 +94,21 @@ public class ResponseQueueFactory {
             if (obj == null) {
                 obj = NULL;
             }
-            lock.lock();
-            try {
-                if (response != null) {
-                    return false;
-                }
-                response = obj;
-                //noinspection CallToSignalInsteadOfSignalAll
-                noValue.signal();
-                return true;
-            } finally {
-                lock.unlock();
+            if (!response.compareAndSet(null, obj)) {
+                return false;
+            }
+            final Thread w = waiter;
+            if (w != null) {
+                LockSupport.unpark(w);
             }
+            return true;
         }
 
         public Object poll() {
-            lock.lock();
-            try {
-                return getAndRemoveResponse();
-            } finally {
-                lock.unlock();
-            }
+            return unwrap(response.getAndSet(null));
         }
 
-        /**
-         * Internal method, should be called under lock.
-         *
-         * @return response
-         */
-        private Object getAndRemoveResponse() {
-            final Object value = response;
-            response = null;
+        private static Object unwrap(Object value) {
             return (value == NULL) ? null : value;
         }
 
@@ -124,12 +125,7 @@ public class ResponseQueueFactory {
         }
 
         public void clear() {
-            lock.lock();
-            try {
-                response = null;
-            } finally {
-                lock.unlock();
-            }
+            response.set(null);
         }
 
         @Override
@@ -139,21 +135,11 @@ public class ResponseQueueFactory {
 
         @Override
         public int size() {
-            lock.lock();
-            try {
-                return (response == null) ? 0 : 1;
-            } finally {
-                lock.unlock();
-            }
+            return (response.get() == null) ? 0 : 1;
         }
 
         public Object peek() {
-            lock.lock();
-            try {
-                return response;
-            } finally {
-                lock.unlock();
-            }
+            return response.get();
         }
     }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cluster;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.impl.GroupProperties;
+import com.hazelcast.impl.TestUtil;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class PartitionThreadPoolTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    private static Config newConfig() {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_PARTITION_THREAD_COUNT, "4");
+        return config;
+    }
+
+    @Test
+    public void testRemoteGetServedByPartitionThreads() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        IMap<Integer, String> m1 = h1.getMap("default");
+        IMap<Integer, String> m2 = h2.getMap("default");
+        final int size = 1000;
+        for (int i = 0; i < size; i++) {
+            m1.put(i, "value" + i);
+        }
+        final PartitionThreadPool pool1 = TestUtil.getNode(h1).clusterService.getPartitionThreadPool();
+        final PartitionThreadPool pool2 = TestUtil.getNode(h2).clusterService.getPartitionThreadPool();
+        final long executedBefore = pool1.getExecutedTaskCount() + pool2.getExecutedTaskCount();
+        for (int i = 0; i < size; i++) {
+            assertEquals("value" + i, m2.get(i));
+            assertEquals("value" + i, m1.get(i));
+        }
+        // each key is remote for one of the two members, its owner serves the get
+        final long executed = pool1.getExecutedTaskCount() + pool2.getExecutedTaskCount() - executedBefore;
+        assertTrue("executed " + executed, executed >= size);
+        assertNull(m2.get(size));
+    }
+
+    @Test
+    public void testRemotePutAndRemoveServedByPartitionThreads() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        IMap<Integer, String> m1 = h1.getMap("default");
+        IMap<Integer, String> m2 = h2.getMap("default");
+        final ClusterService service1 = TestUtil.getNode(h1).clusterService;
+        final ClusterService service2 = TestUtil.getNode(h2).clusterService;
+        final long servedBefore = getServedCount(service1) + getServedCount(service2);
+        final int size = 1000;
+        for (int i = 0; i < size; i++) {
+            assertNull(m2.put(i, "value" + i));
+        }
+        for (int i = 0; i < size; i += 2) {
+            assertEquals("value" + i, m2.remove(i));
+        }
+        // each put and remove is either served remotely by the owner or backed up remotely
+        final long served = getServedCount(service1) + getServedCount(service2) - servedBefore;
+        assertTrue("served " + served, served >= size + size / 2);
+        assertEquals(size / 2, m1.size());
+        assertEquals(size / 2, m1.getLocalMapStats().getBackupEntryCount()
+                + m2.getLocalMapStats().getBackupEntryCount());
+        h1.getLifecycleService().shutdown();
+        assertEquals(size / 2, m2.size());
+        for (int i = 0; i < size; i++) {
+            assertEquals((i % 2 == 0) ? null : "value" + i, m2.get(i));
+        }
+    }
+
+    @Test
+    public void testPutOfLockedKeyWaitsForUnlock() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        final IMap<Integer, String> m1 = h1.getMap("default");
+        final IMap<Integer, String> m2 = h2.getMap("default");
+        Integer key = 0;
+        while (h1.getPartitionService().getPartition(key).getOwner().localMember()) {
+            key++;
+        }
+        m2.lock(key);
+        final Integer remoteKey = key;
+        final CountDownLatch put = new CountDownLatch(1);
+        new Thread() {
+            public void run() {
+                m1.put(remoteKey, "value");
+                put.countDown();
+            }
+        }.start();
+        assertFalse(put.await(1, TimeUnit.SECONDS));
+        m2.unlock(key);
+        assertTrue(put.await(5, TimeUnit.SECONDS));
+        assertEquals("value", m2.get(key));
+    }
+
+    private static long getServedCount(ClusterService service) {
+        return service.getPartitionThreadPool().getExecutedTaskCount() - service.getHandedOverPacketCount();
+    }
+}
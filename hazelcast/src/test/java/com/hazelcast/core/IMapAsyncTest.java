@@ -16,18 +16,26 @@
 
 package com.hazelcast.core;
 
+import com.hazelcast.config.Config;
+import com.hazelcast.impl.GroupProperties;
+import com.hazelcast.impl.Processable;
+import com.hazelcast.impl.TestUtil;
 import junit.framework.TestCase;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
@@ -50,6 +58,29 @@ public class IMapAsyncTest {
         TestCase.assertEquals(value1, f1.get());
     }
 
+    @Test
+    public void testGetAsyncFromRemoteMember() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(null);
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(null);
+        try {
+            IMap<Integer, String> map1 = h1.getMap("map:test:getAsync:remote");
+            IMap<Integer, String> map2 = h2.getMap("map:test:getAsync:remote");
+            for (int i = 0; i < 100; i++) {
+                map1.put(i, "value" + i);
+            }
+            List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < 110; i++) {
+                futures.add(map2.getAsync(i));
+            }
+            for (int i = 0; i < 110; i++) {
+                assertEquals(i < 100 ? "value" + i : null, futures.get(i).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            h1.getLifecycleService().shutdown();
+            h2.getLifecycleService().shutdown();
+        }
+    }
+
     @Test
     public void testPutAsync() throws Exception {
         IMap<String, String> map = Hazelcast.getMap("map:test:putAsync");
@@ -99,4 +130,105 @@ public class IMapAsyncTest {
         Future<String> f1 = map.removeAsync(key);
         TestCase.assertNull(f1.get());
     }
+
+    @Test
+    public void testPutAsyncAndRemoveAsyncAreBackedUp() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(null);
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(null);
+        try {
+            IMap<Integer, String> map1 = h1.getMap("map:test:putAsync:backup");
+            IMap<Integer, String> map2 = h2.getMap("map:test:putAsync:backup");
+            List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(map2.putAsync(i, "value" + i));
+            }
+            for (int i = 0; i < 100; i++) {
+                assertNull(futures.get(i).get(10, TimeUnit.SECONDS));
+            }
+            futures.clear();
+            for (int i = 0; i < 50; i++) {
+                futures.add(map1.removeAsync(i));
+            }
+            for (int i = 0; i < 50; i++) {
+                assertEquals("value" + i, futures.get(i).get(10, TimeUnit.SECONDS));
+            }
+            h1.getLifecycleService().kill();
+            assertEquals(50, map2.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i < 50 ? null : "value" + i, map2.get(i));
+            }
+        } finally {
+            h1.getLifecycleService().shutdown();
+            h2.getLifecycleService().shutdown();
+        }
+    }
+
+    @Test
+    public void testAsyncCallTimesOutWithoutResponse() throws Exception {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_MAX_OPERATION_TIMEOUT, "2000");
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(null);
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config);
+        try {
+            final Integer key = getKeyOwnedBy(h1);
+            blockServiceThread(h1, 8000);
+            Future<String> f = h2.<Integer, String>getMap("map:test:getAsync:timeout").getAsync(key);
+            try {
+                f.get(6, TimeUnit.SECONDS);
+                TestCase.fail("Failed to time out without a response");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof OperationTimeoutException);
+            }
+        } finally {
+            h1.getLifecycleService().shutdown();
+            h2.getLifecycleService().shutdown();
+        }
+    }
+
+    @Test
+    public void testPendingAsyncCallsFailOnShutdown() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(null);
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(null);
+        try {
+            final Integer key = getKeyOwnedBy(h1);
+            blockServiceThread(h1, 8000);
+            IMap<Integer, String> map2 = h2.getMap("map:test:async:shutdown");
+            Future<String> f1 = map2.getAsync(key);
+            Future<String> f2 = map2.putAsync(key, value1);
+            Thread.sleep(500);
+            h2.getLifecycleService().shutdown();
+            for (Future f : new Future[]{f1, f2}) {
+                try {
+                    f.get(5, TimeUnit.SECONDS);
+                    TestCase.fail("Failed to fail a pending call on shutdown");
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+            }
+        } finally {
+            h1.getLifecycleService().shutdown();
+            h2.getLifecycleService().shutdown();
+        }
+    }
+
+    private static Integer getKeyOwnedBy(HazelcastInstance h) {
+        final Member owner = h.getCluster().getLocalMember();
+        for (int i = 0; ; i++) {
+            if (owner.equals(h.getPartitionService().getPartition(i).getOwner())) {
+                return i;
+            }
+        }
+    }
+
+    // keeps the service thread of the member busy, so that it answers no call meanwhile
+    private static void blockServiceThread(HazelcastInstance h, final long millis) {
+        TestUtil.getNode(h).clusterService.enqueueAndReturn(new Processable() {
+            public void process() {
+                try {
+                    Thread.sleep(millis);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+    }
 }
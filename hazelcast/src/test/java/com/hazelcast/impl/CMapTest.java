@@ -17,10 +17,12 @@
 package com.hazelcast.impl;
 
 import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.*;
 import com.hazelcast.impl.base.CallState;
 import com.hazelcast.impl.base.DistributedLock;
 import com.hazelcast.impl.base.ScheduledAction;
+import com.hazelcast.nio.CompressionCodecs;
 import com.hazelcast.nio.Data;
 import com.hazelcast.util.Clock;
 import org.junit.*;
@@ -409,4 +411,32 @@ public class CMapTest extends TestUtil {
         assertTrue("record access time should have been updated on containsKey()", secondAccessTime > firstAccessTime);
         node.connectionManager.shutdown();
     }
+
+    @Test
+    public void testCompressedValues() throws Exception {
+        Config config = new Config();
+        config.addMapConfig(new MapConfig("compressed").setCompressionCodec("lz4")
+                .setCompressionThreshold(100).setValueIndexed(true));
+        HazelcastInstance h = Hazelcast.newHazelcastInstance(config);
+        IMap<String, String> map = h.getMap("compressed");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("{\"name\":\"value").append(i % 10).append("\"}");
+        }
+        String large = sb.toString();
+        map.put("large", large);
+        map.put("small", "small");
+        CMap cmap = getCMap(h, "compressed");
+        Data largeData = cmap.getRecord(toData("large")).getValueData();
+        assertTrue(CompressionCodecs.isCompressed(largeData));
+        assertTrue(largeData.size() * 5 < toData(large).size());
+        assertFalse(CompressionCodecs.isCompressed(cmap.getRecord(toData("small")).getValueData()));
+        assertEquals(large, map.get("large"));
+        assertEquals("small", map.get("small"));
+        assertTrue(map.containsValue(large));
+        assertTrue(map.replace("large", large, large + "!"));
+        assertEquals(large + "!", map.get("large"));
+        assertTrue(map.remove("large", large + "!"));
+        assertNull(map.get("large"));
+    }
 }
@@ -849,6 +849,40 @@ public class ClusterTest {
         assertEquals(6, mm1.get("Hello").size());
     }
 
+    @Test
+    public void testConditionalOperationsInterleavedWithPut() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, String> map1 = h1.getMap("default");
+        IMap<Integer, String> map2 = h2.getMap("default");
+        // keys of both members, every call of this thread reuses its cached MPut and MRemove
+        for (int i = 0; i < 20; i++) {
+            assertNull(map1.put(i, "a"));
+            assertEquals("a", map1.putIfAbsent(i, "b"));
+            assertEquals("a", map1.put(i, "c"));
+            assertFalse(map1.replace(i, "a", "d"));
+            assertTrue(map1.replace(i, "c", "d"));
+            assertEquals("d", map1.get(i));
+            assertEquals("d", map1.replace(i, "e"));
+            assertFalse(map1.remove(i, "d"));
+            assertEquals("e", map1.put(i, "f"));
+            assertTrue(map1.remove(i, "f"));
+            assertNull(map1.replace(i, "g"));
+            assertNull(map1.get(i));
+            assertNull(map1.putIfAbsent(i, "h"));
+            assertEquals("h", map2.get(i));
+        }
+        assertEquals(20, map2.size());
+        // the ttl of putIfAbsent does not stay on the cached call
+        assertNull(map1.putIfAbsent(100, "ttl", 1, TimeUnit.SECONDS));
+        assertNull(map1.put(101, "no ttl"));
+        assertNull(map1.putIfAbsent(102, "no ttl"));
+        sleep(3000);
+        assertNull(map2.get(100));
+        assertEquals("no ttl", map2.get(101));
+        assertEquals("no ttl", map2.get(102));
+    }
+
     @Test(timeout = 120000)
     public void testListeners2() throws Exception {
         HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
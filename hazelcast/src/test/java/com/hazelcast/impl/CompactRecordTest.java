@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.nio.Address;
+import com.hazelcast.util.Clock;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.nio.IOUtil.toData;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class CompactRecordTest {
+
+    private static CompactRecord newRecord(long ttl, long maxIdle) {
+        CMap cmap = mock(CMap.class);
+        return new CompactRecord(cmap, 1, toData("key"), toData("value"), ttl, maxIdle, 1);
+    }
+
+    @Test
+    public void testDefaults() {
+        CompactRecord record = newRecord(0, 0);
+        assertEquals(Long.MAX_VALUE, record.getExpirationTime());
+        assertEquals(Long.MAX_VALUE, record.getRemainingTTL());
+        assertEquals(Long.MAX_VALUE, record.getRemainingIdle());
+        assertEquals(-1, record.getWriteTime());
+        assertEquals(0, record.getRemoveTime());
+        assertEquals(0, record.getLastAccessTime());
+        assertEquals(0, record.getVersion());
+        assertTrue(record.isValid());
+        assertNull(record.getLock());
+        assertNull(record.getIndexes());
+        assertEquals(0, record.getBackupOpCount());
+        assertEquals("value", record.getValue());
+    }
+
+    @Test
+    public void testTimestampsHaveSecondResolution() {
+        CompactRecord record = newRecord(0, 0);
+        long now = Clock.currentTimeMillis();
+        assertTrue(Math.abs(now - record.getCreationTime()) < 1000);
+        record.setLastAccessTime(now);
+        assertTrue(record.getLastAccessTime() <= now);
+        assertTrue(now - record.getLastAccessTime() < 1000);
+        record.setWriteTime(now);
+        assertTrue(record.getWriteTime() >= now);
+        assertTrue(record.getWriteTime() - now < 1000);
+    }
+
+    @Test
+    public void testTTLNeverExpiresEarly() {
+        CompactRecord record = newRecord(1500, 0);
+        long now = Clock.currentTimeMillis();
+        assertTrue(record.getExpirationTime() >= now + 1500 - 10);
+        assertTrue(record.isValid(now + 1000));
+        assertFalse(record.isValid(now + 3000));
+    }
+
+    @Test
+    public void testMaxIdle() {
+        CompactRecord record = newRecord(0, 2000);
+        long now = Clock.currentTimeMillis();
+        assertTrue(record.isValid(now));
+        assertFalse(record.isValid(now + 5000));
+        record.setMaxIdle(0);
+        assertTrue(record.isValid(now + 5000));
+    }
+
+    @Test
+    public void testSetInvalid() {
+        CompactRecord record = newRecord(0, 0);
+        record.setInvalid();
+        assertFalse(record.isValid());
+    }
+
+    @Test
+    public void testMarkRemoved() {
+        CompactRecord record = newRecord(0, 0);
+        record.markRemoved();
+        assertTrue(record.isRemoved());
+        assertTrue(record.getRemoveTime() > 0);
+        record.setActive();
+        assertFalse(record.isRemoved());
+    }
+
+    @Test
+    public void testLockAndCopy() throws Exception {
+        CompactRecord record = newRecord(10000, 0);
+        Address address = new Address("127.0.0.1", 5701);
+        assertTrue(record.lock(1, address));
+        assertTrue(record.isLocked());
+        record.incrementVersion();
+        Record copy = record.copy();
+        assertTrue(copy instanceof CompactRecord);
+        assertTrue(copy.isLocked());
+        assertEquals(1, copy.getVersion());
+        assertTrue(copy.getRemainingTTL() <= 10000);
+        assertTrue(record.unlock(1, address));
+        assertFalse(record.isLocked());
+    }
+
+    @Test
+    public void testMaxIdleNeverExpiresEarlyWithMapCreationTime() {
+        HazelcastInstance h = Hazelcast.newHazelcastInstance(new Config());
+        try {
+            h.getMap("default").put("key", "value");
+            CMap cmap = TestUtil.getCMap(h, "default");
+            assertTrue(cmap.creationTime > 0);
+            CompactRecord record = new CompactRecord(cmap, 1, toData("key"), toData("value"), 0, 2000, 1);
+            long now = Clock.currentTimeMillis();
+            assertTrue(Math.abs(now - record.getCreationTime()) < 1000);
+            // last millisecond of a second since the creation of the map, rounded down the most
+            long touch = cmap.creationTime + ((now - cmap.creationTime) / 1000 + 1) * 1000 + 999;
+            record.setCreationTime(touch);
+            record.setLastAccessTime(touch);
+            record.setLastUpdateTime(touch);
+            assertEquals(touch - 999, record.getLastAccessTime());
+            assertTrue(record.isValid(touch + 1999));
+            assertFalse(record.isValid(touch + 3000));
+        } finally {
+            h.getLifecycleService().shutdown();
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.EntryProcessor;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.Prefix;
+import com.hazelcast.impl.base.KeyValue;
+import com.hazelcast.impl.base.Pairs;
+import com.hazelcast.nio.Data;
+import com.hazelcast.query.SqlPredicate;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.nio.IOUtil.toData;
+import static com.hazelcast.nio.IOUtil.toObject;
+import static org.junit.Assert.*;
+
+/**
+ * <tt>IMap.executeOnKey</tt> and <tt>IMap.executeOnEntries</tt>.
+ */
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class EntryProcessorTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    private static Config newConfig() {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_CONCURRENT_MAP_BATCH_SIZE, "100");
+        return config;
+    }
+
+    static class IncrementProcessor implements EntryProcessor<Integer, Integer> {
+        public Object process(Map.Entry<Integer, Integer> entry) {
+            Integer value = entry.getValue();
+            int newValue = (value == null) ? 1 : value + 1;
+            entry.setValue(newValue);
+            return newValue;
+        }
+    }
+
+    static class RemoveProcessor implements EntryProcessor<Integer, Integer> {
+        public Object process(Map.Entry<Integer, Integer> entry) {
+            entry.setValue(null);
+            return null;
+        }
+    }
+
+    static class SlowProcessor implements EntryProcessor<Integer, Integer> {
+        static final CountDownLatch started = new CountDownLatch(1);
+
+        public Object process(Map.Entry<Integer, Integer> entry) {
+            started.countDown();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ignored) {
+            }
+            return null;
+        }
+    }
+
+    static class SlowSetProcessor implements EntryProcessor<Integer, Integer> {
+        public Object process(Map.Entry<Integer, Integer> entry) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException ignored) {
+            }
+            entry.setValue(-1);
+            return -1;
+        }
+    }
+
+    static class FailingProcessor implements EntryProcessor<Integer, Integer> {
+        public Object process(Map.Entry<Integer, Integer> entry) {
+            throw new IllegalStateException("failed on " + entry.getKey());
+        }
+    }
+
+    @Test
+    public void testExecuteOnKey() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h3 = Hazelcast.newHazelcastInstance(newConfig());
+        IMap<Integer, Integer> map = h1.getMap("default");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1, map.executeOnKey(i, new IncrementProcessor()));
+            assertEquals(2, map.executeOnKey(i, new IncrementProcessor()));
+        }
+        h2.getLifecycleService().shutdown();
+        IMap<Integer, Integer> map3 = h3.getMap("default");
+        assertEquals(100, map3.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(2, map3.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void testExecuteOnKeyRemoves() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        IMap<Integer, Integer> map = h1.getMap("default");
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertNull(map.executeOnKey(i, new RemoveProcessor()));
+        }
+        assertEquals(0, h2.getMap("default").size());
+        h1.getLifecycleService().shutdown();
+        assertEquals(0, h2.getMap("default").size());
+    }
+
+    @Test
+    public void testExecuteOnKeyFailure() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        Hazelcast.newHazelcastInstance(newConfig());
+        IMap<Integer, Integer> map = h1.getMap("default");
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+            try {
+                map.executeOnKey(i, new FailingProcessor());
+                fail("processor failure should be thrown");
+            } catch (RuntimeException expected) {
+            }
+            assertEquals(i, map.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void testExecuteOnEntries() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h3 = Hazelcast.newHazelcastInstance(newConfig());
+        IMap<Integer, Integer> map = h1.getMap("default");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        Map<Integer, Object> results = h2.<Integer, Integer>getMap("default").executeOnEntries(new IncrementProcessor());
+        assertEquals(1000, results.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i + 1, results.get(i));
+        }
+        h1.getLifecycleService().shutdown();
+        IMap<Integer, Integer> map3 = h3.getMap("default");
+        assertEquals(1000, map3.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i + 1, map3.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void testExecuteOnEntriesWithPredicate() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        IMap<Integer, Integer> map = h1.getMap("default");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        Map<Integer, Object> results = h2.<Integer, Integer>getMap("default")
+                .executeOnEntries(new IncrementProcessor(), new SqlPredicate("this < 50"));
+        assertEquals(50, results.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i < 50 ? i + 1 : i, map.get(i).intValue());
+        }
+        results = map.executeOnEntries(new RemoveProcessor(), new SqlPredicate("this > 50"));
+        assertTrue(results.isEmpty());
+        assertEquals(51, h2.getMap("default").size());
+    }
+
+    @Test
+    public void testExecuteOnEntriesWaitsForLockedKey() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        final IMap<Integer, Integer> map1 = h1.getMap("default");
+        final IMap<Integer, Integer> map2 = h2.getMap("default");
+        for (int i = 0; i < 100; i++) {
+            map1.put(i, i);
+        }
+        map1.lock(7);
+        final CountDownLatch latch = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            public void run() {
+                map2.executeOnEntries(new IncrementProcessor());
+                latch.countDown();
+            }
+        }).start();
+        assertFalse(latch.await(1, TimeUnit.SECONDS));
+        map1.unlock(7);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i + 1, map1.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void testExecuteOnEntriesDoesNotHoldUpOtherOperations() throws Exception {
+        HazelcastInstance h = Hazelcast.newHazelcastInstance(newConfig());
+        final IMap<Integer, Integer> map = h.getMap("default");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        final CountDownLatch done = new CountDownLatch(1);
+        new Thread() {
+            public void run() {
+                map.executeOnEntries(new SlowProcessor());
+                done.countDown();
+            }
+        }.start();
+        assertTrue(SlowProcessor.started.await(10, TimeUnit.SECONDS));
+        final long start = System.currentTimeMillis();
+        h.getMap("other").put(1, 1);
+        // a batch of 100 entries takes two seconds to process
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExecuteOnOwnedEntries() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        IMap<Integer, Integer> map = h1.getMap("default");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        final Data processorData = toData(new IncrementProcessor());
+        int processed = 0;
+        for (HazelcastInstance h : new HazelcastInstance[]{h1, h2}) {
+            final ConcurrentMapManager concurrentMapManager = TestUtil.getNode(h).concurrentMapManager;
+            final int partitionVersion = concurrentMapManager.partitionManager.getVersion();
+            final String name = Prefix.MAP + "default";
+            assertNull(concurrentMapManager.executeOnOwnedEntries(name, processorData, null, partitionVersion + 1));
+            final Pairs pairs = concurrentMapManager.executeOnOwnedEntries(name, processorData, null, partitionVersion);
+            assertTrue(pairs.size() > 0);
+            for (KeyValue keyValue : pairs.getKeyValues()) {
+                final Integer key = (Integer) toObject(keyValue.getKeyData());
+                assertEquals(key + 1, toObject(keyValue.getValueData()));
+                processed++;
+            }
+        }
+        assertEquals(100, processed);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i + 1, map.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void testExecuteOnEntriesWhenMemberLeaves() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        final HazelcastInstance h3 = Hazelcast.newHazelcastInstance(newConfig());
+        IMap<Integer, Integer> map = h1.getMap("default");
+        for (int i = 0; i < 300; i++) {
+            map.put(i, i);
+        }
+        new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ignored) {
+                }
+                h3.getLifecycleService().kill();
+            }
+        }.start();
+        Map<Integer, Object> results = h2.<Integer, Integer>getMap("default").executeOnEntries(new SlowSetProcessor());
+        assertEquals(300, results.size());
+        for (int i = 0; i < 300; i++) {
+            assertEquals(-1, results.get(i));
+            assertEquals(-1, map.get(i).intValue());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * <tt>getAll</tt> and <tt>putAll</tt> sent as one batch per partition owner.
+ */
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class MapBatchOperationsTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    private static Config newConfig() {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_CONCURRENT_MAP_BATCH_SIZE, "100");
+        return config;
+    }
+
+    @Test
+    public void testPutAllGetAll() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h3 = Hazelcast.newHazelcastInstance(newConfig());
+        Map<Integer, String> entries = new HashMap<Integer, String>();
+        for (int i = 0; i < 1000; i++) {
+            entries.put(i, "value" + i);
+        }
+        h1.<Integer, String>getMap("default").putAll(entries);
+        IMap<Integer, String> map = h2.getMap("default");
+        assertEquals(1000, map.size());
+        Set<Integer> keys = new HashSet<Integer>();
+        for (int i = 500; i < 1500; i++) {
+            keys.add(i);
+        }
+        Map<Integer, String> result = h3.<Integer, String>getMap("default").getAll(keys);
+        assertEquals(500, result.size());
+        for (int i = 500; i < 1000; i++) {
+            assertEquals("value" + i, result.get(i));
+        }
+        assertFalse(result.containsKey(1000));
+    }
+
+    @Test
+    public void testPutAllBackups() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h3 = Hazelcast.newHazelcastInstance(newConfig());
+        Map<Integer, Integer> entries = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 1000; i++) {
+            entries.put(i, i);
+        }
+        h3.<Integer, Integer>getMap("default").putAll(entries);
+        h1.getLifecycleService().shutdown();
+        IMap<Integer, Integer> map = h2.getMap("default");
+        assertEquals(1000, map.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, map.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void testPutAllWaitsForLockedKey() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        final IMap<Integer, Integer> map1 = h1.getMap("default");
+        final IMap<Integer, Integer> map2 = h2.getMap("default");
+        map1.lock(7);
+        final CountDownLatch latch = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            public void run() {
+                Map<Integer, Integer> entries = new HashMap<Integer, Integer>();
+                for (int i = 0; i < 100; i++) {
+                    entries.put(i, i);
+                }
+                map2.putAll(entries);
+                latch.countDown();
+            }
+        }).start();
+        assertFalse(latch.await(1, TimeUnit.SECONDS));
+        map1.unlock(7);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(100, map1.size());
+        assertEquals(7, map1.get(7).intValue());
+    }
+}
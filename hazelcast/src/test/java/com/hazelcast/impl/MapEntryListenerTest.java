@@ -17,11 +17,19 @@
 package com.hazelcast.impl;
 
 import com.hazelcast.core.*;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.SqlPredicate;
 import org.junit.*;
 import org.junit.runner.RunWith;
 
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.hazelcast.nio.IOUtil.toData;
+
 @RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
 public class MapEntryListenerTest {
 
@@ -138,6 +146,87 @@ public class MapEntryListenerTest {
         destroyMaps();
     }
 
+    @Test
+    public void predicateListenerTest() throws InterruptedException {
+        map1.addEntryListener(createEntryListener(false), new SqlPredicate("this = 'bar'"), false);
+        map2.addEntryListener(createEntryListener(false), new SqlPredicate("this = 'bar'"), true);
+        map2.addEntryListener(createEntryListener(false), new SqlPredicate("this = 'baz'"), true);
+        for (int i = 0; i < 6; i++) {
+            map1.put("foo" + i, (i % 3 == 0) ? "baz" : "bar");
+        }
+        checkCountWithExpected(10, 0, 6);
+    }
+
+    @Test
+    public void predicateListenerUpdateAndRemoveTest() throws InterruptedException {
+        final BlockingQueue<EntryEvent<String, String>> events = new LinkedBlockingQueue<EntryEvent<String, String>>();
+        final EntryListener<String, String> listener = new EntryAdapter<String, String>() {
+            public void entryAdded(EntryEvent<String, String> event) {
+                events.add(event);
+            }
+
+            public void entryUpdated(EntryEvent<String, String> event) {
+                events.add(event);
+            }
+
+            public void entryRemoved(EntryEvent<String, String> event) {
+                events.add(event);
+            }
+        };
+        map2.addEntryListener(listener, new SqlPredicate("this = 'bar'"), true);
+        map1.put("a", "baz");
+        map1.put("a", "bar");
+        map1.put("a", "baz");
+        map1.put("a", "qux");
+        map1.put("b", "bar");
+        map1.remove("b");
+        EntryEvent<String, String> event = events.poll(5, TimeUnit.SECONDS);
+        Assert.assertEquals(EntryEventType.UPDATED, event.getEventType());
+        Assert.assertEquals("bar", event.getValue());
+        event = events.poll(5, TimeUnit.SECONDS);
+        Assert.assertEquals(EntryEventType.UPDATED, event.getEventType());
+        Assert.assertEquals("baz", event.getValue());
+        event = events.poll(5, TimeUnit.SECONDS);
+        Assert.assertEquals(EntryEventType.ADDED, event.getEventType());
+        Assert.assertEquals("b", event.getKey());
+        event = events.poll(5, TimeUnit.SECONDS);
+        Assert.assertEquals(EntryEventType.REMOVED, event.getEventType());
+        Assert.assertEquals("b", event.getKey());
+        Assert.assertNull(events.poll(1, TimeUnit.SECONDS));
+        map2.removeEntryListener(listener);
+        map1.put("c", "bar");
+        Assert.assertNull(events.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void predicateListenersWithCollidingHashesTest() throws InterruptedException {
+        final Predicate predicate1 = Predicates.equal(Predicates.get("this"), "v31769");
+        final Predicate predicate2 = Predicates.equal(Predicates.get("this"), "v839217");
+        Assert.assertEquals(toData(predicate1).hashCode(), toData(predicate2).hashCode());
+        final BlockingQueue<String> events1 = new LinkedBlockingQueue<String>();
+        final BlockingQueue<String> events2 = new LinkedBlockingQueue<String>();
+        map2.addEntryListener(new EntryAdapter<String, String>() {
+            public void entryAdded(EntryEvent<String, String> event) {
+                events1.add(event.getValue());
+            }
+        }, predicate1, true);
+        map2.addEntryListener(new EntryAdapter<String, String>() {
+            public void entryAdded(EntryEvent<String, String> event) {
+                events2.add(event.getValue());
+            }
+        }, predicate2, true);
+        for (int i = 0; i < 10; i++) {
+            map1.put("a" + i, "v31769");
+            map1.put("b" + i, "v839217");
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("v31769", events1.poll(5, TimeUnit.SECONDS));
+            Assert.assertEquals("v839217", events2.poll(5, TimeUnit.SECONDS));
+        }
+        Assert.assertNull(events1.poll(1, TimeUnit.SECONDS));
+        Assert.assertNull(events2.poll(1, TimeUnit.SECONDS));
+    }
+
     private void putDummyData(int k) {
         for (int i = 0; i < k; i++) {
             map1.put("foo" + i, "bar");
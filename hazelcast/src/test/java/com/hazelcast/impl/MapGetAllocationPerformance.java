@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bytes allocated by all threads of the JVM (caller, ServiceThread, IO threads)
+ * per remote <tt>IMap.get</tt>. Needs a HotSpot JVM.
+ */
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class MapGetAllocationPerformance {
+
+    private static final int COUNT = 100000;
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testRemoteGet() throws Exception {
+        measure("0");
+    }
+
+    @Test
+    public void testRemoteGetOnPartitionThreads() throws Exception {
+        measure("4");
+    }
+
+    private void measure(String partitionThreadCount) throws Exception {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_PARTITION_THREAD_COUNT, partitionThreadCount);
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, String> m1 = h1.getMap("default");
+        IMap<Integer, String> m2 = h2.getMap("default");
+        List<Integer> remoteKeys = new ArrayList<Integer>();
+        for (int i = 0; remoteKeys.size() < 1000; i++) {
+            if (h1.getPartitionService().getPartition(i).getOwner().localMember()) {
+                remoteKeys.add(i);
+                m1.put(i, "value" + i);
+            }
+        }
+        for (int i = 0; i < COUNT; i++) {
+            m2.get(remoteKeys.get(i % remoteKeys.size()));
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < COUNT; i++) {
+            m2.get(remoteKeys.get(i % remoteKeys.size()));
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        System.out.println("Partition threads: " + partitionThreadCount
+                + ", bytes per get: " + (allocated / COUNT)
+                + ", micros per get: " + (elapsed / 1000 / COUNT));
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long bytes : threadMXBean.getThreadAllocatedBytes(threadMXBean.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.impl.concurrentmap.DefaultRecordFactory;
+import com.hazelcast.impl.concurrentmap.RecordFactory;
+import com.hazelcast.nio.Data;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the heap retained per record for each record type.
+ * Key and value Data are shared by all records so only the record itself is measured.
+ * Run with a fixed heap, e.g. -Xms512m -Xmx512m
+ */
+public class RecordFootprintPerformance {
+
+    private static final int COUNT = 500000;
+
+    @Test
+    public void testRecordFootprint() {
+        CMap cmap = mock(CMap.class);
+        Data key = new Data(new byte[8]);
+        Data value = new Data(new byte[8]);
+        long defaultBytes = measure(new DefaultRecordFactory(false, false), cmap, key, value);
+        long compactBytes = measure(new DefaultRecordFactory(false, true), cmap, key, value);
+        long simpleBytes = measure(new DefaultRecordFactory(true, false), cmap, key, value);
+        System.out.println("DefaultRecord: " + defaultBytes + " bytes/record");
+        System.out.println("CompactRecord: " + compactBytes + " bytes/record");
+        System.out.println("SimpleRecord : " + simpleBytes + " bytes/record");
+    }
+
+    private static long measure(RecordFactory factory, CMap cmap, Data key, Data value) {
+        Record[] records = new Record[COUNT];
+        long before = usedMemory();
+        for (int i = 0; i < COUNT; i++) {
+            records[i] = factory.createNewRecord(cmap, i % 271, key, value, 0, 0, i);
+        }
+        long after = usedMemory();
+        if (records[COUNT - 1] == null) {
+            throw new IllegalStateException();
+        }
+        return (after - before) / COUNT;
+    }
+
+    private static long usedMemory() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.storage;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.impl.GroupProperties;
+import com.hazelcast.nio.Data;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class OffHeapStorageTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    private static Data newData(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        return new Data(bytes);
+    }
+
+    @Test
+    public void testPutGetMultipleChunks() {
+        OffHeapStorage storage = new OffHeapStorage(16 * 1024 * 1024, 1024);
+        Data data = newData(2500);
+        DataRef ref = storage.put(7, data);
+        assertEquals(2500, ref.size());
+        assertEquals(3, ref.chunks.length);
+        assertTrue(Arrays.equals(data.buffer, storage.get(7, ref).buffer));
+    }
+
+    @Test
+    public void testEmptyData() {
+        OffHeapStorage storage = new OffHeapStorage(16 * 1024 * 1024, 1024);
+        DataRef ref = storage.put(-1, new Data());
+        assertEquals(0, storage.get(-1, ref).size());
+    }
+
+    @Test
+    public void testRemoveReleasesChunks() {
+        OffHeapStorage storage = new OffHeapStorage(16 * 1024 * 1024, 1024);
+        long free = storage.getFreeSize();
+        DataRef ref = storage.put(3, newData(4096));
+        assertEquals(free - 4096, storage.getFreeSize());
+        storage.remove(3, ref);
+        assertEquals(free, storage.getFreeSize());
+    }
+
+    @Test(expected = HazelcastException.class)
+    public void testOutOfMemory() {
+        // 16 segments of 2 chunks each
+        OffHeapStorage storage = new OffHeapStorage(16 * 2 * 1024, 1024);
+        storage.put(1, newData(3 * 1024));
+    }
+
+    @Test
+    public void testFullSegmentFallsBackToAnother() {
+        // 16 segments of 2 chunks each
+        OffHeapStorage storage = new OffHeapStorage(16 * 2 * 1024, 1024);
+        assertEquals(2 * 1024, storage.getMaxValueSize());
+        Data first = newData(2 * 1024);
+        DataRef firstRef = storage.put(1, first);
+        Data second = newData(1500);
+        DataRef secondRef = storage.put(1, second);
+        assertTrue(firstRef.segment != secondRef.segment);
+        assertTrue(Arrays.equals(first.buffer, storage.get(1, firstRef).buffer));
+        assertTrue(Arrays.equals(second.buffer, storage.get(1, secondRef).buffer));
+        storage.remove(1, secondRef);
+        storage.remove(1, firstRef);
+        assertEquals(16 * 2 * 1024, storage.getFreeSize());
+    }
+
+    @Test
+    public void testFillAllSegments() {
+        OffHeapStorage storage = new OffHeapStorage(16 * 2 * 1024, 1024);
+        for (int i = 0; i < 16; i++) {
+            storage.put(5, newData(2 * 1024));
+        }
+        assertEquals(0, storage.getFreeSize());
+        try {
+            storage.put(5, newData(1));
+            fail();
+        } catch (HazelcastException expected) {
+        }
+    }
+
+    @Test
+    public void testParseSize() {
+        assertEquals(128L * 1024 * 1024, OffHeapStorage.parseSize("128", 1024 * 1024));
+        assertEquals(128L * 1024 * 1024, OffHeapStorage.parseSize("128M", 1024));
+        assertEquals(1024L, OffHeapStorage.parseSize("1k", 1024 * 1024));
+        assertEquals(2L * 1024 * 1024 * 1024, OffHeapStorage.parseSize("2G", 1));
+    }
+
+    @Test
+    public void testOffHeapMap() {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_ELASTIC_MEMORY_ENABLED, "true");
+        config.setProperty(GroupProperties.PROP_ELASTIC_MEMORY_TOTAL_SIZE, "16M");
+        config.setProperty(GroupProperties.PROP_ELASTIC_MEMORY_CHUNK_SIZE, "1K");
+        HazelcastInstance h = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, String> map = h.getMap("default");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, "value" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("value" + i, map.get(i));
+            assertEquals("value" + i, map.put(i, "new" + i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("new" + i, map.remove(i));
+            assertNull(map.get(i));
+        }
+        assertEquals(0, map.size());
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.nio;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class AddressTest {
+
+    @Test
+    public void testReadDataResetsHash() throws Exception {
+        final Address address = new Address("10.0.0.1", 5701);
+        final Address other = new Address("10.0.0.22", 5702);
+        final int hash = address.hashCode();
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        other.writeData(new DataOutputStream(bos));
+        address.readData(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+        assertEquals(other, address);
+        assertEquals(other.hashCode(), address.hashCode());
+        assertEquals(hash, new Address("10.0.0.1", 5701).hashCode());
+    }
+
+    @Test
+    public void testReadObjectResetsHash() throws Exception {
+        final Address address = new Address("10.0.0.1", 5701);
+        final Address other = new Address("10.0.0.22", 5702);
+        address.hashCode();
+        final ByteBuffer buffer = ByteBuffer.allocate(100);
+        other.writeObject(buffer);
+        buffer.flip();
+        address.readObject(buffer);
+        assertEquals(other, address);
+        assertEquals(other.hashCode(), address.hashCode());
+        final ByteBuffer written = ByteBuffer.allocate(100);
+        address.writeObject(written);
+        written.flip();
+        final Address copy = new Address();
+        copy.readObject(written);
+        assertEquals(other, copy);
+        assertEquals(other.hashCode(), copy.hashCode());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class CompressionCodecsTest {
+
+    @Test
+    public void testCodecs() throws Exception {
+        final Random random = new Random(7);
+        final byte[][] inputs = new byte[][]{new byte[0], new byte[13], randomBytes(random, 5000),
+                compressibleBytes(random, 100000), compressibleBytes(random, 20)};
+        for (String name : new String[]{DeflateCodec.NAME, Lz4Codec.NAME}) {
+            final CompressionCodec codec = CompressionCodecs.getCodec(name);
+            assertNotNull(codec);
+            for (byte[] input : inputs) {
+                final byte[] compressed = codec.compress(input);
+                assertArrayEquals(compressed, codec.compress(input));
+                final byte[] padded = new byte[compressed.length + 3];
+                System.arraycopy(compressed, 0, padded, 3, compressed.length);
+                assertTrue(name, Arrays.equals(input, codec.decompress(padded, 3, compressed.length, input.length)));
+            }
+        }
+    }
+
+    @Test
+    public void testCompressData() throws Exception {
+        final Serializer serializer = new Serializer();
+        final String value = new String(compressibleBytes(new Random(3), 10000), "ISO-8859-1");
+        final Data data = serializer.writeObject(value);
+        final CompressionCodec codec = CompressionCodecs.getCodec(Lz4Codec.NAME);
+        assertSame(data, CompressionCodecs.compress(data, codec, data.size() + 1));
+        final Data compressed = CompressionCodecs.compress(data, codec, 100);
+        assertTrue(CompressionCodecs.isCompressed(compressed));
+        assertTrue(compressed.size() < data.size());
+        assertSame(compressed, CompressionCodecs.compress(compressed, codec, 100));
+        assertEquals(data.hashCode(), CompressionCodecs.hashCode(compressed));
+        assertEquals(data, CompressionCodecs.decompress(compressed));
+        assertEquals(value, serializer.readObject(compressed));
+        final Data random = serializer.writeObject(randomBytes(new Random(5), 1000));
+        assertSame(random, CompressionCodecs.compress(random, codec, 100));
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        final byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] compressibleBytes(Random random, int length) {
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) ('a' + random.nextInt(4) + ((i / 64) % 3));
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.*;
+import com.hazelcast.impl.GroupProperties;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.impl.TestUtil.getNode;
+import static org.junit.Assert.*;
+
+/**
+ * Two members with two data lanes, a bulk lane (2) and an event lane (3).
+ */
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class ConnectionLanesTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    private static Config newConfig() {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_CONNECTION_DATA_LANE_COUNT, "2");
+        config.setProperty(GroupProperties.PROP_CONNECTION_BULK_LANE_ENABLED, "true");
+        config.setProperty(GroupProperties.PROP_CONNECTION_EVENT_LANE_ENABLED, "true");
+        return config;
+    }
+
+    private static Set<Integer> getLanes(HazelcastInstance h, HazelcastInstance target) {
+        final Set<Integer> lanes = new HashSet<Integer>();
+        for (Connection connection : getNode(h).connectionManager.getLaneConnections(getNode(target).getThisAddress())) {
+            if (connection.live()) {
+                lanes.add(connection.getLane());
+            }
+        }
+        return lanes;
+    }
+
+    private static void fill(IMap<Integer, Integer> map, int keyCount, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            for (int key = 0; key < keyCount; key++) {
+                map.put(key, i);
+            }
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testDataBackupsAndEventsAreRoutedInOrder() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        final ConcurrentMap<Integer, List<Integer>> events = new ConcurrentHashMap<Integer, List<Integer>>();
+        final AtomicInteger eventCount = new AtomicInteger();
+        h1.<Integer, Integer>getMap("lanes").addEntryListener(new EntryAdapter<Integer, Integer>() {
+            public void entryAdded(EntryEvent<Integer, Integer> event) {
+                entryUpdated(event);
+            }
+
+            public void entryUpdated(EntryEvent<Integer, Integer> event) {
+                List<Integer> values = events.get(event.getKey());
+                if (values == null) {
+                    values = new CopyOnWriteArrayList<Integer>();
+                    final List<Integer> valuesOld = events.putIfAbsent(event.getKey(), values);
+                    if (valuesOld != null) {
+                        values = valuesOld;
+                    }
+                }
+                values.add(event.getValue());
+                eventCount.incrementAndGet();
+            }
+        }, true);
+        fill(h2.<Integer, Integer>getMap("lanes"), 100, 10);
+        for (int i = 0; i < 100 && eventCount.get() < 1000; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(1000, eventCount.get());
+        for (int key = 0; key < 100; key++) {
+            assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), events.get(key));
+        }
+        assertEquals(new HashSet<Integer>(Arrays.asList(1, 2, 3)), getLanes(h2, h1));
+        // the backups of the keys owned by the second member were received in order
+        h2.getLifecycleService().kill();
+        IMap<Integer, Integer> map = h1.getMap("lanes");
+        assertEquals(100, map.size());
+        for (int key = 0; key < 100; key++) {
+            assertEquals(Integer.valueOf(9), map.get(key));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testLostLaneIsHandledAsLostPrimary() throws Exception {
+        final HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        final HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        final IMap<Integer, Integer> map = h1.getMap("lanes");
+        fill(map, 100, 1);
+        final ConnectionManager connectionManager = getNode(h1).connectionManager;
+        final Address address = getNode(h2).getThisAddress();
+        final Connection primary = connectionManager.getConnection(address);
+        final Collection<Connection> lanes = connectionManager.getLaneConnections(address);
+        assertFalse(lanes.isEmpty());
+        // a lane is lost while puts and their backups are in flight
+        final AtomicInteger failures = new AtomicInteger();
+        final Thread[] threads = new Thread[10];
+        for (int i = 0; i < threads.length; i++) {
+            final int firstKey = i * 10;
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        for (int round = 0; round < 200; round++) {
+                            for (int key = firstKey; key < firstKey + 10; key++) {
+                                map.put(key, round);
+                            }
+                        }
+                    } catch (Throwable t) {
+                        t.printStackTrace();
+                        failures.incrementAndGet();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        Thread.sleep(200);
+        lanes.iterator().next().close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, failures.get());
+        assertFalse(primary.live());
+        for (Connection connection : lanes) {
+            assertFalse(connection.live());
+        }
+        assertEquals(2, h1.getCluster().getMembers().size());
+        assertEquals(2, h2.getCluster().getMembers().size());
+        final Connection reconnected = connectionManager.getConnection(address);
+        assertNotNull(reconnected);
+        assertTrue(reconnected.live());
+        for (int key = 0; key < 100; key++) {
+            assertEquals(Integer.valueOf(199), h2.getMap("lanes").get(key));
+        }
+        // the backups of the keys owned by the second member are up to date
+        h2.getLifecycleService().kill();
+        assertEquals(100, map.size());
+        for (int key = 0; key < 100; key++) {
+            assertEquals(Integer.valueOf(199), map.get(key));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testClosingPrimaryClosesLanes() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        fill(h1.<Integer, Integer>getMap("lanes"), 100, 1);
+        final ConnectionManager connectionManager = getNode(h1).connectionManager;
+        final Address address = getNode(h2).getThisAddress();
+        final Collection<Connection> lanes = connectionManager.getLaneConnections(address);
+        assertFalse(lanes.isEmpty());
+        connectionManager.getConnection(address).close();
+        for (Connection connection : lanes) {
+            assertFalse(connection.live());
+        }
+    }
+}
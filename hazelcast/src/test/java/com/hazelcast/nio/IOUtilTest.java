@@ -140,4 +140,25 @@ public class IOUtilTest {
         }
     }
 
+    @Test
+    public void shouldCopyHeapBufferToDirectBuffer() throws Exception {
+        //given
+        final byte[] bytes = new byte[NON_EMPTY_BYTE_ARRAY.length];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        final ByteBuffer src = ByteBuffer.wrap(bytes);
+        final ByteBuffer dest = ByteBuffer.allocateDirect(bytes.length - SIZE);
+
+        //when
+        final int copied = IOUtil.copyToHeapBuffer(src, dest);
+
+        //then
+        assertEquals(bytes.length - SIZE, copied);
+        assertEquals(SIZE, src.remaining());
+        dest.flip();
+        for (int i = 0; i < copied; i++) {
+            assertEquals(bytes[i], dest.get());
+        }
+    }
 }
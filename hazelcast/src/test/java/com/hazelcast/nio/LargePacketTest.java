@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.impl.GroupProperties;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Packets larger than the socket buffers are written with gathering writes
+ * and their values are read straight from the channel.
+ */
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class LargePacketTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    private static byte[] newValue(int size, int seed) {
+        byte[] value = new byte[size];
+        for (int i = 0; i < size; i++) {
+            value[i] = (byte) (i * 31 + seed);
+        }
+        return value;
+    }
+
+    @Test
+    public void testLargeAndSmallValuesInterleaved() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, byte[]> m1 = h1.getMap("default");
+        IMap<Integer, byte[]> m2 = h2.getMap("default");
+        final int[] sizes = {10, 100 * 1024, 100, 1024 * 1024, 32 * 1024, 32 * 1024 + 1, 500 * 1024};
+        for (int i = 0; i < 50; i++) {
+            m1.put(i, newValue(sizes[i % sizes.length], i));
+        }
+        for (int i = 0; i < 50; i++) {
+            byte[] expected = newValue(sizes[i % sizes.length], i);
+            assertTrue(Arrays.equals(expected, m2.get(i)));
+            assertTrue(Arrays.equals(expected, m1.get(i)));
+        }
+        assertEquals(50, m2.size());
+    }
+}
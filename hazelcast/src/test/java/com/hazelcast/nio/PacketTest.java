@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.nio;
+
+import com.hazelcast.impl.ClusterOperation;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class PacketTest {
+
+    private static Packet readInto(Packet packet, String name) {
+        final Packet sent = new Packet();
+        sent.name = name;
+        sent.operation = ClusterOperation.CONCURRENT_MAP_GET;
+        sent.onEnqueue();
+        final ByteBuffer bb = ByteBuffer.allocate(1024);
+        assertTrue(sent.writeToSocketBuffer(bb));
+        bb.flip();
+        packet.reset();
+        assertTrue(packet.read(bb));
+        packet.flipBuffers();
+        packet.read();
+        return packet;
+    }
+
+    @Test
+    public void testNamesOfConsecutivePackets() {
+        final Packet packet = new Packet();
+        assertEquals("c:map1", readInto(packet, "c:map1").name);
+        final String name = packet.name;
+        assertSame(name, readInto(packet, "c:map1").name);
+        assertEquals("c:map2", readInto(packet, "c:map2").name);
+        assertEquals("c:map22", readInto(packet, "c:map22").name);
+        assertNull(readInto(packet, null).name);
+        assertEquals("c:map2", readInto(packet, "c:map2").name);
+        assertEquals("c:map1", readInto(packet, "c:map1").name);
+    }
+}
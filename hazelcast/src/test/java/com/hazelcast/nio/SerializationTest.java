@@ -129,6 +129,37 @@ public class SerializationTest {
         assertFalse(object.writeExternal);
     }
 
+    @Test
+    public void newSerializerIndexedDataSerializable() {
+        final Serializer serializer = new Serializer();
+        final IndexedDataSerializableImpl o = new IndexedDataSerializableImpl();
+        o.s = "Gallaxy";
+        o.v = 42;
+        final Data data = serializer.writeObject(o);
+        assertTrue(IndexedFields.isIndexed(data));
+        assertEquals(42, IndexedFields.readField(data, "v"));
+        assertEquals("Gallaxy", IndexedFields.readField(data, "s"));
+        assertEquals(42L, IndexedFields.readField(data, "l"));
+        assertEquals(true, IndexedFields.readField(data, "b"));
+        assertNull(IndexedFields.readField(data, "n"));
+        assertSame(IndexedFields.NOT_FOUND, IndexedFields.readField(data, "x"));
+        final IndexedDataSerializableImpl object = (IndexedDataSerializableImpl) serializer.readObject(data);
+        assertNotSame(o, object);
+        assertEquals(o, object);
+        assertTrue(object.readExternal);
+    }
+
+    @Test
+    public void readFieldOfNotIndexedValue() {
+        final Serializer serializer = new Serializer();
+        final DataSerializableImpl o = new DataSerializableImpl();
+        o.s = "Gallaxy";
+        final Data data = serializer.writeObject(o);
+        assertFalse(IndexedFields.isIndexed(data));
+        assertSame(IndexedFields.NOT_FOUND, IndexedFields.readField(data, "s"));
+        assertSame(IndexedFields.NOT_FOUND, IndexedFields.readField(serializer.writeObject("s"), "s"));
+    }
+
     @Test
     public void newSerializerProxyKey() {
         final Serializer serializer = new Serializer();
@@ -151,6 +182,80 @@ public class SerializationTest {
         assertArrayEquals(value, value2);
     }
 
+    @Test
+    public void newSerializerIdentifiedDataSerializable() throws Exception {
+        DataSerializableFactories.register(IdentifiedDataSerializableImpl.FACTORY_ID, new IdentifiedFactory());
+        try {
+            final Serializer serializer = new Serializer();
+            final IdentifiedDataSerializableImpl o = new IdentifiedDataSerializableImpl();
+            o.v = 42;
+            o.s = "Gallaxy";
+            final Data data = serializer.writeObject(o);
+            assertEquals(DataSerializableFactories.SERIALIZER_TYPE_IDENTIFIED_DATA, data.buffer[0]);
+            final DataSerializableImpl named = new DataSerializableImpl();
+            named.v = o.v;
+            named.s = o.s;
+            assertTrue(data.size() * 2 <= serializer.writeObject(named).size());
+            final IdentifiedDataSerializableImpl object = (IdentifiedDataSerializableImpl) serializer.readObject(data);
+            assertNotSame(o, object);
+            assertEquals(o, object);
+            assertTrue(object.readExternal);
+            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            SerializationHelper.writeObject(new DataOutputStream(bos), o);
+            final Object read = SerializationHelper.readObject(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+            assertEquals(o, read);
+        } finally {
+            DataSerializableFactories.deregister(IdentifiedDataSerializableImpl.FACTORY_ID);
+        }
+    }
+
+    @Test
+    public void readIdentifiedDataSerializableOfUnknownFactory() {
+        final Serializer serializer = new Serializer();
+        final Data data = serializer.writeObject(new IdentifiedDataSerializableImpl());
+        try {
+            serializer.readObject(data);
+            fail("Unknown factory must not be read!");
+        } catch (HazelcastSerializationException expected) {
+        }
+    }
+
+    @Test
+    public void globalSerializer() {
+        final NotSerializable o = new NotSerializable();
+        o.v = 7;
+        try {
+            new Serializer().writeObject(o);
+            fail("Object must not be serializable without a global serializer!");
+        } catch (HazelcastSerializationException expected) {
+        }
+        DefaultSerializer.setGlobalSerializer(new GlobalSerializer());
+        try {
+            final Serializer serializer = new Serializer();
+            final Data data = serializer.writeObject(o);
+            assertEquals(GlobalSerializer.TYPE_ID, data.buffer[1]);
+            assertEquals(7, ((NotSerializable) serializer.readObject(data)).v);
+            assertEquals("s", serializer.readObject(serializer.writeObject("s")));
+            assertEquals(new Date(5), serializer.readObject(serializer.writeObject(new Date(5))));
+        } finally {
+            DefaultSerializer.setGlobalSerializer(null);
+        }
+        try {
+            new Serializer().writeObject(o);
+            fail("Object must not be serializable after the global serializer is removed!");
+        } catch (HazelcastSerializationException expected) {
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void registerSerializerWithTakenTypeId() {
+        DefaultSerializer.registerSerializer(new GlobalSerializer() {
+            public byte getTypeId() {
+                return 5;
+            }
+        });
+    }
+
     private static class ExternalizableImpl implements Externalizable {
         private int v;
         private String s;
@@ -188,11 +293,11 @@ public class SerializationTest {
     }
 
     private static class DataSerializableImpl implements DataSerializable {
-        private int v;
-        private String s;
+        int v;
+        String s;
 
-        private boolean readExternal = false;
-        private boolean writeExternal = false;
+        boolean readExternal = false;
+        boolean writeExternal = false;
 
         @Override
         public boolean equals(Object obj) {
@@ -221,4 +326,64 @@ public class SerializationTest {
             writeExternal = true;
         }
     }
+
+    private static class IndexedDataSerializableImpl extends DataSerializableImpl implements IndexedDataSerializable {
+
+        public void writeIndexedFields(IndexedFieldWriter writer) throws IOException {
+            writer.writeInt("v", v);
+            writer.writeUTF("s", s);
+            writer.writeLong("l", v);
+            writer.writeBoolean("b", true);
+            writer.writeUTF("n", null);
+        }
+    }
+
+    private static class IdentifiedDataSerializableImpl extends DataSerializableImpl implements IdentifiedDataSerializable {
+        static final int FACTORY_ID = 1001;
+        static final int ID = 1;
+
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        public int getId() {
+            return ID;
+        }
+    }
+
+    private static class IdentifiedFactory implements DataSerializableFactory {
+        public IdentifiedDataSerializable create(int id) {
+            return (id == IdentifiedDataSerializableImpl.ID) ? new IdentifiedDataSerializableImpl() : null;
+        }
+    }
+
+    private static class NotSerializable {
+        int v;
+    }
+
+    private static class GlobalSerializer implements TypeSerializer<NotSerializable> {
+        static final byte TYPE_ID = 100;
+
+        public int priority() {
+            return 0;
+        }
+
+        public boolean isSuitable(Object obj) {
+            return obj instanceof NotSerializable;
+        }
+
+        public byte getTypeId() {
+            return TYPE_ID;
+        }
+
+        public void write(FastByteArrayOutputStream bbos, NotSerializable obj) throws Exception {
+            bbos.writeInt(obj.v);
+        }
+
+        public NotSerializable read(FastByteArrayInputStream bbis) throws Exception {
+            final NotSerializable o = new NotSerializable();
+            o.v = bbis.readInt();
+            return o;
+        }
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.impl.GroupProperties;
+import com.hazelcast.impl.TestUtil.Employee;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class AggregationTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    private static IMap<Integer, Employee> fillEmployees(HazelcastInstance h) {
+        IMap<Integer, Employee> map = h.getMap("employees");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, new Employee(i, "name" + i, "city" + (i % 5), i % 50, i % 2 == 0, i));
+        }
+        return map;
+    }
+
+    @Test
+    public void testAggregators() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        fillEmployees(h1);
+        IMap<Integer, Employee> map = h2.getMap("employees");
+        assertEquals(Long.valueOf(1000), map.aggregate(Aggregators.<Integer, Employee>count()));
+        assertEquals(Long.valueOf(500), map.aggregate(Aggregators.<Integer, Employee>count(), new SqlPredicate("active")));
+        assertEquals(Long.valueOf(20 * (49 * 50 / 2)), map.aggregate(Aggregators.<Integer, Employee>sum("age")));
+        assertEquals(999 * 1000 / 2, map.aggregate(Aggregators.<Integer, Employee>sum("salary")).doubleValue(), 0);
+        assertEquals(24.5, map.aggregate(Aggregators.<Integer, Employee>avg("age")), 0.0001);
+        assertEquals(0, map.aggregate(Aggregators.<Integer, Employee>min("age")));
+        assertEquals(999.0, map.aggregate(Aggregators.<Integer, Employee>max("salary")));
+        assertEquals(10, map.aggregate(Aggregators.<Integer, Employee>min("age"), new SqlPredicate("age >= 10")));
+        Map<Object, Long> countByCity = map.aggregate(Aggregators.groupBy("city", Aggregators.<Integer, Employee>count()));
+        assertEquals(5, countByCity.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Long.valueOf(200), countByCity.get("city" + i));
+        }
+    }
+
+    @Test
+    public void testAggregateWithIndex() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Employee> map = h1.getMap("employees");
+        map.addIndex("age", true);
+        map.addIndex("active", false);
+        fillEmployees(h1);
+        assertEquals(Long.valueOf(200), map.aggregate(Aggregators.<Integer, Employee>count(), new SqlPredicate("age < 10")));
+        assertEquals(Long.valueOf(100), map.aggregate(Aggregators.<Integer, Employee>count(),
+                new SqlPredicate("active and age < 10")));
+        assertEquals(Long.valueOf(20 * (9 * 10 / 2)), map.aggregate(Aggregators.<Integer, Employee>sum("age"),
+                new SqlPredicate("age < 10")));
+    }
+
+    @Test
+    public void testAggregateEmptyMap() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Employee> map = h1.getMap("employees");
+        assertEquals(Long.valueOf(0), map.aggregate(Aggregators.<Integer, Employee>count()));
+        assertNull(map.aggregate(Aggregators.<Integer, Employee>avg("age")));
+        assertNull(map.aggregate(Aggregators.<Integer, Employee>max("age")));
+        assertTrue(map.aggregate(Aggregators.groupBy("city", Aggregators.<Integer, Employee>count())).isEmpty());
+    }
+
+    @Test
+    public void testSumDoesNotTruncateOrOverflow() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Object> map = h1.getMap("numbers");
+        map.put(1, Long.MAX_VALUE);
+        map.put(2, Long.MAX_VALUE);
+        final BigInteger twiceMax = BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(2));
+        assertEquals(twiceMax, map.aggregate(Aggregators.<Integer, Object>sum(null)));
+        map.put(3, new BigInteger("100000000000000000000"));
+        assertEquals(twiceMax.add(new BigInteger("100000000000000000000")),
+                map.aggregate(Aggregators.<Integer, Object>sum(null)));
+        map.clear();
+        map.put(1, new BigDecimal("1.25"));
+        map.put(2, new BigDecimal("2.50"));
+        map.put(3, 3);
+        final BigDecimal decimalSum = (BigDecimal) map.aggregate(Aggregators.<Integer, Object>sum(null));
+        assertEquals(0, new BigDecimal("6.75").compareTo(decimalSum));
+        map.put(4, 0.5d);
+        assertEquals(7.25, map.aggregate(Aggregators.<Integer, Object>sum(null)).doubleValue(), 0);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.impl.GroupProperties;
+import com.hazelcast.impl.TestUtil.Employee;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class ContinuousQueryCacheTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    private static void assertSizeEventually(int expected, ContinuousQueryCache cache) throws InterruptedException {
+        for (int i = 0; i < 100 && cache.size() != expected; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(expected, cache.size());
+    }
+
+    @Test
+    public void testInitialAndIncrementalUpdates() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Employee> map = h1.getMap("employees");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, new Employee(i, "name" + i, "city" + (i % 5), i % 50, i % 2 == 0, i));
+        }
+        ContinuousQueryCache<Integer, Employee> cache =
+                new ContinuousQueryCache<Integer, Employee>(h2.<Integer, Employee>getMap("employees"), new SqlPredicate("active"));
+        assertEquals(50, cache.size());
+        assertTrue(cache.containsKey(2));
+        assertNull(cache.get(3));
+        map.put(3, new Employee(3, "name3", "city3", 3, true, 3));
+        map.put(2, new Employee(2, "name2", "city2", 2, false, 2));
+        map.remove(4);
+        map.put(1000, new Employee(1000, "name1000", "city0", 0, true, 1000));
+        assertSizeEventually(50, cache);
+        for (int i = 0; i < 100 && cache.containsKey(2); i++) {
+            Thread.sleep(50);
+        }
+        assertFalse(cache.containsKey(2));
+        assertTrue(cache.containsKey(3));
+        assertFalse(cache.containsKey(4));
+        assertTrue(cache.containsKey(1000));
+        cache.destroy();
+        assertEquals(0, cache.size());
+        map.put(5, new Employee(5, "name5", "city0", 5, true, 5));
+        Thread.sleep(500);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEntriesLeaveAndReenterTheView() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Employee> map = h1.getMap("employees");
+        for (int i = 0; i < 20; i++) {
+            map.put(i, new Employee(i, "name" + i, "city0", 10, true, i));
+        }
+        ContinuousQueryCache<Integer, Employee> cache =
+                new ContinuousQueryCache<Integer, Employee>(h2.<Integer, Employee>getMap("employees"), new SqlPredicate("age < 20"));
+        assertEquals(20, cache.size());
+        for (int i = 0; i < 20; i++) {
+            map.put(i, new Employee(i, "name" + i, "city0", 30, true, i));
+        }
+        assertSizeEventually(0, cache);
+        for (int i = 0; i < 20; i++) {
+            map.put(i, new Employee(i, "name" + i, "city0", 40, true, i));
+        }
+        for (int i = 0; i < 10; i++) {
+            map.put(i, new Employee(i, "name" + i, "city0", 15, true, i));
+        }
+        assertSizeEventually(10, cache);
+        assertEquals(15, cache.get(9).getAge());
+        assertNull(cache.get(10));
+        cache.destroy();
+    }
+
+    @Test
+    public void testQueryWithIndex() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Employee> map = h1.getMap("employees");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, new Employee(i, "name" + i, "city" + (i % 5), i % 50, i % 2 == 0, i));
+        }
+        ContinuousQueryCache<Integer, Employee> cache =
+                new ContinuousQueryCache<Integer, Employee>(map, new SqlPredicate("age < 25"));
+        assertEquals(50, cache.size());
+        assertEquals(10, cache.values(new SqlPredicate("city = 'city1'")).size());
+        cache.addIndex("city");
+        cache.addIndex("age");
+        assertEquals(10, cache.values(new SqlPredicate("city = 'city1'")).size());
+        assertEquals(2, cache.keySet(new SqlPredicate("city = 'city1' and age = 11")).size());
+        assertEquals(0, cache.keySet(new SqlPredicate("city = 'city7'")).size());
+        assertEquals(8, cache.entrySet(new SqlPredicate("city = 'city1' and age != 11")).size());
+        map.put(1, new Employee(1, "name1", "city2", 1, false, 1));
+        for (int i = 0; i < 100 && cache.values(new SqlPredicate("city = 'city1'")).size() != 9; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(9, cache.values(new SqlPredicate("city = 'city1'")).size());
+        assertEquals(11, cache.values(new SqlPredicate("city = 'city2'")).size());
+        cache.refresh();
+        assertEquals(50, cache.size());
+        assertEquals(9, cache.values(new SqlPredicate("city = 'city1'")).size());
+        cache.destroy();
+    }
+}
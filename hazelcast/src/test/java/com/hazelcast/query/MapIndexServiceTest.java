@@ -66,7 +66,8 @@ public class MapIndexServiceTest extends TestUtil {
         for (int i = 0; i < 20000; i++) {
             Employee employee = new Employee(i + "Name", i % 80, (i % 2 == 0), 100 + (i % 1000));
             Record record = newRecord(cmap, i, "key" + i, employee);
-            record.setIndexes(mapIndexService.getIndexValues(employee), mapIndexService.getIndexTypes());
+            record.setIndexes(mapIndexService.getIndexValues(employee), mapIndexService.getIndexTypes(),
+                    mapIndexService.getIndexData(employee));
             mapIndexService.index(record);
         }
         int count = 1000;
@@ -109,7 +110,8 @@ public class MapIndexServiceTest extends TestUtil {
         for (int i = 0; i < 20000; i++) {
             Employee employee = new Employee(i + "Name", i % 80, (i % 2 == 0), 100 + (i % 1000));
             Record record = newRecord(cmap, i, "key" + i, employee);
-            record.setIndexes(mapIndexService.getIndexValues(employee), mapIndexService.getIndexTypes());
+            record.setIndexes(mapIndexService.getIndexValues(employee), mapIndexService.getIndexTypes(),
+                    mapIndexService.getIndexData(employee));
             mapIndexService.index(record);
         }
         long total = Runtime.getRuntime().totalMemory();
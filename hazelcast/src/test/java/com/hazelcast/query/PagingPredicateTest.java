@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.impl.GroupProperties;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class PagingPredicateTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    static class DescendingComparator implements Comparator<Map.Entry>, Serializable {
+        public int compare(Map.Entry e1, Map.Entry e2) {
+            return ((Integer) e2.getValue()).compareTo((Integer) e1.getValue());
+        }
+    }
+
+    private static IMap<Integer, Integer> fillMap() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map = h1.getMap("default");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        return map;
+    }
+
+    private static List<Integer> expected(int from, int to) {
+        List<Integer> values = new ArrayList<Integer>();
+        for (int i = from; i < to; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    @Test
+    public void testPages() {
+        IMap<Integer, Integer> map = fillMap();
+        PagingPredicate pagingPredicate = new PagingPredicate(new SqlPredicate("this >= 100"), 60);
+        for (int page = 0; page < 15; page++) {
+            assertEquals(expected(100 + page * 60, Math.min(1000, 100 + (page + 1) * 60)),
+                    new ArrayList<Integer>(map.values(pagingPredicate)));
+            pagingPredicate.nextPage();
+        }
+        assertTrue(map.values(pagingPredicate).isEmpty());
+        pagingPredicate.setPage(3);
+        assertEquals(expected(280, 340), new ArrayList<Integer>(map.values(pagingPredicate)));
+        pagingPredicate.previousPage();
+        assertEquals(expected(220, 280), new ArrayList<Integer>(map.keySet(pagingPredicate)));
+    }
+
+    @Test
+    public void testPageWithoutAnchor() {
+        IMap<Integer, Integer> map = fillMap();
+        PagingPredicate pagingPredicate = new PagingPredicate(50);
+        pagingPredicate.setPage(7);
+        assertEquals(expected(350, 400), new ArrayList<Integer>(map.values(pagingPredicate)));
+        pagingPredicate.nextPage();
+        assertEquals(expected(400, 450), new ArrayList<Integer>(map.values(pagingPredicate)));
+    }
+
+    @Test
+    public void testComparator() {
+        IMap<Integer, Integer> map = fillMap();
+        PagingPredicate pagingPredicate = new PagingPredicate(new DescendingComparator(), 10);
+        pagingPredicate.nextPage();
+        List<Integer> values = new ArrayList<Integer>();
+        for (Map.Entry<Integer, Integer> entry : map.entrySet(pagingPredicate)) {
+            values.add(entry.getValue());
+        }
+        List<Integer> expected = expected(980, 990);
+        Collections.reverse(expected);
+        assertEquals(expected, values);
+    }
+
+    @Test
+    public void testEqualValues() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map = h1.getMap("default");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i % 3);
+        }
+        PagingPredicate pagingPredicate = new PagingPredicate(7);
+        Set<Integer> keys = new HashSet<Integer>();
+        int previous = 0;
+        Collection<Integer> page;
+        while (!(page = map.keySet(pagingPredicate)).isEmpty()) {
+            for (Integer key : page) {
+                assertTrue(keys.add(key));
+                assertTrue(key % 3 >= previous);
+                previous = key % 3;
+            }
+            pagingPredicate.nextPage();
+        }
+        assertEquals(100, keys.size());
+    }
+}
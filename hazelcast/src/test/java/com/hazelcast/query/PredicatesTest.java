@@ -18,6 +18,7 @@ package com.hazelcast.query;
 
 import com.hazelcast.core.MapEntry;
 import com.hazelcast.impl.TestUtil;
+import com.hazelcast.nio.IOUtil;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -130,6 +131,29 @@ public class PredicatesTest {
         assertTrue(e.get("id").equal(12).apply(createEntry("1", value)));
     }
 
+    @Test
+    public void testIsThreadSafe() {
+        final Predicate userPredicate = new Predicate() {
+            public boolean apply(MapEntry mapEntry) {
+                return true;
+            }
+        };
+        final Predicate userSubclass = new Predicates.EqualPredicate(Predicates.get("age"), 30) {
+        };
+        assertTrue(Predicates.isThreadSafe(new SqlPredicate("active and age > 30 or name like 'a%'")));
+        assertTrue(Predicates.isThreadSafe(new PredicateBuilder().getEntryObject().get("age").greaterEqual(29)));
+        assertTrue(Predicates.isThreadSafe(Predicates.not(Predicates.equal(Predicates.get("age"), 30))));
+        assertFalse(Predicates.isThreadSafe(userPredicate));
+        assertFalse(Predicates.isThreadSafe(userSubclass));
+        assertFalse(Predicates.isThreadSafe(Predicates.and(Predicates.equal(Predicates.get("age"), 30), userPredicate)));
+        assertFalse(Predicates.isThreadSafe(Predicates.not(userSubclass)));
+        assertFalse(Predicates.isThreadSafe(Predicates.equal(new Expression() {
+            public Object getValue(Object obj) {
+                return obj;
+            }
+        }, 30)));
+    }
+
     @Test
     public void testSqlPredicate() {
         assertEquals("name IN (name0,name2)", sql("name in ('name0', 'name2')"));
@@ -166,6 +190,55 @@ public class PredicatesTest {
         assertEquals("(age<=10 AND (active=true OR NOT(age BETWEEN 10 AND 15)))", sql("age<=10 AND (active or (age not between 10 and 15))"));
     }
 
+    @Test
+    public void testSqlPredicateWithParameters() {
+        TestUtil.Employee employee = new QueryTest.Employee("abc", 34, true, 10D);
+        assertEquals("(active=true AND age>30)", new SqlPredicate("active and age > ?", 30).toString());
+        assertTrue(new SqlPredicate("active and age > ?", 30).apply(createEntry("1", employee)));
+        assertFalse(new SqlPredicate("active and age > ?", 34).apply(createEntry("1", employee)));
+        assertTrue(new SqlPredicate("name = ? and age between ? and ?", "abc", 30, 40).apply(createEntry("1", employee)));
+        assertTrue(new SqlPredicate("name = '?' or age in (?, ?)", 33, 34).apply(createEntry("1", employee)));
+        assertFalse(new SqlPredicate("name != ?", "abc").apply(createEntry("1", employee)));
+        assertTrue(new SqlPredicate("name != ?", (Object) null).apply(createEntry("1", employee)));
+        final SqlPredicate predicate = new SqlPredicate("name like ? and age < ?", "a%", 35);
+        final SqlPredicate readPredicate = (SqlPredicate) IOUtil.toObject(IOUtil.toData(predicate));
+        assertEquals(predicate.toString(), readPredicate.toString());
+        assertTrue(readPredicate.apply(createEntry("1", employee)));
+    }
+
+    @Test
+    public void testSqlPredicatePlanIsNotShared() {
+        assertNotSame(new SqlPredicate("active and age > 30").getPredicate(),
+                new SqlPredicate("active and age > 30").getPredicate());
+        assertNotSame(new SqlPredicate("active and age > ?", 30).getPredicate(),
+                new SqlPredicate("active and age > ?", 30).getPredicate());
+        // the values are converted to the attribute type of the entries each predicate is applied to
+        assertTrue(new SqlPredicate("this = 30").apply(createEntry("1", 30)));
+        assertTrue(new SqlPredicate("this = 30").apply(createEntry("1", 30L)));
+        assertTrue(new SqlPredicate("this between 20 and 40").apply(createEntry("1", 30)));
+        assertTrue(new SqlPredicate("this between 20 and 40").apply(createEntry("1", 30D)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSqlPredicateMissingParameter() {
+        new SqlPredicate("active and age > ? and age < ?", 30);
+    }
+
+    @Test
+    public void testSharedGetters() {
+        TestUtil.Employee employee = new QueryTest.Employee("abc", 34, true, 10D);
+        Predicates.GetExpressionImpl first = (Predicates.GetExpressionImpl) Predicates.get("name");
+        Predicates.GetExpressionImpl second = (Predicates.GetExpressionImpl) Predicates.get("name");
+        assertEquals("abc", first.getValue(employee));
+        assertEquals("abc", second.getValue(createEntry("1", employee)));
+        assertSame(first.getter, second.getter);
+        // same attribute of another class
+        assertEquals("xyz", first.getValue(new TestUtil.Value("xyz", 3)));
+        assertNotSame(second.getter, first.getter);
+        assertEquals("def", first.getValue(new QueryTest.Employee("def", 35, true, 10D)));
+        assertSame(second.getter, first.getter);
+    }
+
     @Test(expected = RuntimeException.class)
     public void testInvalidSqlPredicate1() {
         new SqlPredicate("invalid sql");
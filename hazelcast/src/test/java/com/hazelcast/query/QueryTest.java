@@ -19,6 +19,7 @@ package com.hazelcast.query;
 import com.hazelcast.config.Config;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.core.CloseableIterator;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
@@ -26,12 +27,21 @@ import com.hazelcast.impl.CMap;
 import com.hazelcast.impl.GroupProperties;
 import com.hazelcast.impl.NodeType;
 import com.hazelcast.impl.TestUtil;
+import com.hazelcast.monitor.LocalMapStats;
+import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.nio.IndexedDataSerializable;
+import com.hazelcast.nio.IndexedFieldWriter;
 import com.hazelcast.util.Clock;
 import org.junit.After;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.CountDownLatch;
@@ -957,6 +967,344 @@ public class QueryTest extends TestUtil {
         assertEquals(2, map.values(new PredicateBuilder().getEntryObject().get("index").notEqual(2)).size());
     }
 
+    @Test
+    public void testPredicateStringAttributesWithSortedIndex() {
+        IMap map = Hazelcast.getMap("testPredicateStringWithStringSortedIndex");
+        map.addIndex("name", true);
+        testPredicateStringAttribute(map);
+    }
+
+    @Test
+    public void testPredicateLikeWithIndex() {
+        IMap map1 = Hazelcast.getMap("testPredicateLikeWithIndex-ordered");
+        IMap map2 = Hazelcast.getMap("testPredicateLikeWithIndex-unordered");
+        testPredicateLikeWithIndex(map1, true);
+        testPredicateLikeWithIndex(map2, false);
+    }
+
+    private void testPredicateLikeWithIndex(final IMap map, boolean ordered) {
+        map.addIndex("name", ordered);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, new Value("name" + i, i));
+        }
+        map.put(100, new Value(null, 100));
+        assertEquals(11, map.values(new SqlPredicate("name like 'name1%'")).size());
+        assertEquals(1, map.values(new SqlPredicate("name like 'name15'")).size());
+        assertEquals(10, map.values(new SqlPredicate("name like 'name1_'")).size());
+        assertEquals(2, map.values(new SqlPredicate("name like 'name1%' and index >= 90 or name like 'name9_' and index < 92")).size());
+        assertEquals(100, map.values(new SqlPredicate("name like '%'")).size());
+        assertEquals(0, map.values(new SqlPredicate("name like 'x%'")).size());
+        assertEquals(100, map.values(new SqlPredicate("name >= 'name'")).size());
+        assertEquals(100, map.values(new SqlPredicate("name != 'name1'")).size());
+    }
+
+    @Test
+    public void testPredicateBigDecimalAttributeWithIndex() {
+        IMap map1 = Hazelcast.getMap("testPredicateBigDecimalWithIndex-ordered");
+        IMap map2 = Hazelcast.getMap("testPredicateBigDecimalWithIndex-unordered");
+        testPredicateBigDecimalAttributeWithIndex(map1, true);
+        testPredicateBigDecimalAttributeWithIndex(map2, false);
+    }
+
+    private void testPredicateBigDecimalAttributeWithIndex(final IMap map, boolean ordered) {
+        map.addIndex("this", ordered);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, new BigDecimal(i).movePointLeft(1));
+        }
+        assertEquals(10, map.values(new PredicateBuilder().getEntryObject().get("this")
+                .lessThan(new BigDecimal("1.0"))).size());
+        assertEquals(11, map.values(new PredicateBuilder().getEntryObject().get("this")
+                .between(new BigDecimal("2.0"), new BigDecimal("3.0"))).size());
+        assertEquals(1, map.values(new PredicateBuilder().getEntryObject().get("this")
+                .equal(new BigDecimal("9.9"))).size());
+    }
+
+    @Test
+    public void testIndexWithValuesOfMixedTypes() {
+        IMap map1 = Hazelcast.getMap("testIndexWithValuesOfMixedTypes-ordered");
+        IMap map2 = Hazelcast.getMap("testIndexWithValuesOfMixedTypes-unordered");
+        testIndexWithValuesOfMixedTypes(map1, true);
+        testIndexWithValuesOfMixedTypes(map2, false);
+    }
+
+    private void testIndexWithValuesOfMixedTypes(final IMap map, boolean ordered) {
+        map.addIndex("this", ordered);
+        map.put(1, 1);
+        map.put(2, 2L);
+        map.put(3, new BigDecimal("3.5"));
+        map.put(4, new BigInteger("4"));
+        map.put(5, 5.0d);
+        // not comparable, indexed by its hash code
+        map.put(6, new ArrayList<Integer>(Arrays.asList(6)));
+        map.put(7, "seven");
+        assertEquals(7, map.size());
+        assertEquals(new HashSet(Arrays.asList(2)),
+                map.keySet(new PredicateBuilder().getEntryObject().get("this").equal(2L)));
+        assertEquals(new HashSet(Arrays.asList(6)),
+                map.keySet(new PredicateBuilder().getEntryObject().get("this").equal(new ArrayList<Integer>(Arrays.asList(6)))));
+        assertEquals(new HashSet(Arrays.asList(7)), map.keySet(new SqlPredicate("this = 'seven'")));
+    }
+
+    @Test
+    public void testCompositeIndex() {
+        IMap map1 = Hazelcast.getMap("testCompositeIndex-ordered");
+        IMap map2 = Hazelcast.getMap("testCompositeIndex-unordered");
+        testCompositeIndex(map1, true);
+        testCompositeIndex(map2, false);
+    }
+
+    private void testCompositeIndex(final IMap map, boolean ordered) {
+        map.addIndex("city, age", ordered);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, new Employee(i, "name" + i, "city" + (i % 5), i % 50, i % 2 == 0, i));
+        }
+        assertEquals(20, map.values(new SqlPredicate("city = 'city1' and age = 11")).size());
+        assertEquals(20, map.values(new SqlPredicate("age = 11 and name like 'name%' and city = 'city1'")).size());
+        assertEquals(0, map.values(new SqlPredicate("city = 'city2' and age = 11")).size());
+        assertEquals(80, map.values(new SqlPredicate("city = 'city1' and age < 20")).size());
+        assertEquals(40, map.values(new SqlPredicate("city = 'city1' and age between 10 and 20")).size());
+        assertEquals(200, map.values(new SqlPredicate("city = 'city1'")).size());
+        assertEquals(20, map.values(new SqlPredicate("active and city = 'city1' and age >= 46")).size());
+        final EntryObject e = new PredicateBuilder().getEntryObject();
+        assertEquals(20, map.values(e.get("city").equal("city1").and(e.get("age").greaterThan(45))).size());
+        assertEquals(220, map.values(new SqlPredicate("city = 'city1' and age = 11 or age < 10")).size());
+    }
+
+    @Test
+    public void testQueryLargeMapWithoutIndex() {
+        IMap map = Hazelcast.getMap("testQueryLargeMapWithoutIndex");
+        Map<Integer, Employee> entries = new HashMap<Integer, Employee>();
+        for (int i = 0; i < 20000; i++) {
+            entries.put(i, new Employee(i, "name" + i, "city" + (i % 5), i % 50, i % 2 == 0, i));
+        }
+        map.putAll(entries);
+        assertEquals(10000, map.values(new SqlPredicate("active")).size());
+        assertEquals(4000, map.keySet(new SqlPredicate("city = 'city1'")).size());
+        assertEquals(1200, map.values(new SqlPredicate("age in (1, 2, 3)")).size());
+        assertEquals(4400, map.entrySet(new SqlPredicate("age between 10 and 20")).size());
+        assertEquals(11111, map.values(new SqlPredicate("name like 'name1%'")).size());
+        assertEquals(11111, map.values(new Predicates.RegexPredicate(Predicates.get("name"), "name1.*")).size());
+        final EntryObject e = new PredicateBuilder().getEntryObject();
+        assertEquals(2000, map.values(e.get("city").equal("city1").and(e.get("active").equal(true))).size());
+    }
+
+    @Test
+    public void testQueryIterators() {
+        HazelcastInstance h1 = newInstance();
+        newInstance();
+        IMap<Integer, Employee> map = h1.getMap("testQueryIterators");
+        map.addIndex("age", true);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, new Employee(i, "name" + i, "city" + (i % 5), i % 50, i % 2 == 0, i));
+        }
+        Set<Integer> keys = new HashSet<Integer>();
+        for (Iterator<Integer> it = map.keyIterator(new SqlPredicate("active"), 7); it.hasNext(); ) {
+            assertTrue(keys.add(it.next()));
+        }
+        assertEquals(500, keys.size());
+        for (Integer key : keys) {
+            assertEquals(0, key % 2);
+        }
+        int entryCount = 0;
+        for (Iterator<Map.Entry<Integer, Employee>> it = map.entryIterator(null, 100); it.hasNext(); ) {
+            Map.Entry<Integer, Employee> entry = it.next();
+            assertEquals(entry.getKey().intValue(), entry.getValue().getSalary(), 0);
+            entryCount++;
+        }
+        assertEquals(1000, entryCount);
+        int valueCount = 0;
+        for (Iterator<Employee> it = map.valueIterator(new SqlPredicate("age < 10"), 30); it.hasNext(); ) {
+            assertTrue(it.next().getAge() < 10);
+            valueCount++;
+        }
+        assertEquals(200, valueCount);
+        CloseableIterator<Integer> it = map.keyIterator(null, 10);
+        for (int i = 0; i < 15; i++) {
+            it.next();
+        }
+        it.close();
+        assertFalse(it.hasNext());
+        assertFalse(map.keyIterator(new SqlPredicate("age > 100"), 10).hasNext());
+    }
+
+    @Test
+    public void testExplainAndIndexStats() {
+        HazelcastInstance h1 = newInstance();
+        newInstance();
+        IMap<Integer, Employee> map = h1.getMap("testExplainAndIndexStats");
+        map.addIndex("age", true);
+        map.addIndex("city", false);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, new Employee(i, "name" + i, "city" + (i % 5), i % 50, i % 2 == 0, i));
+        }
+        ExplainPredicate explain = new ExplainPredicate(new SqlPredicate("city = 'city1' and age < 10"));
+        assertEquals(40, map.keySet(explain).size());
+        List<QueryPlan> plans = explain.getQueryPlans();
+        assertEquals(2, plans.size());
+        int resultCount = 0;
+        for (QueryPlan plan : plans) {
+            assertFalse(plan.isFullScan());
+            assertEquals(2, plan.getIndexes().size());
+            assertTrue(plan.getEstimatedCount() >= plan.getResultCount());
+            assertTrue(plan.getTotalNanos() >= plan.getIndexNanos());
+            resultCount += plan.getResultCount();
+        }
+        assertEquals(40, resultCount);
+        explain = new ExplainPredicate(new SqlPredicate("name = 'name1'"));
+        assertEquals(1, map.values(explain).size());
+        assertEquals(2, explain.getQueryPlans().size());
+        for (QueryPlan plan : explain.getQueryPlans()) {
+            assertTrue(plan.isFullScan());
+            assertTrue(plan.getIndexes().isEmpty());
+        }
+        long indexedQueryCount = 0;
+        long fullScanQueryCount = 0;
+        long cityHits = 0;
+        long ageRangeScans = 0;
+        for (HazelcastInstance h : Hazelcast.getAllHazelcastInstances()) {
+            LocalMapStats stats = h.getMap("testExplainAndIndexStats").getLocalMapStats();
+            indexedQueryCount += stats.getIndexedQueryCount();
+            fullScanQueryCount += stats.getFullScanQueryCount();
+            cityHits += stats.getIndexStats().get("city").getHits();
+            ageRangeScans += stats.getIndexStats().get("age").getRangeScanCount();
+        }
+        assertEquals(2, indexedQueryCount);
+        assertEquals(2, fullScanQueryCount);
+        assertEquals(2, cityHits);
+        assertEquals(2, ageRangeScans);
+    }
+
+    @Test
+    public void testQueryIndexedDataSerializableWithoutDeserialization() {
+        HazelcastInstance h1 = newInstance();
+        newInstance();
+        IMap<Integer, IndexedEmployee> map = h1.getMap("testQueryIndexedDataSerializable");
+        map.addIndex("name", false);
+        for (int i = 0; i < 100; i++) {
+            map.set(i, new IndexedEmployee("name" + i, i, i % 2 == 0), 0, TimeUnit.SECONDS);
+        }
+        IndexedEmployee.deserializations.set(0);
+        assertEquals(50, map.keySet(new SqlPredicate("active")).size());
+        assertEquals(10, map.keySet(new SqlPredicate("age < 10")).size());
+        assertEquals(1, map.keySet(new SqlPredicate("name = 'name1'")).size());
+        map.set(1, new IndexedEmployee("updated", 1, false), 0, TimeUnit.SECONDS);
+        assertEquals(0, map.keySet(new SqlPredicate("name = 'name1'")).size());
+        assertEquals(1, map.keySet(new SqlPredicate("name = 'updated' and age = 1")).size());
+        assertEquals(0, IndexedEmployee.deserializations.get());
+        final Collection<IndexedEmployee> values = map.values(new SqlPredicate("name = 'updated' or age = 2"));
+        assertEquals(2, values.size());
+        for (IndexedEmployee employee : values) {
+            assertTrue(employee.getName().equals("updated") || employee.getAge() == 2);
+        }
+    }
+
+    public static class IndexedEmployee implements IndexedDataSerializable {
+        static final AtomicInteger deserializations = new AtomicInteger();
+
+        String name;
+        int age;
+        boolean active;
+
+        public IndexedEmployee() {
+        }
+
+        public IndexedEmployee(String name, int age, boolean active) {
+            this.name = name;
+            this.age = age;
+            this.active = active;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public void writeIndexedFields(IndexedFieldWriter writer) throws IOException {
+            writer.writeUTF("name", name);
+            writer.writeInt("age", age);
+            writer.writeBoolean("active", active);
+        }
+
+        public void writeData(DataOutput out) throws IOException {
+            out.writeUTF(name);
+            out.writeInt(age);
+            out.writeBoolean(active);
+        }
+
+        public void readData(DataInput in) throws IOException {
+            deserializations.incrementAndGet();
+            name = in.readUTF();
+            age = in.readInt();
+            active = in.readBoolean();
+        }
+    }
+
+    @Test
+    public void testStringIndexDoesNotDeserializeValuesOnOwner() throws Exception {
+        HazelcastInstance h1 = newInstance();
+        IMap<Integer, CountedValue> map = h1.getMap("testStringIndexDoesNotDeserializeValuesOnOwner");
+        map.addIndex("name", true);
+        for (int i = 0; i < 100; i++) {
+            map.set(i, new CountedValue("name" + i), 0, TimeUnit.SECONDS);
+        }
+        final HazelcastInstance h2 = newInstance();
+        Thread.sleep(3000);
+        assertEquals(0, CountedValue.deserializations.get());
+        assertEquals(1, map.keySet(new SqlPredicate("name = 'name42'")).size());
+        assertEquals(10, h2.getMap("testStringIndexDoesNotDeserializeValuesOnOwner")
+                .keySet(new SqlPredicate("name between 'name90' and 'name99'")).size());
+        map.set(42, new CountedValue("updated"), 0, TimeUnit.SECONDS);
+        assertEquals(0, map.keySet(new SqlPredicate("name = 'name42'")).size());
+        assertEquals(1, map.keySet(new SqlPredicate("name = 'updated'")).size());
+    }
+
+    @Test
+    public void testEnumIndexIsOrderedByOrdinal() {
+        IMap map = Hazelcast.getMap("testEnumIndexIsOrderedByOrdinal");
+        map.addIndex("this", true);
+        map.put(1, NodeType.MEMBER);
+        map.put(2, NodeType.LITE_MEMBER);
+        map.put(3, NodeType.JAVA_CLIENT);
+        map.put(4, NodeType.CSHARP_CLIENT);
+        assertEquals(new HashSet(Arrays.asList(3, 4)), map.keySet(new SqlPredicate("this > LITE_MEMBER")));
+        assertEquals(new HashSet(Arrays.asList(1, 2)),
+                map.keySet(new PredicateBuilder().getEntryObject().get("this").lessThan(NodeType.JAVA_CLIENT)));
+        assertEquals(new HashSet(Arrays.asList(2)), map.keySet(new SqlPredicate("this = NodeType.LITE_MEMBER")));
+    }
+
+    public static class CountedValue implements DataSerializable {
+        static final AtomicInteger deserializations = new AtomicInteger();
+
+        String name;
+
+        public CountedValue() {
+        }
+
+        public CountedValue(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void writeData(DataOutput out) throws IOException {
+            out.writeUTF(name);
+        }
+
+        public void readData(DataInput in) throws IOException {
+            deserializations.incrementAndGet();
+            name = in.readUTF();
+        }
+    }
+
     public void doFunctionalSQLQueryTest(IMap imap) {
         imap.put("1", new Employee("joe", 33, false, 14.56));
         imap.put("2", new Employee("ali", 23, true, 15.00));
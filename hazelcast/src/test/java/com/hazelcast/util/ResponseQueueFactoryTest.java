@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class ResponseQueueFactoryTest {
+
+    @Test
+    public void testSingleSlot() throws Exception {
+        BlockingQueue q = ResponseQueueFactory.newResponseQueue();
+        assertTrue(q.offer(1));
+        assertFalse(q.offer(2));
+        assertEquals(1, q.size());
+        assertEquals(1, q.poll());
+        assertNull(q.poll());
+        assertTrue(q.offer(null));
+        assertNull(q.poll(1, TimeUnit.SECONDS));
+        assertEquals(0, q.size());
+    }
+
+    @Test
+    public void testPollTimeout() throws Exception {
+        BlockingQueue q = ResponseQueueFactory.newResponseQueue();
+        long start = System.nanoTime();
+        assertNull(q.poll(100, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void testInterrupted() throws Exception {
+        BlockingQueue q = ResponseQueueFactory.newResponseQueue();
+        Thread.currentThread().interrupt();
+        q.take();
+    }
+
+    @Test
+    public void testHandOff() throws Exception {
+        final BlockingQueue q = ResponseQueueFactory.newResponseQueue();
+        final BlockingQueue back = ResponseQueueFactory.newResponseQueue();
+        final int count = 100000;
+        Thread producer = new Thread() {
+            public void run() {
+                try {
+                    for (int i = 0; i < count; i++) {
+                        while (!q.offer(i)) {
+                            Thread.yield();
+                        }
+                        back.take();
+                    }
+                } catch (InterruptedException ignored) {
+                }
+            }
+        };
+        producer.start();
+        for (int i = 0; i < count; i++) {
+            Object value = (i % 2 == 0) ? q.take() : q.poll(10, TimeUnit.SECONDS);
+            assertEquals(i, value);
+            back.offer(i);
+        }
+        producer.join(10000);
+        assertFalse(producer.isAlive());
+    }
+}